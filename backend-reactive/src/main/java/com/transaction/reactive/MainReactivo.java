@@ -0,0 +1,23 @@
+package com.transaction.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Entry point of the reactive variant of the Transaction Management System.
+ * <p>
+ * Serves the core transaction API on WebFlux (Netty) with R2DBC persistence. Only this package is
+ * component-scanned: the classes compiled from the servlet module's sources (DTOs, rules, error model)
+ * are plain types here, and {@link com.transaction.exception.GlobalExceptionHandler} is not registered.
+ */
+@SpringBootApplication
+public class MainReactivo {
+    /**
+     * Application entry point.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        SpringApplication.run(MainReactivo.class, args);
+    }
+}
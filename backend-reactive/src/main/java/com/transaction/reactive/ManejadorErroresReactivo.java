@@ -0,0 +1,100 @@
+package com.transaction.reactive;
+
+import com.transaction.exception.ErrorResponse;
+import com.transaction.exception.ParametroInvalidoException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exception handler of the reactive API, producing the same statuses and error body as the servlet
+ * module's GlobalExceptionHandler, using the shared {@link ErrorResponse} model.
+ */
+@RestControllerAdvice
+public class ManejadorErroresReactivo {
+
+    /**
+     * Handles validation errors from @Valid request bodies.
+     *
+     * @param ex Validation exception
+     * @return 400 with the invalid fields
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        for (FieldError error : ex.getFieldErrors()) {
+            errors.put(error.getField(), error.getDefaultMessage());
+        }
+        return respuesta(HttpStatus.BAD_REQUEST, "Validation Error", "Los datos proporcionados no son válidos", errors);
+    }
+
+    /**
+     * Handles ParametroInvalidoException (e.g., unsupported sort field or inverted range).
+     *
+     * @param ex Invalid parameter exception
+     * @return 400 with the message
+     */
+    @ExceptionHandler(ParametroInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleParametroInvalidoException(ParametroInvalidoException ex) {
+        return respuesta(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), null);
+    }
+
+    /**
+     * Handles IllegalArgumentException (e.g., transaction not found).
+     *
+     * @param ex Illegal argument exception
+     * @return 404 with the message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return respuesta(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), null);
+    }
+
+    /**
+     * Handles IllegalStateException (e.g., trying to edit a paid transaction).
+     *
+     * @param ex Illegal state exception
+     * @return 409 with the message
+     */
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalStateException(IllegalStateException ex) {
+        return respuesta(HttpStatus.CONFLICT, "Business Rule Violation", ex.getMessage(), null);
+    }
+
+    /**
+     * Handles WebFlux input errors (missing or unconvertible parameters, unreadable body), keeping their status.
+     *
+     * @param ex Response status exception
+     * @return Error with the exception's status
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatusException(ResponseStatusException ex) {
+        HttpStatusCode status = ex.getStatusCode();
+        HttpStatus conocido = HttpStatus.resolve(status.value());
+        return respuesta(status, conocido != null ? conocido.getReasonPhrase() : "Error", ex.getReason(), null);
+    }
+
+    /**
+     * Handles generic exceptions.
+     *
+     * @param ex Generic exception
+     * @return 500 without internal details
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
+        return respuesta(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", "Ha ocurrido un error interno en el servidor", null);
+    }
+
+    private static ResponseEntity<ErrorResponse> respuesta(HttpStatusCode status, String error, String mensaje, Map<String, String> detalles) {
+        return ResponseEntity.status(status).body(new ErrorResponse(LocalDateTime.now(), status.value(), error, mensaje, detalles));
+    }
+}
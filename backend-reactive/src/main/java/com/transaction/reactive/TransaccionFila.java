@@ -0,0 +1,39 @@
+package com.transaction.reactive;
+
+import com.transaction.entity.EstadoTransaccion;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * R2DBC mapping of a row of the 'transacciones' table (see schema.sql).
+ */
+@Table("transacciones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransaccionFila {
+
+    /** Unique identifier, generated by the database on insert. */
+    @Id
+    private Long id;
+
+    /** Name or description of the transaction. */
+    private String nombre;
+
+    /** Date of the transaction. */
+    private LocalDate fecha;
+
+    /** Monetary value of the transaction. */
+    private BigDecimal valor;
+
+    /** Current state of the transaction, stored by name. */
+    private EstadoTransaccion estado;
+}
@@ -0,0 +1,19 @@
+package com.transaction.reactive;
+
+import com.transaction.entity.EstadoTransaccion;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive repository for transaction rows.
+ */
+public interface TransaccionFilaRepository extends ReactiveCrudRepository<TransaccionFila, Long> {
+
+    /**
+     * Streams the transactions in a state, oldest first (ties broken by ID).
+     *
+     * @param estado State to match
+     * @return Matching rows, read as they are requested
+     */
+    Flux<TransaccionFila> findByEstadoOrderByFechaAscIdAsc(EstadoTransaccion estado);
+}
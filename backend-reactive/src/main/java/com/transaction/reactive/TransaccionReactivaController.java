@@ -0,0 +1,110 @@
+package com.transaction.reactive;
+
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.dto.TransaccionFiltroDTO;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Reactive REST controller with the same paths, validation and status codes as the servlet TransaccionController.
+ * <p>
+ * The list is returned as a {@link Flux}: with {@code Accept: application/x-ndjson} each transaction is
+ * written as its own line as soon as it is read, and the database cursor only advances as fast as the
+ * client consumes. ETags, delta sync, batches, asynchronous payments and SSE are only in the servlet module.
+ */
+@RestController
+@RequestMapping("/api/transacciones")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class TransaccionReactivaController {
+
+    private final TransaccionReactivaService transaccionService;
+
+    /**
+     * Streams the transactions matching the filters (same query parameters as the servlet endpoint).
+     *
+     * @param filtro Filters and sort order taken from the query parameters
+     * @return Matching transactions, or 400 for invalid parameters
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TransaccionDTO> listar(TransaccionFiltroDTO filtro) {
+        return transaccionService.listar(filtro);
+    }
+
+    /**
+     * Retrieves a transaction by its ID.
+     *
+     * @param id Transaction ID
+     * @return 200 with the transaction if found, 404 otherwise
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<TransaccionDTO>> obtenerPorId(@PathVariable Long id) {
+        return transaccionService.obtenerPorId(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Creates a new transaction. The initial state is always PENDIENTE.
+     *
+     * @param dto Transaction data (name, date, value)
+     * @return The created transaction
+     */
+    @PostMapping
+    public Mono<TransaccionDTO> crear(@Valid @RequestBody TransaccionCreateDTO dto) {
+        return transaccionService.crear(dto);
+    }
+
+    /**
+     * Updates an existing transaction. Only allowed if the transaction is not paid.
+     *
+     * @param id  Transaction ID
+     * @param dto New transaction data
+     * @return The updated transaction
+     */
+    @PutMapping("/{id}")
+    public Mono<TransaccionDTO> editar(@PathVariable Long id, @Valid @RequestBody TransaccionCreateDTO dto) {
+        return transaccionService.editar(id, dto);
+    }
+
+    /**
+     * Deletes a transaction by ID. Only allowed if the transaction is not paid.
+     *
+     * @param id Transaction ID
+     * @return 204 No Content if deleted
+     */
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> eliminar(@PathVariable Long id) {
+        return transaccionService.eliminar(id);
+    }
+
+    /**
+     * Processes a payment, marking transactions as paid in chronological order if the amount covers them fully.
+     *
+     * @param monto Amount to pay
+     * @return Message with the payment result: 200 if paid or nothing pending, 422 if the amount exceeds
+     *         the exact total, 400 if it does not cover the oldest transaction
+     */
+    @PostMapping("/pagar")
+    public Mono<ResponseEntity<String>> pagar(@RequestParam BigDecimal monto) {
+        return transaccionService.pagar(monto).map(resultado -> {
+            String mensaje = resultado.getMensaje();
+            if (mensaje.startsWith("❌ Pago rechazado")) {
+                return ResponseEntity.unprocessableEntity().body(mensaje);
+            } else if (mensaje.startsWith("⚠️ Monto insuficiente")) {
+                return ResponseEntity.badRequest().body(mensaje);
+            }
+            return ResponseEntity.ok(mensaje);
+        });
+    }
+}
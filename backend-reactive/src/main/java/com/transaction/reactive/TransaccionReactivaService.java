@@ -0,0 +1,197 @@
+package com.transaction.reactive;
+
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.dto.TransaccionFiltroDTO;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.service.PaymentResult;
+import com.transaction.service.ReglasTransaccion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of the servlet module's TransaccionService.
+ * <p>
+ * Applies the same rules through {@link ReglasTransaccion}: only PENDIENTE transactions can be edited or
+ * deleted, and payments cover pending transactions oldest first with an exact amount. Errors are signalled
+ * with the same exceptions (IllegalArgumentException for a missing transaction, IllegalStateException for a
+ * paid one, ParametroInvalidoException for invalid list parameters).
+ */
+@Service
+@RequiredArgsConstructor
+public class TransaccionReactivaService {
+    private final TransaccionFilaRepository repositorio;
+    private final R2dbcEntityTemplate template;
+
+    /**
+     * Streams the transactions matching the given filters, in the requested order.
+     * <p>
+     * Rows are read from the database as the subscriber requests them, so a slow client does not make
+     * the server buffer the whole list.
+     *
+     * @param filtro Optional filters and sort order
+     * @return Matching transactions as DTOs
+     */
+    public Flux<TransaccionDTO> listar(TransaccionFiltroDTO filtro) {
+        return Flux.defer(() -> {
+            ReglasTransaccion.validarRangos(filtro);
+            Query query = Query.query(criterios(filtro)).sort(ReglasTransaccion.orden(filtro.getSort()));
+            return template.select(TransaccionFila.class).matching(query).all();
+        }).map(TransaccionReactivaService::toDTO);
+    }
+
+    /**
+     * Retrieves a transaction by its ID.
+     *
+     * @param id Transaction ID
+     * @return The transaction as DTO, or empty if not found
+     */
+    public Mono<TransaccionDTO> obtenerPorId(Long id) {
+        return repositorio.findById(id).map(TransaccionReactivaService::toDTO);
+    }
+
+    /**
+     * Creates a new transaction with state PENDIENTE.
+     *
+     * @param dto Validated data for the new transaction
+     * @return The created transaction as DTO
+     */
+    public Mono<TransaccionDTO> crear(TransaccionCreateDTO dto) {
+        TransaccionFila nueva = TransaccionFila.builder()
+                .nombre(dto.getNombre())
+                .fecha(dto.getFecha())
+                .valor(dto.getValor())
+                .estado(EstadoTransaccion.PENDIENTE)
+                .build();
+        return repositorio.save(nueva).map(TransaccionReactivaService::toDTO);
+    }
+
+    /**
+     * Updates an existing transaction if it is not paid.
+     *
+     * @param id  Transaction ID
+     * @param dto Validated new data
+     * @return The updated transaction as DTO; errors with IllegalArgumentException if not found
+     *         or IllegalStateException if it is paid
+     */
+    @Transactional
+    public Mono<TransaccionDTO> editar(Long id, TransaccionCreateDTO dto) {
+        return noPagada(id, "editar")
+                .flatMap(t -> {
+                    t.setNombre(dto.getNombre());
+                    t.setFecha(dto.getFecha());
+                    t.setValor(dto.getValor());
+                    return repositorio.save(t);
+                })
+                .map(TransaccionReactivaService::toDTO);
+    }
+
+    /**
+     * Deletes a transaction if it is not paid.
+     *
+     * @param id Transaction ID
+     * @return Completion; errors with IllegalArgumentException if not found or IllegalStateException if it is paid
+     */
+    @Transactional
+    public Mono<Void> eliminar(Long id) {
+        return noPagada(id, "eliminar").flatMap(repositorio::delete);
+    }
+
+    /**
+     * Processes a payment, marking pending transactions as paid oldest first if the amount covers them exactly.
+     * <p>
+     * Pending rows are read only until their running total exceeds the amount: the rules never look
+     * past the first transaction the amount cannot cover, so the rest of the table is not fetched.
+     *
+     * @param monto Amount to pay
+     * @return The payment result
+     */
+    @Transactional
+    public Mono<PaymentResult> pagar(BigDecimal monto) {
+        return Mono.defer(() -> {
+            BigDecimal[] acumulado = {BigDecimal.ZERO};
+            return repositorio.findByEstadoOrderByFechaAscIdAsc(EstadoTransaccion.PENDIENTE)
+                    .takeUntil(t -> (acumulado[0] = acumulado[0].add(t.getValor())).compareTo(monto) > 0)
+                    .collectList();
+        }).flatMap(pendientes -> {
+            ReglasTransaccion.Cobertura cobertura = ReglasTransaccion.cubrir(
+                    pendientes.stream().map(TransaccionFila::getValor).collect(Collectors.toList()), monto);
+            if (cobertura.rechazo() != null) {
+                return Mono.just(cobertura.rechazo());
+            }
+            List<TransaccionFila> pagadas = pendientes.subList(0, cobertura.cantidad());
+            BigDecimal montoRestante = monto;
+            for (TransaccionFila t : pagadas) {
+                t.setEstado(EstadoTransaccion.PAGADO);
+                montoRestante = montoRestante.subtract(t.getValor());
+            }
+            PaymentResult resultado = new PaymentResult(pagadas.size(), montoRestante, monto, cobertura.montoRequerido());
+            return repositorio.saveAll(pagadas).then(Mono.just(resultado));
+        });
+    }
+
+    /**
+     * Loads a transaction that exists and is not paid, so it can be edited or deleted.
+     *
+     * @param id        Transaction ID
+     * @param operacion Verb of the attempted operation, for the error message
+     * @return The transaction, or an error
+     */
+    private Mono<TransaccionFila> noPagada(Long id, String operacion) {
+        return repositorio.findById(id)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Transacción no encontrada")))
+                .doOnNext(t -> ReglasTransaccion.verificarNoPagada(t.getEstado(), operacion));
+    }
+
+    /**
+     * Builds the criteria for the present filters, matching the servlet module's TransaccionSpecs.
+     *
+     * @param filtro List filters
+     * @return Conjunction of the present filters
+     */
+    private static Criteria criterios(TransaccionFiltroDTO filtro) {
+        Criteria criterios = Criteria.empty();
+        if (filtro.getNombre() != null && !filtro.getNombre().isBlank()) {
+            criterios = criterios.and(Criteria.where("nombre").like("%" + filtro.getNombre() + "%").ignoreCase(true));
+        }
+        if (filtro.getEstado() != null) {
+            criterios = criterios.and(Criteria.where("estado").is(filtro.getEstado().name()));
+        }
+        if (filtro.getFecha() != null) {
+            criterios = criterios.and(Criteria.where("fecha").is(filtro.getFecha()));
+        }
+        if (filtro.getFechaDesde() != null) {
+            criterios = criterios.and(Criteria.where("fecha").greaterThanOrEquals(filtro.getFechaDesde()));
+        }
+        if (filtro.getFechaHasta() != null) {
+            criterios = criterios.and(Criteria.where("fecha").lessThanOrEquals(filtro.getFechaHasta()));
+        }
+        if (filtro.getValorMin() != null) {
+            criterios = criterios.and(Criteria.where("valor").greaterThanOrEquals(filtro.getValorMin()));
+        }
+        if (filtro.getValorMax() != null) {
+            criterios = criterios.and(Criteria.where("valor").lessThanOrEquals(filtro.getValorMax()));
+        }
+        return criterios;
+    }
+
+    private static TransaccionDTO toDTO(TransaccionFila t) {
+        TransaccionDTO dto = new TransaccionDTO();
+        dto.setId(t.getId());
+        dto.setNombre(t.getNombre());
+        dto.setFecha(t.getFecha());
+        dto.setValor(t.getValor());
+        dto.setEstado(t.getEstado());
+        return dto;
+    }
+}
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS transacciones (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    fecha DATE NOT NULL,
+    valor NUMERIC(38, 2) NOT NULL,
+    estado VARCHAR(20) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_transacciones_fecha ON transacciones (fecha, id);
+CREATE INDEX IF NOT EXISTS idx_transacciones_valor ON transacciones (valor, id);
+CREATE INDEX IF NOT EXISTS idx_transacciones_estado_fecha ON transacciones (estado, fecha, id);
@@ -0,0 +1,169 @@
+package com.transaction.reactive;
+
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.dto.TransaccionFiltroDTO;
+import com.transaction.entity.EstadoTransaccion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for TransaccionReactivaController, checking that the reactive stack answers like the servlet one.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+class TransaccionReactivaControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TransaccionFilaRepository repositorio;
+
+    @Autowired
+    private TransaccionReactivaService servicio;
+
+    @BeforeEach
+    void setUp() {
+        repositorio.deleteAll().block();
+    }
+
+    @Test
+    void testCrearYObtener() {
+        // When
+        TransaccionDTO creada = webTestClient.post().uri("/api/transacciones")
+                .bodyValue(datos("Test Transaction", LocalDate.of(2024, 1, 1), "100.00"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TransaccionDTO.class).returnResult().getResponseBody();
+
+        // Then
+        assertNotNull(creada);
+        assertEquals(EstadoTransaccion.PENDIENTE, creada.getEstado());
+        webTestClient.get().uri("/api/transacciones/{id}", creada.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.nombre").isEqualTo("Test Transaction").jsonPath("$.fecha").isEqualTo("2024-01-01");
+        webTestClient.get().uri("/api/transacciones/{id}", creada.getId() + 1000).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testCrear_ValidacionError() {
+        webTestClient.post().uri("/api/transacciones")
+                .bodyValue(datos("", LocalDate.of(2024, 1, 1), "-10.00"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation Error")
+                .jsonPath("$.details.nombre").exists()
+                .jsonPath("$.details.valor").isEqualTo("El valor debe ser positivo");
+    }
+
+    @Test
+    void testPagar_MismasReglasQueElModuloServlet() {
+        // Given
+        crear("Primera", LocalDate.of(2024, 1, 1), "100.00");
+        crear("Segunda", LocalDate.of(2024, 1, 2), "50.00");
+        crear("Tercera", LocalDate.of(2024, 1, 3), "25.00");
+
+        // Then: monto insuficiente, excedente y pago exacto
+        webTestClient.post().uri("/api/transacciones/pagar?monto=50").exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.post().uri("/api/transacciones/pagar?monto=120").exchange()
+                .expectStatus().isEqualTo(422);
+        webTestClient.post().uri("/api/transacciones/pagar?monto=150").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).value(m -> assertTrue(m.startsWith("✅ Pago exitoso. Se pagaron 2"), m));
+
+        List<TransaccionDTO> pagadas = webTestClient.get().uri("/api/transacciones?estado=PAGADO&sort=fecha").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TransaccionDTO.class).returnResult().getResponseBody();
+        assertEquals(List.of("Primera", "Segunda"), pagadas.stream().map(TransaccionDTO::getNombre).toList());
+    }
+
+    @Test
+    void testEditarYEliminarPagada_Conflicto() {
+        // Given
+        TransaccionDTO t = crear("Pagada", LocalDate.of(2024, 1, 1), "10.00");
+        webTestClient.post().uri("/api/transacciones/pagar?monto=10").exchange().expectStatus().isOk();
+
+        // Then
+        webTestClient.put().uri("/api/transacciones/{id}", t.getId())
+                .bodyValue(datos("Cambio", LocalDate.of(2024, 1, 1), "20.00"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.message").isEqualTo("No se puede editar una transacción pagada");
+        webTestClient.delete().uri("/api/transacciones/{id}", t.getId()).exchange()
+                .expectStatus().isEqualTo(409);
+        webTestClient.delete().uri("/api/transacciones/{id}", t.getId() + 1000).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testListar_FiltrosYNdjson() {
+        // Given
+        crear("Alquiler", LocalDate.of(2024, 1, 1), "500.00");
+        crear("alquiler cochera", LocalDate.of(2024, 2, 1), "80.00");
+        crear("Luz", LocalDate.of(2024, 3, 1), "40.00");
+
+        // Then
+        List<TransaccionDTO> lista = webTestClient.get().uri("/api/transacciones?nombre=ALQUILER&sort=valor,desc")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TransaccionDTO.class).getResponseBody().collectList().block();
+        assertEquals(List.of("Alquiler", "alquiler cochera"), lista.stream().map(TransaccionDTO::getNombre).toList());
+
+        webTestClient.get().uri("/api/transacciones?valorMin=100&valorMax=10").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("valorMin no puede ser mayor que valorMax");
+        webTestClient.get().uri("/api/transacciones?sort=nombre").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testListar_RespetaLaDemanda() {
+        // Given
+        Flux.range(1, 50)
+                .concatMap(i -> servicio.crear(datos("t" + i, LocalDate.of(2024, 1, 1).plusDays(i), "1.00")))
+                .blockLast();
+
+        // Then: solo se emite lo pedido
+        StepVerifier.create(servicio.listar(new TransaccionFiltroDTO()), 3)
+                .expectNextCount(3)
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+    }
+
+    private TransaccionDTO crear(String nombre, LocalDate fecha, String valor) {
+        return webTestClient.post().uri("/api/transacciones").bodyValue(datos(nombre, fecha, valor)).exchange()
+                .expectStatus().isOk()
+                .expectBody(TransaccionDTO.class).returnResult().getResponseBody();
+    }
+
+    private static TransaccionCreateDTO datos(String nombre, LocalDate fecha, String valor) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(fecha);
+        dto.setValor(new BigDecimal(valor));
+        return dto;
+    }
+}
@@ -1,18 +1,22 @@
 package com.transaction;
 
+import com.transaction.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Main application class for the Transaction Management System.
  * <p>
  * Spring Boot application entry point that configures and starts the application.
  * Uses component scanning to automatically detect and register Spring components.
+ * Registers the runtime hints needed to compile it as a GraalVM native image.
  * 
  * @author Transaction Management System
  * @version 1.0
  */
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class Main {
     /**
      * Application entry point.
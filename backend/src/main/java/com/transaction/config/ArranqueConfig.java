@@ -0,0 +1,38 @@
+package com.transaction.config;
+
+import com.transaction.repository.SecuenciaCambios;
+import com.transaction.service.EstadisticasService;
+import com.transaction.service.IngestaService;
+import com.transaction.service.PendientesService;
+import com.transaction.service.RegistroEtags;
+import com.transaction.service.ReporteService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration for startup-time optimizations.
+ * <p>
+ * With {@code spring.main.lazy-initialization=true} (startup profile), beans are created on first use.
+ * The beans listed here are still created eagerly: the datasource and JPA metamodel because the first
+ * request needs them anyway, and the change sequence because it creates its database sequence
+ * and must not do so inside a write transaction; the same goes for the ETag epoch row, whose listener
+ * first runs inside a write transaction. The local replica copy, when enabled, must fill the replica
+ * before the first read is routed there. The ingestion service must replay its log at startup,
+ * not on the first ingestion request, and the pending queue must load its snapshot before serving.
+ * The columnar report snapshot and the value statistics load the whole table and then follow change
+ * events: built lazily, they would first be created by the after-commit listener of the first write,
+ * whose change their full load already includes and the listener then applies again.
+ */
+@Configuration
+public class ArranqueConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter beansCriticosDeArranque() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class, SecuenciaCambios.class,
+                RegistroEtags.class, ReplicacionLocal.class, IngestaService.class, PendientesService.class, ReporteService.class, EstadisticasService.class);
+    }
+}
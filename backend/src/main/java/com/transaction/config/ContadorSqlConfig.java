@@ -0,0 +1,114 @@
+package com.transaction.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Wraps the application {@link DataSource} in a JDBC proxy that feeds the thread's {@link MedicionSql}.
+ * <p>
+ * Enabled unless {@code transacciones.sql.contador.enabled=false}. Only the bean named {@code dataSource}
+ * is wrapped, so with a read replica the pools behind the routing DataSource are not counted twice.
+ * Without an active measurement the listeners return right away.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transacciones.sql.contador.enabled", havingValue = "true", matchIfMissing = true)
+public class ContadorSqlConfig {
+
+    @Bean
+    static BeanPostProcessor contadorSqlDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    ContadorSql contador = new ContadorSql();
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(contador)
+                            .methodListener(contador)
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Counts statements, round trips, time and rows into the active measurement of the thread.
+     */
+    static class ContadorSql implements QueryExecutionListener, MethodExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            MedicionSql medicion = MedicionSql.actual();
+            if (medicion != null) {
+                medicion.inicioEjecucion();
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            MedicionSql medicion = MedicionSql.actual();
+            if (medicion == null) {
+                return;
+            }
+            medicion.finEjecucion();
+            if (execInfo.isBatch() && queryInfoList.size() == 1) {
+                // Lote de un PreparedStatement: una sentencia por juego de parámetros
+                medicion.sentencia(queryInfoList.get(0).getQuery(), execInfo.getBatchSize());
+            } else {
+                for (QueryInfo queryInfo : queryInfoList) {
+                    medicion.sentencia(queryInfo.getQuery(), 1);
+                }
+            }
+            medicion.filas(filasModificadas(execInfo.getResult()));
+        }
+
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            if (executionContext.getTarget() instanceof ResultSet
+                    && Boolean.TRUE.equals(executionContext.getResult())
+                    && executionContext.getMethod().getName().equals("next")) {
+                MedicionSql medicion = MedicionSql.actual();
+                if (medicion != null) {
+                    medicion.filas(1);
+                }
+            }
+        }
+
+        private static long filasModificadas(Object resultado) {
+            long filas = 0;
+            if (resultado instanceof Integer cantidad) {
+                filas = cantidad;
+            } else if (resultado instanceof Long cantidad) {
+                filas = cantidad;
+            } else if (resultado instanceof int[] cantidades) {
+                for (int cantidad : cantidades) {
+                    filas += Math.max(cantidad, 0);
+                }
+            } else if (resultado instanceof long[] cantidades) {
+                for (long cantidad : cantidades) {
+                    filas += Math.max(cantidad, 0);
+                }
+            }
+            // Un resultado negativo significa "desconocido"; las consultas se cuentan al recorrer el ResultSet
+            return Math.max(filas, 0);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.transaction.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Configuration for compact binary response formats.
+ * <p>
+ * Clients can request CBOR ({@code Accept: application/cbor}) or Smile
+ * ({@code Accept: application/x-jackson-smile}) instead of JSON, which remains the default.
+ * Both converters are built from Spring Boot's Jackson builder so they honor the same
+ * {@code spring.jackson.*} settings as JSON.
+ * <p>
+ * {@link #formato(String)} tells which of the three an {@code Accept} header selects, so ETags computed
+ * before the response is written differ per representation.
+ */
+@Configuration
+public class FormatosBinariosConfig implements WebMvcConfigurer {
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public FormatosBinariosConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter
+                || c instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+    }
+
+    /**
+     * Gets the response format an {@code Accept} header selects, in the converters' order of preference:
+     * JSON unless CBOR or Smile is accepted with a higher quality than JSON.
+     *
+     * @param aceptar Value of the {@code Accept} header, or null
+     * @return {@code json}, {@code cbor} or {@code smile}
+     */
+    public static String formato(String aceptar) {
+        if (aceptar == null || aceptar.isBlank()) {
+            return "json";
+        }
+        List<MediaType> tipos;
+        try {
+            tipos = MediaType.parseMediaTypes(aceptar);
+        } catch (IllegalArgumentException e) {
+            return "json";
+        }
+        tipos.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType tipo : tipos) {
+            if (tipo.includes(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+            if (tipo.includes(CBOR)) {
+                return "cbor";
+            }
+            if (tipo.includes(SMILE)) {
+                return "smile";
+            }
+        }
+        return "json";
+    }
+}
@@ -0,0 +1,125 @@
+package com.transaction.config;
+
+import java.util.Locale;
+
+/**
+ * SQL activity of the current unit of work (usually an HTTP request), accumulated per thread.
+ * <p>
+ * {@link ContadorSqlConfig} feeds it from the JDBC proxy while a measurement is active on the thread.
+ * Statements sent in a JDBC batch count individually; {@link #getEjecuciones()} counts the round trips.
+ * Rows are the rows read from result sets plus the update counts of writes.
+ */
+public final class MedicionSql {
+    private static final ThreadLocal<MedicionSql> ACTUAL = new ThreadLocal<>();
+
+    private int selects;
+    private int inserts;
+    private int updates;
+    private int deletes;
+    private int otras;
+    private int ejecuciones;
+    private long filas;
+    private long nanos;
+    private long inicioEjecucion;
+
+    private MedicionSql() {
+    }
+
+    /**
+     * Starts a new measurement on the current thread, replacing any previous one.
+     *
+     * @return The new measurement
+     */
+    public static MedicionSql iniciar() {
+        MedicionSql medicion = new MedicionSql();
+        ACTUAL.set(medicion);
+        return medicion;
+    }
+
+    /**
+     * Stops measuring on the current thread. The measurement keeps its values.
+     */
+    public static void finalizar() {
+        ACTUAL.remove();
+    }
+
+    /**
+     * @return The active measurement of the current thread, or null if none
+     */
+    static MedicionSql actual() {
+        return ACTUAL.get();
+    }
+
+    void inicioEjecucion() {
+        inicioEjecucion = System.nanoTime();
+    }
+
+    void finEjecucion() {
+        ejecuciones++;
+        nanos += System.nanoTime() - inicioEjecucion;
+    }
+
+    void sentencia(String sql, int cantidad) {
+        switch (tipo(sql)) {
+            case "select" -> selects += cantidad;
+            case "insert" -> inserts += cantidad;
+            case "update" -> updates += cantidad;
+            case "delete" -> deletes += cantidad;
+            default -> otras += cantidad;
+        }
+    }
+
+    void filas(long cantidad) {
+        filas += cantidad;
+    }
+
+    public int getSentencias() {
+        return selects + inserts + updates + deletes + otras;
+    }
+
+    public int getEjecuciones() {
+        return ejecuciones;
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return Non-zero counts by statement type plus round trips, e.g. {@code select=1 update=3 ejecuciones=2}
+     */
+    public String getDetalle() {
+        StringBuilder detalle = new StringBuilder();
+        agregar(detalle, "select", selects);
+        agregar(detalle, "insert", inserts);
+        agregar(detalle, "update", updates);
+        agregar(detalle, "delete", deletes);
+        agregar(detalle, "otras", otras);
+        agregar(detalle, "ejecuciones", ejecuciones);
+        return detalle.toString();
+    }
+
+    private static void agregar(StringBuilder detalle, String nombre, int cantidad) {
+        if (cantidad > 0) {
+            if (!detalle.isEmpty()) {
+                detalle.append(' ');
+            }
+            detalle.append(nombre).append('=').append(cantidad);
+        }
+    }
+
+    private static String tipo(String sql) {
+        String recortado = sql.stripLeading();
+        int fin = 0;
+        while (fin < recortado.length() && Character.isLetter(recortado.charAt(fin))) {
+            fin++;
+        }
+        // "with ... select" cuenta como lectura
+        String palabra = recortado.substring(0, fin).toLowerCase(Locale.ROOT);
+        return palabra.equals("with") ? "select" : palabra;
+    }
+}
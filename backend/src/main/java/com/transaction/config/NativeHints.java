@@ -0,0 +1,49 @@
+package com.transaction.config;
+
+import com.transaction.dto.*;
+import com.transaction.entity.CambioSecuenciaListener;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.entity.Transaccion;
+import com.transaction.entity.TransaccionEliminada;
+import com.transaction.exception.ErrorResponse;
+import com.transaction.exception.GlobalExceptionHandler;
+import com.transaction.service.PaymentResult;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Runtime hints for the GraalVM native image.
+ * <p>
+ * Spring AOT already covers controller signatures, repositories and the JPA metamodel. These hints add
+ * what it cannot infer: DTOs serialized by hand or nested in other responses (Lombok accessors are only
+ * reachable through reflection), the list filters bound from query parameters, the error body of {@link GlobalExceptionHandler}, and the entity
+ * listener that Hibernate instantiates through Spring.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                TransaccionDTO.class,
+                TransaccionCreateDTO.class,
+                TransaccionFiltroDTO.class,
+                EventoCambioDTO.class,
+                CambioDTO.class,
+                CambiosDTO.class,
+                PagoJobDTO.class,
+                MensajeOutboxDTO.class,
+                ResultadoOperacionDTO.class,
+                PaymentResult.class,
+                ErrorResponse.class);
+
+        hints.reflection()
+                .registerType(Transaccion.class, MemberCategory.values())
+                .registerType(TransaccionEliminada.class, MemberCategory.values())
+                .registerType(EstadoTransaccion.class, MemberCategory.values())
+                .registerType(CambioSecuenciaListener.class,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS)
+                .registerType(GlobalExceptionHandler.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
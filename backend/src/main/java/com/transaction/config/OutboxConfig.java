@@ -0,0 +1,36 @@
+package com.transaction.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.service.SumideroArchivoOutbox;
+import com.transaction.service.SumideroMemoriaOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration of the transactional outbox sink.
+ * <p>
+ * {@code transacciones.outbox.sumidero} selects where dispatched events go: {@code archivo}
+ * (JSON lines in {@code transacciones.outbox.archivo}, the default) or {@code memoria}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transacciones.outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "transacciones.outbox.sumidero", havingValue = "archivo", matchIfMissing = true)
+    SumideroArchivoOutbox sumideroArchivoOutbox(@Value("${transacciones.outbox.archivo:data/outbox/eventos.jsonl}") String archivo,
+                                         ObjectMapper objectMapper) throws IOException {
+        return new SumideroArchivoOutbox(Path.of(archivo), objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "transacciones.outbox.sumidero", havingValue = "memoria")
+    SumideroMemoriaOutbox sumideroMemoriaOutbox() {
+        return new SumideroMemoriaOutbox();
+    }
+}
@@ -0,0 +1,55 @@
+package com.transaction.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration for read/write splitting between the primary database and a read replica.
+ * <p>
+ * Enabled with {@code transacciones.replica.enabled=true}. The primary uses the regular
+ * {@code spring.datasource.*} properties and the replica {@code transacciones.replica.datasource.*}.
+ * Each gets its own connection pool behind a {@link RutaDataSource}, which closes both on shutdown.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transacciones.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RutaDataSource rutaDataSource) {
+        return new LazyConnectionDataSourceProxy(rutaDataSource);
+    }
+
+    @Bean
+    public RutaDataSource rutaDataSource(DataSourceProperties dataSourceProperties, Environment environment, MeterRegistry meterRegistry) {
+        DataSourceProperties replicaProperties = Binder.get(environment)
+                .bind("transacciones.replica.datasource", DataSourceProperties.class)
+                .orElseThrow(() -> new IllegalStateException("Falta la configuración transacciones.replica.datasource"));
+        // Las propiedades de la réplica heredan driver y credenciales de la primaria si no se indican
+        if (replicaProperties.getUsername() == null) {
+            replicaProperties.setUsername(dataSourceProperties.getUsername());
+            replicaProperties.setPassword(dataSourceProperties.getPassword());
+        }
+        if (replicaProperties.getDriverClassName() == null) {
+            replicaProperties.setDriverClassName(dataSourceProperties.getDriverClassName());
+        }
+
+        return new RutaDataSource(crearPool(dataSourceProperties, "primaria"), crearPool(replicaProperties, "replica"), meterRegistry);
+    }
+
+    private static HikariDataSource crearPool(DataSourceProperties properties, String nombre) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(nombre);
+        return pool;
+    }
+}
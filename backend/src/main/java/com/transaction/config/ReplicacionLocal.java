@@ -0,0 +1,156 @@
+package com.transaction.config;
+
+import com.transaction.repository.SecuenciaCambios;
+import com.transaction.service.RegistroEtags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for database replication in the "replica" profile, since H2 does not replicate.
+ * <p>
+ * At startup the replica's transaction tables are recreated from the primary's schema and filled with a full
+ * copy. Then, every {@code transacciones.replica.copia.intervalo-ms}, the rows and tombstones whose change
+ * sequence number is above the last one copied and not past {@link SecuenciaCambios#limiteVisible()} are
+ * copied, so a late commit is never skipped. Each batch is applied in one replica transaction. The replica has
+ * its own ETag origin and an empty marks table, and since batches are copied in change sequence order, the
+ * highest change number it holds moves with every batch: tags of replica reads follow the replica's data.
+ * The replica lags the primary by about one interval.
+ * <p>
+ * Enabled with {@code transacciones.replica.copia.enabled=true}; leave it off with a real replica.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transacciones.replica.copia.enabled", havingValue = "true")
+public class ReplicacionLocal {
+    private static final String TRANSACCIONES = "transacciones";
+    private static final String ELIMINADAS = "transacciones_eliminadas";
+    private static final String MARCAS = "secuencia_instancias";
+    private static final Pattern DDL_TABLAS = Pattern.compile("^(CREATE (MEMORY |CACHED )?TABLE|ALTER TABLE|CREATE (UNIQUE )?INDEX) .*",
+            Pattern.DOTALL);
+
+    private final JdbcTemplate primaria;
+    private final JdbcTemplate replica;
+    private final TransactionTemplate transaccionReplica;
+    private final SecuenciaCambios secuenciaCambios;
+    private final long intervaloMs;
+    private final ScheduledExecutorService copiador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "replicacion-local");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private long copiado;
+
+    public ReplicacionLocal(RutaDataSource rutaDataSource,
+                            SecuenciaCambios secuenciaCambios,
+                            @Value("${transacciones.replica.copia.intervalo-ms:200}") long intervaloMs) {
+        this.primaria = new JdbcTemplate(rutaDataSource.getPrimaria());
+        this.replica = new JdbcTemplate(rutaDataSource.getReplica());
+        this.transaccionReplica = new TransactionTemplate(new DataSourceTransactionManager(rutaDataSource.getReplica()));
+        this.secuenciaCambios = secuenciaCambios;
+        this.intervaloMs = intervaloMs;
+    }
+
+    /**
+     * Recreates the replica from the primary and starts copying changes.
+     */
+    @PostConstruct
+    void iniciar() {
+        replica.execute("DROP TABLE IF EXISTS " + ELIMINADAS + ", " + TRANSACCIONES + ", " + MARCAS + ", etag_epoca");
+        primaria.queryForList("SCRIPT NODATA NOSETTINGS TABLE " + TRANSACCIONES + ", " + ELIMINADAS + ", " + MARCAS, String.class).stream()
+                .filter(sentencia -> DDL_TABLAS.matcher(sentencia).matches())
+                .forEach(replica::execute);
+        RegistroEtags.crearEpoca(replica);
+        log.info("Réplica local: {} cambios copiados al arrancar", copiar());
+        copiador.scheduleWithFixedDelay(this::copiarSinFallar, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Copies the changes committed since the last copy.
+     *
+     * @return Number of rows and tombstones copied
+     */
+    synchronized int copiar() {
+        long desde = copiado;
+        long hasta = secuenciaCambios.limiteVisible();
+        if (hasta <= desde) {
+            return 0;
+        }
+        Filas filas = leer(TRANSACCIONES, desde, hasta);
+        Filas eliminadas = leer(ELIMINADAS, desde, hasta);
+        if (filas.valores().isEmpty() && eliminadas.valores().isEmpty()) {
+            copiado = hasta;
+            return 0;
+        }
+        transaccionReplica.executeWithoutResult(status -> {
+            escribir(TRANSACCIONES, filas);
+            escribir(ELIMINADAS, eliminadas);
+            // Las filas eliminadas en la primaria solo dejan su lápida: se borran también de la réplica
+            replica.batchUpdate("DELETE FROM " + TRANSACCIONES + " WHERE id = ?",
+                    eliminadas.valores().stream().map(valores -> new Object[]{valores[eliminadas.indiceId()]}).toList());
+        });
+        copiado = hasta;
+        return filas.valores().size() + eliminadas.valores().size();
+    }
+
+    @PreDestroy
+    void detener() {
+        copiador.shutdownNow();
+    }
+
+    private void copiarSinFallar() {
+        try {
+            copiar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron copiar los cambios a la réplica", e);
+        }
+    }
+
+    /**
+     * Rows of a table read from the primary, with their column names.
+     */
+    private record Filas(List<String> columnas, int indiceId, List<Object[]> valores) {
+    }
+
+    private Filas leer(String tabla, long desde, long hasta) {
+        List<String> columnas = new ArrayList<>();
+        List<Object[]> valores = new ArrayList<>();
+        primaria.query("SELECT * FROM " + tabla + " WHERE cambio_seq > ? AND cambio_seq <= ?", rs -> {
+            ResultSetMetaData metadatos = rs.getMetaData();
+            if (columnas.isEmpty()) {
+                for (int i = 1; i <= metadatos.getColumnCount(); i++) {
+                    columnas.add(metadatos.getColumnName(i));
+                }
+            }
+            Object[] fila = new Object[columnas.size()];
+            for (int i = 0; i < fila.length; i++) {
+                fila[i] = rs.getObject(i + 1);
+            }
+            valores.add(fila);
+        }, desde, hasta);
+        return new Filas(columnas, columnas.indexOf("ID"), valores);
+    }
+
+    private void escribir(String tabla, Filas filas) {
+        if (filas.valores().isEmpty()) {
+            return;
+        }
+        replica.batchUpdate("MERGE INTO " + tabla + " (" + String.join(", ", filas.columnas()) + ") KEY (ID) VALUES ("
+                + String.join(", ", Collections.nCopies(filas.columnas().size(), "?")) + ")", filas.valores());
+    }
+}
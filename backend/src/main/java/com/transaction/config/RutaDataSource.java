@@ -0,0 +1,132 @@
+package com.transaction.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * DataSource that routes read-only transactions to the read replica and everything else to the primary.
+ * <p>
+ * The routing decision is taken when a connection is requested, so it must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: otherwise the transaction
+ * manager obtains the connection before the read-only flag of the transaction is set.
+ * A request can force the primary with {@link #forzarPrimaria(boolean)} to read its own writes.
+ * Plain JDBC reads outside a transaction can follow the same routing with {@link #comoLectura(Supplier)}.
+ */
+public class RutaDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    public static final String METRICA_CONEXIONES = "transacciones.datasource.conexiones";
+
+    private static final ThreadLocal<Boolean> FORZAR_PRIMARIA = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Boolean> LECTURA_SUELTA = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Target of a connection.
+     */
+    public enum Destino {
+        PRIMARIA, REPLICA
+    }
+
+    private final Map<Destino, Counter> conexiones = new EnumMap<>(Destino.class);
+    private final DataSource primaria;
+    private final DataSource replica;
+
+    public RutaDataSource(DataSource primaria, DataSource replica, MeterRegistry meterRegistry) {
+        this.primaria = primaria;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        for (Destino destino : Destino.values()) {
+            conexiones.put(destino, Counter.builder(METRICA_CONEXIONES)
+                    .description("Conexiones obtenidas por destino")
+                    .tag("destino", destino.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        afterPropertiesSet();
+    }
+
+    /**
+     * Forces (or stops forcing) the primary for read-only transactions on the current thread.
+     *
+     * @param forzar true to send every connection of this thread to the primary
+     */
+    public static void forzarPrimaria(boolean forzar) {
+        if (forzar) {
+            FORZAR_PRIMARIA.set(true);
+        } else {
+            FORZAR_PRIMARIA.remove();
+        }
+    }
+
+    /**
+     * Tells whether read-only transactions of the current thread are forced to the primary.
+     *
+     * @return true if {@link #forzarPrimaria(boolean)} is active on this thread
+     */
+    public static boolean primariaForzada() {
+        return FORZAR_PRIMARIA.get();
+    }
+
+    /**
+     * Runs reads outside any transaction with the routing of a read-only transaction, so they see the
+     * same database as the read-only transactions of this thread. Inside a transaction, its own
+     * connection is used as usual.
+     *
+     * @param lectura Reads to run
+     * @return Result of the reads
+     */
+    public static <T> T comoLectura(Supplier<T> lectura) {
+        LECTURA_SUELTA.set(true);
+        try {
+            return lectura.get();
+        } finally {
+            LECTURA_SUELTA.remove();
+        }
+    }
+
+    /**
+     * Determines the target for the connection being requested.
+     *
+     * @return REPLICA inside read-only transactions, or reads run through {@link #comoLectura(Supplier)},
+     * not forced to the primary; PRIMARIA otherwise
+     */
+    Destino destinoActual() {
+        boolean soloLectura = TransactionSynchronizationManager.isActualTransactionActive()
+                ? TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                : LECTURA_SUELTA.get();
+        return soloLectura && !FORZAR_PRIMARIA.get() ? Destino.REPLICA : Destino.PRIMARIA;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Destino destino = destinoActual();
+        conexiones.get(destino).increment();
+        return destino;
+    }
+
+    DataSource getPrimaria() {
+        return primaria;
+    }
+
+    DataSource getReplica() {
+        return replica;
+    }
+
+    /**
+     * Closes the connection pools of both targets.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource destino : List.of(primaria, replica)) {
+            if (destino instanceof AutoCloseable cerrable) {
+                cerrable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.transaction.controller;
+
+import com.transaction.dto.EstadisticaDTO;
+import com.transaction.service.EstadisticasService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * REST controller for the distribution of transaction values.
+ * <p>
+ * Answered from the quantile sketches of {@link EstadisticasService} without querying the database.
+ * Only available when {@code transacciones.estadisticas.enabled=true}.
+ */
+@RestController
+@RequestMapping("/api/transacciones/estadisticas")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+@ConditionalOnProperty(name = "transacciones.estadisticas.enabled", havingValue = "true")
+public class EstadisticasController {
+
+    private final EstadisticasService estadisticasService;
+
+    /**
+     * Retrieves count, total, average and quantiles of the amounts by state, month or both.
+     *
+     * @param agrupar   {@code estado}, {@code mes} or {@code estado-mes}
+     * @param desde     First month included (yyyy-MM), optional
+     * @param hasta     Last month included (yyyy-MM), optional
+     * @param cuantiles Quantiles to estimate, between 0 and 1
+     * @return One entry per group, or 400 for invalid parameters
+     */
+    @GetMapping
+    public List<EstadisticaDTO> estadisticas(
+            @RequestParam(defaultValue = "estado-mes") String agrupar,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta,
+            @RequestParam(defaultValue = "0.5,0.95,0.99") List<Double> cuantiles
+    ) {
+        return estadisticasService.consultar(agrupar, desde, hasta, cuantiles);
+    }
+}
@@ -0,0 +1,55 @@
+package com.transaction.controller;
+
+import com.transaction.dto.ImportacionDTO;
+import com.transaction.service.ImportacionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Command-line entry point for bulk imports from a CSV file.
+ * <p>
+ * Started with {@code --transacciones.importar=<file>} (usually with {@code --spring.main.web-application-type=none}),
+ * it imports the file through a {@link FileChannel}, prints the summary and exits: with 0 if every row was
+ * imported, 1 if some row was rejected and 2 if the file could not be read to the end.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "transacciones.importar")
+public class ImportacionCli implements ApplicationRunner {
+
+    private final ImportacionService importacionService;
+    private final ConfigurableApplicationContext contexto;
+
+    @Value("${transacciones.importar}")
+    private String archivo;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        ImportacionDTO resumen;
+        try (FileChannel canal = FileChannel.open(Path.of(archivo), StandardOpenOption.READ)) {
+            resumen = importacionService.importar(canal);
+        }
+        System.out.printf("%s: %d filas leídas, %d importadas, %d rechazadas en %d ms (%d filas/s)%n", archivo,
+                resumen.getLeidas(), resumen.getImportadas(), resumen.getRechazadas(), resumen.getMilisegundos(),
+                resumen.getFilasPorSegundo());
+        if (resumen.getRechazadas() > 0) {
+            System.out.println("Filas rechazadas: " + importacionService.rechazos(resumen.getId()).toAbsolutePath());
+        }
+        if (resumen.getError() != null) {
+            System.out.println("Importación interrumpida: " + resumen.getError());
+        }
+        int codigo = resumen.getError() != null ? 2 : resumen.getRechazadas() > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(contexto, () -> codigo));
+    }
+}
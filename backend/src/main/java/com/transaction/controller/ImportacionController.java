@@ -0,0 +1,61 @@
+package com.transaction.controller;
+
+import com.transaction.dto.ImportacionDTO;
+import com.transaction.service.ImportacionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+
+/**
+ * REST controller for bulk imports of transactions from CSV.
+ * <p>
+ * The request body is streamed to {@link ImportacionService} as it arrives, so files larger than memory
+ * can be imported. The same import is available from the command line with {@link ImportacionCli}.
+ */
+@RestController
+@RequestMapping("/api/transacciones/importaciones")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class ImportacionController {
+    static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final ImportacionService importacionService;
+
+    /**
+     * Imports the transactions of a CSV body with a {@code nombre,fecha,valor} header.
+     *
+     * @param request Request whose body is the CSV (UTF-8)
+     * @return 200 OK with the counts, rows per second and the link to the rejected rows,
+     *         or 400 if the header is missing or invalid
+     */
+    @PostMapping(consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ImportacionDTO importar(HttpServletRequest request) throws IOException {
+        return importacionService.importar(Channels.newChannel(request.getInputStream()));
+    }
+
+    /**
+     * Downloads the rejected rows of an import, with their line and reason.
+     *
+     * @param id Import ID
+     * @return 200 OK with the CSV file, or 404 if the import rejected no rows
+     */
+    @GetMapping("/{id}/rechazos")
+    public ResponseEntity<Resource> descargarRechazos(@PathVariable String id) {
+        Path archivo = importacionService.rechazos(id);
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(archivo.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(archivo));
+    }
+}
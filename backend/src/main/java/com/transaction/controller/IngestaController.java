@@ -0,0 +1,54 @@
+package com.transaction.controller;
+
+import com.transaction.dto.IngestaAceptadaDTO;
+import com.transaction.dto.IngestaDTO;
+import com.transaction.dto.IngestaEstadoDTO;
+import com.transaction.service.IngestaService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * REST controller for write-behind ingestion of new transactions.
+ * <p>
+ * Transactions are validated and durably logged before the 202 response, and become visible in
+ * {@code GET /api/transacciones} once the background writer persists them. Only available when
+ * {@code transacciones.ingesta.enabled=true}.
+ */
+@RestController
+@RequestMapping("/api/transacciones/ingesta")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+@ConditionalOnProperty(name = "transacciones.ingesta.enabled", havingValue = "true")
+public class IngestaController {
+
+    private final IngestaService ingestaService;
+
+    /**
+     * Accepts transactions for asynchronous creation.
+     *
+     * @param ingesta Transactions to create (up to 1000)
+     * @return 202 Accepted with the assigned ingestion IDs, 400 if any transaction is invalid,
+     *         or 503 if the ingestion buffer is full
+     */
+    @PostMapping
+    public ResponseEntity<IngestaAceptadaDTO> ingerir(@Valid @RequestBody IngestaDTO ingesta) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/transacciones/ingesta"))
+                .body(ingestaService.encolar(ingesta.getTransacciones()));
+    }
+
+    /**
+     * Retrieves the progress of the ingestion.
+     *
+     * @return Last received and persisted ingestion IDs, buffer usage and lag
+     */
+    @GetMapping
+    public IngestaEstadoDTO obtenerEstado() {
+        return ingestaService.obtenerEstado();
+    }
+}
@@ -0,0 +1,52 @@
+package com.transaction.controller;
+
+import com.transaction.dto.PagoJobDTO;
+import com.transaction.service.PagoAsyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.net.URI;
+
+/**
+ * REST controller for asynchronous payments.
+ * <p>
+ * Accepts large payments for background processing and exposes their progress for polling.
+ * The payment rules are the same as the synchronous {@code POST /api/transacciones/pagar}.
+ */
+@RestController
+@RequestMapping("/api/transacciones/pagar/async")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class PagoAsyncController {
+
+    private final PagoAsyncService pagoAsyncService;
+
+    /**
+     * Submits a payment job.
+     *
+     * @param monto Amount to pay
+     * @return 202 Accepted with the job status and its polling URL, or 503 if the job queue is full
+     */
+    @PostMapping
+    public ResponseEntity<PagoJobDTO> enviar(@RequestParam BigDecimal monto) {
+        PagoJobDTO job = pagoAsyncService.enviar(monto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/transacciones/pagar/async/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * Retrieves the progress of a payment job.
+     *
+     * @param id Job ID
+     * @return 200 with the job status if found, 404 otherwise
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<PagoJobDTO> obtenerEstado(@PathVariable String id) {
+        return pagoAsyncService.obtenerEstado(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
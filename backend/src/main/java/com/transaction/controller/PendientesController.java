@@ -0,0 +1,38 @@
+package com.transaction.controller;
+
+import com.transaction.dto.PendientesDTO;
+import com.transaction.service.PendientesService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the pending transactions summary.
+ * <p>
+ * Answered from the in-memory payment queue of {@link PendientesService} without querying the database.
+ * Only available when {@code transacciones.instantanea.enabled=true}.
+ */
+@RestController
+@RequestMapping("/api/transacciones/pendientes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+@ConditionalOnProperty(name = "transacciones.instantanea.enabled", havingValue = "true")
+public class PendientesController {
+
+    private final PendientesService pendientesService;
+
+    /**
+     * Retrieves the pending count and total and the next transactions to be paid.
+     *
+     * @param limite Number of transactions to include (0 to 1000)
+     * @return The summary, or 400 for an invalid limit
+     */
+    @GetMapping
+    public PendientesDTO pendientes(@RequestParam(defaultValue = "10") int limite) {
+        return pendientesService.resumen(limite);
+    }
+}
@@ -0,0 +1,58 @@
+package com.transaction.controller;
+
+import com.transaction.service.PerfiladoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin REST controller for on-demand profiling with JDK Flight Recorder.
+ * <p>
+ * The request is held open (without a server thread) while the recording runs and is answered with the
+ * .jfr file, which opens in JDK Mission Control or {@code jfr print}. Only available when
+ * {@code transacciones.perfilado.enabled=true}; it should not be exposed publicly.
+ */
+@RestController
+@RequestMapping("/api/admin/perfilado")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "transacciones.perfilado.enabled", havingValue = "true")
+public class PerfiladoController {
+    private static final DateTimeFormatter FORMATO_NOMBRE = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final PerfiladoService perfiladoService;
+
+    /**
+     * Records the application for the given number of seconds and returns the recording.
+     *
+     * @param segundos Duration of the recording (1 to transacciones.perfilado.max-segundos)
+     * @return 200 with the .jfr file, 400 for an invalid duration, or 409 if a recording is already running
+     */
+    @PostMapping
+    public DeferredResult<ResponseEntity<byte[]>> grabar(@RequestParam(defaultValue = "30") int segundos) {
+        String nombre = "transacciones-" + LocalDateTime.now().format(FORMATO_NOMBRE) + ".jfr";
+        DeferredResult<ResponseEntity<byte[]>> respuesta = new DeferredResult<>(TimeUnit.SECONDS.toMillis(segundos + 30L));
+        perfiladoService.grabar(segundos).whenComplete((contenido, error) -> {
+            if (error != null) {
+                respuesta.setErrorResult(error);
+                return;
+            }
+            respuesta.setResult(ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(nombre).build().toString())
+                    .body(contenido));
+        });
+        return respuesta;
+    }
+}
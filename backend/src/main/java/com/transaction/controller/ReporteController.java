@@ -0,0 +1,47 @@
+package com.transaction.controller;
+
+import com.transaction.dto.ReporteDTO;
+import com.transaction.service.ReporteService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * REST controller for analytical reports over the transactions.
+ * <p>
+ * Reports are computed from the in-memory columnar snapshot of {@link ReporteService} without querying
+ * the database. Only available when {@code transacciones.columnar.enabled=true}.
+ */
+@RestController
+@RequestMapping("/api/transacciones/reportes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+@ConditionalOnProperty(name = "transacciones.columnar.enabled", havingValue = "true")
+public class ReporteController {
+
+    private final ReporteService reporteService;
+
+    /**
+     * Retrieves totals by state and month and the top names, for the transactions dated in a range.
+     *
+     * @param desde First date included (yyyy-MM-dd), optional
+     * @param hasta Last date included (yyyy-MM-dd), optional
+     * @param top   Number of names to include (1 to 1000)
+     * @return The report, or 400 for invalid parameters
+     */
+    @GetMapping
+    public ReporteDTO reporte(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "10") int top
+    ) {
+        return reporteService.generar(desde, hasta, top);
+    }
+}
@@ -1,18 +1,28 @@
 package com.transaction.controller;
 
+import com.transaction.config.FormatosBinariosConfig;
+import com.transaction.dto.CambiosDTO;
+import com.transaction.dto.LoteDTO;
+import com.transaction.dto.ResultadoLoteDTO;
 import com.transaction.dto.TransaccionCreateDTO;
 import com.transaction.dto.TransaccionDTO;
-import com.transaction.entity.EstadoTransaccion;
+import com.transaction.dto.TransaccionFiltroDTO;
+import com.transaction.service.ArrendamientoPagos;
+import com.transaction.service.LecturasCoalescidas;
 import com.transaction.service.PaymentResult;
+import com.transaction.service.RegistroEtags;
 import com.transaction.service.TransaccionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST controller for managing transactions.
@@ -23,6 +33,9 @@ import java.util.List;
  *   <li>Transactions in 'PAGADO' (paid) state cannot be edited or deleted.</li>
  *   <li>Payments are applied in chronological order and only if the amount covers the full transaction.</li>
  * </ul>
+ * List and detail responses carry an ETag that depends on the response format; a matching
+ * {@code If-None-Match} is answered with 304 Not Modified after reading only the write epoch. Identical concurrent reads share one query (see
+ * {@link LecturasCoalescidas}). Responses are JSON by default and CBOR or Smile on request.
  */
 @RestController
 @RequestMapping("/api/transacciones")
@@ -31,34 +44,72 @@ import java.util.List;
 public class TransaccionController {
 
     private final TransaccionService transaccionService;
+    private final RegistroEtags registroEtags;
+    private final LecturasCoalescidas lecturasCoalescidas;
+    private final ArrendamientoPagos arrendamientoPagos;
 
     /**
-     * Retrieves a list of transactions, optionally filtered by name, date, and state.
+     * Retrieves a list of transactions, optionally filtered and sorted.
+     * <p>
+     * Query parameters: {@code nombre} (partial match, case-insensitive), {@code fecha} (exact date),
+     * {@code fechaDesde}/{@code fechaHasta} and {@code valorMin}/{@code valorMax} (inclusive ranges),
+     * {@code estado} (PENDIENTE or PAGADO) and {@code sort} ({@code fecha|valor|id[,asc|desc]}).
+     * {@code fields} (e.g. {@code id,valor,estado}) limits the query and each item to those fields.
      *
-     * @param nombre Optional name filter (partial match, case-insensitive)
-     * @param fecha  Optional exact date filter (yyyy-MM-dd)
-     * @param estado Optional state filter (PENDIENTE or PAGADO)
-     * @return List of matching transactions
+     * @param filtro Filters and sort order taken from the query parameters
+     * @param fields Fields to include among id, nombre, fecha, valor and estado (all if absent)
+     * @return List of matching transactions, 304 if the client's copy is current, or 400 for invalid parameters
      */
     @GetMapping
-    public List<TransaccionDTO> listar(
-            @RequestParam(required = false) String nombre,
-            @RequestParam(required = false) LocalDate fecha,
-            @RequestParam(required = false) EstadoTransaccion estado
+    public ResponseEntity<List<?>> listar(TransaccionFiltroDTO filtro,
+                                          @RequestParam(required = false) List<String> fields,
+                                          WebRequest request) {
+        String epoca = registroEtags.epoca();
+        String formato = FormatosBinariosConfig.formato(request.getHeader(HttpHeaders.ACCEPT));
+        String etag = fields == null
+                ? registroEtags.etagLista(epoca, formato, filtro)
+                : registroEtags.etagLista(epoca, formato, filtro, fields);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT)
+                .body(fields == null ? lecturasCoalescidas.listar(epoca, filtro) : lecturasCoalescidas.listarCampos(epoca, filtro, fields));
+    }
+
+    /**
+     * Retrieves the changes made after a given change sequence number (delta synchronization).
+     * <p>
+     * Clients send the {@code hasta} value of their previous sync as {@code desde}; deleted
+     * transactions are reported as tombstones.
+     *
+     * @param desde  Last change sequence number seen by the client (0 for a full sync)
+     * @param limite Maximum number of changes in the page (up to 1000)
+     * @return Page of changes with the new high-water mark
+     */
+    @GetMapping("/cambios")
+    public CambiosDTO cambios(
+            @RequestParam(defaultValue = "0") long desde,
+            @RequestParam(defaultValue = "500") int limite
     ) {
-        return transaccionService.listar(nombre, fecha, estado);
+        return transaccionService.cambiosDesde(desde, limite);
     }
 
     /**
      * Retrieves a transaction by its ID.
      *
      * @param id Transaction ID
-     * @return 200 with transaction if found, 404 otherwise
+     * @return 200 with transaction if found, 304 if the client's copy is current, 404 otherwise
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TransaccionDTO> obtenerPorId(@PathVariable Long id) {
-        return transaccionService.obtenerPorId(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<TransaccionDTO> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        String epoca = registroEtags.epoca();
+        String formato = FormatosBinariosConfig.formato(request.getHeader(HttpHeaders.ACCEPT));
+        Optional<String> etagConocida = registroEtags.etagDetalle(id, epoca, formato);
+        if (etagConocida.isPresent() && request.checkNotModified(etagConocida.get())) {
+            return null;
+        }
+        return lecturasCoalescidas.obtenerPorId(epoca, id)
+                .map(dto -> ResponseEntity.ok().eTag(registroEtags.registrarVersion(epoca, dto, formato)).varyBy(HttpHeaders.ACCEPT).body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -73,6 +124,23 @@ public class TransaccionController {
         return ResponseEntity.ok(transaccionService.crear(dto));
     }
 
+    /**
+     * Executes an ordered batch of create, edit and delete operations in a single database transaction.
+     * <p>
+     * Every operation follows the same rules as its single-operation endpoint and gets its own result.
+     * In TODO_O_NADA mode a failing operation rolls back the whole batch; in MEJOR_ESFUERZO mode only the
+     * failing operations are skipped.
+     *
+     * @param lote Mode and operations (up to 1000)
+     * @return 200 with the result of each operation if the batch was committed,
+     *         409 with the results if an all-or-nothing batch was rolled back
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLoteDTO> ejecutarLote(@Valid @RequestBody LoteDTO lote) {
+        ResultadoLoteDTO resultado = transaccionService.ejecutarLote(lote);
+        return ResponseEntity.status(resultado.isConfirmado() ? HttpStatus.OK : HttpStatus.CONFLICT).body(resultado);
+    }
+
     /**
      * Updates an existing transaction. Only allowed if the transaction is not paid.
      *
@@ -102,13 +170,15 @@ public class TransaccionController {
      * 
      * El usuario ingresa un monto a pagar. El sistema paga automáticamente las transacciones pendientes
      * en orden de antigüedad, solo si el monto cubre completamente cada una, tal como lo pide la prueba técnica.
+     * With several instances, the payment runs holding the {@link ArrendamientoPagos} lease.
      *
      * @param monto Amount to pay
-     * @return Message with detailed payment result and appropriate HTTP status code
+     * @return Message with detailed payment result and appropriate HTTP status code,
+     *         or 503 if another instance held the payment lease for longer than the bounded wait
      */
     @PostMapping("/pagar")
     public ResponseEntity<String> pagar(@RequestParam BigDecimal monto) {
-        PaymentResult resultado = transaccionService.pagar(monto);
+        PaymentResult resultado = arrendamientoPagos.ejecutar(() -> transaccionService.pagar(monto));
         String mensaje = resultado.getMensaje();
         
         // Determinar el código HTTP apropiado basándose en el mensaje
@@ -0,0 +1,33 @@
+package com.transaction.controller;
+
+import com.transaction.service.TransaccionEventosService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller for the transaction change feed.
+ * <p>
+ * Streams created, updated, deleted and paid transactions as Server-Sent Events, so clients can keep
+ * their list up to date without re-fetching it after every change.
+ */
+@RestController
+@RequestMapping("/api/transacciones/eventos")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class TransaccionEventosController {
+
+    private final TransaccionEventosService transaccionEventosService;
+
+    /**
+     * Subscribes to the change feed.
+     *
+     * @param ultimoEventoId Optional ID of the last event received, sent by reconnecting clients
+     * @return Event stream; a {@code reset} event means the client must reload the full list
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir(@RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId) {
+        return transaccionEventosService.suscribir(ultimoEventoId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for a single change returned by delta synchronization.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CambioDTO {
+    /** Change sequence number of this change. */
+    private Long cambioSeq;
+    /** Identifier of the changed transaction. */
+    private Long id;
+    /** True if the transaction was deleted; the client must remove it. */
+    private boolean eliminada;
+    /** Current data of the transaction, absent when it was deleted. */
+    private TransaccionDTO transaccion;
+}
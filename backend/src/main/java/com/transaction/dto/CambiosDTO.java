@@ -0,0 +1,20 @@
+package com.transaction.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for a page of delta synchronization changes.
+ * <p>
+ * Clients store {@code hasta} and send it as {@code desde} in their next sync.
+ */
+@Data
+public class CambiosDTO {
+    /** Changes after the requested sequence number, oldest first. */
+    private List<CambioDTO> cambios;
+    /** New high-water mark: the sequence number to resume from. */
+    private long hasta;
+    /** True if more changes are available right away after {@code hasta}. */
+    private boolean hayMas;
+}
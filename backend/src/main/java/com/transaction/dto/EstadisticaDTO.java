@@ -0,0 +1,28 @@
+package com.transaction.dto;
+
+import com.transaction.entity.EstadoTransaccion;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) for the value distribution of one group of transactions.
+ * <p>
+ * Quantiles are estimates within the configured relative precision; count, total and average are exact.
+ */
+@Data
+public class EstadisticaDTO {
+    /** State of the group, or null when grouped by month only. */
+    private EstadoTransaccion estado;
+    /** Month of the group (yyyy-MM), or null when grouped by state only. */
+    private String mes;
+    /** Number of transactions in the group. */
+    private long cantidad;
+    /** Sum of the amounts. */
+    private BigDecimal total;
+    /** Average amount. */
+    private BigDecimal promedio;
+    /** Estimated amount at each requested quantile, keyed by percentile (e.g. p50, p95, p99). */
+    private Map<String, BigDecimal> cuantiles;
+}
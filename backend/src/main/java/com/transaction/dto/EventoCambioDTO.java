@@ -0,0 +1,23 @@
+package com.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.transaction.event.TipoCambio;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for a change pushed through the Server-Sent Events feed.
+ * <p>
+ * Created and updated transactions are sent in full; deleted and paid ones only by ID.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventoCambioDTO {
+    /** Kind of change. */
+    private TipoCambio tipo;
+    /** Full data of created or updated transactions. */
+    private List<TransaccionDTO> transacciones;
+    /** IDs of deleted or paid transactions. */
+    private List<Long> ids;
+}
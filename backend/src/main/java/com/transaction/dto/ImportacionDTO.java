@@ -0,0 +1,36 @@
+package com.transaction.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) with the outcome of a CSV import.
+ * <p>
+ * Rows are committed in batches as they are read, so {@code importadas} rows are persisted even when
+ * the import stops early because of {@code error}.
+ */
+@Data
+public class ImportacionDTO {
+    /** Import ID, used to download the rejected rows. */
+    private String id;
+
+    /** Data rows read, excluding the header and blank lines. */
+    private long leidas;
+
+    /** Rows created as transactions. */
+    private long importadas;
+
+    /** Rows rejected, with their reasons in the rejected rows file. */
+    private long rechazadas;
+
+    /** Duration of the import in milliseconds. */
+    private long milisegundos;
+
+    /** Rows read per second. */
+    private long filasPorSegundo;
+
+    /** Path of the rejected rows file, or null if no row was rejected. */
+    private String rechazos;
+
+    /** Why the input could not be read to the end, or null if it was. */
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) returned when an ingestion request is durably logged.
+ * <p>
+ * The transactions got the ingestion IDs {@code desde..hasta}; they are in the database once the
+ * {@code ultimoPersistido} of the ingestion status reaches {@code hasta}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestaAceptadaDTO {
+    /** Ingestion ID of the first accepted transaction. */
+    private long desde;
+    /** Ingestion ID of the last accepted transaction. */
+    private long hasta;
+}
@@ -0,0 +1,22 @@
+package com.transaction.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for transactions submitted to the write-behind ingestion.
+ * <p>
+ * Every transaction is validated like in {@code POST /api/transacciones} before it is accepted.
+ */
+@Data
+public class IngestaDTO {
+    /** Transactions to create, between 1 and 1000. */
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull @Valid TransaccionCreateDTO> transacciones;
+}
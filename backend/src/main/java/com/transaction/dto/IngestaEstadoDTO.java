@@ -0,0 +1,22 @@
+package com.transaction.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) describing the progress of the write-behind ingestion.
+ */
+@Data
+public class IngestaEstadoDTO {
+    /** Ingestion ID of the last transaction accepted into the log. */
+    private long ultimoRecibido;
+    /** Ingestion ID of the last transaction written to the database. */
+    private long ultimoPersistido;
+    /** Transactions accepted but not yet written to the database. */
+    private int pendientes;
+    /** Capacity of the buffer; requests beyond it are rejected with 503. */
+    private int capacidad;
+    /** Age in milliseconds of the oldest transaction not yet written to the database. */
+    private long retrasoMs;
+    /** Transactions rejected by the database since startup, kept in {@code rechazadas.jsonl}. */
+    private long rechazadas;
+}
@@ -0,0 +1,30 @@
+package com.transaction.dto;
+
+import com.transaction.service.ModoLote;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for a batch of create, edit and delete operations.
+ * <p>
+ * Operations are executed in order within a single database transaction.
+ */
+@Data
+public class LoteDTO {
+    /** Maximum number of operations accepted in one batch. */
+    public static final int MAX_OPERACIONES = 1000;
+
+    /** How failures are handled. Required. */
+    @NotNull
+    private ModoLote modo;
+
+    /** Operations to execute, in order. Between 1 and 1000. */
+    @NotEmpty
+    @Size(max = MAX_OPERACIONES)
+    private List<@NotNull @Valid OperacionLoteDTO> operaciones;
+}
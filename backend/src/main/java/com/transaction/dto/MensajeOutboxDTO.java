@@ -0,0 +1,32 @@
+package com.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.transaction.event.TipoCambio;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) for a change delivered to downstream systems through the outbox.
+ * <p>
+ * Delivery is at-least-once: consumers must deduplicate by {@code id}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MensajeOutboxDTO {
+    /**
+     * Outbox event ID, unique but not ordered: IDs come from a pooled sequence (blocks of 50 per instance)
+     * and are taken before commit, so a lower ID may be delivered after a higher one.
+     */
+    private Long id;
+    /** Kind of change. */
+    private TipoCambio tipo;
+    /** Moment the change was written to the outbox. */
+    private LocalDateTime creadoEn;
+    /** State of the transaction after the change (a TransaccionDTO), as stored. */
+    @JsonRawValue
+    private String transaccion;
+}
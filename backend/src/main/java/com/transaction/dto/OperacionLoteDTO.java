@@ -0,0 +1,22 @@
+package com.transaction.dto;
+
+import com.transaction.service.TipoOperacionLote;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) for one operation of a batch.
+ * <p>
+ * {@code id} is required for EDITAR and ELIMINAR; {@code datos} for CREAR and EDITAR.
+ * The data is validated per operation, so in best-effort mode an invalid one does not reject the batch.
+ */
+@Data
+public class OperacionLoteDTO {
+    /** Kind of operation. Required. */
+    @NotNull
+    private TipoOperacionLote tipo;
+    /** ID of the transaction to edit or delete. */
+    private Long id;
+    /** Data of the transaction to create, or its new data when editing. */
+    private TransaccionCreateDTO datos;
+}
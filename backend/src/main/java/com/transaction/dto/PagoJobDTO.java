@@ -0,0 +1,39 @@
+package com.transaction.dto;
+
+import com.transaction.service.EstadoPagoJob;
+import com.transaction.service.PaymentResult;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) describing the progress of an asynchronous payment job.
+ * <p>
+ * Returned when the job is accepted and by the status polling endpoint.
+ */
+@Data
+public class PagoJobDTO {
+    /** Unique identifier of the job. */
+    private String id;
+    /** Current state of the job. */
+    private EstadoPagoJob estado;
+    /** Amount the job was submitted with. */
+    private BigDecimal montoInicial;
+    /** Number of transactions the job plans to pay (known once processing starts). */
+    private int transaccionesPorPagar;
+    /** Number of transactions paid so far. */
+    private int transaccionesPagadas;
+    /** Amount paid so far. */
+    private BigDecimal montoPagado;
+    /** Amount not yet applied to any transaction. */
+    private BigDecimal montoRestante;
+    /** Final result of the payment, available when the job is COMPLETADO. */
+    private PaymentResult resultado;
+    /** Error description, available when the job is FALLIDO. */
+    private String error;
+    /** Moment the job was accepted. */
+    private LocalDateTime creadoEn;
+    /** Moment the job finished, or null while it is running. */
+    private LocalDateTime finalizadoEn;
+}
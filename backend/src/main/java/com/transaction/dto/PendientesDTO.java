@@ -0,0 +1,37 @@
+package com.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the summary of the pending transactions.
+ * <p>
+ * Computed from the in-memory payment queue, so it reflects every committed change
+ * made through this instance.
+ */
+@Data
+public class PendientesDTO {
+    /** Number of pending transactions. */
+    private long cantidad;
+    /** Sum of the pending amounts. */
+    private BigDecimal total;
+    /** First pending transactions in payment order (oldest date first). */
+    private List<PendienteDTO> primeras;
+
+    /**
+     * A pending transaction in the payment queue.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendienteDTO {
+        private Long id;
+        private LocalDate fecha;
+        private BigDecimal valor;
+    }
+}
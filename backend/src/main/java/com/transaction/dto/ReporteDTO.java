@@ -0,0 +1,71 @@
+package com.transaction.dto;
+
+import com.transaction.entity.EstadoTransaccion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the analytical report of transactions.
+ * <p>
+ * Computed from the in-memory columnar snapshot, so it reflects every committed change
+ * made through this instance.
+ */
+@Data
+public class ReporteDTO {
+    /** Number of transactions in the date range. */
+    private long cantidad;
+    /** Sum of the amounts in the date range. */
+    private BigDecimal total;
+    /** Totals by state (PENDIENTE and PAGADO). */
+    private List<EstadoDTO> estados;
+    /** Share of the transactions that are paid (0 to 1), or null if there are none. */
+    private BigDecimal proporcionPagadas;
+    /** Share of the amount that is paid (0 to 1), or null if there are none. */
+    private BigDecimal proporcionMontoPagado;
+    /** Paid and pending amounts by month, in chronological order. */
+    private List<MesDTO> meses;
+    /** Names with the largest total amount, largest first. */
+    private List<NombreDTO> nombres;
+
+    /**
+     * Totals of one state.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EstadoDTO {
+        private EstadoTransaccion estado;
+        private long cantidad;
+        private BigDecimal total;
+    }
+
+    /**
+     * Totals of one calendar month.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MesDTO {
+        /** Month as yyyy-MM. */
+        private String mes;
+        private long cantidad;
+        private BigDecimal pagado;
+        private BigDecimal pendiente;
+    }
+
+    /**
+     * Totals of one transaction name.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NombreDTO {
+        private String nombre;
+        private long cantidad;
+        private BigDecimal total;
+    }
+}
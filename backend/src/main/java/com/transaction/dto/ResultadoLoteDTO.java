@@ -0,0 +1,23 @@
+package com.transaction.dto;
+
+import com.transaction.service.ModoLote;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) with the outcome of a batch.
+ */
+@Data
+public class ResultadoLoteDTO {
+    /** Mode the batch ran in. */
+    private ModoLote modo;
+    /** True if the changes were committed; false if an all-or-nothing batch was rolled back. */
+    private boolean confirmado;
+    /** Number of operations that succeeded (rolled back too when confirmado is false). */
+    private int exitosas;
+    /** Number of operations that failed or were skipped. */
+    private int fallidas;
+    /** Outcome of each operation, in batch order. */
+    private List<ResultadoOperacionDTO> resultados;
+}
@@ -0,0 +1,32 @@
+package com.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.transaction.service.TipoOperacionLote;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) with the outcome of one operation of a batch.
+ * <p>
+ * {@code status} is the HTTP status the equivalent single request would have returned
+ * (200, 204, 400, 404 or 409), or 424 for operations skipped after an all-or-nothing failure.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoOperacionDTO {
+    /** Position of the operation in the batch, starting at 0. */
+    private int indice;
+    /** Kind of operation. */
+    private TipoOperacionLote tipo;
+    /** HTTP-equivalent status of the operation. */
+    private int status;
+    /** ID of the affected transaction (assigned by the database for CREAR). */
+    private Long id;
+    /** Resulting transaction for CREAR and EDITAR. */
+    private TransaccionDTO transaccion;
+    /** Error description when the operation failed. */
+    private String error;
+    /** Field validation errors when the operation data is invalid. */
+    private Map<String, String> detalles;
+}
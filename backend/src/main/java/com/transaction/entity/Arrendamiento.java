@@ -0,0 +1,35 @@
+package com.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * JPA entity for a time-limited lock shared by all the instances that use the database (lease).
+ * <p>
+ * Maps to the 'arrendamientos' table. Every acquisition increments {@code token}, which is used as a
+ * fencing token: a holder whose lease expired and was taken by another instance can tell, because the
+ * token in the row is no longer its own.
+ */
+@Entity
+@Table(name = "arrendamientos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Arrendamiento {
+
+    /** Name of the protected resource. */
+    @Id
+    private String nombre;
+
+    /** Instance holding, or that last held, the lease. */
+    @Column(nullable = false)
+    private String titular;
+
+    /** Fencing token of the last acquisition. Only grows. */
+    @Column(nullable = false)
+    private long token;
+
+    /** Expiration of the lease (epoch milliseconds); 0 when released. */
+    @Column(name = "expira_ms", nullable = false)
+    private long expiraMs;
+}
@@ -0,0 +1,31 @@
+package com.transaction.entity;
+
+import com.transaction.repository.SecuenciaCambios;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener that stamps a new change sequence number on every insert and update.
+ * <p>
+ * Instantiated by Hibernate through Spring, so the sequence is looked up lazily to avoid
+ * depending on beans that are still being created while the EntityManagerFactory starts.
+ */
+public class CambioSecuenciaListener {
+    private final ObjectProvider<SecuenciaCambios> secuenciaCambios;
+
+    public CambioSecuenciaListener(ObjectProvider<SecuenciaCambios> secuenciaCambios) {
+        this.secuenciaCambios = secuenciaCambios;
+    }
+
+    /**
+     * Assigns the next change sequence number to the entity being written.
+     *
+     * @param entidad Entity being inserted or updated
+     */
+    @PrePersist
+    @PreUpdate
+    public void estampar(Object entidad) {
+        ((Sincronizable) entidad).setCambioSeq(secuenciaCambios.getObject().siguiente());
+    }
+}
@@ -0,0 +1,60 @@
+package com.transaction.entity;
+
+import com.transaction.event.TipoCambio;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity for a change waiting to be delivered to downstream systems (transactional outbox).
+ * <p>
+ * Maps to the 'outbox_eventos' table. Rows are inserted in the same database transaction as the
+ * change they describe, claimed by a dispatcher with a lease while it delivers them, and marked as
+ * dispatched once the sink has accepted them.
+ */
+@Entity
+@Table(name = "outbox_eventos", indexes = {
+        @Index(name = "idx_outbox_eventos_pendientes", columnList = "despachado_en, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoOutbox {
+
+    /** Unique identifier from a pooled sequence; neither insertion nor commit order across instances. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_eventos_id")
+    @SequenceGenerator(name = "outbox_eventos_id", sequenceName = "outbox_eventos_id_seq", allocationSize = 50)
+    private Long id;
+
+    /** Kind of change. */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoCambio tipo;
+
+    /** Identifier of the affected transaction. */
+    @Column(nullable = false)
+    private Long transaccionId;
+
+    /** State of the transaction after the change, as JSON. */
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    /** Moment the change was committed to the outbox. */
+    @Column(nullable = false)
+    private LocalDateTime creadoEn;
+
+    /** Moment the sink accepted the event, or null while it is pending. */
+    @Column(name = "despachado_en")
+    private LocalDateTime despachadoEn;
+
+    /** Dispatcher delivering the event, or null if no dispatcher claimed it. */
+    @Column(length = 36)
+    private String reclamadoPor;
+
+    /** Epoch millis when the claim expires and another dispatcher may take the event (0 if unclaimed). */
+    @Column(nullable = false)
+    private long reclamoExpiraMs;
+}
@@ -0,0 +1,26 @@
+package com.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * JPA entity storing how far the write-behind ingestion log has been persisted.
+ * <p>
+ * Maps to the 'ingesta_checkpoint' table. It is updated in the same database transaction as the
+ * inserted transactions, so after a crash the log is replayed exactly from the first unpersisted record.
+ */
+@Entity
+@Table(name = "ingesta_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestaCheckpoint {
+
+    /** Identity of the ingestion log ({@code registro-<uuid>}), one per instance. */
+    @Id
+    private String nombre;
+
+    /** ID of the last log record persisted to the transactions table. */
+    @Column(nullable = false)
+    private long ultimoPersistido;
+}
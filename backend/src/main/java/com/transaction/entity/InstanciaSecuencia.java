@@ -0,0 +1,48 @@
+package com.transaction.entity;
+
+import com.transaction.repository.SecuenciaCambios;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity holding the mark that an instance publishes for the change sequence.
+ * <p>
+ * Maps to the 'secuencia_instancias' table. Its id generator declares {@code transacciones_cambio_seq}, so
+ * schema management creates the change sequence with the block size of {@link SecuenciaCambios}. Rows are
+ * written by that class, which numbers each one with the first block its instance reserved; Hibernate
+ * never generates the id itself.
+ */
+@Entity
+@Table(name = "secuencia_instancias")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanciaSecuencia {
+
+    /** First change number reserved by the instance. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacciones_cambio")
+    @SequenceGenerator(name = "transacciones_cambio", sequenceName = "transacciones_cambio_seq", allocationSize = SecuenciaCambios.BLOQUE)
+    private Long id;
+
+    /** Random identity of the instance for its lifetime. */
+    @Column(nullable = false, unique = true, length = 36)
+    private String instancia;
+
+    /** Lowest change number the instance may still commit; null when it holds no block. */
+    private Long minimo;
+
+    /** Last publication, taken from the database clock. */
+    @Column(nullable = false)
+    private LocalDateTime actualizado;
+}
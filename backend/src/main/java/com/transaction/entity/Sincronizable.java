@@ -0,0 +1,14 @@
+package com.transaction.entity;
+
+/**
+ * Entity whose writes are stamped with a change sequence number for delta synchronization.
+ */
+public interface Sincronizable {
+
+    /**
+     * Sets the change sequence number of the latest write.
+     *
+     * @param cambioSeq Change sequence number
+     */
+    void setCambioSeq(Long cambioSeq);
+}
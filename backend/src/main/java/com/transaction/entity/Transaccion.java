@@ -3,6 +3,7 @@ package com.transaction.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -12,16 +13,26 @@ import java.time.LocalDate;
  * Maps to the 'transacciones' table in the database.
  */
 @Entity
-@Table(name = "transacciones")
+@Table(name = "transacciones", indexes = {
+        @Index(name = "idx_transacciones_cambio_seq", columnList = "cambio_seq"),
+        @Index(name = "idx_transacciones_fecha", columnList = "fecha, id"),
+        @Index(name = "idx_transacciones_valor", columnList = "valor, id"),
+        @Index(name = "idx_transacciones_estado_fecha", columnList = "estado, fecha, id")
+})
+@EntityListeners(CambioSecuenciaListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Transaccion {
+public class Transaccion implements Sincronizable {
 
-    /** Unique identifier for the transaction (auto-generated). */
+    /**
+     * Unique identifier for the transaction (auto-generated).
+     * Taken from a pooled sequence rather than an identity column so inserts can be sent as JDBC batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacciones_id")
+    @SequenceGenerator(name = "transacciones_id", sequenceName = "transacciones_id_seq", allocationSize = 50)
     private Long id;
 
     /** Name or description of the transaction. Cannot be null. */
@@ -46,4 +57,17 @@ public class Transaccion {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private EstadoTransaccion estado;
+
+    /** Change sequence number, stamped on every insert and update. Used for delta synchronization. */
+    @Column(name = "cambio_seq")
+    private Long cambioSeq;
+
+    /**
+     * Optimistic lock version, checked on every update so two writers that read the same row cannot both
+     * change it (e.g. a synchronous payment and a chunk of an asynchronous one when the payment lease is off).
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity recording that a transaction was deleted (tombstone).
+ * <p>
+ * Maps to the 'transacciones_eliminadas' table, so delta synchronization can report deletions
+ * to clients that already downloaded the transaction. A tombstone is only ever inserted, and its id is
+ * assigned, so it reports itself as new: {@code save()} then persists it instead of merging, which would
+ * first look the id up.
+ */
+@Entity
+@Table(name = "transacciones_eliminadas", indexes = {
+        @Index(name = "idx_transacciones_eliminadas_cambio_seq", columnList = "cambio_seq")
+})
+@EntityListeners(CambioSecuenciaListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransaccionEliminada implements Sincronizable, Persistable<Long> {
+
+    /** Identifier of the deleted transaction. */
+    @Id
+    private Long id;
+
+    /** Change sequence number of the deletion. */
+    @Column(name = "cambio_seq")
+    private Long cambioSeq;
+
+    /** Moment the transaction was deleted. Cannot be null. */
+    @Column(nullable = false)
+    private LocalDateTime eliminadaEn;
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
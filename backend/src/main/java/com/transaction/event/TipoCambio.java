@@ -0,0 +1,21 @@
+package com.transaction.event;
+
+/**
+ * Enum representing the kinds of change a transaction can go through.
+ * <ul>
+ *   <li>CREADA: Transaction was created.</li>
+ *   <li>ACTUALIZADA: Transaction data was edited.</li>
+ *   <li>ELIMINADA: Transaction was deleted.</li>
+ *   <li>PAGADA: Transaction was paid.</li>
+ * </ul>
+ */
+public enum TipoCambio {
+    /** Transaction was created. */
+    CREADA,
+    /** Transaction data was edited. */
+    ACTUALIZADA,
+    /** Transaction was deleted. */
+    ELIMINADA,
+    /** Transaction was paid. */
+    PAGADA
+}
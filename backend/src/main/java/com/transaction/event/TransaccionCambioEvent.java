@@ -0,0 +1,34 @@
+package com.transaction.event;
+
+import com.transaction.dto.TransaccionDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Application event published by TransaccionService for every change to transactions.
+ * <p>
+ * Listeners that react to committed data should use {@code @TransactionalEventListener},
+ * so nothing is observed from a transaction that is later rolled back.
+ */
+@Getter
+@AllArgsConstructor
+public class TransaccionCambioEvent {
+
+    /** Kind of change. */
+    private final TipoCambio tipo;
+
+    /** Affected transactions; for ELIMINADA, their state right before deletion. */
+    private final List<TransaccionDTO> transacciones;
+
+    /**
+     * For ACTUALIZADA and ELIMINADA, the affected transactions as they were before the current database
+     * transaction changed them, in the same order as {@link #transacciones}; null for other kinds.
+     */
+    private final List<TransaccionDTO> anteriores;
+
+    public TransaccionCambioEvent(TipoCambio tipo, List<TransaccionDTO> transacciones) {
+        this(tipo, transacciones, null);
+    }
+}
@@ -1,5 +1,7 @@
 package com.transaction.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -49,6 +51,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    /**
+     * Handles ParametroInvalidoException (e.g., unsupported sort field or inverted range).
+     * 
+     * @param ex Invalid parameter exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(ParametroInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleParametroInvalidoException(ParametroInvalidoException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.BAD_REQUEST.value(),
+            "Bad Request",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
     /**
      * Handles IllegalArgumentException (e.g., transaction not found).
      * 
@@ -87,6 +108,47 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
 
+    /**
+     * Handles OptimisticLockingFailureException (e.g., a transaction was paid or edited by another writer
+     * between reading and saving it).
+     * 
+     * @param ex Optimistic locking exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.CONFLICT.value(),
+            "Conflict",
+            "La transacción fue modificada por otra operación; vuelva a intentarlo",
+            null
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /**
+     * Handles ServicioNoDisponibleException (e.g., the change sequence mark is stale).
+     * 
+     * @param ex Service unavailable exception
+     * @return ResponseEntity with error details and a Retry-After header
+     */
+    @ExceptionHandler(ServicioNoDisponibleException.class)
+    public ResponseEntity<ErrorResponse> handleServicioNoDisponibleException(ServicioNoDisponibleException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getReintentarSegundos()))
+                .body(errorResponse);
+    }
+
     /**
      * Handles generic exceptions.
      * 
@@ -105,39 +167,4 @@ public class GlobalExceptionHandler {
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
-
-    /**
-     * Error response model for consistent error formatting.
-     */
-    public static class ErrorResponse {
-        private LocalDateTime timestamp;
-        private int status;
-        private String error;
-        private String message;
-        private Map<String, String> details;
-
-        public ErrorResponse(LocalDateTime timestamp, int status, String error, String message, Map<String, String> details) {
-            this.timestamp = timestamp;
-            this.status = status;
-            this.error = error;
-            this.message = message;
-            this.details = details;
-        }
-
-        // Getters and setters
-        public LocalDateTime getTimestamp() { return timestamp; }
-        public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
-        
-        public int getStatus() { return status; }
-        public void setStatus(int status) { this.status = status; }
-        
-        public String getError() { return error; }
-        public void setError(String error) { this.error = error; }
-        
-        public String getMessage() { return message; }
-        public void setMessage(String message) { this.message = message; }
-        
-        public Map<String, String> getDetails() { return details; }
-        public void setDetails(Map<String, String> details) { this.details = details; }
-    }
-}
\ No newline at end of file
+}
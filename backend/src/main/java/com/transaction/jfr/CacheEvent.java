@@ -0,0 +1,40 @@
+package com.transaction.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a lookup in an in-memory cache (instant event).
+ */
+@Name("com.transaction.Cache")
+@Label("Consulta de caché")
+@Category({"Transacciones", "Caché"})
+@Description("Acierto o fallo de una caché en memoria")
+@StackTrace(false)
+public class CacheEvent extends Event {
+
+    @Label("Caché")
+    public String cache;
+
+    @Label("Acierto")
+    public boolean acierto;
+
+    /**
+     * Records a cache lookup if the event is enabled.
+     *
+     * @param cache   Name of the cache
+     * @param acierto Whether the lookup found the entry
+     */
+    public static void registrar(String cache, boolean acierto) {
+        CacheEvent evento = new CacheEvent();
+        if (evento.shouldCommit()) {
+            evento.cache = cache;
+            evento.acierto = acierto;
+            evento.commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.transaction.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event spanning one payment, from reading the pending transactions to journaling the result.
+ * <p>
+ * Besides the total duration it records how long each phase took, so a slow payment shows whether the
+ * time went to the pending scan, the plan computation, the per-row saves or the journal.
+ */
+@Name("com.transaction.Pago")
+@Label("Pago")
+@Category({"Transacciones", "Pagos"})
+@Description("Ejecución de un pago o de un lote de un pago asíncrono")
+@StackTrace(false)
+public class PagoEvent extends Event {
+
+    @Label("Tipo")
+    @Description("PAGO, PLAN (pago asíncrono) o PAGO_LOTE")
+    public String tipo;
+
+    @Label("Monto")
+    public String monto;
+
+    @Label("Pendientes leídas")
+    public int pendientesLeidas;
+
+    @Label("Pagadas")
+    public int pagadas;
+
+    @Label("Rechazado")
+    public boolean rechazado;
+
+    @Label("Lectura")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lectura;
+
+    @Label("Cálculo")
+    @Timespan(Timespan.NANOSECONDS)
+    public long calculo;
+
+    @Label("Guardado")
+    @Timespan(Timespan.NANOSECONDS)
+    public long guardado;
+
+    @Label("Diario")
+    @Timespan(Timespan.NANOSECONDS)
+    public long diario;
+}
@@ -0,0 +1,69 @@
+package com.transaction.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Flight Recorder event for one repository call made by the service layer, with the rows it returned or wrote.
+ */
+@Name("com.transaction.Repositorio")
+@Label("Llamada al repositorio")
+@Category({"Transacciones", "Repositorio"})
+@Description("Llamada a un repositorio JPA y filas afectadas")
+@StackTrace(false)
+public class RepositorioEvent extends Event {
+
+    @Label("Operación")
+    public String operacion;
+
+    @Label("Filas")
+    public int filas;
+
+    /**
+     * Runs a repository call, recording it when the event is enabled.
+     * <p>
+     * With no recording (or the event disabled) this is the call plus an {@code isEnabled()} check, which
+     * the JIT reduces to a constant test; the event object is not even allocated after escape analysis.
+     *
+     * @param operacion Repository method, e.g. {@code findByEstadoOrderByFechaAsc}
+     * @param llamada   The call
+     * @param filas     Number of rows of the result
+     * @return The result of the call
+     */
+    public static <T> T medir(String operacion, Supplier<T> llamada, ToIntFunction<T> filas) {
+        RepositorioEvent evento = new RepositorioEvent();
+        if (!evento.isEnabled()) {
+            return llamada.get();
+        }
+        evento.begin();
+        T resultado = llamada.get();
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.operacion = operacion;
+            evento.filas = filas.applyAsInt(resultado);
+            evento.commit();
+        }
+        return resultado;
+    }
+
+    /**
+     * Runs a repository call without result, recording it when the event is enabled.
+     *
+     * @param operacion Repository method
+     * @param llamada   The call
+     * @param filas     Number of rows written
+     */
+    public static void medir(String operacion, Runnable llamada, int filas) {
+        medir(operacion, () -> {
+            llamada.run();
+            return null;
+        }, r -> filas);
+    }
+}
@@ -0,0 +1,61 @@
+package com.transaction.repository;
+
+import com.transaction.entity.Arrendamiento;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for the leases shared between instances.
+ */
+public interface ArrendamientoRepository extends JpaRepository<Arrendamiento, String> {
+    /**
+     * Takes a lease if it is free or expired, incrementing its fencing token.
+     *
+     * @param nombre  Lease name
+     * @param titular Instance taking the lease
+     * @param ahora   Current time (epoch milliseconds)
+     * @param expira  Expiration of the new lease (epoch milliseconds)
+     * @return 1 if the lease was taken, 0 if another instance holds it
+     */
+    @Modifying
+    @Query("UPDATE Arrendamiento a SET a.titular = :titular, a.token = a.token + 1, a.expiraMs = :expira"
+            + " WHERE a.nombre = :nombre AND a.expiraMs <= :ahora")
+    int tomar(@Param("nombre") String nombre, @Param("titular") String titular,
+              @Param("ahora") long ahora, @Param("expira") long expira);
+
+    /**
+     * Reads the current fencing token of a lease.
+     *
+     * @param nombre Lease name
+     * @return Token of the last acquisition
+     */
+    @Query("SELECT a.token FROM Arrendamiento a WHERE a.nombre = :nombre")
+    long token(@Param("nombre") String nombre);
+
+    /**
+     * Reads a lease and locks its row until the end of the current transaction ({@code SELECT ... FOR UPDATE}).
+     *
+     * @param nombre Lease name
+     * @return The lease, if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Arrendamiento a WHERE a.nombre = :nombre")
+    Optional<Arrendamiento> bloquear(@Param("nombre") String nombre);
+
+    /**
+     * Releases a lease if it was not taken by another instance since the given acquisition.
+     *
+     * @param nombre Lease name
+     * @param token  Fencing token of the acquisition being released
+     * @return 1 if released, 0 if the lease already belongs to a later acquisition
+     */
+    @Modifying
+    @Query("UPDATE Arrendamiento a SET a.expiraMs = 0 WHERE a.nombre = :nombre AND a.token = :token")
+    int liberar(@Param("nombre") String nombre, @Param("token") long token);
+}
@@ -0,0 +1,80 @@
+package com.transaction.repository;
+
+import com.transaction.entity.EventoOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for the transactional outbox.
+ */
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+    /**
+     * Finds the oldest events not dispatched yet whose claim is missing or expired, locking their rows until
+     * the end of the current transaction ({@code SELECT ... FOR UPDATE SKIP LOCKED}). Rows being claimed by
+     * another dispatcher at the same time are skipped, not waited for.
+     *
+     * @param ahora    Current epoch millis
+     * @param pageable Batch size limit
+     * @return Pending events free to claim, in ID order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EventoOutbox e WHERE e.despachadoEn IS NULL AND e.reclamoExpiraMs < :ahora ORDER BY e.id")
+    List<EventoOutbox> findPendientes(@Param("ahora") long ahora, Pageable pageable);
+
+    /**
+     * Claims a batch of events for a dispatcher until the given moment.
+     *
+     * @param ids      IDs of the events, locked by {@link #findPendientes} in the same transaction
+     * @param titular  Dispatcher claiming them
+     * @param expiraMs Epoch millis when the claim expires
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.reclamadoPor = :titular, e.reclamoExpiraMs = :expiraMs WHERE e.id IN :ids")
+    int reclamar(@Param("ids") Collection<Long> ids, @Param("titular") String titular, @Param("expiraMs") long expiraMs);
+
+    /**
+     * Drops a dispatcher's claim on events it could not deliver, so the next poll takes them again.
+     *
+     * @param ids     IDs of the events
+     * @param titular Dispatcher that claimed them; claims taken over by another dispatcher are kept
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.reclamadoPor = NULL, e.reclamoExpiraMs = 0 "
+            + "WHERE e.id IN :ids AND e.reclamadoPor = :titular AND e.despachadoEn IS NULL")
+    int liberar(@Param("ids") Collection<Long> ids, @Param("titular") String titular);
+
+    /**
+     * Marks a batch of events as dispatched with a single UPDATE.
+     *
+     * @param ids   IDs of the delivered events
+     * @param ahora Dispatch time
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.despachadoEn = :ahora WHERE e.id IN :ids")
+    int marcarDespachados(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Deletes the events dispatched before the given moment.
+     *
+     * @param limite Retention limit
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.despachadoEn < :limite")
+    int purgarDespachados(@Param("limite") LocalDateTime limite);
+}
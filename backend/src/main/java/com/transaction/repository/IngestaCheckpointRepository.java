@@ -0,0 +1,10 @@
+package com.transaction.repository;
+
+import com.transaction.entity.IngestaCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for the write-behind ingestion checkpoint.
+ */
+public interface IngestaCheckpointRepository extends JpaRepository<IngestaCheckpoint, String> {
+}
@@ -0,0 +1,43 @@
+package com.transaction.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Gets the change sequence numbers of a write transaction ready before it takes a connection, so the
+ * JPA listener only has to hand them out from memory.
+ * <p>
+ * Registered with the application transaction manager by Spring Boot. Read-only transactions and those
+ * named {@link SecuenciaCambios#SIN_CAMBIOS} are skipped. A transaction started while another one is
+ * suspended on the same thread does not wait, since the suspended one still holds its connection.
+ */
+@Component
+public class PreparacionSecuenciaListener implements TransactionExecutionListener {
+    private final ObjectProvider<SecuenciaCambios> secuenciaCambios;
+
+    public PreparacionSecuenciaListener(ObjectProvider<SecuenciaCambios> secuenciaCambios) {
+        this.secuenciaCambios = secuenciaCambios;
+    }
+
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        if (numera(transaction)) {
+            boolean suspendida = transaction instanceof DefaultTransactionStatus status && status.getSuspendedResources() != null;
+            secuenciaCambios.getObject().abrir(!suspendida);
+        }
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (numera(transaction)) {
+            secuenciaCambios.getObject().empezada(beginFailure == null);
+        }
+    }
+
+    private static boolean numera(TransactionExecution transaction) {
+        return !transaction.isReadOnly() && !SecuenciaCambios.SIN_CAMBIOS.equals(transaction.getTransactionName());
+    }
+}
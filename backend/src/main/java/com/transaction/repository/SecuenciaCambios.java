@@ -0,0 +1,591 @@
+package com.transaction.repository;
+
+import com.transaction.exception.ServicioNoDisponibleException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.Db2LuwMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.HsqlSequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.MariaDBSequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.OracleSequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.SqlServerSequenceMaxValueIncrementer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Monotonic change sequence shared by all synchronizable entities.
+ * <p>
+ * Numbers come from a database sequence that advances {@value #BLOQUE} at a time, like the id generator
+ * of the transactions: each instance reserves blocks with one round trip each and hands them out locally.
+ * They are assigned in write order but may become visible out of order when transactions commit, so
+ * readers must not go past {@link #limiteVisible()}, which is derived from the database for all instances:
+ * <ul>
+ *   <li>Each instance publishes in {@code secuencia_instancias}, every {@code intervalo-ms}, the lowest
+ *       number it may still commit: its oldest in-flight number, or the next one of its block. An instance
+ *       that stays idle for a whole interval releases its blocks and publishes no mark, so it does not hold
+ *       the others back; when it reserves again, it publishes the first number of the block before using it.</li>
+ *   <li>The limit is the highest committed change number, lowered below the mark of every live instance.
+ *       Marks not refreshed within {@code caducidad-ms} of the database clock belong to dead instances and
+ *       are ignored; an instance that could not publish for half that time refuses to commit changes, so
+ *       an ignored mark never hides a late commit.</li>
+ * </ul>
+ * Only the publisher thread talks to the database: it reserves blocks and writes marks outside the lock,
+ * while {@link #siguiente()}, called by the JPA listener inside write transactions, only hands out numbers
+ * already in memory. Write transactions ask for them before they take a connection (see
+ * {@link PreparacionSecuenciaListener}), and the publisher keeps enough in memory for the largest transaction
+ * seen so far and for every transaction open at once, up to {@code reserva-maxima}. A transaction that runs
+ * out anyway is rejected with 503 and the reserve grows for its retry; bulk writers can avoid that by calling
+ * {@link #preparar(int)} before they start.
+ * <p>
+ * The sequence and the marks table are created by schema management (see
+ * {@link com.transaction.entity.InstanciaSecuencia}). Marks are written and the limit is read through the
+ * application DataSource in a transaction of their own, which always runs on the primary.
+ */
+@Slf4j
+@Component
+public class SecuenciaCambios {
+    public static final int BLOQUE = 50;
+    /**
+     * Name of write transactions that never stamp change numbers, so they are not prepared for them.
+     */
+    public static final String SIN_CAMBIOS = "sin-cambios";
+    private static final String SECUENCIA = "transacciones_cambio_seq";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate aparte;
+    private final String instancia = UUID.randomUUID().toString();
+    private final long intervaloMs;
+    private final long caducidadMs;
+    private final long esperaMs;
+    private final int reservaMaxima;
+    private final ScheduledExecutorService publicador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "secuencia-cambios");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition repuesta = cerrojo.newCondition();
+    private DataFieldMaxValueIncrementer incrementador;
+    // Protegido por cerrojo. Bloque en uso: [siguienteNumero, finBloque); los siguientes, en bloques
+    private final NavigableSet<Long> enCurso = new TreeSet<>();
+    private final Deque<Long> bloques = new ArrayDeque<>();
+    private long siguienteNumero;
+    private long finBloque;
+    private int objetivo = BLOQUE;
+    private int abiertas;
+    private boolean registrada;
+    private boolean emitidos;
+    private boolean reponiendo;
+    private long publicadaNanos;
+    // Solo del hilo publicador
+    private Long registro;
+
+    /**
+     * Creates the sequence accessor. Depends on the EntityManagerFactory so the schema already exists.
+     *
+     * @param dataSource           Application DataSource
+     * @param transactionManager   Transaction manager of the application DataSource
+     * @param entityManagerFactory JPA EntityManagerFactory, initialized before this bean
+     * @param intervaloMs          Interval between publications of this instance's mark
+     * @param caducidadMs          Age after which the mark of an instance that stopped publishing is ignored
+     * @param esperaMs             Longest wait for the publisher before a write transaction starts
+     * @param reservaMaxima        Most numbers kept in memory
+     */
+    public SecuenciaCambios(DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            EntityManagerFactory entityManagerFactory,
+                            @Value("${transacciones.secuencia.intervalo-ms:1000}") long intervaloMs,
+                            @Value("${transacciones.secuencia.caducidad-ms:30000}") long caducidadMs,
+                            @Value("${transacciones.secuencia.espera-ms:2000}") long esperaMs,
+                            @Value("${transacciones.secuencia.reserva-maxima:5000}") int reservaMaxima) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Fuera de la transacción del llamador, y de escritura para que vaya a la primaria
+        this.aparte = new TransactionTemplate(transactionManager);
+        this.aparte.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.aparte.setName(SIN_CAMBIOS);
+        this.intervaloMs = intervaloMs;
+        this.caducidadMs = caducidadMs;
+        this.esperaMs = esperaMs;
+        this.reservaMaxima = Math.max(BLOQUE, reservaMaxima);
+    }
+
+    @PostConstruct
+    void crear() {
+        incrementador = incrementador(dataSource);
+        aparte.executeWithoutResult(status -> {
+            List<Object[]> caducadas = new ArrayList<>();
+            jdbcTemplate.query("SELECT instancia, actualizado, CURRENT_TIMESTAMP FROM secuencia_instancias", rs -> {
+                if (caducada(rs.getTimestamp(2), rs.getTimestamp(3))) {
+                    caducadas.add(new Object[]{rs.getString(1), rs.getTimestamp(2)});
+                }
+            });
+            // Solo si no se renovó entre la lectura y el borrado
+            for (Object[] caducadaInstancia : caducadas) {
+                jdbcTemplate.update("DELETE FROM secuencia_instancias WHERE instancia = ? AND actualizado = ?", caducadaInstancia);
+            }
+        });
+        publicador.scheduleWithFixedDelay(this::publicarSinFallar, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits until this instance holds at least the given amount of numbers with a fresh mark. Meant for bulk
+     * writers, before they start the transaction; inside one it only asks the publisher for them, since
+     * waiting while holding a connection could starve the publisher of one.
+     *
+     * @param numeros Numbers the coming transaction will stamp
+     * @throws ServicioNoDisponibleException if the publisher could not reserve them in time
+     */
+    public void preparar(int numeros) {
+        cerrojo.lock();
+        try {
+            objetivo = Math.min(reservaMaxima, Math.max(objetivo, numeros));
+        } finally {
+            cerrojo.unlock();
+        }
+        esperarReserva(!TransactionSynchronizationManager.isActualTransactionActive());
+    }
+
+    /**
+     * Issues the next change sequence number for the current transaction, from the numbers in memory.
+     *
+     * @return Change sequence number
+     * @throws ServicioNoDisponibleException if no reserved number is left or this instance could not
+     *                                       publish its mark recently
+     */
+    public long siguiente() {
+        cerrojo.lock();
+        try {
+            if (siguienteNumero == finBloque) {
+                Long inicio = bloques.poll();
+                if (inicio == null) {
+                    // La reintentada encontrará una reserva mayor
+                    int usados = TransactionSynchronizationManager.isSynchronizationActive() ? numerosDeLaTransaccion().size() : 0;
+                    objetivo = Math.min(reservaMaxima, Math.max(objetivo, 2 * (usados + 1)));
+                    solicitarReposicion();
+                    throw new ServicioNoDisponibleException("No quedan números reservados de la secuencia de cambios; "
+                            + "la escritura se cancela y se reservan más", 1);
+                }
+                siguienteNumero = inicio;
+                finBloque = inicio + BLOQUE;
+            }
+            comprobarVigencia();
+            long numero = siguienteNumero++;
+            emitidos = true;
+            if (disponibles() < reservaDeseada()) {
+                solicitarReposicion();
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                enCurso.add(numero);
+                numerosDeLaTransaccion().add(numero);
+            }
+            return numero;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Gets the highest change sequence number that readers can safely consume: every write of any
+     * instance at or below it is either committed or rolled back.
+     *
+     * @return Highest safely visible change sequence number
+     */
+    public long limiteVisible() {
+        long limite = aparte.execute(status -> {
+            // Primero lo confirmado: todo número por debajo sin confirmar tiene ya su marca publicada
+            Long confirmado = jdbcTemplate.queryForObject("SELECT MAX(cambio_seq) FROM ("
+                    + "SELECT MAX(cambio_seq) AS cambio_seq FROM transacciones "
+                    + "UNION ALL SELECT MAX(cambio_seq) AS cambio_seq FROM transacciones_eliminadas) confirmados", Long.class);
+            long[] minimo = {confirmado == null ? 0 : confirmado};
+            jdbcTemplate.query("SELECT minimo, actualizado, CURRENT_TIMESTAMP FROM secuencia_instancias "
+                    + "WHERE instancia <> ? AND minimo IS NOT NULL", rs -> {
+                if (!caducada(rs.getTimestamp(2), rs.getTimestamp(3))) {
+                    minimo[0] = Math.min(minimo[0], rs.getLong(1) - 1);
+                }
+            }, instancia);
+            return minimo[0];
+        });
+        cerrojo.lock();
+        try {
+            if (registrada) {
+                limite = Math.min(limite, marcaLocal() - 1);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+        return limite;
+    }
+
+    /**
+     * Called before a write transaction takes its connection: counts it as open and waits for its numbers.
+     *
+     * @param esperar false if the thread already holds a connection of a suspended transaction
+     */
+    void abrir(boolean esperar) {
+        cerrojo.lock();
+        try {
+            abiertas++;
+        } finally {
+            cerrojo.unlock();
+        }
+        try {
+            esperarReserva(esperar);
+        } catch (RuntimeException e) {
+            cerrar();
+            throw e;
+        }
+    }
+
+    /**
+     * Called once a write transaction counted by {@link #abrir(boolean)} began, or failed to.
+     *
+     * @param empezada true if it began and is now bound to the thread
+     */
+    void empezada(boolean empezada) {
+        if (!empezada) {
+            cerrar();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cerrar();
+            }
+        });
+    }
+
+    /**
+     * Publishes this instance's mark, or releases its blocks if it neither issued numbers nor had a write
+     * transaction open since the last publication. Runs on the publisher thread.
+     */
+    void publicar() {
+        Long marca;
+        long inicio;
+        cerrojo.lock();
+        try {
+            if (!registrada) {
+                return;
+            }
+            if (abiertas == 0 && enCurso.isEmpty() && !emitidos) {
+                registrada = false;
+                bloques.clear();
+                siguienteNumero = finBloque;
+                marca = null;
+            } else {
+                marca = marcaLocal();
+            }
+            emitidos = false;
+            inicio = System.nanoTime();
+        } finally {
+            cerrojo.unlock();
+        }
+        escribirMarca(marca);
+        if (marca != null) {
+            cerrojo.lock();
+            try {
+                publicadaNanos = inicio;
+                repuesta.signalAll();
+            } finally {
+                cerrojo.unlock();
+            }
+            reponer();
+        }
+    }
+
+    /**
+     * Stops publishing and removes this instance's mark if nothing is in flight.
+     */
+    @PreDestroy
+    void detener() {
+        publicador.shutdownNow();
+        boolean libre;
+        cerrojo.lock();
+        try {
+            libre = enCurso.isEmpty();
+        } finally {
+            cerrojo.unlock();
+        }
+        if (!libre) {
+            return;
+        }
+        try {
+            aparte.executeWithoutResult(status ->
+                    jdbcTemplate.update("DELETE FROM secuencia_instancias WHERE instancia = ?", instancia));
+        } catch (DataAccessException e) {
+            log.warn("No se pudo borrar la marca de la instancia {}; caducará en {} ms", instancia, caducidadMs, e);
+        }
+    }
+
+    /**
+     * Waits until the numbers in memory cover the largest transaction seen so far, with a fresh mark.
+     *
+     * @param esperar false to only ask the publisher for more
+     */
+    private void esperarReserva(boolean esperar) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMs);
+        cerrojo.lock();
+        try {
+            while (!registrada || disponibles() < objetivo || !vigente()) {
+                solicitarReposicion();
+                long restante = limite - System.nanoTime();
+                if (!esperar) {
+                    return;
+                }
+                if (restante <= 0) {
+                    throw new ServicioNoDisponibleException("No se pudieron reservar números de la secuencia de cambios en "
+                            + esperaMs + " ms", Math.max(1, TimeUnit.MILLISECONDS.toSeconds(intervaloMs)));
+                }
+                repuesta.awaitNanos(restante);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicioNoDisponibleException("Interrumpida la espera de la secuencia de cambios", 1);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Reserves blocks until the numbers in memory cover the reserve, publishing the mark first if this
+     * instance has none. Runs on the publisher thread, with the lock held only between round trips.
+     */
+    private void reponer() {
+        while (true) {
+            boolean registrar;
+            cerrojo.lock();
+            try {
+                if (registrada && disponibles() >= reservaDeseada()) {
+                    reponiendo = false;
+                    return;
+                }
+                registrar = !registrada;
+            } finally {
+                cerrojo.unlock();
+            }
+            long inicio = incrementador.nextLongValue();
+            long publicada = System.nanoTime();
+            if (registrar) {
+                // La marca se publica antes de emitir números del bloque, con el primero de ellos
+                escribirMarca(inicio);
+            }
+            cerrojo.lock();
+            try {
+                if (registrar) {
+                    registrada = true;
+                    publicadaNanos = publicada;
+                }
+                if (siguienteNumero == finBloque && bloques.isEmpty()) {
+                    siguienteNumero = inicio;
+                    finBloque = inicio + BLOQUE;
+                } else {
+                    bloques.add(inicio);
+                }
+                repuesta.signalAll();
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    private void reponerSinFallar() {
+        try {
+            reponer();
+        } catch (RuntimeException e) {
+            cerrojo.lock();
+            try {
+                reponiendo = false;
+            } finally {
+                cerrojo.unlock();
+            }
+            log.warn("No se pudieron reservar números de la secuencia de cambios; se reintentará", e);
+        }
+    }
+
+    private void publicarSinFallar() {
+        try {
+            publicar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo publicar la marca de la secuencia de cambios", e);
+        }
+    }
+
+    /**
+     * Hands the reservation over to the publisher thread, once. Called with the lock held; never blocks.
+     */
+    private void solicitarReposicion() {
+        if (reponiendo) {
+            return;
+        }
+        reponiendo = true;
+        try {
+            publicador.execute(this::reponerSinFallar);
+        } catch (RejectedExecutionException e) {
+            // Deteniéndose: no se reservan más
+            reponiendo = false;
+        }
+    }
+
+    private void escribirMarca(Long minimo) {
+        if (registro == null) {
+            registro = minimo;
+        }
+        aparte.executeWithoutResult(status -> {
+            int filas = jdbcTemplate.update("UPDATE secuencia_instancias SET minimo = ?, actualizado = CURRENT_TIMESTAMP "
+                    + "WHERE instancia = ?", minimo, instancia);
+            if (filas == 0) {
+                jdbcTemplate.update("INSERT INTO secuencia_instancias (id, instancia, minimo, actualizado) "
+                        + "VALUES (?, ?, ?, CURRENT_TIMESTAMP)", registro, instancia, minimo);
+            }
+        });
+    }
+
+    private void cerrar() {
+        cerrojo.lock();
+        try {
+            abiertas--;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Numbers in memory: the rest of the block in use and the blocks reserved after it.
+     */
+    private long disponibles() {
+        return finBloque - siguienteNumero + (long) bloques.size() * BLOQUE;
+    }
+
+    /**
+     * Numbers the publisher keeps in memory: enough for the largest transaction seen in each open one.
+     */
+    private long reservaDeseada() {
+        return Math.min(reservaMaxima, (long) objetivo * Math.max(1, abiertas));
+    }
+
+    /**
+     * Lowest number this instance may still commit. Numbers in flight always come from earlier in the block,
+     * and the reserved blocks come after it.
+     */
+    private long marcaLocal() {
+        return enCurso.isEmpty() ? siguienteNumero : enCurso.first();
+    }
+
+    private boolean caducada(Timestamp actualizado, Timestamp ahora) {
+        return actualizado.getTime() <= ahora.getTime() - caducidadMs;
+    }
+
+    private boolean vigente() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - publicadaNanos) <= caducidadMs / 2;
+    }
+
+    private void comprobarVigencia() {
+        cerrojo.lock();
+        try {
+            long antiguedadMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - publicadaNanos);
+            if (antiguedadMs > caducidadMs / 2) {
+                throw new ServicioNoDisponibleException("La marca de la secuencia de cambios no se publica desde hace "
+                        + antiguedadMs + " ms; la escritura se cancela para no quedar oculta a la sincronización",
+                        Math.max(1, TimeUnit.MILLISECONDS.toSeconds(intervaloMs)));
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Gets the numbers issued in the current transaction, registering their release on completion.
+     *
+     * @return Mutable list bound to the current transaction
+     */
+    @SuppressWarnings("unchecked")
+    private List<Long> numerosDeLaTransaccion() {
+        List<Long> numeros = (List<Long>) TransactionSynchronizationManager.getResource(this);
+        if (numeros == null) {
+            List<Long> nuevos = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Los números emitidos durante el propio commit se comprueban en siguiente()
+                    comprobarVigencia();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SecuenciaCambios.this);
+                    liberar(nuevos);
+                }
+            });
+            numeros = nuevos;
+        }
+        return numeros;
+    }
+
+    private void liberar(List<Long> numeros) {
+        cerrojo.lock();
+        try {
+            numeros.forEach(enCurso::remove);
+            objetivo = Math.min(reservaMaxima, Math.max(objetivo, numeros.size()));
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Chooses the statement that takes the next value of the sequence for the database in use.
+     *
+     * @param dataSource Application DataSource
+     * @return Incrementer of the change sequence
+     */
+    private static DataFieldMaxValueIncrementer incrementador(DataSource dataSource) {
+        DatabaseDriver driver;
+        try {
+            driver = DatabaseDriver.fromJdbcUrl(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getURL));
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("No se pudo identificar la base de datos de la secuencia de cambios", e);
+        }
+        return switch (driver) {
+            case H2 -> new H2SequenceMaxValueIncrementer(dataSource, SECUENCIA);
+            case POSTGRESQL -> new PostgresSequenceMaxValueIncrementer(dataSource, SECUENCIA);
+            case ORACLE -> new OracleSequenceMaxValueIncrementer(dataSource, SECUENCIA);
+            case SQLSERVER -> new SqlServerSequenceMaxValueIncrementer(dataSource, SECUENCIA);
+            case MARIADB -> new MariaDBSequenceMaxValueIncrementer(dataSource, SECUENCIA);
+            case HSQLDB -> new HsqlSequenceMaxValueIncrementer(dataSource, SECUENCIA);
+            case DB2 -> new Db2LuwMaxValueIncrementer(dataSource, SECUENCIA);
+            default -> throw new IllegalStateException("La base de datos " + driver + " no tiene secuencias soportadas");
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.transaction.repository;
+
+import com.transaction.entity.TransaccionEliminada;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository interface for accessing deleted transaction tombstones.
+ */
+public interface TransaccionEliminadaRepository extends JpaRepository<TransaccionEliminada, Long> {
+    /**
+     * Finds the tombstones written within a change sequence range, ordered by sequence.
+     *
+     * @param desde    Exclusive lower bound of the change sequence
+     * @param hasta    Inclusive upper bound of the change sequence
+     * @param pageable Page size limit
+     * @return Tombstones in the range, oldest change first
+     */
+    @Query("SELECT e FROM TransaccionEliminada e WHERE e.cambioSeq > :desde AND e.cambioSeq <= :hasta ORDER BY e.cambioSeq")
+    List<TransaccionEliminada> findCambios(@Param("desde") long desde, @Param("hasta") long hasta, Pageable pageable);
+}
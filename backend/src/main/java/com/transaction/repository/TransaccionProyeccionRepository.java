@@ -0,0 +1,23 @@
+package com.transaction.repository;
+
+import com.transaction.entity.Transaccion;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link TransaccionRepository} for list queries that select only some columns.
+ */
+public interface TransaccionProyeccionRepository {
+    /**
+     * Finds the transactions matching the criteria, selecting only the given attributes.
+     *
+     * @param spec   Criteria built by {@link TransaccionSpecs}
+     * @param sort   Sort order (may use attributes that are not selected)
+     * @param campos Attributes to select, each one aliased with its own name
+     * @return One tuple per transaction
+     */
+    List<Tuple> findCampos(Specification<Transaccion> spec, Sort sort, List<String> campos);
+}
@@ -0,0 +1,40 @@
+package com.transaction.repository;
+
+import com.transaction.entity.Transaccion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Criteria implementation of {@link TransaccionProyeccionRepository}: a tuple query, so the SQL
+ * selects only the requested columns and no entity is loaded into the persistence context.
+ */
+@RequiredArgsConstructor
+class TransaccionProyeccionRepositoryImpl implements TransaccionProyeccionRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findCampos(Specification<Transaccion> spec, Sort sort, List<String> campos) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Transaccion> root = query.from(Transaccion.class);
+        query.multiselect(campos.stream().<Selection<?>>map(campo -> root.get(campo).alias(campo)).toList());
+        Predicate condicion = spec.toPredicate(root, query, cb);
+        if (condicion != null) {
+            query.where(condicion);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -2,30 +2,23 @@ package com.transaction.repository;
 
 import com.transaction.entity.EstadoTransaccion;
 import com.transaction.entity.Transaccion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Repository interface for accessing transaction data in the database.
  * <p>
- * Extends JpaRepository to provide CRUD operations and custom queries for filtering and payment logic.
+ * Extends JpaRepository to provide CRUD operations and custom queries for payment logic, and
+ * JpaSpecificationExecutor for the dynamic list filters built by {@link TransaccionSpecs}, whose
+ * column projections are served by {@link TransaccionProyeccionRepository}.
  */
-public interface TransaccionRepository extends JpaRepository<Transaccion, Long> {
-    /**
-     * Finds transactions by optional filters: name (partial, case-insensitive), date, and state.
-     *
-     * @param nombre Name filter (nullable, partial match)
-     * @param fecha  Date filter (nullable, exact match)
-     * @param estado State filter (nullable, exact match)
-     * @return List of transactions matching the filters
-     */
-    @Query("SELECT t FROM Transaccion t WHERE (:nombre IS NULL OR LOWER(t.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))) AND (:fecha IS NULL OR t.fecha = :fecha) AND (:estado IS NULL OR t.estado = :estado)")
-    List<Transaccion> findByFilters(@Param("nombre") String nombre, @Param("fecha") LocalDate fecha, @Param("estado") EstadoTransaccion estado);
-
+public interface TransaccionRepository extends JpaRepository<Transaccion, Long>, JpaSpecificationExecutor<Transaccion>,
+        TransaccionProyeccionRepository {
     /**
      * Finds all transactions with the given state, ordered by date ascending.
      * Used for payment processing (oldest first).
@@ -34,4 +27,16 @@ public interface TransaccionRepository extends JpaRepository<Transaccion, Long>
      * @return List of transactions in the given state, ordered by date
      */
     List<Transaccion> findByEstadoOrderByFechaAsc(EstadoTransaccion estado);
+
+    /**
+     * Finds the transactions written within a change sequence range, ordered by sequence.
+     * Served by the index on the change sequence column.
+     *
+     * @param desde    Exclusive lower bound of the change sequence
+     * @param hasta    Inclusive upper bound of the change sequence
+     * @param pageable Page size limit
+     * @return Transactions in the range, oldest change first
+     */
+    @Query("SELECT t FROM Transaccion t WHERE t.cambioSeq > :desde AND t.cambioSeq <= :hasta ORDER BY t.cambioSeq")
+    List<Transaccion> findCambios(@Param("desde") long desde, @Param("hasta") long hasta, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.transaction.repository;
+
+import com.transaction.dto.TransaccionFiltroDTO;
+import com.transaction.entity.Transaccion;
+import com.transaction.exception.ParametroInvalidoException;
+import com.transaction.service.ReglasTransaccion;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Dynamic query criteria for the transaction list.
+ * <p>
+ * Only the filters that are present become predicates, so each query is a plain conjunction the
+ * database can serve from the indexes on {@code fecha}, {@code valor} and {@code (estado, fecha)}.
+ * The name filter is a substring match and is never index-backed.
+ */
+public final class TransaccionSpecs {
+    private TransaccionSpecs() {
+    }
+
+    /**
+     * Builds the criteria for the given filters.
+     *
+     * @param filtro List filters
+     * @return Conjunction of the present filters (matches everything if none is present)
+     * @throws ParametroInvalidoException if a range has its lower bound above its upper bound
+     */
+    public static Specification<Transaccion> de(TransaccionFiltroDTO filtro) {
+        ReglasTransaccion.validarRangos(filtro);
+
+        List<Specification<Transaccion>> condiciones = new ArrayList<>();
+        if (filtro.getNombre() != null && !filtro.getNombre().isBlank()) {
+            String patron = "%" + filtro.getNombre().toLowerCase(Locale.ROOT) + "%";
+            condiciones.add((root, query, cb) -> cb.like(cb.lower(root.get("nombre")), patron));
+        }
+        if (filtro.getEstado() != null) {
+            condiciones.add((root, query, cb) -> cb.equal(root.get("estado"), filtro.getEstado()));
+        }
+        if (filtro.getFecha() != null) {
+            condiciones.add((root, query, cb) -> cb.equal(root.get("fecha"), filtro.getFecha()));
+        }
+        if (filtro.getFechaDesde() != null) {
+            condiciones.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fecha"), filtro.getFechaDesde()));
+        }
+        if (filtro.getFechaHasta() != null) {
+            condiciones.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("fecha"), filtro.getFechaHasta()));
+        }
+        if (filtro.getValorMin() != null) {
+            condiciones.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("valor"), filtro.getValorMin()));
+        }
+        if (filtro.getValorMax() != null) {
+            condiciones.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("valor"), filtro.getValorMax()));
+        }
+        return Specification.allOf(condiciones);
+    }
+
+    /**
+     * Parses a sort parameter of the form {@code campo[,asc|desc]}.
+     *
+     * @param sort Sort parameter (nullable, defaults to id ascending)
+     * @return The sort order
+     * @throws ParametroInvalidoException if the field or direction is not supported
+     * @see ReglasTransaccion#orden(String)
+     */
+    public static Sort orden(String sort) {
+        return ReglasTransaccion.orden(sort);
+    }
+}
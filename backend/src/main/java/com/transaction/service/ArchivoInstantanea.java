@@ -0,0 +1,78 @@
+package com.transaction.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary image files for warm restarts of in-memory structures.
+ * <p>
+ * The content is followed by its CRC32. Writes go to a temporary file in the same directory, are forced
+ * to disk and then moved over the previous image, so a crash leaves either the old or the new image.
+ * Reads map the file instead of copying it to the heap.
+ */
+public final class ArchivoInstantanea {
+    private static final int PIE = Long.BYTES;
+
+    private ArchivoInstantanea() {
+    }
+
+    /**
+     * Writes an image, replacing the previous one atomically.
+     *
+     * @param archivo   Destination file
+     * @param contenido Content, from its position to its limit
+     */
+    public static void escribir(Path archivo, ByteBuffer contenido) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(contenido.duplicate());
+        ByteBuffer pie = ByteBuffer.allocate(PIE).putLong(0, crc.getValue());
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, archivo.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                ByteBuffer[] partes = {contenido, pie};
+                while (pie.hasRemaining()) {
+                    canal.write(partes);
+                }
+                canal.force(true);
+            }
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Maps an image and checks it.
+     *
+     * @param archivo Image file
+     * @return Read-only view of the content, without the checksum
+     * @throws java.nio.file.NoSuchFileException if there is no image
+     * @throws IOException                       if the image is truncated or corrupt
+     */
+    public static ByteBuffer leer(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < PIE || tamano > Integer.MAX_VALUE) {
+                throw new IOException("Tamaño de instantánea inválido: " + tamano);
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            ByteBuffer contenido = mapa.slice(0, (int) tamano - PIE);
+            CRC32 crc = new CRC32();
+            crc.update(contenido.duplicate());
+            if (crc.getValue() != mapa.getLong((int) tamano - PIE)) {
+                throw new IOException("Suma de verificación incorrecta en " + archivo);
+            }
+            return contenido;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.transaction.service;
+
+import com.transaction.entity.Arrendamiento;
+import com.transaction.exception.ServicioNoDisponibleException;
+import com.transaction.repository.ArrendamientoRepository;
+import com.transaction.repository.SecuenciaCambios;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes payments across every instance that shares the database, with a lease and fencing tokens.
+ * <p>
+ * Enabled with {@code transacciones.arrendamiento.enabled=true} when several replicas run behind a load
+ * balancer; otherwise payments run as before. A payment runs inside {@link #ejecutar(Supplier)}:
+ * <ul>
+ *   <li>Threads of this instance queue on a local lock, and the one at the front takes the {@code pagos}
+ *       row of {@link Arrendamiento} when it is free or expired, which increments its fencing token.
+ *       Waiting is bounded by {@code espera-ms}; after it the payment is rejected with
+ *       {@link ServicioNoDisponibleException} (503, retry after {@code espera-ms}), so a stuck instance does not pile up requests.</li>
+ *   <li>Inside its database transaction the payment calls {@link #verificar()}, which locks the row and
+ *       checks that the token is still its own. If the lease expired and another instance took it, the
+ *       payment fails without writing. Otherwise the row stays locked until the payment commits, so no
+ *       instance can take the lease over in between, and the lease is extended.</li>
+ *   <li>The lease is released after the commit. If an instance dies, it expires after {@code duracion-ms}.</li>
+ * </ul>
+ * Expirations use the clock of each instance; clock skew only changes how early a dead holder's lease can
+ * be taken over, never whether two payments overlap, since that is decided by the token under the row lock.
+ */
+@Slf4j
+@Service
+public class ArrendamientoPagos {
+    static final String PAGOS = "pagos";
+    private static final long PAUSA_MAXIMA_MS = 20;
+
+    private final ArrendamientoRepository arrendamientoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean activo;
+    private final String titular;
+    private final long duracionMs;
+    private final long esperaMs;
+    private final ReentrantLock local = new ReentrantLock(true);
+    private final ThreadLocal<Long> token = new ThreadLocal<>();
+    private final Timer espera;
+    private final Counter agotadas;
+    private final Counter perdidas;
+
+    public ArrendamientoPagos(ArrendamientoRepository arrendamientoRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${transacciones.arrendamiento.enabled:false}") boolean activo,
+                              @Value("${transacciones.arrendamiento.titular:}") String titular,
+                              @Value("${transacciones.arrendamiento.duracion-ms:30000}") long duracionMs,
+                              @Value("${transacciones.arrendamiento.espera-ms:5000}") long esperaMs) {
+        this.arrendamientoRepository = arrendamientoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName(SecuenciaCambios.SIN_CAMBIOS);
+        this.activo = activo;
+        this.titular = titular.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : titular;
+        this.duracionMs = duracionMs;
+        this.esperaMs = esperaMs;
+        this.espera = Timer.builder("transacciones.arrendamiento.espera")
+                .description("Espera hasta obtener el arrendamiento de pagos").register(meterRegistry);
+        this.agotadas = Counter.builder("transacciones.arrendamiento.agotadas")
+                .description("Pagos rechazados por no obtener el arrendamiento a tiempo").register(meterRegistry);
+        this.perdidas = Counter.builder("transacciones.arrendamiento.perdidas")
+                .description("Pagos abortados porque otra instancia tomó el arrendamiento vencido").register(meterRegistry);
+    }
+
+    /**
+     * Creates the lease row if no instance did yet.
+     */
+    @PostConstruct
+    void crear() {
+        if (!activo) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!arrendamientoRepository.existsById(PAGOS)) {
+                    arrendamientoRepository.saveAndFlush(new Arrendamiento(PAGOS, titular, 0, 0));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia la creó al mismo tiempo
+        }
+    }
+
+    /**
+     * Runs a payment holding the lease.
+     *
+     * @param pago Payment, which must call {@link #verificar()} in its database transaction
+     * @return Result of the payment
+     * @throws ServicioNoDisponibleException if the lease could not be taken within {@code espera-ms}
+     */
+    public <T> T ejecutar(Supplier<T> pago) {
+        if (!activo) {
+            return pago.get();
+        }
+        long inicio = System.nanoTime();
+        long limite = inicio + TimeUnit.MILLISECONDS.toNanos(esperaMs);
+        try {
+            if (!local.tryLock(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw agotada();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw agotada();
+        }
+        try {
+            long propio = tomar(limite);
+            espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            token.set(propio);
+            try {
+                return pago.get();
+            } finally {
+                token.remove();
+                liberar(propio);
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+
+    /**
+     * Checks, inside the database transaction of a payment, that the lease of the current thread is
+     * still valid, and keeps other instances from taking it until the transaction ends.
+     *
+     * @throws IllegalStateException if another instance took the lease, or if the payment is not running
+     *                               inside {@link #ejecutar(Supplier)}
+     */
+    public void verificar() {
+        if (!activo) {
+            return;
+        }
+        Long propio = token.get();
+        if (propio == null) {
+            throw new IllegalStateException("El pago debe ejecutarse con el arrendamiento de pagos");
+        }
+        Arrendamiento arrendamiento = arrendamientoRepository.bloquear(PAGOS)
+                .orElseThrow(() -> new IllegalStateException("No existe el arrendamiento de pagos"));
+        if (arrendamiento.getToken() != propio) {
+            perdidas.increment();
+            throw new IllegalStateException("Otra instancia tomó el arrendamiento de pagos (token " + propio
+                    + ", vigente " + arrendamiento.getToken() + "); el pago no se aplicó");
+        }
+        // Con la fila bloqueada nadie puede tomarlo: se prolonga para el resto del pago
+        arrendamiento.setExpiraMs(System.currentTimeMillis() + duracionMs);
+    }
+
+    /**
+     * Takes the lease, polling with exponential backoff until the deadline.
+     *
+     * @return Fencing token of the acquisition
+     */
+    private long tomar(long limite) {
+        long pausaMs = 1;
+        while (true) {
+            Long propio = intentar();
+            if (propio != null) {
+                return propio;
+            }
+            long restanteMs = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+            if (restanteMs <= 0) {
+                throw agotada();
+            }
+            try {
+                Thread.sleep(Math.min(pausaMs, restanteMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw agotada();
+            }
+            pausaMs = Math.min(pausaMs * 2, PAUSA_MAXIMA_MS);
+        }
+    }
+
+    private Long intentar() {
+        long ahora = System.currentTimeMillis();
+        try {
+            return transactionTemplate.execute(status ->
+                    arrendamientoRepository.tomar(PAGOS, titular, ahora, ahora + duracionMs) == 1
+                            ? arrendamientoRepository.token(PAGOS) : null);
+        } catch (ConcurrencyFailureException e) {
+            // La fila está bloqueada por el pago en curso de otra instancia
+            return null;
+        }
+    }
+
+    private void liberar(long propio) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> arrendamientoRepository.liberar(PAGOS, propio));
+        } catch (DataAccessException e) {
+            log.warn("No se pudo liberar el arrendamiento de pagos (token {}); vencerá en {} ms", propio, duracionMs, e);
+        }
+    }
+
+    private ServicioNoDisponibleException agotada() {
+        agotadas.increment();
+        return new ServicioNoDisponibleException("Otra instancia está procesando un pago; reintente más tarde",
+                Math.max(1, TimeUnit.MILLISECONDS.toSeconds(esperaMs)));
+    }
+}
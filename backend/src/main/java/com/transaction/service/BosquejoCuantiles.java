@@ -0,0 +1,204 @@
+package com.transaction.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with relative-error guarantees (the DDSketch scheme).
+ * <p>
+ * Positive values are counted in logarithmic buckets: bucket {@code i} holds the values in
+ * {@code (γ^(i-1), γ^i]} with {@code γ = (1+α)/(1-α)}, so any quantile is estimated within a relative
+ * error α of the true value at that rank. Unlike t-digest or KLL, a value can be removed again by
+ * decrementing its bucket, which lets the sketch follow edits, deletions and state changes.
+ * Sketches with the same precision merge by adding their buckets. Not thread-safe.
+ */
+public final class BosquejoCuantiles {
+    /** Valores por debajo de este umbral se cuentan aparte, como cero. */
+    private static final double MINIMO = 1e-9;
+
+    private final double precision;
+    private final double gamma;
+    private final double logGamma;
+    private long[] contadores = new long[0];
+    private int desplazamiento;
+    private long ceros;
+    private long cantidad;
+
+    /**
+     * @param precision Relative accuracy α, between 0 and 1 (e.g. 0.01 for 1%)
+     */
+    public BosquejoCuantiles(double precision) {
+        if (!(precision > 0 && precision < 1)) {
+            throw new IllegalArgumentException("La precisión debe estar entre 0 y 1: " + precision);
+        }
+        this.precision = precision;
+        this.gamma = (1 + precision) / (1 - precision);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param valor Non-negative value
+     */
+    public void agregar(double valor) {
+        if (valor < MINIMO) {
+            ceros++;
+        } else {
+            int indice = indice(valor);
+            asegurar(indice);
+            contadores[indice - desplazamiento]++;
+        }
+        cantidad++;
+    }
+
+    /**
+     * Removes a value added before. A value the sketch does not hold is ignored.
+     *
+     * @param valor Value to remove
+     * @return false if there was nothing to remove in its bucket
+     */
+    public boolean quitar(double valor) {
+        if (valor < MINIMO) {
+            if (ceros == 0) {
+                return false;
+            }
+            ceros--;
+        } else {
+            int posicion = indice(valor) - desplazamiento;
+            if (posicion < 0 || posicion >= contadores.length || contadores[posicion] == 0) {
+                return false;
+            }
+            contadores[posicion]--;
+        }
+        cantidad--;
+        return true;
+    }
+
+    /**
+     * Adds every value of another sketch to this one.
+     *
+     * @param otro Sketch with the same precision
+     */
+    public void combinar(BosquejoCuantiles otro) {
+        if (otro.precision != precision) {
+            throw new IllegalArgumentException("No se pueden combinar bosquejos de distinta precisión");
+        }
+        if (otro.contadores.length > 0) {
+            asegurar(otro.desplazamiento);
+            asegurar(otro.desplazamiento + otro.contadores.length - 1);
+            for (int i = 0; i < otro.contadores.length; i++) {
+                contadores[otro.desplazamiento + i - desplazamiento] += otro.contadores[i];
+            }
+        }
+        ceros += otro.ceros;
+        cantidad += otro.cantidad;
+    }
+
+    /**
+     * Estimates a quantile.
+     *
+     * @param q Quantile between 0 and 1 (0.5 is the median)
+     * @return Estimated value, or NaN if the sketch is empty
+     */
+    public double cuantil(double q) {
+        if (cantidad == 0) {
+            return Double.NaN;
+        }
+        long rango = (long) Math.floor(q * (cantidad - 1));
+        if (rango < ceros) {
+            return 0;
+        }
+        long acumulado = ceros;
+        for (int i = 0; i < contadores.length; i++) {
+            acumulado += contadores[i];
+            if (acumulado > rango) {
+                // Punto medio del cubo en escala relativa: error máximo α en ambos sentidos
+                return 2 * Math.pow(gamma, i + desplazamiento) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, contadores.length - 1 + desplazamiento) / (gamma + 1);
+    }
+
+    /**
+     * Writes the sketch; only the range of non-empty buckets is stored.
+     *
+     * @param salida Destination
+     */
+    public void escribir(DataOutput salida) throws IOException {
+        int desde = 0;
+        int hasta = contadores.length;
+        while (desde < hasta && contadores[desde] == 0) {
+            desde++;
+        }
+        while (hasta > desde && contadores[hasta - 1] == 0) {
+            hasta--;
+        }
+        salida.writeDouble(precision);
+        salida.writeLong(ceros);
+        salida.writeInt(desplazamiento + desde);
+        salida.writeInt(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            salida.writeLong(contadores[i]);
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #escribir(DataOutput)}.
+     *
+     * @param entrada Source
+     * @return The sketch
+     * @throws IOException if the data is truncated or not a sketch
+     */
+    public static BosquejoCuantiles leer(DataInput entrada) throws IOException {
+        double precision = entrada.readDouble();
+        if (!(precision > 0 && precision < 1)) {
+            throw new IOException("Precisión de bosquejo inválida: " + precision);
+        }
+        BosquejoCuantiles bosquejo = new BosquejoCuantiles(precision);
+        bosquejo.ceros = entrada.readLong();
+        bosquejo.desplazamiento = entrada.readInt();
+        int longitud = entrada.readInt();
+        if (longitud < 0 || longitud > 1 << 20) {
+            throw new IOException("Longitud de bosquejo inválida: " + longitud);
+        }
+        bosquejo.contadores = new long[longitud];
+        bosquejo.cantidad = bosquejo.ceros;
+        for (int i = 0; i < longitud; i++) {
+            bosquejo.contadores[i] = entrada.readLong();
+            bosquejo.cantidad += bosquejo.contadores[i];
+        }
+        return bosquejo;
+    }
+
+    private int indice(double valor) {
+        return (int) Math.ceil(Math.log(valor) / logGamma);
+    }
+
+    /**
+     * Grows the bucket array so it covers the given bucket index.
+     */
+    private void asegurar(int indice) {
+        if (contadores.length == 0) {
+            contadores = new long[1];
+            desplazamiento = indice;
+        } else if (indice < desplazamiento) {
+            long[] nuevos = new long[contadores.length + desplazamiento - indice];
+            System.arraycopy(contadores, 0, nuevos, desplazamiento - indice, contadores.length);
+            contadores = nuevos;
+            desplazamiento = indice;
+        } else if (indice >= desplazamiento + contadores.length) {
+            contadores = Arrays.copyOf(contadores, indice - desplazamiento + 1);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.transaction.service;
+
+import com.transaction.entity.EstadoTransaccion;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * In-memory payment queue: the pending transactions in payment order (date, then ID) with their total.
+ * <p>
+ * Updates carry the row version, so an older change applied late is ignored, and IDs that were paid or
+ * deleted are remembered so a late update cannot bring them back; a paid transaction never becomes
+ * pending again. Thread-safe.
+ */
+public final class ColaPendientes {
+
+    /**
+     * A pending transaction.
+     *
+     * @param id       Transaction ID
+     * @param fecha    Transaction date
+     * @param centavos Amount in cents
+     * @param version  Change sequence number of the latest write
+     */
+    public record Pendiente(long id, LocalDate fecha, long centavos, long version) {
+    }
+
+    private static final Comparator<Pendiente> ORDEN_DE_PAGO =
+            Comparator.comparing(Pendiente::fecha).thenComparingLong(Pendiente::id);
+
+    private final Map<Long, Pendiente> porId = new HashMap<>();
+    private final NavigableSet<Pendiente> orden = new TreeSet<>(ORDEN_DE_PAGO);
+    private final Set<Long> retiradas = new HashSet<>();
+    private long centavos;
+
+    /**
+     * Applies the current state of a transaction: kept in the queue while pending, removed otherwise.
+     *
+     * @param id       Transaction ID
+     * @param fecha    Transaction date
+     * @param centavos Amount in cents
+     * @param estado   Transaction state
+     * @param version  Change sequence number of the write
+     */
+    public synchronized void actualizar(long id, LocalDate fecha, long centavos, EstadoTransaccion estado, long version) {
+        if (retiradas.contains(id)) {
+            return;
+        }
+        Pendiente actual = porId.get(id);
+        if (actual != null && actual.version() > version) {
+            return;
+        }
+        if (estado != EstadoTransaccion.PENDIENTE) {
+            retirar(id);
+            return;
+        }
+        quitar(actual);
+        poner(new Pendiente(id, fecha, centavos, version));
+    }
+
+    /**
+     * Removes a paid or deleted transaction for good.
+     *
+     * @param id Transaction ID
+     */
+    public synchronized void retirar(long id) {
+        retiradas.add(id);
+        quitar(porId.get(id));
+    }
+
+    public synchronized int getCantidad() {
+        return porId.size();
+    }
+
+    public synchronized long getCentavos() {
+        return centavos;
+    }
+
+    /**
+     * Gets the first pending transactions in payment order.
+     *
+     * @param limite Maximum number to return
+     * @return Up to {@code limite} transactions, oldest first
+     */
+    public synchronized List<Pendiente> primeras(int limite) {
+        List<Pendiente> resultado = new ArrayList<>(Math.min(limite, orden.size()));
+        for (Pendiente p : orden) {
+            if (resultado.size() == limite) {
+                break;
+            }
+            resultado.add(p);
+        }
+        return resultado;
+    }
+
+    /**
+     * Visits every pending transaction in payment order while holding the lock, so the visit sees
+     * a consistent state.
+     *
+     * @param visitante Action applied to each transaction
+     */
+    public synchronized void recorrer(Consumer<Pendiente> visitante) {
+        orden.forEach(visitante);
+    }
+
+    private void poner(Pendiente p) {
+        porId.put(p.id(), p);
+        orden.add(p);
+        centavos += p.centavos();
+    }
+
+    private void quitar(Pendiente p) {
+        if (p != null) {
+            porId.remove(p.id());
+            orden.remove(p);
+            centavos -= p.centavos();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.transaction.service;
+
+import com.transaction.dto.MensajeOutboxDTO;
+import com.transaction.entity.EventoOutbox;
+import com.transaction.repository.EventoOutboxRepository;
+import com.transaction.repository.SecuenciaCambios;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Background dispatcher of the transactional outbox.
+ * <p>
+ * Each batch goes through three steps, so no row lock or connection is held while the sink works:
+ * <ol>
+ *   <li>A short transaction selects up to {@code tamano-lote} pending events that are unclaimed or whose
+ *       claim expired, skipping rows another dispatcher is claiming at that moment
+ *       ({@code FOR UPDATE SKIP LOCKED}), and stamps them with this dispatcher and an expiry
+ *       {@code arrendamiento-ms} ahead. Other instances sharing the database skip them until then.</li>
+ *   <li>The batch is delivered to the {@link SumideroOutbox} outside any transaction.</li>
+ *   <li>A second short transaction marks the batch dispatched with a single UPDATE.</li>
+ * </ol>
+ * If the sink fails, the claim is dropped and the next poll delivers the batch again. If the instance
+ * stops before marking it, or a delivery outlasts the claim, another dispatcher takes the batch once the
+ * claim expires (at-least-once). Full batches are followed immediately by the next one; otherwise it
+ * polls every {@code intervalo-ms}. Pending events are selected by their dispatch flag rather than by an
+ * ID high-water mark, so rows committed out of ID order are never skipped. Expirations use the clock of
+ * each instance; skew only changes how early an abandoned batch is taken over.
+ * <p>
+ * Metrics: {@code transacciones.outbox.despachados} (throughput), {@code transacciones.outbox.retraso}
+ * (age in ms of the oldest unclaimed pending event at the last poll), {@code transacciones.outbox.entrega}
+ * (sink time per batch) and {@code transacciones.outbox.fallos}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transacciones.outbox.enabled", havingValue = "true")
+public class DespachadorOutbox {
+    private static final long INTERVALO_PURGA_MS = 60_000;
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final SumideroOutbox sumidero;
+    private final TransactionTemplate transactionTemplate;
+    private final String titular = UUID.randomUUID().toString();
+    private final int tamanoLote;
+    private final long intervaloMs;
+    private final long arrendamientoMs;
+    private final Duration retencion;
+    private final Counter despachados;
+    private final Counter fallos;
+    private final Timer entrega;
+    private final ScheduledExecutorService planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "outbox-despachador");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile long retrasoMs;
+    private long ultimaPurga;
+
+    public DespachadorOutbox(EventoOutboxRepository eventoOutboxRepository,
+                             SumideroOutbox sumidero,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${transacciones.outbox.tamano-lote:500}") int tamanoLote,
+                             @Value("${transacciones.outbox.intervalo-ms:200}") long intervaloMs,
+                             @Value("${transacciones.outbox.arrendamiento-ms:30000}") long arrendamientoMs,
+                             @Value("${transacciones.outbox.retencion-horas:24}") long retencionHoras) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.sumidero = sumidero;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName(SecuenciaCambios.SIN_CAMBIOS);
+        this.tamanoLote = tamanoLote;
+        this.intervaloMs = intervaloMs;
+        this.arrendamientoMs = arrendamientoMs;
+        this.retencion = Duration.ofHours(retencionHoras);
+        this.despachados = Counter.builder("transacciones.outbox.despachados")
+                .description("Eventos del outbox entregados al sumidero").register(meterRegistry);
+        this.fallos = Counter.builder("transacciones.outbox.fallos")
+                .description("Lotes del outbox cuya entrega falló").register(meterRegistry);
+        this.entrega = Timer.builder("transacciones.outbox.entrega")
+                .description("Tiempo de entrega de un lote al sumidero").register(meterRegistry);
+        Gauge.builder("transacciones.outbox.retraso", this, d -> d.retrasoMs)
+                .description("Antigüedad en ms del evento pendiente más antiguo en la última consulta")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        planificador.scheduleWithFixedDelay(this::despacharPendientes, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dispatches batches until fewer than a full batch is pending, then purges old dispatched events.
+     */
+    void despacharPendientes() {
+        try {
+            while (despacharLote() == tamanoLote) {
+                // lote completo: probablemente quedan más
+            }
+            purgar();
+        } catch (Exception e) {
+            fallos.increment();
+            log.warn("Falló el despacho del outbox; se reintentará", e);
+        }
+    }
+
+    /**
+     * Claims one batch of pending events, delivers it and marks it dispatched.
+     *
+     * @return Number of events dispatched
+     * @throws IOException if the sink fails; the batch is released and stays pending
+     */
+    int despacharLote() throws IOException {
+        List<EventoOutbox> lote = transactionTemplate.execute(s -> reclamar(System.currentTimeMillis()));
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = lote.stream().map(EventoOutbox::getId).collect(Collectors.toList());
+        try {
+            entregar(lote);
+        } catch (IOException e) {
+            liberar(ids);
+            throw e;
+        }
+        transactionTemplate.executeWithoutResult(s -> eventoOutboxRepository.marcarDespachados(ids, LocalDateTime.now()));
+        despachados.increment(lote.size());
+        return lote.size();
+    }
+
+    /**
+     * Selects and claims a batch; runs in a transaction, which keeps the rows locked only until it commits.
+     */
+    private List<EventoOutbox> reclamar(long ahora) {
+        List<EventoOutbox> lote = eventoOutboxRepository.findPendientes(ahora, PageRequest.of(0, tamanoLote));
+        if (lote.isEmpty()) {
+            retrasoMs = 0;
+            return lote;
+        }
+        retrasoMs = Duration.between(lote.get(0).getCreadoEn(), LocalDateTime.now()).toMillis();
+        List<Long> ids = lote.stream().map(EventoOutbox::getId).collect(Collectors.toList());
+        eventoOutboxRepository.reclamar(ids, titular, ahora + arrendamientoMs);
+        return lote;
+    }
+
+    private void entregar(List<EventoOutbox> lote) throws IOException {
+        List<MensajeOutboxDTO> mensajes = lote.stream()
+                .map(e -> new MensajeOutboxDTO(e.getId(), e.getTipo(), e.getCreadoEn(), e.getPayload()))
+                .collect(Collectors.toList());
+        long inicio = System.nanoTime();
+        sumidero.entregar(mensajes);
+        long duracion = System.nanoTime() - inicio;
+        entrega.record(duracion, TimeUnit.NANOSECONDS);
+        if (TimeUnit.NANOSECONDS.toMillis(duracion) >= arrendamientoMs) {
+            log.warn("La entrega de {} eventos del outbox tardó más que el reclamo ({} ms); "
+                    + "otra instancia pudo entregarlos también", lote.size(), arrendamientoMs);
+        }
+    }
+
+    private void liberar(List<Long> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(s -> eventoOutboxRepository.liberar(ids, titular));
+        } catch (DataAccessException e) {
+            log.warn("No se pudo liberar el lote del outbox; se reintentará al vencer el reclamo en {} ms", arrendamientoMs, e);
+        }
+    }
+
+    private void purgar() {
+        long ahora = System.currentTimeMillis();
+        if (ahora - ultimaPurga < INTERVALO_PURGA_MS) {
+            return;
+        }
+        ultimaPurga = ahora;
+        Integer purgados = transactionTemplate.execute(s ->
+                eventoOutboxRepository.purgarDespachados(LocalDateTime.now().minus(retencion)));
+        if (purgados != null && purgados > 0) {
+            log.debug("Purgados {} eventos despachados del outbox", purgados);
+        }
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        planificador.shutdown();
+        planificador.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
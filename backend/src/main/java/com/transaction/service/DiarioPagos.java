@@ -0,0 +1,491 @@
+package com.transaction.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only journal of payments, kept in memory-mapped segment files.
+ * <p>
+ * Every {@code pagar} call and every asynchronous payment chunk appends a {@link RegistroPago}
+ * with the amount, the paid IDs and the result; appending is a copy into the mapped segment.
+ * The record is forced to disk right before the database commit, and concurrent payments share a
+ * single force (group commit). A rolled-back payment is followed by an ANULACION record.
+ * <p>
+ * The journal leads the database: if the process dies after the force and before the commit, the
+ * journal keeps a payment that never committed and no ANULACION follows it (and, the other way round,
+ * the ANULACION of a reverted asynchronous chunk can be on disk while the reversal did not commit).
+ * Replaying the journal therefore gives a superset of the committed payments; the state of the listed
+ * IDs in the database decides which of the last records took effect.
+ * <p>
+ * Segments start with a 16-byte header holding the checksum of the previous segment's last record,
+ * so opening the journal only scans the last segment. The next segment is preallocated in the
+ * background as a spare, so rotating under the append lock is only a rename; the full segment is
+ * forced by the next {@link #sincronizar(long)}, outside that lock. Each instance locks its directory,
+ * and instances sharing a host need their own. {@link LectorDiarioPagos} verifies the whole chain and
+ * rebuilds the payment state from it. With {@code transacciones.diario.enabled=false} nothing is written.
+ */
+@Slf4j
+@Component
+public class DiarioPagos implements Closeable {
+    private static final String REPUESTO = "siguiente.repuesto";
+
+    private final boolean activo;
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final FileChannel canalBloqueo;
+    private final FileLock bloqueo;
+    /** Un ReentrantLock en lugar de un monitor: con hilos virtuales, forzar dentro de synchronized fija el hilo portador. */
+    private final ReentrantLock bloqueoSincronizacion = new ReentrantLock();
+    /** Serializa la preparación del segmento de repuesto; nunca se toma dentro del monitor. */
+    private final ReentrantLock bloqueoRepuesto = new ReentrantLock();
+    private final ExecutorService preparador;
+
+    private MappedByteBuffer actual;
+    private long siguienteSecuencia;
+    private int ultimoCrc;
+    /** Segmento preasignado que tomará la próxima rotación, o null mientras se prepara. */
+    private MappedByteBuffer repuesto;
+    /** Segmentos ya rotados con registros todavía sin forzar, del más antiguo al más reciente. */
+    private final Deque<SinForzar> rotados = new ArrayDeque<>();
+
+    private volatile long ultimaDurable;
+    /** Segmento y posición hasta la que ya se forzó; solo se usan bajo bloqueoSincronizacion. */
+    private MappedByteBuffer segmentoForzado;
+    private int forzadoHasta;
+
+    /**
+     * A rotated segment and the end of its records.
+     */
+    private record SinForzar(MappedByteBuffer segmento, int hasta) {
+    }
+
+    /**
+     * Opens (or creates) the journal in the given directory, continuing after its last valid record.
+     *
+     * @param activo         Whether payments are journaled at all
+     * @param directorio     Directory of the segment files
+     * @param tamanoSegmento Size in bytes of each segment file
+     * @throws IOException if the directory cannot be used or is already open by another journal
+     */
+    @Autowired
+    public DiarioPagos(@Value("${transacciones.diario.enabled:true}") boolean activo,
+                       @Value("${transacciones.diario.directorio:${user.home}/transacciones/diario-pagos}") String directorio,
+                       @Value("${transacciones.diario.segmento-bytes:16777216}") int tamanoSegmento) throws IOException {
+        this.activo = activo;
+        this.directorio = Path.of(directorio).toAbsolutePath();
+        this.tamanoSegmento = tamanoSegmento;
+        if (!activo) {
+            canalBloqueo = null;
+            bloqueo = null;
+            preparador = null;
+            return;
+        }
+        Files.createDirectories(this.directorio);
+        canalBloqueo = FileChannel.open(this.directorio.resolve("diario.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock adquirido;
+        try {
+            adquirido = canalBloqueo.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Ya lo tiene otro diario de este mismo proceso
+            adquirido = null;
+        }
+        bloqueo = adquirido;
+        if (bloqueo == null) {
+            canalBloqueo.close();
+            throw new IOException("El diario de pagos " + this.directorio + " ya está abierto por otro proceso o contexto; "
+                    + "cada instancia necesita su propio transacciones.diario.directorio");
+        }
+        recuperar();
+        Files.deleteIfExists(this.directorio.resolve(REPUESTO));
+        preparador = Executors.newSingleThreadExecutor(r -> {
+            Thread hilo = new Thread(r, "diario-pagos-repuesto");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        solicitarRepuesto();
+        log.info("Diario de pagos en {}", this.directorio);
+    }
+
+    /**
+     * Opens (or creates) an enabled journal in the given directory.
+     *
+     * @param directorio     Directory of the segment files
+     * @param tamanoSegmento Size in bytes of each segment file
+     * @throws IOException if the directory cannot be used or is already open by another journal
+     */
+    public DiarioPagos(String directorio, int tamanoSegmento) throws IOException {
+        this(true, directorio, tamanoSegmento);
+    }
+
+    /**
+     * Journals a payment made in the current database transaction.
+     * <p>
+     * The record is appended immediately and forced to disk before the transaction commits; if the
+     * transaction rolls back, an ANULACION record is appended (except for RECHAZO, which changed nothing). Without an active transaction it is
+     * forced before returning.
+     *
+     * @param tipo     PAGO, RECHAZO or PAGO_LOTE
+     * @param monto    Amount of the payment
+     * @param restante Amount left unused
+     * @param ids      IDs of the paid transactions, in payment order
+     * @return Sequence number of the record, or 0 if the journal is disabled
+     */
+    public long registrarPago(TipoRegistroPago tipo, BigDecimal monto, BigDecimal restante, List<Long> ids) {
+        if (!activo) {
+            return 0;
+        }
+        long secuencia = agregar(tipo, monto, restante, 0, ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sincronizar(secuencia);
+            return secuencia;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                sincronizar(secuencia);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // Un rechazo no modificó nada, no hay que anularlo
+                if (status == STATUS_ROLLED_BACK && tipo != TipoRegistroPago.RECHAZO) {
+                    sincronizar(agregar(TipoRegistroPago.ANULACION, BigDecimal.ZERO, BigDecimal.ZERO, secuencia, List.of()));
+                }
+            }
+        });
+        return secuencia;
+    }
+
+    /**
+     * Journals the annulment of payments that committed earlier and are being reverted in the current
+     * database transaction (e.g. the chunks of a failed asynchronous payment).
+     * <p>
+     * The ANULACION records are appended and forced right before the transaction commits, so a rollback
+     * leaves the payments in force. Without an active transaction they are forced before returning.
+     *
+     * @param secuencias Sequence numbers of the payment records to annul
+     */
+    public void registrarAnulaciones(List<Long> secuencias) {
+        if (!activo) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            anular(secuencias);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                anular(secuencias);
+            }
+        });
+    }
+
+    private void anular(List<Long> secuencias) {
+        long ultima = 0;
+        for (long secuencia : secuencias) {
+            ultima = agregar(TipoRegistroPago.ANULACION, BigDecimal.ZERO, BigDecimal.ZERO, secuencia, List.of());
+        }
+        if (ultima > 0) {
+            sincronizar(ultima);
+        }
+    }
+
+    /**
+     * Appends a record to the mapped segment. It is not durable until {@link #sincronizar(long)} returns.
+     * <p>
+     * When the record does not fit, the segment rotates to the spare. If the spare is not ready yet, it is
+     * prepared without holding the append lock, so other records can still fill the current segment.
+     *
+     * @param tipo       Record type
+     * @param monto      Amount
+     * @param restante   Amount left unused
+     * @param referencia Sequence number of the annulled record, or 0
+     * @param ids        Paid transaction IDs
+     * @return Sequence number of the record
+     * @throws ArithmeticException if an amount has more than 18 significant digits
+     */
+    public long agregar(TipoRegistroPago tipo, BigDecimal monto, BigDecimal restante, long referencia, List<Long> ids) {
+        int tamano = RegistroPago.tamano(ids.size());
+        while (true) {
+            synchronized (this) {
+                if (actual == null || actual.remaining() < tamano) {
+                    rotar(tamano);
+                }
+                if (actual != null && actual.remaining() >= tamano) {
+                    RegistroPago registro = new RegistroPago(siguienteSecuencia, System.currentTimeMillis(), tipo, monto, restante, referencia, ids);
+                    ultimoCrc = registro.escribir(actual, ultimoCrc);
+                    return siguienteSecuencia++;
+                }
+            }
+            prepararRepuesto(tamano);
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on stable storage.
+     * <p>
+     * Callers arriving while a force is in progress wait for it and then, if still needed, one of them
+     * forces the range appended meanwhile on behalf of all (group commit).
+     *
+     * @param secuencia Sequence number returned by {@link #agregar}
+     */
+    public void sincronizar(long secuencia) {
+        if (ultimaDurable >= secuencia) {
+            return;
+        }
+        bloqueoSincronizacion.lock();
+        try {
+            if (ultimaDurable >= secuencia) {
+                return;
+            }
+            List<SinForzar> anteriores;
+            MappedByteBuffer segmento;
+            int hasta;
+            long ultima;
+            synchronized (this) {
+                anteriores = List.copyOf(rotados);
+                segmento = actual;
+                hasta = actual.position();
+                ultima = siguienteSecuencia - 1;
+            }
+            // Los segmentos rotados desde el último forzado se completan antes, en orden
+            for (SinForzar anterior : anteriores) {
+                forzar(anterior.segmento(), anterior.hasta());
+            }
+            forzar(segmento, hasta);
+            synchronized (this) {
+                for (int i = 0; i < anteriores.size(); i++) {
+                    rotados.removeFirst();
+                }
+            }
+            ultimaDurable = ultima;
+        } finally {
+            bloqueoSincronizacion.unlock();
+        }
+    }
+
+    /**
+     * Forces a segment from where the previous force stopped. Only called under bloqueoSincronizacion.
+     *
+     * @param segmento Segment to force
+     * @param hasta    End of the records to make durable
+     */
+    private void forzar(MappedByteBuffer segmento, int hasta) {
+        int desde = segmento == segmentoForzado ? forzadoHasta : 0;
+        segmento.force(desde, hasta - desde);
+        if (desde == 0) {
+            // Primer forzado de un segmento: su nombre viene de un rename que también tiene que ser durable
+            forzarDirectorio();
+        }
+        segmentoForzado = segmento;
+        forzadoHasta = hasta;
+    }
+
+    private void forzarDirectorio() {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // No todos los sistemas permiten abrir un directorio; allí el rename queda a cargo del sistema de archivos
+            log.debug("No se pudo forzar el directorio del diario de pagos {}", directorio, e);
+        }
+    }
+
+    synchronized long getUltimaSecuencia() {
+        return siguienteSecuencia - 1;
+    }
+
+    /**
+     * Forces the journal and releases the directory.
+     */
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        if (!activo) {
+            return;
+        }
+        // Fuera del monitor: una preparación en curso lo necesita para terminar
+        preparador.shutdown();
+        try {
+            preparador.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (!canalBloqueo.isOpen()) {
+                return;
+            }
+            for (SinForzar anterior : rotados) {
+                anterior.segmento().force();
+            }
+            if (actual != null) {
+                actual.force();
+            }
+            bloqueo.release();
+            canalBloqueo.close();
+        }
+    }
+
+    /**
+     * Locates the end of the journal by scanning only the last segment with records.
+     * A torn or corrupt tail in that segment is zeroed, so new records replace it.
+     */
+    private void recuperar() throws IOException {
+        TreeMap<Long, Path> segmentos = LectorDiarioPagos.segmentos(directorio);
+        siguienteSecuencia = 1;
+        if (segmentos.isEmpty()) {
+            return;
+        }
+        Path ultimo = segmentos.lastEntry().getValue();
+        MappedByteBuffer segmento = mapear(ultimo, Math.max(tamanoSegmento, (int) Files.size(ultimo)));
+        int crc = LectorDiarioPagos.leerCabecera(segmento);
+        long secuencia = segmentos.lastKey();
+        RegistroPago registro;
+        while ((registro = RegistroPago.leer(segmento, crc)) != null) {
+            crc = RegistroPago.crcAlmacenado(segmento);
+            secuencia = registro.secuencia() + 1;
+        }
+        if (segmento.remaining() >= Integer.BYTES && segmento.getInt(segmento.position()) != 0) {
+            log.warn("Registro incompleto o inválido al final de {} (posición {}); se descarta", ultimo, segmento.position());
+            int inicio = segmento.position();
+            for (int i = inicio; i < segmento.limit(); i++) {
+                segmento.put(i, (byte) 0);
+            }
+            segmento.force();
+        }
+        actual = segmento;
+        ultimoCrc = crc;
+        siguienteSecuencia = secuencia;
+        ultimaDurable = secuencia - 1;
+    }
+
+    /**
+     * Switches to the spare segment if it can hold the record. Runs in the monitor and does no I/O
+     * beyond renaming the spare; the segment left behind is forced by the next {@link #sincronizar}.
+     *
+     * @param tamanoRegistro Size of the record that did not fit
+     */
+    private void rotar(int tamanoRegistro) {
+        if (repuesto == null || repuesto.capacity() < LectorDiarioPagos.CABECERA_SEGMENTO + tamanoRegistro) {
+            return;
+        }
+        try {
+            Files.move(directorio.resolve(REPUESTO), directorio.resolve(LectorDiarioPagos.nombreSegmento(siguienteSecuencia)),
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear un segmento del diario de pagos", e);
+        }
+        if (actual != null) {
+            rotados.addLast(new SinForzar(actual, actual.position()));
+        }
+        actual = repuesto;
+        repuesto = null;
+        actual.putInt(LectorDiarioPagos.MAGICO).putInt(LectorDiarioPagos.VERSION).putInt(ultimoCrc).putInt(0);
+        solicitarRepuesto();
+    }
+
+    /**
+     * Asks the background thread to preallocate the next spare segment.
+     */
+    private void solicitarRepuesto() {
+        try {
+            preparador.execute(() -> {
+                try {
+                    prepararRepuesto(0);
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo preparar el siguiente segmento del diario de pagos; se reintentará al rotar", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Cerrando: la próxima rotación, si la hay, lo prepara ella misma
+        }
+    }
+
+    /**
+     * Preallocates and maps a spare segment able to hold a record of the given size, unless one is ready.
+     * Never called in the monitor, which it only takes to check and publish the spare.
+     *
+     * @param tamanoRegistro Size of the record the spare must hold, or 0
+     */
+    private void prepararRepuesto(int tamanoRegistro) {
+        int tamano = Math.max(tamanoSegmento, LectorDiarioPagos.CABECERA_SEGMENTO + tamanoRegistro);
+        Path archivo = directorio.resolve(REPUESTO);
+        bloqueoRepuesto.lock();
+        try {
+            boolean pequeno;
+            synchronized (this) {
+                if (repuesto != null && repuesto.capacity() >= tamano) {
+                    return;
+                }
+                // Un repuesto demasiado pequeño para este registro se descarta antes de que una rotación lo tome
+                pequeno = repuesto != null;
+                repuesto = null;
+            }
+            if (pequeno) {
+                Files.delete(archivo);
+            }
+            MappedByteBuffer nuevo = mapear(archivo, tamano);
+            synchronized (this) {
+                repuesto = nuevo;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear un segmento del diario de pagos", e);
+        } finally {
+            bloqueoRepuesto.unlock();
+        }
+    }
+
+    /**
+     * Maps a segment file, preallocating it with zeros first.
+     * <p>
+     * Writing the zeros allocates the disk blocks up front, so forcing a record later only flushes
+     * data pages; on a sparse file every new page would also commit a file system metadata update.
+     *
+     * @param archivo Segment file
+     * @param tamano  Size to map
+     * @return The mapping
+     */
+    private static MappedByteBuffer mapear(Path archivo, int tamano) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long posicion = canal.size();
+            if (posicion < tamano) {
+                ByteBuffer ceros = ByteBuffer.allocate(1024 * 1024);
+                while (posicion < tamano) {
+                    ceros.clear().limit((int) Math.min(ceros.capacity(), tamano - posicion));
+                    posicion += canal.write(ceros, posicion);
+                }
+                canal.force(true);
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.transaction.service;
+
+import com.transaction.dto.EstadisticaDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.event.TransaccionCambioEvent;
+import com.transaction.exception.ParametroInvalidoException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Service for approximate distribution statistics of transaction values.
+ * <p>
+ * Enabled with {@code transacciones.estadisticas.enabled=true}. Values are kept in one
+ * {@link BosquejoCuantiles} per (state, month) bucket, updated from the committed change events of
+ * {@link TransaccionService}: creations add a value, payments move it from PENDIENTE to PAGADO, edits
+ * and deletions remove the previous value. Quantiles are answered by merging buckets, with the
+ * relative error set by {@code transacciones.estadisticas.precision}.
+ * <p>
+ * The sketches are saved to {@code transacciones.estadisticas.archivo} periodically and on shutdown,
+ * together with the row count and latest change sequence number they reflect. On startup the file is
+ * used if both still match the database; otherwise the sketches are rebuilt with one scan.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "transacciones.estadisticas.enabled", havingValue = "true")
+public class EstadisticasService {
+    static final int MAGICO = 0x45535441; // "ESTA"
+    static final int VERSION = 1;
+    private static final Set<String> AGRUPACIONES = Set.of("estado", "mes", "estado-mes");
+
+    /**
+     * Bucket of the sketches: a state and a calendar month.
+     */
+    record Clave(EstadoTransaccion estado, YearMonth mes) {
+    }
+
+    /**
+     * Row count and latest change sequence number, to tell whether saved sketches are current.
+     */
+    record Huella(long filas, long ultimaVersion) {
+    }
+
+    /**
+     * Values of one bucket: the sketch and the exact sum.
+     */
+    private static final class Cubeta {
+        private final BosquejoCuantiles bosquejo;
+        private long centavos;
+
+        Cubeta(BosquejoCuantiles bosquejo) {
+            this.bosquejo = bosquejo;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path archivo;
+    private final double precision;
+    private final long guardadoSegundos;
+    private final Map<Clave, Cubeta> cubetas = new HashMap<>();
+    private final ScheduledExecutorService guardado = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "estadisticas-guardado");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private long ultimaVersion;
+    private boolean modificado;
+
+    /**
+     * Creates the service. Depends on the EntityManagerFactory so the schema already exists when loading.
+     */
+    public EstadisticasService(JdbcTemplate jdbcTemplate,
+                               EntityManagerFactory entityManagerFactory,
+                               @Value("${transacciones.estadisticas.archivo:data/estadisticas/bosquejos.bin}") String archivo,
+                               @Value("${transacciones.estadisticas.precision:0.01}") double precision,
+                               @Value("${transacciones.estadisticas.guardado-segundos:300}") long guardadoSegundos) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archivo = Path.of(archivo);
+        this.precision = precision;
+        this.guardadoSegundos = guardadoSegundos;
+        new BosquejoCuantiles(precision); // valida la precisión al arrancar
+    }
+
+    /**
+     * Loads the saved sketches if they are current, or rebuilds them from the database.
+     */
+    @PostConstruct
+    void cargar() throws IOException {
+        if (!restaurar(huellaActual())) {
+            reconstruir();
+        }
+        guardado.scheduleWithFixedDelay(this::guardarSinFallar, guardadoSegundos, guardadoSegundos, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Applies a committed change to the sketches.
+     *
+     * @param event Change published by TransaccionService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCambio(TransaccionCambioEvent event) {
+        List<TransaccionDTO> transacciones = event.getTransacciones();
+        switch (event.getTipo()) {
+            case CREADA -> transacciones.forEach(this::agregar);
+            case PAGADA -> transacciones.forEach(t -> {
+                quitar(t.getEstado() == EstadoTransaccion.PAGADO ? EstadoTransaccion.PENDIENTE : t.getEstado(), t.getFecha(), t.getValor());
+                agregar(t);
+            });
+            case ACTUALIZADA -> {
+                if (event.getAnteriores() == null) {
+                    log.warn("Cambio ACTUALIZADA sin estado anterior; las estadísticas se corregirán al reconstruirlas");
+                    return;
+                }
+                for (int i = 0; i < transacciones.size(); i++) {
+                    TransaccionDTO anterior = event.getAnteriores().get(i);
+                    quitar(anterior.getEstado(), anterior.getFecha(), anterior.getValor());
+                    agregar(transacciones.get(i));
+                }
+            }
+            case ELIMINADA -> (event.getAnteriores() != null ? event.getAnteriores() : transacciones)
+                    .forEach(t -> quitar(t.getEstado(), t.getFecha(), t.getValor()));
+        }
+        transacciones.forEach(t -> ultimaVersion = Math.max(ultimaVersion, t.getVersion() != null ? t.getVersion() : 0));
+        modificado = true;
+    }
+
+    /**
+     * Computes the distribution of transaction values grouped by state, month or both.
+     *
+     * @param agrupar   {@code estado}, {@code mes} or {@code estado-mes}
+     * @param desde     First month included, or null
+     * @param hasta     Last month included, or null
+     * @param cuantiles Quantiles to estimate, each between 0 and 1
+     * @return One entry per non-empty group, by month and then state
+     * @throws ParametroInvalidoException for an unknown grouping, an inverted range or a quantile out of bounds
+     */
+    public List<EstadisticaDTO> consultar(String agrupar, YearMonth desde, YearMonth hasta, List<Double> cuantiles) {
+        if (!AGRUPACIONES.contains(agrupar)) {
+            throw new ParametroInvalidoException("agrupar debe ser estado, mes o estado-mes");
+        }
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new ParametroInvalidoException("desde no puede ser posterior a hasta");
+        }
+        if (cuantiles.isEmpty() || cuantiles.stream().anyMatch(q -> q == null || !(q >= 0 && q <= 1))) {
+            throw new ParametroInvalidoException("Los cuantiles deben estar entre 0 y 1");
+        }
+        Function<Clave, Clave> grupo = switch (agrupar) {
+            case "estado" -> c -> new Clave(c.estado(), null);
+            case "mes" -> c -> new Clave(null, c.mes());
+            default -> Function.identity();
+        };
+        Comparator<Clave> orden = Comparator.comparing(Clave::mes, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Clave::estado, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        Map<Clave, Cubeta> grupos = new TreeMap<>(orden);
+        synchronized (this) {
+            for (Map.Entry<Clave, Cubeta> entrada : cubetas.entrySet()) {
+                YearMonth mes = entrada.getKey().mes();
+                if ((desde != null && mes.isBefore(desde)) || (hasta != null && mes.isAfter(hasta))) {
+                    continue;
+                }
+                Cubeta destino = grupos.computeIfAbsent(grupo.apply(entrada.getKey()), c -> new Cubeta(new BosquejoCuantiles(precision)));
+                destino.bosquejo.combinar(entrada.getValue().bosquejo);
+                destino.centavos += entrada.getValue().centavos;
+            }
+        }
+
+        List<EstadisticaDTO> resultado = new ArrayList<>(grupos.size());
+        grupos.forEach((clave, cubeta) -> {
+            EstadisticaDTO dto = new EstadisticaDTO();
+            dto.setEstado(clave.estado());
+            dto.setMes(clave.mes() != null ? clave.mes().toString() : null);
+            dto.setCantidad(cubeta.bosquejo.getCantidad());
+            dto.setTotal(BigDecimal.valueOf(cubeta.centavos, 2));
+            dto.setPromedio(BigDecimal.valueOf(cubeta.centavos, 2)
+                    .divide(BigDecimal.valueOf(cubeta.bosquejo.getCantidad()), 2, RoundingMode.HALF_UP));
+            Map<String, BigDecimal> valores = new LinkedHashMap<>();
+            for (double q : cuantiles) {
+                valores.put(nombreCuantil(q), BigDecimal.valueOf(cubeta.bosquejo.cuantil(q)).setScale(2, RoundingMode.HALF_UP));
+            }
+            dto.setCuantiles(valores);
+            resultado.add(dto);
+        });
+        return resultado;
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Saves the sketches if they changed since the last save. Written to a temporary file and moved
+     * into place, so a crash never leaves a partial file.
+     */
+    void guardar() throws IOException {
+        byte[] contenido;
+        synchronized (this) {
+            if (!modificado) {
+                return;
+            }
+            contenido = serializar();
+            modificado = false;
+        }
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, "bosquejos", ".tmp");
+        try {
+            Files.write(temporal, contenido);
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Stops the periodic save and saves one last time.
+     */
+    @PreDestroy
+    void detener() throws IOException {
+        guardado.shutdownNow();
+        guardar();
+    }
+
+    /**
+     * Row count and latest change sequence number currently in the database.
+     */
+    Huella huellaActual() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), COALESCE(MAX(cambio_seq), 0) FROM transacciones",
+                (rs, n) -> new Huella(rs.getLong(1), rs.getLong(2)));
+    }
+
+    private void guardarSinFallar() {
+        try {
+            guardar();
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                modificado = true;
+            }
+            log.error("No se pudieron guardar las estadísticas en {}", archivo, e);
+        }
+    }
+
+    /**
+     * Loads the saved sketches if the file is intact and matches the database.
+     *
+     * @param actual Fingerprint of the database
+     * @return true if the sketches were restored
+     */
+    synchronized boolean restaurar(Huella actual) {
+        if (!Files.exists(archivo)) {
+            return false;
+        }
+        try {
+            byte[] contenido = Files.readAllBytes(archivo);
+            if (contenido.length < Long.BYTES) {
+                throw new IOException("Archivo truncado");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(contenido, 0, contenido.length - Long.BYTES);
+            if (crc.getValue() != ByteBuffer.wrap(contenido, contenido.length - Long.BYTES, Long.BYTES).getLong()) {
+                throw new IOException("Suma de verificación incorrecta");
+            }
+            DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(contenido));
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSION) {
+                throw new IOException("Formato desconocido");
+            }
+            double precisionGuardada = entrada.readDouble();
+            Huella guardada = new Huella(entrada.readLong(), entrada.readLong());
+            if (precisionGuardada != precision || !guardada.equals(actual)) {
+                log.info("Las estadísticas guardadas no corresponden a la base de datos ({} frente a {}); se reconstruyen", guardada, actual);
+                return false;
+            }
+            int total = entrada.readInt();
+            for (int i = 0; i < total; i++) {
+                Clave clave = new Clave(EstadoTransaccion.values()[entrada.readByte()], YearMonth.of(entrada.readInt(), entrada.readByte()));
+                long centavos = entrada.readLong();
+                Cubeta cubeta = new Cubeta(BosquejoCuantiles.leer(entrada));
+                cubeta.centavos = centavos;
+                cubetas.put(clave, cubeta);
+            }
+            ultimaVersion = guardada.ultimaVersion();
+            log.info("Estadísticas restauradas de {}: {} transacciones en {} cubetas", archivo, guardada.filas(), total);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudieron leer las estadísticas guardadas en {}; se reconstruyen", archivo, e);
+            cubetas.clear();
+            return false;
+        }
+    }
+
+    private synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        cubetas.clear();
+        ultimaVersion = 0;
+        jdbcTemplate.query("SELECT fecha, valor, estado, cambio_seq FROM transacciones", rs -> {
+            agregar(EstadoTransaccion.valueOf(rs.getString(3)), rs.getObject(1, LocalDate.class), rs.getBigDecimal(2));
+            ultimaVersion = Math.max(ultimaVersion, rs.getLong(4));
+        });
+        modificado = true;
+        log.info("Estadísticas reconstruidas: {} transacciones en {} ms", filas(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private byte[] serializar() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeInt(MAGICO);
+        salida.writeInt(VERSION);
+        salida.writeDouble(precision);
+        salida.writeLong(filas());
+        salida.writeLong(ultimaVersion);
+        salida.writeInt(cubetas.size());
+        for (Map.Entry<Clave, Cubeta> entrada : cubetas.entrySet()) {
+            salida.writeByte(entrada.getKey().estado().ordinal());
+            salida.writeInt(entrada.getKey().mes().getYear());
+            salida.writeByte(entrada.getKey().mes().getMonthValue());
+            salida.writeLong(entrada.getValue().centavos);
+            entrada.getValue().bosquejo.escribir(salida);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        salida.writeLong(crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    private long filas() {
+        return cubetas.values().stream().mapToLong(c -> c.bosquejo.getCantidad()).sum();
+    }
+
+    private void agregar(TransaccionDTO t) {
+        agregar(t.getEstado(), t.getFecha(), t.getValor());
+    }
+
+    private void agregar(EstadoTransaccion estado, LocalDate fecha, BigDecimal valor) {
+        Cubeta cubeta = cubetas.computeIfAbsent(new Clave(estado, YearMonth.from(fecha)), c -> new Cubeta(new BosquejoCuantiles(precision)));
+        cubeta.bosquejo.agregar(valor.doubleValue());
+        cubeta.centavos += centavos(valor);
+    }
+
+    private void quitar(EstadoTransaccion estado, LocalDate fecha, BigDecimal valor) {
+        Clave clave = new Clave(estado, YearMonth.from(fecha));
+        Cubeta cubeta = cubetas.get(clave);
+        if (cubeta == null || !cubeta.bosquejo.quitar(valor.doubleValue())) {
+            log.debug("Valor {} no encontrado en la cubeta {}", valor, clave);
+            return;
+        }
+        cubeta.centavos -= centavos(valor);
+        if (cubeta.bosquejo.getCantidad() == 0) {
+            cubetas.remove(clave);
+        }
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static String nombreCuantil(double q) {
+        return "p" + BigDecimal.valueOf(q * 100).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.transaction.service;
+
+/**
+ * Enum representing the lifecycle of an asynchronous payment job.
+ * <ul>
+ *   <li>EN_COLA: Job accepted and waiting for a worker.</li>
+ *   <li>EN_PROCESO: Job is paying transactions chunk by chunk.</li>
+ *   <li>COMPLETADO: Job finished and its PaymentResult is available.</li>
+ *   <li>FALLIDO: Job stopped because of an error; chunks already committed remain paid.</li>
+ * </ul>
+ */
+public enum EstadoPagoJob {
+    /** Job accepted and waiting for a worker. */
+    EN_COLA,
+    /** Job is paying transactions chunk by chunk. */
+    EN_PROCESO,
+    /** Job finished and its result is available. */
+    COMPLETADO,
+    /** Job stopped because of an error. */
+    FALLIDO
+}
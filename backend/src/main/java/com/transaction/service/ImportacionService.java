@@ -0,0 +1,342 @@
+package com.transaction.service;
+
+import com.transaction.dto.ImportacionDTO;
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.exception.ParametroInvalidoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk imports of transactions from CSV.
+ * <p>
+ * The input is read from a channel with {@link LectorCsv}, so its size is not limited by memory. It must
+ * start with a header naming the columns {@code nombre}, {@code fecha} (yyyy-MM-dd) and {@code valor},
+ * in any order; other columns are ignored. Rows are processed in blocks of {@code tamano-lote}:
+ * <ul>
+ *   <li>Each block is validated in parallel against the constraints of {@link TransaccionCreateDTO},
+ *       while the previous block is being inserted.</li>
+ *   <li>The valid rows of a block are inserted with {@link TransaccionService#crearTodas} in JDBC batches
+ *       and committed, so an interrupted import keeps the blocks already written and memory holds at
+ *       most two blocks. If the database rejects a row, the block is retried row by row to isolate it.</li>
+ *   <li>Rejected rows are written with their line and reason to a CSV file under {@code directorio},
+ *       which can be corrected and imported again.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ImportacionService {
+    static final List<String> COLUMNAS = List.of("nombre", "fecha", "valor");
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    /**
+     * A data row of the input.
+     *
+     * @param linea  Line on which the row starts
+     * @param campos Fields as read
+     */
+    private record Fila(long linea, List<String> campos) {
+    }
+
+    /**
+     * A row after validation: either its data or the reason it was rejected.
+     */
+    private record Validada(Fila fila, TransaccionCreateDTO datos, String motivo) {
+    }
+
+    private final TransaccionService transaccionService;
+    private final Validator validator;
+    private final Path directorio;
+    private final int tamanoLote;
+    private final Counter importadas;
+    private final Counter rechazadas;
+
+    public ImportacionService(TransaccionService transaccionService,
+                              Validator validator,
+                              MeterRegistry meterRegistry,
+                              @Value("${transacciones.importacion.directorio:data/importaciones}") String directorio,
+                              @Value("${transacciones.importacion.tamano-lote:2000}") int tamanoLote) {
+        this.transaccionService = transaccionService;
+        this.validator = validator;
+        this.directorio = Path.of(directorio);
+        this.tamanoLote = tamanoLote;
+        this.importadas = Counter.builder("transacciones.importacion.filas").tag("resultado", "importada")
+                .description("Filas de CSV importadas como transacciones").register(meterRegistry);
+        this.rechazadas = Counter.builder("transacciones.importacion.filas").tag("resultado", "rechazada")
+                .description("Filas de CSV rechazadas").register(meterRegistry);
+    }
+
+    /**
+     * Imports the transactions of a CSV input.
+     *
+     * @param canal Source of the CSV, closed at the end
+     * @return Counts, throughput and, if any row was rejected, the rejected rows file
+     * @throws ParametroInvalidoException if the input does not start with a valid header
+     */
+    public ImportacionDTO importar(ReadableByteChannel canal) throws IOException {
+        String id = UUID.randomUUID().toString();
+        long inicio = System.nanoTime();
+        ImportacionDTO resumen = new ImportacionDTO();
+        resumen.setId(id);
+        try (LectorCsv lector = new LectorCsv(canal, TAMANO_BUFFER);
+             Rechazos rechazos = new Rechazos(archivoRechazos(id))) {
+            List<String> cabecera = leerCabecera(lector);
+            rechazos.cabecera = cabecera;
+            int[] indices = indices(cabecera);
+            CompletableFuture<List<Validada>> anterior = null;
+            List<Fila> bloque;
+            do {
+                bloque = leerBloque(lector, resumen);
+                List<Fila> filas = bloque;
+                // El bloque siguiente se valida mientras se inserta el anterior
+                CompletableFuture<List<Validada>> validando = filas.isEmpty() ? null
+                        : CompletableFuture.supplyAsync(() -> filas.parallelStream().map(f -> validar(f, indices)).toList());
+                if (anterior != null) {
+                    insertar(anterior.join(), rechazos, resumen);
+                }
+                anterior = validando;
+            } while (anterior != null);
+            if (rechazos.escritas > 0) {
+                resumen.setRechazos("/api/transacciones/importaciones/" + id + "/rechazos");
+            }
+        }
+        long nanos = Math.max(System.nanoTime() - inicio, 1);
+        resumen.setMilisegundos(nanos / 1_000_000);
+        resumen.setFilasPorSegundo(resumen.getLeidas() * 1_000_000_000L / nanos);
+        log.info("Importación {}: {} filas leídas, {} importadas y {} rechazadas en {} ms ({} filas/s){}", id,
+                resumen.getLeidas(), resumen.getImportadas(), resumen.getRechazadas(), resumen.getMilisegundos(),
+                resumen.getFilasPorSegundo(), resumen.getError() != null ? "; interrumpida: " + resumen.getError() : "");
+        return resumen;
+    }
+
+    /**
+     * Gets the rejected rows file of an import.
+     *
+     * @param id Import ID
+     * @return Path of the file
+     * @throws IllegalArgumentException if the import does not exist or rejected no rows
+     */
+    public Path rechazos(String id) {
+        Path archivo;
+        try {
+            archivo = archivoRechazos(UUID.fromString(id).toString());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Importación no encontrada: " + id);
+        }
+        if (!Files.isRegularFile(archivo)) {
+            throw new IllegalArgumentException("Importación sin filas rechazadas: " + id);
+        }
+        return archivo;
+    }
+
+    private Path archivoRechazos(String id) {
+        return directorio.resolve(id + "-rechazos.csv");
+    }
+
+    private static List<String> leerCabecera(LectorCsv lector) {
+        try {
+            List<String> cabecera = lector.siguiente();
+            if (cabecera == null) {
+                throw new ParametroInvalidoException("El CSV está vacío");
+            }
+            return cabecera;
+        } catch (CharacterCodingException e) {
+            throw new ParametroInvalidoException("El CSV debe estar codificado en UTF-8");
+        } catch (IOException e) {
+            throw new ParametroInvalidoException("Cabecera inválida: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Positions of the required columns in the header.
+     *
+     * @throws ParametroInvalidoException if a required column is missing
+     */
+    private static int[] indices(List<String> cabecera) {
+        List<String> nombres = cabecera.stream().map(c -> c.strip().toLowerCase(Locale.ROOT)).toList();
+        int[] indices = new int[COLUMNAS.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = nombres.indexOf(COLUMNAS.get(i));
+            if (indices[i] < 0) {
+                throw new ParametroInvalidoException("Falta la columna " + COLUMNAS.get(i) + " en la cabecera (columnas: "
+                        + String.join(", ", COLUMNAS) + ")");
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Reads up to {@code tamanoLote} rows. A read error ends the input: it is recorded in the summary and
+     * the rows read before it are still returned.
+     */
+    private List<Fila> leerBloque(LectorCsv lector, ImportacionDTO resumen) {
+        List<Fila> bloque = new ArrayList<>();
+        if (resumen.getError() != null) {
+            return bloque;
+        }
+        try {
+            List<String> campos;
+            while (bloque.size() < tamanoLote && (campos = lector.siguiente()) != null) {
+                bloque.add(new Fila(lector.getLinea(), campos));
+            }
+        } catch (CharacterCodingException e) {
+            resumen.setError("Contenido no UTF-8 en la línea " + lector.getLinea());
+        } catch (IOException e) {
+            resumen.setError(e.getMessage());
+        }
+        resumen.setLeidas(resumen.getLeidas() + bloque.size());
+        return bloque;
+    }
+
+    /**
+     * Converts and validates a row. Runs on the common fork-join pool.
+     */
+    private Validada validar(Fila fila, int[] indices) {
+        List<String> campos = fila.campos();
+        int necesarias = Math.max(indices[0], Math.max(indices[1], indices[2])) + 1;
+        if (campos.size() < necesarias) {
+            return new Validada(fila, null, "Se esperaban al menos " + necesarias + " columnas y hay " + campos.size());
+        }
+        Map<String, String> errores = new HashMap<>();
+        TransaccionCreateDTO datos = new TransaccionCreateDTO();
+        datos.setNombre(campos.get(indices[0]).strip());
+        String fecha = campos.get(indices[1]).strip();
+        if (!fecha.isEmpty()) {
+            try {
+                datos.setFecha(LocalDate.parse(fecha));
+            } catch (DateTimeParseException e) {
+                errores.put("fecha", "no es una fecha yyyy-MM-dd");
+            }
+        }
+        String valor = campos.get(indices[2]).strip();
+        if (!valor.isEmpty()) {
+            try {
+                datos.setValor(new BigDecimal(valor));
+            } catch (NumberFormatException e) {
+                errores.put("valor", "no es un número");
+            }
+        }
+        for (ConstraintViolation<TransaccionCreateDTO> violacion : validator.validate(datos)) {
+            errores.putIfAbsent(violacion.getPropertyPath().toString(), violacion.getMessage());
+        }
+        if (errores.isEmpty()) {
+            return new Validada(fila, datos, null);
+        }
+        return new Validada(fila, null, COLUMNAS.stream()
+                .filter(errores::containsKey)
+                .map(c -> c + ": " + errores.get(c))
+                .collect(Collectors.joining("; ")));
+    }
+
+    /**
+     * Writes the rejected rows of a validated block and inserts the rest in one database transaction.
+     */
+    private void insertar(List<Validada> bloque, Rechazos rechazos, ImportacionDTO resumen) throws IOException {
+        List<Validada> validas = new ArrayList<>(bloque.size());
+        for (Validada v : bloque) {
+            if (v.motivo() == null) {
+                validas.add(v);
+            } else {
+                rechazos.escribir(v.fila(), v.motivo());
+            }
+        }
+        long creadas = 0;
+        if (!validas.isEmpty()) {
+            try {
+                transaccionService.prepararEscritura(validas.size());
+                transaccionService.crearTodas(validas.stream().map(Validada::datos).toList());
+                creadas = validas.size();
+            } catch (DataIntegrityViolationException e) {
+                // Una sola fila inválida para la base de datos revierte el bloque: se reintenta fila a fila para aislarla
+                log.debug("Bloque rechazado por la base de datos; se reintenta fila a fila", e);
+                for (Validada v : validas) {
+                    try {
+                        transaccionService.crear(v.datos());
+                        creadas++;
+                    } catch (DataIntegrityViolationException ex) {
+                        String causa = String.valueOf(ex.getMostSpecificCause().getMessage()).lines().findFirst().orElse("");
+                        rechazos.escribir(v.fila(), "rechazada por la base de datos: " + causa);
+                    }
+                }
+            }
+        }
+        long rechazadasBloque = bloque.size() - creadas;
+        resumen.setImportadas(resumen.getImportadas() + creadas);
+        resumen.setRechazadas(resumen.getRechazadas() + rechazadasBloque);
+        importadas.increment(creadas);
+        rechazadas.increment(rechazadasBloque);
+    }
+
+    /**
+     * Rejected rows file, created with the first rejected row. Each row has its line and reason followed by
+     * the original fields, under the original header.
+     */
+    private static final class Rechazos implements Closeable {
+        private final Path archivo;
+        private List<String> cabecera = List.of();
+        private BufferedWriter escritor;
+        private long escritas;
+
+        private Rechazos(Path archivo) {
+            this.archivo = archivo;
+        }
+
+        private void escribir(Fila fila, String motivo) throws IOException {
+            if (escritor == null) {
+                Files.createDirectories(archivo.toAbsolutePath().getParent());
+                escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8);
+                linea(List.of("linea", "motivo"), cabecera);
+            }
+            linea(List.of(Long.toString(fila.linea()), motivo), fila.campos());
+            escritas++;
+        }
+
+        private void linea(List<String> prefijo, List<String> campos) throws IOException {
+            escritor.write(prefijo.stream().map(Rechazos::escapar).collect(Collectors.joining(",")));
+            for (String campo : campos) {
+                escritor.write(',');
+                escritor.write(escapar(campo));
+            }
+            escritor.write('\n');
+        }
+
+        private static String escapar(String campo) {
+            if (campo.indexOf(',') < 0 && campo.indexOf('"') < 0 && campo.indexOf('\n') < 0 && campo.indexOf('\r') < 0) {
+                return campo;
+            }
+            return '"' + campo.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (escritor != null) {
+                escritor.close();
+            }
+        }
+    }
+}
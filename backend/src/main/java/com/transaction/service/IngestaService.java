@@ -0,0 +1,383 @@
+package com.transaction.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.dto.IngestaAceptadaDTO;
+import com.transaction.dto.IngestaEstadoDTO;
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.entity.IngestaCheckpoint;
+import com.transaction.exception.ServicioNoDisponibleException;
+import com.transaction.repository.IngestaCheckpointRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service for write-behind ingestion of new transactions.
+ * <p>
+ * Accepted transactions are appended to a {@link RegistroIngesta} and acknowledged once the log is on disk;
+ * a background writer then inserts them in large batches. Enabled with {@code transacciones.ingesta.enabled=true}.
+ * <ul>
+ *   <li>Bounded lag: a batch is written when it reaches {@code tamano-lote} transactions or its oldest
+ *       transaction is {@code intervalo-ms} old.</li>
+ *   <li>Backpressure: at most {@code capacidad} transactions may be waiting; beyond that requests are rejected.</li>
+ *   <li>Recovery: each batch advances a checkpoint in the same database transaction, and on startup the
+ *       log records after the checkpoint are written before new requests are accepted.</li>
+ *   <li>Rejected rows: if the database rejects a batch, it is retried row by row to isolate the offending
+ *       rows, which are appended to {@code rechazadas.jsonl} in the log directory and skipped by the
+ *       checkpoint, so neither the writer nor the startup recovery gets stuck on them.</li>
+ * </ul>
+ * Every instance has its own log, so the checkpoint row is keyed by the identity of the log: replicas
+ * sharing the database each track their own progress, and a log directory that is replaced or wiped
+ * starts a new checkpoint instead of inheriting the numbering of the old one.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "transacciones.ingesta.enabled", havingValue = "true")
+public class IngestaService {
+    /** Checkpoint shared by every instance before logs had an identity; only read to migrate such a log. */
+    static final String CHECKPOINT_ANTERIOR = "transacciones";
+    static final String RECHAZADAS = "rechazadas.jsonl";
+    private static final long ESPERA_MAXIMA_REINTENTO_MS = 30_000;
+
+    /**
+     * A transaction accepted into the log and waiting to be written to the database.
+     *
+     * @param id             Ingestion ID
+     * @param datos          Transaction data
+     * @param recibidoNanos  Moment it was accepted ({@link System#nanoTime()})
+     */
+    private record Pendiente(long id, TransaccionCreateDTO datos, long recibidoNanos) {
+    }
+
+    private final TransaccionService transaccionService;
+    private final IngestaCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final RegistroIngesta registro;
+    private final Path archivoRechazadas;
+    private final String checkpoint;
+    private final int capacidadTotal;
+    private final Semaphore capacidad;
+    private final BlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private final int tamanoLote;
+    private final long intervaloNanos;
+    private final Thread escritor;
+    private volatile boolean activo = true;
+    private volatile long ultimoPersistido;
+    private volatile long rechazadas;
+    private volatile Pendiente masAntiguoEnEscritura;
+
+    public IngestaService(TransaccionService transaccionService,
+                          IngestaCheckpointRepository checkpointRepository,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${transacciones.ingesta.directorio:data/ingesta}") String directorio,
+                          @Value("${transacciones.ingesta.capacidad:10000}") int capacidad,
+                          @Value("${transacciones.ingesta.tamano-lote:1000}") int tamanoLote,
+                          @Value("${transacciones.ingesta.intervalo-ms:200}") long intervaloMs,
+                          @Value("${transacciones.ingesta.segmento-bytes:67108864}") long tamanoSegmento) throws IOException {
+        this.transaccionService = transaccionService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.registro = new RegistroIngesta(Path.of(directorio), tamanoSegmento);
+        this.archivoRechazadas = Path.of(directorio).resolve(RECHAZADAS);
+        this.checkpoint = "registro-" + registro.getIdentidad();
+        this.capacidadTotal = capacidad;
+        this.capacidad = new Semaphore(capacidad);
+        this.tamanoLote = tamanoLote;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        this.escritor = new Thread(this::escribir, "ingesta-escritor");
+
+        Gauge.builder("transacciones.ingesta.pendientes", this, s -> s.capacidadTotal - s.capacidad.availablePermits())
+                .description("Transacciones aceptadas aún no escritas en la base de datos")
+                .register(meterRegistry);
+        Gauge.builder("transacciones.ingesta.retraso", this, s -> s.retrasoMs())
+                .description("Antigüedad en ms de la transacción pendiente más antigua")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the log records left unpersisted by a previous run, then starts the background writer.
+     */
+    @PostConstruct
+    void recuperar() throws IOException {
+        Optional<IngestaCheckpoint> guardado = checkpointRepository.findById(checkpoint);
+        if (guardado.isEmpty() && registro.isAnteriorAIdentidad()) {
+            guardado = checkpointRepository.findById(CHECKPOINT_ANTERIOR);
+            guardado.ifPresent(c -> log.info("Registro de ingesta anterior a su identidad; se continúa desde el checkpoint {}",
+                    c.getUltimoPersistido()));
+        }
+        ultimoPersistido = guardado.map(IngestaCheckpoint::getUltimoPersistido).orElse(0L);
+        registro.continuarDespuesDe(ultimoPersistido);
+        List<RegistroIngesta.Entrada> entradas = registro.pendientes(ultimoPersistido);
+        if (!entradas.isEmpty()) {
+            log.info("Recuperando {} transacciones del registro de ingesta (desde el id {})", entradas.size(), ultimoPersistido + 1);
+        }
+        List<Pendiente> lote = new ArrayList<>(Math.min(tamanoLote, entradas.size()));
+        for (RegistroIngesta.Entrada entrada : entradas) {
+            TransaccionCreateDTO datos;
+            try {
+                datos = objectMapper.readValue(entrada.payload(), TransaccionCreateDTO.class);
+            } catch (IOException e) {
+                // Se escribe antes lo acumulado para que el checkpoint avance en orden
+                if (!lote.isEmpty()) {
+                    persistir(lote);
+                    lote.clear();
+                }
+                descartar(entrada.id(), new String(entrada.payload(), StandardCharsets.UTF_8), "registro ilegible: " + String.valueOf(e.getMessage()).lines().findFirst().orElse(""));
+                continue;
+            }
+            lote.add(new Pendiente(entrada.id(), datos, System.nanoTime()));
+            if (lote.size() == tamanoLote) {
+                persistir(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            persistir(lote);
+        }
+        escritor.start();
+    }
+
+    /**
+     * Accepts transactions for asynchronous creation, returning once they are durably logged.
+     *
+     * @param transacciones Validated data of the transactions to create
+     * @return Ingestion IDs assigned to the transactions
+     * @throws ServicioNoDisponibleException if the buffer does not have room for all of them
+     */
+    public IngestaAceptadaDTO encolar(List<TransaccionCreateDTO> transacciones) {
+        if (!activo || !capacidad.tryAcquire(transacciones.size())) {
+            throw new ServicioNoDisponibleException("El búfer de ingesta está lleno", 1);
+        }
+        long hasta;
+        try {
+            List<byte[]> payloads = new ArrayList<>(transacciones.size());
+            for (TransaccionCreateDTO dto : transacciones) {
+                payloads.add(objectMapper.writeValueAsBytes(dto));
+            }
+            // El orden de la cola debe coincidir con el de los ids del registro para que el checkpoint sea válido
+            synchronized (this) {
+                hasta = registro.agregar(payloads);
+                long recibido = System.nanoTime();
+                long id = hasta - transacciones.size() + 1;
+                for (TransaccionCreateDTO dto : transacciones) {
+                    cola.add(new Pendiente(id++, dto, recibido));
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            capacidad.release(transacciones.size());
+            throw e instanceof RuntimeException r ? r : new IllegalStateException(e);
+        }
+        registro.sincronizar(hasta);
+        return new IngestaAceptadaDTO(hasta - transacciones.size() + 1, hasta);
+    }
+
+    /**
+     * Retrieves the progress of the ingestion.
+     *
+     * @return Current ingestion status
+     */
+    public IngestaEstadoDTO obtenerEstado() {
+        IngestaEstadoDTO estado = new IngestaEstadoDTO();
+        estado.setUltimoRecibido(registro.getUltimoAgregado());
+        estado.setUltimoPersistido(ultimoPersistido);
+        estado.setPendientes(capacidadTotal - capacidad.availablePermits());
+        estado.setCapacidad(capacidadTotal);
+        estado.setRetrasoMs(retrasoMs());
+        estado.setRechazadas(rechazadas);
+        return estado;
+    }
+
+    /**
+     * Background writer loop: collects batches from the queue and writes them to the database.
+     */
+    private void escribir() {
+        while (activo || !cola.isEmpty()) {
+            try {
+                Pendiente primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                List<Pendiente> lote = new ArrayList<>(tamanoLote);
+                lote.add(primero);
+                masAntiguoEnEscritura = primero;
+                long limite = primero.recibidoNanos() + intervaloNanos;
+                while (lote.size() < tamanoLote) {
+                    cola.drainTo(lote, tamanoLote - lote.size());
+                    long espera = limite - System.nanoTime();
+                    if (lote.size() >= tamanoLote || espera <= 0 || !activo) {
+                        break;
+                    }
+                    Pendiente siguiente = cola.poll(espera, TimeUnit.NANOSECONDS);
+                    if (siguiente != null) {
+                        lote.add(siguiente);
+                    }
+                }
+                persistirConReintentos(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, retrying with backoff while the database is unavailable.
+     * The batch keeps its buffer capacity meanwhile, so new requests get backpressure.
+     *
+     * @param lote Batch to write
+     */
+    private void persistirConReintentos(List<Pendiente> lote) throws InterruptedException {
+        long espera = 500;
+        while (true) {
+            try {
+                persistir(lote);
+                masAntiguoEnEscritura = null;
+                capacidad.release(lote.size());
+                return;
+            } catch (RuntimeException e) {
+                if (!activo) {
+                    // Las transacciones siguen en el registro y se recuperan en el próximo arranque
+                    log.error("No se pudo escribir un lote de ingesta al detener; se recuperará al reiniciar", e);
+                    return;
+                }
+                log.error("Falló la escritura de un lote de ingesta de {} transacciones; reintentando en {} ms", lote.size(), espera, e);
+                Thread.sleep(espera);
+                espera = Math.min(espera * 2, ESPERA_MAXIMA_REINTENTO_MS);
+            }
+        }
+    }
+
+    /**
+     * Inserts a batch and advances the checkpoint in the same database transaction. If the database
+     * rejects the batch, it is retried row by row and the rejected rows are discarded.
+     *
+     * @param lote Batch to write, in ingestion ID order
+     */
+    private void persistir(List<Pendiente> lote) {
+        // Tras un fallo a mitad del reintento fila a fila, las filas ya escritas no se repiten
+        long desde = ultimoPersistido;
+        List<Pendiente> restantes = lote.stream().filter(p -> p.id() > desde).collect(Collectors.toList());
+        if (restantes.isEmpty()) {
+            return;
+        }
+        long ultimo = restantes.get(restantes.size() - 1).id();
+        try {
+            List<TransaccionCreateDTO> datos = restantes.stream().map(Pendiente::datos).collect(Collectors.toList());
+            transaccionService.prepararEscritura(datos.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                transaccionService.crearTodas(datos);
+                checkpointRepository.save(new IngestaCheckpoint(checkpoint, ultimo));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Una sola fila inválida para la base de datos revierte el lote: se reintenta fila a fila para aislarla
+            log.warn("Lote de ingesta rechazado por la base de datos; se reintenta fila a fila", e);
+            for (Pendiente pendiente : restantes) {
+                persistirFila(pendiente);
+            }
+            return;
+        }
+        avanzar(ultimo);
+    }
+
+    private void persistirFila(Pendiente pendiente) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transaccionService.crear(pendiente.datos());
+                checkpointRepository.save(new IngestaCheckpoint(checkpoint, pendiente.id()));
+            });
+        } catch (DataIntegrityViolationException e) {
+            String causa = String.valueOf(e.getMostSpecificCause().getMessage()).lines().findFirst().orElse("");
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(pendiente.datos());
+            } catch (JsonProcessingException ex) {
+                payload = String.valueOf(pendiente.datos());
+            }
+            descartar(pendiente.id(), payload, "rechazada por la base de datos: " + causa);
+            return;
+        }
+        avanzar(pendiente.id());
+    }
+
+    /**
+     * Appends a record that cannot be written to the rejected rows file and moves the checkpoint past it.
+     * The file is synced first, so a record is never skipped without being kept there.
+     *
+     * @param id      Ingestion ID of the record
+     * @param payload Serialized transaction
+     * @param motivo  Reason it was rejected
+     */
+    private void descartar(long id, String payload, String motivo) {
+        log.error("Transacción de ingesta {} descartada ({}); se conserva en {}", id, motivo, archivoRechazadas);
+        Map<String, Object> rechazo = new LinkedHashMap<>();
+        rechazo.put("id", id);
+        rechazo.put("motivo", motivo);
+        rechazo.put("transaccion", payload);
+        try {
+            byte[] linea = (objectMapper.writeValueAsString(rechazo) + "\n").getBytes(StandardCharsets.UTF_8);
+            Files.write(archivoRechazadas, linea, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.save(new IngestaCheckpoint(checkpoint, id)));
+        rechazadas++;
+        avanzar(id);
+    }
+
+    private void avanzar(long ultimo) {
+        ultimoPersistido = ultimo;
+        registro.liberarHasta(ultimo);
+    }
+
+    private long retrasoMs() {
+        Pendiente masAntiguo = masAntiguoEnEscritura;
+        if (masAntiguo == null) {
+            masAntiguo = cola.peek();
+        }
+        return masAntiguo == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - masAntiguo.recibidoNanos());
+    }
+
+    /**
+     * Stops accepting transactions, writes the ones already queued and closes the log.
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        escritor.join(TimeUnit.SECONDS.toMillis(30));
+        try {
+            registro.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.transaction.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of UTF-8 CSV records (RFC 4180) from a channel.
+ * <p>
+ * The input is decoded through fixed-size byte and char buffers, so memory does not depend on the size of
+ * the input. Quoted fields may contain commas, line breaks and doubled quotes. Both {@code \n} and
+ * {@code \r\n} end a record, a leading byte order mark is skipped and blank lines are ignored.
+ * Not thread-safe.
+ */
+public final class LectorCsv implements Closeable {
+    static final int MAX_REGISTRO = 64 * 1024;
+    private static final int FIN = -1;
+
+    private final ReadableByteChannel canal;
+    private final CharsetDecoder decodificador = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final ByteBuffer bytes;
+    private final CharBuffer caracteres;
+    private final StringBuilder campo = new StringBuilder();
+    private boolean finCanal;
+    private boolean decodificado;
+    private boolean inicio = true;
+    private long linea = 1;
+    private long lineaRegistro;
+
+    /**
+     * Creates a reader. The channel is closed with the reader.
+     *
+     * @param canal       Source of the CSV bytes
+     * @param tamanoBuffer Size of the read buffer in bytes
+     */
+    public LectorCsv(ReadableByteChannel canal, int tamanoBuffer) {
+        this.canal = canal;
+        this.bytes = ByteBuffer.allocate(tamanoBuffer);
+        this.caracteres = CharBuffer.allocate(tamanoBuffer).flip();
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return Fields of the record, or null at the end of the input
+     * @throws CharacterCodingException if the input is not valid UTF-8
+     * @throws IOException              if a quoted field is not closed or a record exceeds 64 KiB
+     */
+    public List<String> siguiente() throws IOException {
+        List<String> campos = new ArrayList<>();
+        campo.setLength(0);
+        lineaRegistro = linea;
+        boolean entreComillas = false;
+        boolean citado = false;
+        int longitud = 0;
+        while (true) {
+            int c = leer();
+            if (c == FIN) {
+                if (entreComillas) {
+                    throw new IOException("Comillas sin cerrar desde la línea " + lineaRegistro);
+                }
+                if (campos.isEmpty() && campo.isEmpty() && !citado) {
+                    return null;
+                }
+                campos.add(campo.toString());
+                return campos;
+            }
+            if (++longitud > MAX_REGISTRO) {
+                throw new IOException("Registro de más de " + MAX_REGISTRO + " caracteres en la línea " + lineaRegistro);
+            }
+            if (entreComillas) {
+                if (c == '"') {
+                    if (mirar() == '"') {
+                        leer();
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+                citado = false;
+            } else if (c == '"' && campo.isEmpty() && !citado) {
+                entreComillas = true;
+                citado = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && mirar() == '\n') {
+                    leer();
+                }
+                linea++;
+                if (campos.isEmpty() && campo.isEmpty() && !citado) {
+                    // Línea en blanco
+                    lineaRegistro = linea;
+                    longitud = 0;
+                    continue;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Line of the input on which the last record read starts, from 1.
+     */
+    public long getLinea() {
+        return lineaRegistro;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private int leer() throws IOException {
+        if (!caracteres.hasRemaining() && !llenar()) {
+            return FIN;
+        }
+        char c = caracteres.get();
+        if (inicio) {
+            inicio = false;
+            if (c == '\uFEFF') {
+                return leer();
+            }
+        }
+        return c;
+    }
+
+    private int mirar() throws IOException {
+        if (!caracteres.hasRemaining() && !llenar()) {
+            return FIN;
+        }
+        return caracteres.get(caracteres.position());
+    }
+
+    /**
+     * Decodes more characters into the char buffer.
+     *
+     * @return false at the end of the input
+     */
+    private boolean llenar() throws IOException {
+        if (decodificado) {
+            return false;
+        }
+        caracteres.clear();
+        try {
+            while (caracteres.position() == 0 && !decodificado) {
+                if (!finCanal && canal.read(bytes) == -1) {
+                    finCanal = true;
+                }
+                bytes.flip();
+                CoderResult resultado = decodificador.decode(bytes, caracteres, finCanal);
+                bytes.compact();
+                if (resultado.isError()) {
+                    resultado.throwException();
+                }
+                if (finCanal && resultado.isUnderflow()) {
+                    decodificador.flush(caracteres);
+                    decodificado = true;
+                }
+            }
+        } finally {
+            caracteres.flip();
+        }
+        return caracteres.hasRemaining();
+    }
+}
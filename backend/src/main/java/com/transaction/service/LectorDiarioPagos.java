@@ -0,0 +1,250 @@
+package com.transaction.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reader, verifier and replay tool for the payment journal written by {@link DiarioPagos}.
+ * Owns the segment file layout; it depends only on the JDK so it runs on a bare classpath.
+ * <p>
+ * Verification checks every segment header, every chained checksum and that sequence numbers are
+ * consecutive across segments. Replay rebuilds which transactions are paid, and by which record,
+ * ignoring annulled payments. Runs without Spring:
+ * <pre>
+ * java -cp backend/target/classes com.transaction.service.LectorDiarioPagos verificar ~/transacciones/diario-pagos
+ * java -cp backend/target/classes com.transaction.service.LectorDiarioPagos reproducir ~/transacciones/diario-pagos [--ids]
+ * java -cp backend/target/classes com.transaction.service.LectorDiarioPagos listar ~/transacciones/diario-pagos
+ * </pre>
+ */
+public final class LectorDiarioPagos {
+    static final int MAGICO = 0x5041474F; // "PAGO"
+    static final int VERSION = 2;
+    static final int CABECERA_SEGMENTO = 16;
+    static final String PREFIJO = "pagos-";
+    static final String SUFIJO = ".diario";
+
+    /**
+     * Outcome of verifying a journal.
+     *
+     * @param registros       Number of valid records read
+     * @param ultimaSecuencia Sequence number of the last valid record (0 if none)
+     * @param error           Description of the first inconsistency found, or null if the journal is intact
+     */
+    public record Verificacion(long registros, long ultimaSecuencia, String error) {
+        public boolean isValido() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Payment state rebuilt from a journal.
+     *
+     * @param pagadas      Sequence number of the record that paid each transaction, by transaction ID
+     * @param pagos        Number of committed payment records (PAGO and PAGO_LOTE)
+     * @param rechazos     Number of payment calls that paid nothing
+     * @param anulaciones  Number of payment records annulled by a rollback or a reversal
+     * @param totalPagado  Sum of the amounts applied by the committed payments
+     */
+    public record EstadoPagos(Map<Long, Long> pagadas, long pagos, long rechazos, long anulaciones, BigDecimal totalPagado) {
+    }
+
+    private LectorDiarioPagos() {
+    }
+
+    /**
+     * Verifies the whole journal.
+     *
+     * @param directorio Journal directory
+     * @return The verification outcome; never throws on corrupt data
+     * @throws IOException if a segment cannot be read
+     */
+    public static Verificacion verificar(Path directorio) throws IOException {
+        long[] contador = new long[2];
+        try {
+            recorrer(directorio, registro -> {
+                contador[0]++;
+                contador[1] = registro.secuencia();
+            });
+            return new Verificacion(contador[0], contador[1], null);
+        } catch (DiarioCorruptoException e) {
+            return new Verificacion(contador[0], contador[1], e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the payment state from the journal.
+     * <p>
+     * Records are forced before their database transaction commits, so the last payments of a process that
+     * died in between appear as paid without an ANULACION; check those IDs against the database.
+     *
+     * @param directorio Journal directory
+     * @return The payment state
+     * @throws IOException if a segment cannot be read or the journal does not verify
+     */
+    public static EstadoPagos reproducir(Path directorio) throws IOException {
+        Map<Long, RegistroPago> pagos = new LinkedHashMap<>();
+        long[] rechazosYAnulaciones = new long[2];
+        try {
+            recorrer(directorio, registro -> {
+                switch (registro.tipo()) {
+                    case PAGO, PAGO_LOTE -> pagos.put(registro.secuencia(), registro);
+                    case RECHAZO -> rechazosYAnulaciones[0]++;
+                    case ANULACION -> {
+                        if (pagos.remove(registro.referencia()) != null) {
+                            rechazosYAnulaciones[1]++;
+                        }
+                    }
+                }
+            });
+        } catch (DiarioCorruptoException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        Map<Long, Long> pagadas = new LinkedHashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (RegistroPago pago : pagos.values()) {
+            pago.ids().forEach(id -> pagadas.put(id, pago.secuencia()));
+            total = total.add(pago.monto().subtract(pago.restante()));
+        }
+        return new EstadoPagos(pagadas, pagos.size(), rechazosYAnulaciones[0], rechazosYAnulaciones[1], total);
+    }
+
+    /**
+     * Reads every record of the journal in order.
+     *
+     * @param directorio Journal directory
+     * @param consumidor Receives each valid record
+     * @throws IOException             if a segment cannot be read
+     * @throws DiarioCorruptoException at the first inconsistency, after the valid records before it
+     */
+    static void recorrer(Path directorio, Consumer<RegistroPago> consumidor) throws IOException {
+        TreeMap<Long, Path> segmentos = segmentos(directorio);
+        Integer crcAnterior = null;
+        long esperada = segmentos.isEmpty() ? 1 : segmentos.firstKey();
+        for (Map.Entry<Long, Path> entrada : segmentos.entrySet()) {
+            Path archivo = entrada.getValue();
+            if (entrada.getKey() != esperada) {
+                throw new DiarioCorruptoException("El segmento " + archivo.getFileName() + " debería empezar en la secuencia " + esperada);
+            }
+            ByteBuffer segmento = ByteBuffer.wrap(Files.readAllBytes(archivo));
+            int crc;
+            try {
+                crc = leerCabecera(segmento);
+            } catch (IOException e) {
+                throw new DiarioCorruptoException("Cabecera inválida en " + archivo.getFileName());
+            }
+            if (crcAnterior != null && crc != crcAnterior) {
+                throw new DiarioCorruptoException("El segmento " + archivo.getFileName() + " no continúa la cadena del anterior");
+            }
+            RegistroPago registro;
+            while ((registro = RegistroPago.leer(segmento, crc)) != null) {
+                if (registro.secuencia() != esperada) {
+                    throw new DiarioCorruptoException("Secuencia " + registro.secuencia() + " encontrada donde se esperaba " + esperada);
+                }
+                consumidor.accept(registro);
+                crc = RegistroPago.crcAlmacenado(segmento);
+                esperada++;
+            }
+            if (segmento.remaining() >= Integer.BYTES && segmento.getInt(segmento.position()) != 0) {
+                throw new DiarioCorruptoException("Registro alterado o incompleto en " + archivo.getFileName()
+                        + " (posición " + segmento.position() + ", secuencia " + esperada + ")");
+            }
+            crcAnterior = crc;
+        }
+    }
+
+    /**
+     * Command line entry point: {@code verificar <directorio>}, {@code reproducir <directorio> [--ids]}
+     * or {@code listar <directorio>}. Exits with status 1 if the journal does not verify.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !List.of("verificar", "reproducir", "listar").contains(args[0])) {
+            System.err.println("Uso: LectorDiarioPagos verificar|reproducir|listar <directorio> [--ids]");
+            System.exit(2);
+        }
+        Path directorio = Path.of(args[1]);
+        if (args[0].equals("listar")) {
+            try {
+                recorrer(directorio, registro -> System.out.printf("%d\t%s\t%s\t%s\t%s\t%d\t%s%n",
+                        registro.secuencia(), Instant.ofEpochMilli(registro.instante()), registro.tipo(),
+                        registro.monto().toPlainString(), registro.restante().toPlainString(), registro.referencia(), registro.ids()));
+            } catch (DiarioCorruptoException e) {
+                System.out.println("ERROR: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        Verificacion verificacion = verificar(directorio);
+        System.out.printf("Registros válidos: %d, última secuencia: %d%n", verificacion.registros(), verificacion.ultimaSecuencia());
+        if (!verificacion.isValido()) {
+            System.out.println("ERROR: " + verificacion.error());
+            System.exit(1);
+        }
+        System.out.println("Diario íntegro");
+        if (args[0].equals("reproducir")) {
+            EstadoPagos estado = reproducir(directorio);
+            System.out.printf("Pagos confirmados: %d, rechazados: %d, anulados: %d%n", estado.pagos(), estado.rechazos(), estado.anulaciones());
+            System.out.printf("Transacciones pagadas: %d, total pagado: %s%n", estado.pagadas().size(), estado.totalPagado().toPlainString());
+            if (args.length > 2 && args[2].equals("--ids")) {
+                estado.pagadas().forEach((id, secuencia) -> System.out.println(id + "\t" + secuencia));
+            }
+        }
+    }
+
+    static String nombreSegmento(long primeraSecuencia) {
+        return String.format("%s%020d%s", PREFIJO, primeraSecuencia, SUFIJO);
+    }
+
+    /**
+     * Lists the segment files of a journal directory.
+     *
+     * @param directorio Journal directory
+     * @return Segment files by the sequence number of their first record
+     */
+    static TreeMap<Long, Path> segmentos(Path directorio) throws IOException {
+        TreeMap<Long, Path> segmentos = new TreeMap<>();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.forEach(p -> {
+                String nombre = p.getFileName().toString();
+                if (nombre.startsWith(PREFIJO) && nombre.endsWith(SUFIJO)) {
+                    segmentos.put(Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length())), p);
+                }
+            });
+        }
+        return segmentos;
+    }
+
+    /**
+     * Reads the header of a mapped or loaded segment.
+     *
+     * @param segmento Segment contents, positioned at 0
+     * @return Checksum the first record of the segment chains from
+     * @throws IOException if the header is not a journal segment header
+     */
+    static int leerCabecera(ByteBuffer segmento) throws IOException {
+        if (segmento.remaining() < CABECERA_SEGMENTO || segmento.getInt(0) != MAGICO || segmento.getInt(4) != VERSION) {
+            throw new IOException("Cabecera de segmento inválida");
+        }
+        segmento.position(CABECERA_SEGMENTO);
+        return segmento.getInt(8);
+    }
+
+    /**
+     * Thrown while reading a journal that fails verification.
+     */
+    static class DiarioCorruptoException extends RuntimeException {
+        DiarioCorruptoException(String message) {
+            super(message);
+        }
+    }
+}
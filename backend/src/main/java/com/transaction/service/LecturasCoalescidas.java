@@ -0,0 +1,124 @@
+package com.transaction.service;
+
+import com.transaction.config.RutaDataSource;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.dto.TransaccionFiltroDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Request coalescing in front of the reads of {@link TransaccionService}.
+ * <p>
+ * Identical concurrent {@code listar}, {@code listarCampos} or {@code obtenerPorId} calls share one query through a
+ * {@link VueloUnico}, outside the read transaction, so waiting callers hold no connection. The key
+ * includes the write epoch the caller read from {@link RegistroEtags} and whether the primary is forced: a caller only
+ * joins a query started after the last write it could have seen acknowledged, and read-your-writes
+ * requests never share a replica read. Nothing is kept once the query completes.
+ * <p>
+ * Metrics {@code transacciones.lecturas.ejecutadas} and {@code transacciones.lecturas.coalescidas},
+ * tagged by operation. Disabled with {@code transacciones.coalescencia.enabled=false}.
+ */
+@Service
+public class LecturasCoalescidas {
+
+    /**
+     * Key of a list call.
+     */
+    private record ClaveLista(String epoca, boolean primaria, TransaccionFiltroDTO filtro) {
+    }
+
+    /**
+     * Key of a list call with a sparse fieldset.
+     */
+    private record ClaveCampos(String epoca, boolean primaria, TransaccionFiltroDTO filtro, List<String> campos) {
+    }
+
+    /**
+     * Key of a detail call.
+     */
+    private record ClaveDetalle(String epoca, boolean primaria, Long id) {
+    }
+
+    private final TransaccionService transaccionService;
+    private final boolean activa;
+    private final VueloUnico<ClaveLista, List<TransaccionDTO>> listas;
+    private final VueloUnico<ClaveCampos, List<Map<String, Object>>> proyecciones;
+    private final VueloUnico<ClaveDetalle, Optional<TransaccionDTO>> detalles;
+
+    public LecturasCoalescidas(TransaccionService transaccionService,
+                               MeterRegistry meterRegistry,
+                               @Value("${transacciones.coalescencia.enabled:true}") boolean activa) {
+        this.transaccionService = transaccionService;
+        this.activa = activa;
+        this.listas = vuelo(meterRegistry, "listar");
+        this.proyecciones = vuelo(meterRegistry, "listar-campos");
+        this.detalles = vuelo(meterRegistry, "obtener");
+    }
+
+    /**
+     * Lists transactions like {@link TransaccionService#listar(TransaccionFiltroDTO)}, sharing the query
+     * with identical concurrent calls. The filter must not be modified afterwards.
+     *
+     * @param epoca  Write epoch read before the call
+     * @param filtro Filters and sort order
+     * @return List of matching transactions, shared with the coalesced callers
+     */
+    public List<TransaccionDTO> listar(String epoca, TransaccionFiltroDTO filtro) {
+        if (!activa) {
+            return transaccionService.listar(filtro);
+        }
+        return listas.ejecutar(new ClaveLista(epoca, RutaDataSource.primariaForzada(), filtro),
+                () -> transaccionService.listar(filtro));
+    }
+
+    /**
+     * Lists transactions like {@link TransaccionService#listarCampos(TransaccionFiltroDTO, List)}, sharing
+     * the query with identical concurrent calls. The filter must not be modified afterwards.
+     *
+     * @param epoca  Write epoch read before the call
+     * @param filtro Filters and sort order
+     * @param campos Requested fields
+     * @return The requested fields of the matching transactions, shared with the coalesced callers
+     */
+    public List<Map<String, Object>> listarCampos(String epoca, TransaccionFiltroDTO filtro, List<String> campos) {
+        if (!activa) {
+            return transaccionService.listarCampos(filtro, campos);
+        }
+        return proyecciones.ejecutar(new ClaveCampos(epoca, RutaDataSource.primariaForzada(), filtro, List.copyOf(campos)),
+                () -> transaccionService.listarCampos(filtro, campos));
+    }
+
+    /**
+     * Retrieves a transaction like {@link TransaccionService#obtenerPorId(Long)}, sharing the query
+     * with identical concurrent calls.
+     *
+     * @param epoca Write epoch read before the call
+     * @param id    Transaction ID
+     * @return The transaction if found, shared with the coalesced callers
+     */
+    public Optional<TransaccionDTO> obtenerPorId(String epoca, Long id) {
+        if (!activa) {
+            return transaccionService.obtenerPorId(id);
+        }
+        return detalles.ejecutar(new ClaveDetalle(epoca, RutaDataSource.primariaForzada(), id),
+                () -> transaccionService.obtenerPorId(id));
+    }
+
+    private static <K, V> VueloUnico<K, V> vuelo(MeterRegistry meterRegistry, String operacion) {
+        VueloUnico<K, V> vuelo = new VueloUnico<>(
+                Counter.builder("transacciones.lecturas.ejecutadas").tag("operacion", operacion)
+                        .description("Lecturas que consultaron la base de datos").register(meterRegistry),
+                Counter.builder("transacciones.lecturas.coalescidas").tag("operacion", operacion)
+                        .description("Lecturas servidas por una consulta idéntica en curso").register(meterRegistry));
+        Gauge.builder("transacciones.lecturas.en-vuelo", vuelo, VueloUnico::getEnVuelo).tag("operacion", operacion)
+                .description("Consultas distintas en curso").register(meterRegistry);
+        return vuelo;
+    }
+}
@@ -0,0 +1,13 @@
+package com.transaction.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of settling one chunk of an asynchronous payment.
+ *
+ * @param total    Total value of the paid transactions
+ * @param registro Sequence number of the chunk's record in the {@link DiarioPagos}, needed to annul it
+ *                 if the job has to revert the chunk
+ */
+public record LotePagado(BigDecimal total, long registro) {
+}
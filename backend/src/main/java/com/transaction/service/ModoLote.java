@@ -0,0 +1,15 @@
+package com.transaction.service;
+
+/**
+ * Enum representing how a batch of operations handles failures.
+ * <ul>
+ *   <li>TODO_O_NADA: The first failing operation rolls back the whole batch.</li>
+ *   <li>MEJOR_ESFUERZO: Failing operations are skipped and the rest are committed.</li>
+ * </ul>
+ */
+public enum ModoLote {
+    /** The first failing operation rolls back the whole batch. */
+    TODO_O_NADA,
+    /** Failing operations are skipped and the rest are committed. */
+    MEJOR_ESFUERZO
+}
@@ -0,0 +1,75 @@
+package com.transaction.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EventoOutbox;
+import com.transaction.event.TipoCambio;
+import com.transaction.event.TransaccionCambioEvent;
+import com.transaction.repository.EventoOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service that writes transaction changes to the transactional outbox.
+ * <p>
+ * Runs right before the change's database transaction commits, inside it, so an outbox row exists
+ * if and only if its change is committed. Only the kinds of change listed in
+ * {@code transacciones.outbox.tipos} are written. Enabled with {@code transacciones.outbox.enabled=true}.
+ */
+@Service
+@ConditionalOnProperty(name = "transacciones.outbox.enabled", havingValue = "true")
+public class OutboxService {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final ObjectMapper objectMapper;
+    private final Set<TipoCambio> tipos;
+
+    public OutboxService(EventoOutboxRepository eventoOutboxRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${transacciones.outbox.tipos:CREADA,PAGADA}") Set<TipoCambio> tipos) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.objectMapper = objectMapper;
+        this.tipos = tipos;
+    }
+
+    /**
+     * Writes one outbox row per affected transaction, in the committing transaction.
+     *
+     * @param event Change published by TransaccionService
+     * @throws IllegalStateException if a transaction cannot be serialized; the change is rolled back
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCambio(TransaccionCambioEvent event) {
+        if (!tipos.contains(event.getTipo())) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EventoOutbox> eventos = new ArrayList<>(event.getTransacciones().size());
+        for (TransaccionDTO transaccion : event.getTransacciones()) {
+            eventos.add(EventoOutbox.builder()
+                    .tipo(event.getTipo())
+                    .transaccionId(transaccion.getId())
+                    .payload(json(transaccion))
+                    .creadoEn(ahora)
+                    .build());
+        }
+        eventoOutboxRepository.saveAll(eventos);
+    }
+
+    private String json(TransaccionDTO transaccion) {
+        try {
+            return objectMapper.writeValueAsString(transaccion);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la transacción " + transaccion.getId() + " para el outbox", e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.transaction.service;
+
+import com.transaction.dto.PagoJobDTO;
+import com.transaction.exception.ServicioNoDisponibleException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Service for asynchronous payment jobs.
+ * <p>
+ * Large payments are planned once and then settled in chunks, each chunk in its own database transaction,
+ * so neither an HTTP thread nor a long-running transaction is held for the whole payment.
+ * <ul>
+ *   <li>Jobs run on a bounded executor; when its queue is full new jobs are rejected.</li>
+ *   <li>With the default single worker, jobs are processed one at a time in submission order.</li>
+ *   <li>A chunk fails if its transactions changed since planning. The job then reverts the chunks it
+ *       already paid in one database transaction and fails, so the exact-amount rule holds for the whole
+ *       payment: either every planned transaction is paid or none is. If the reversal itself fails, the status
+ *       of the failed job still counts the transactions left paid.</li>
+ *   <li>A job holds the {@link ArrendamientoPagos} lease from planning to its last chunk.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class PagoAsyncService {
+    private final TransaccionService transaccionService;
+    private final ArrendamientoPagos arrendamientoPagos;
+    private final TaskExecutor executor;
+    private final int tamanoLote;
+    private final long retencionMinutos;
+    private final long reintentarSegundos;
+    private final Map<String, PagoJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PagoAsyncService(TransaccionService transaccionService,
+                            ArrendamientoPagos arrendamientoPagos,
+                            @Value("${transacciones.pagos.async.pool-size:1}") int poolSize,
+                            @Value("${transacciones.pagos.async.queue-capacity:100}") int capacidadCola,
+                            @Value("${transacciones.pagos.async.chunk-size:500}") int tamanoLote,
+                            @Value("${transacciones.pagos.async.retencion-minutos:60}") long retencionMinutos,
+                            @Value("${transacciones.pagos.async.reintentar-segundos:5}") long reintentarSegundos) {
+        this(transaccionService, arrendamientoPagos, crearExecutor(poolSize, capacidadCola), tamanoLote, retencionMinutos,
+                reintentarSegundos);
+    }
+
+    PagoAsyncService(TransaccionService transaccionService, ArrendamientoPagos arrendamientoPagos, TaskExecutor executor,
+                     int tamanoLote, long retencionMinutos, long reintentarSegundos) {
+        this.transaccionService = transaccionService;
+        this.arrendamientoPagos = arrendamientoPagos;
+        this.executor = executor;
+        this.tamanoLote = tamanoLote;
+        this.retencionMinutos = retencionMinutos;
+        this.reintentarSegundos = reintentarSegundos;
+    }
+
+    /**
+     * Accepts a payment to be processed in the background.
+     *
+     * @param monto Amount to pay
+     * @return Initial status of the accepted job
+     * @throws ServicioNoDisponibleException if the job queue is full
+     */
+    public PagoJobDTO enviar(BigDecimal monto) {
+        purgarFinalizados();
+        PagoJob job = new PagoJob(monto);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> procesar(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ServicioNoDisponibleException("La cola de pagos asíncronos está llena, intente nuevamente más tarde",
+                    reintentarSegundos);
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Retrieves the status of a payment job.
+     *
+     * @param id Job ID
+     * @return Optional containing the job status if found, empty otherwise
+     */
+    public Optional<PagoJobDTO> obtenerEstado(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(PagoJob::toDTO);
+    }
+
+    /**
+     * Plans the payment and pays the planned transactions chunk by chunk, holding the payment lease.
+     *
+     * @param job Job to process
+     */
+    void procesar(PagoJob job) {
+        try {
+            arrendamientoPagos.ejecutar(() -> {
+                liquidar(job);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Falló el pago asíncrono {}", job.getId(), e);
+            job.fallar(e.getMessage());
+        }
+    }
+
+    private void liquidar(PagoJob job) {
+        PlanPago plan = transaccionService.planificarPago(job.getMontoInicial());
+        if (plan.isRechazado()) {
+            job.completar(plan.getRechazo());
+            return;
+        }
+
+        List<Long> ids = plan.getIds();
+        job.iniciar(ids.size());
+        BigDecimal montoPagado = BigDecimal.ZERO;
+        List<Long> registros = new ArrayList<>();
+        for (int desde = 0; desde < ids.size(); desde += tamanoLote) {
+            List<Long> lote = ids.subList(desde, Math.min(desde + tamanoLote, ids.size()));
+            LotePagado pagado;
+            try {
+                transaccionService.prepararEscritura(lote.size());
+                pagado = transaccionService.pagarLote(lote);
+            } catch (RuntimeException e) {
+                revertir(job, ids.subList(0, desde), registros, e);
+                throw e;
+            }
+            registros.add(pagado.registro());
+            montoPagado = montoPagado.add(pagado.total());
+            job.registrarLote(lote.size(), pagado.total());
+        }
+
+        job.completar(new PaymentResult(ids.size(), job.getMontoInicial().subtract(montoPagado),
+                job.getMontoInicial(), plan.getMontoRequerido()));
+    }
+
+    /**
+     * Returns the transactions of the chunks already paid to PENDIENTE after a later chunk failed.
+     *
+     * @param job       Job whose chunk failed
+     * @param pagadas   IDs paid by the previous chunks
+     * @param registros Journal records of the previous chunks
+     * @param causa     Failure of the chunk
+     */
+    private void revertir(PagoJob job, List<Long> pagadas, List<Long> registros, RuntimeException causa) {
+        if (pagadas.isEmpty()) {
+            return;
+        }
+        try {
+            transaccionService.prepararEscritura(pagadas.size());
+            transaccionService.revertirLotes(pagadas, registros);
+            job.revertir();
+        } catch (RuntimeException e) {
+            log.error("No se pudo revertir el pago asíncrono {}: {} transacciones quedan pagadas", job.getId(), pagadas.size(), e);
+            causa.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Removes finished jobs older than the retention period.
+     */
+    private void purgarFinalizados() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(retencionMinutos);
+        jobs.values().removeIf(job -> job.finalizadoAntesDe(limite));
+    }
+
+    @PreDestroy
+    void detener() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    private static ThreadPoolTaskExecutor crearExecutor(int poolSize, int capacidadCola) {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(poolSize);
+        pool.setMaxPoolSize(poolSize);
+        pool.setQueueCapacity(capacidadCola);
+        pool.setThreadNamePrefix("pago-async-");
+        pool.setWaitForTasksToCompleteOnShutdown(true);
+        pool.setAwaitTerminationSeconds(30);
+        pool.initialize();
+        return pool;
+    }
+}
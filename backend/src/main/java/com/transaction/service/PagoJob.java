@@ -0,0 +1,85 @@
+package com.transaction.service;
+
+import com.transaction.dto.PagoJobDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Mutable state of an asynchronous payment job.
+ * <p>
+ * Updated by the worker thread and read by status requests, so every access is synchronized.
+ */
+class PagoJob {
+    private final String id = UUID.randomUUID().toString();
+    private final BigDecimal montoInicial;
+    private final LocalDateTime creadoEn = LocalDateTime.now();
+
+    private EstadoPagoJob estado = EstadoPagoJob.EN_COLA;
+    private int transaccionesPorPagar;
+    private int transaccionesPagadas;
+    private BigDecimal montoPagado = BigDecimal.ZERO;
+    private PaymentResult resultado;
+    private String error;
+    private LocalDateTime finalizadoEn;
+
+    PagoJob(BigDecimal montoInicial) {
+        this.montoInicial = montoInicial;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    BigDecimal getMontoInicial() {
+        return montoInicial;
+    }
+
+    synchronized void iniciar(int transaccionesPorPagar) {
+        this.estado = EstadoPagoJob.EN_PROCESO;
+        this.transaccionesPorPagar = transaccionesPorPagar;
+    }
+
+    synchronized void registrarLote(int pagadas, BigDecimal monto) {
+        this.transaccionesPagadas += pagadas;
+        this.montoPagado = this.montoPagado.add(monto);
+    }
+
+    synchronized void revertir() {
+        this.transaccionesPagadas = 0;
+        this.montoPagado = BigDecimal.ZERO;
+    }
+
+    synchronized void completar(PaymentResult resultado) {
+        this.estado = EstadoPagoJob.COMPLETADO;
+        this.resultado = resultado;
+        this.finalizadoEn = LocalDateTime.now();
+    }
+
+    synchronized void fallar(String error) {
+        this.estado = EstadoPagoJob.FALLIDO;
+        this.error = error;
+        this.finalizadoEn = LocalDateTime.now();
+    }
+
+    synchronized boolean finalizadoAntesDe(LocalDateTime limite) {
+        return finalizadoEn != null && finalizadoEn.isBefore(limite);
+    }
+
+    synchronized PagoJobDTO toDTO() {
+        PagoJobDTO dto = new PagoJobDTO();
+        dto.setId(id);
+        dto.setEstado(estado);
+        dto.setMontoInicial(montoInicial);
+        dto.setTransaccionesPorPagar(transaccionesPorPagar);
+        dto.setTransaccionesPagadas(transaccionesPagadas);
+        dto.setMontoPagado(montoPagado);
+        dto.setMontoRestante(montoInicial.subtract(montoPagado));
+        dto.setResultado(resultado);
+        dto.setError(error);
+        dto.setCreadoEn(creadoEn);
+        dto.setFinalizadoEn(finalizadoEn);
+        return dto;
+    }
+}
@@ -0,0 +1,267 @@
+package com.transaction.service;
+
+import com.transaction.dto.PendientesDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.event.TipoCambio;
+import com.transaction.event.TransaccionCambioEvent;
+import com.transaction.exception.ParametroInvalidoException;
+import com.transaction.repository.SecuenciaCambios;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service keeping the pending transactions in payment order in memory, with warm restarts from a snapshot.
+ * <p>
+ * Enabled with {@code transacciones.instantanea.enabled=true}. The {@link ColaPendientes} follows the
+ * committed change events of {@link TransaccionService}. Every {@code intervalo-segundos}, if it changed,
+ * it is written to {@code transacciones.instantanea.archivo} as a binary image: the change high-water
+ * mark, the totals, and id, date, cents and version of each pending transaction.
+ * <p>
+ * On startup the image is mapped and loaded, and only the rows and tombstones with a change sequence
+ * number above its mark are read from the database. Without a usable image the pending rows are read
+ * in full. Like the other in-memory structures, it only observes writes made through this instance.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "transacciones.instantanea.enabled", havingValue = "true")
+public class PendientesService {
+    static final int MAGICO = 0x50454E44; // "PEND"
+    static final int VERSION = 1;
+    static final int MAX_LIMITE = 1000;
+    /** Mágico, versión, marca, cantidad y total en centavos. */
+    private static final int CABECERA = Integer.BYTES * 3 + Long.BYTES * 2;
+    /** Id, día, centavos y versión. */
+    private static final int REGISTRO = Long.BYTES * 3 + Integer.BYTES;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecuenciaCambios secuenciaCambios;
+    private final Path archivo;
+    private final long intervaloSegundos;
+    private final ScheduledExecutorService escritor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "instantanea-pendientes");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final AtomicLong cambios = new AtomicLong();
+    private volatile ColaPendientes cola = new ColaPendientes();
+    private long cambiosEscritos;
+
+    /**
+     * Creates the service. The change sequence depends on the EntityManagerFactory, so the schema
+     * already exists when loading.
+     */
+    public PendientesService(JdbcTemplate jdbcTemplate,
+                             SecuenciaCambios secuenciaCambios,
+                             MeterRegistry meterRegistry,
+                             @Value("${transacciones.instantanea.archivo:data/instantanea/pendientes.bin}") String archivo,
+                             @Value("${transacciones.instantanea.intervalo-segundos:60}") long intervaloSegundos) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secuenciaCambios = secuenciaCambios;
+        this.archivo = Path.of(archivo);
+        this.intervaloSegundos = intervaloSegundos;
+        Gauge.builder("transacciones.pendientes.cantidad", this, s -> s.cola.getCantidad())
+                .description("Transacciones pendientes en la cola en memoria").register(meterRegistry);
+        Gauge.builder("transacciones.pendientes.monto", this, s -> s.cola.getCentavos() / 100.0)
+                .description("Monto pendiente en la cola en memoria").register(meterRegistry);
+    }
+
+    /**
+     * Loads the queue from the snapshot and the later changes, or from a full read of the pending rows.
+     */
+    @PostConstruct
+    void cargar() {
+        long inicio = System.nanoTime();
+        try {
+            ColaPendientes restaurada = new ColaPendientes();
+            long marca = restaurar(ArchivoInstantanea.leer(archivo), restaurada);
+            long posteriores = ponerAlDia(restaurada, marca);
+            cola = restaurada;
+            log.info("Cola de pendientes restaurada de {} (marca {}) con {} cambios posteriores: {} pendientes en {} ms",
+                    archivo, marca, posteriores, restaurada.getCantidad(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (NoSuchFileException e) {
+            cargarCompleta(inicio);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Instantánea {} inutilizable; se leen todas las pendientes", archivo, e);
+            cargarCompleta(inicio);
+        }
+        escritor.scheduleWithFixedDelay(this::escribirSinFallar, intervaloSegundos, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Applies a committed change to the queue.
+     * <p>
+     * Ordered first so it runs before the change sequence releases the numbers of the transaction:
+     * a snapshot whose mark covers a change always includes it.
+     *
+     * @param event Change published by TransaccionService
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambio(TransaccionCambioEvent event) {
+        ColaPendientes actual = cola;
+        for (TransaccionDTO t : event.getTransacciones()) {
+            if (event.getTipo() == TipoCambio.ELIMINADA) {
+                actual.retirar(t.getId());
+            } else {
+                actual.actualizar(t.getId(), t.getFecha(), centavos(t.getValor()), t.getEstado(),
+                        t.getVersion() != null ? t.getVersion() : 0);
+            }
+        }
+        cambios.incrementAndGet();
+    }
+
+    /**
+     * Gets the pending totals and the first transactions in payment order.
+     *
+     * @param limite Number of transactions to include (0 to 1000)
+     * @return Summary of the queue
+     * @throws ParametroInvalidoException if {@code limite} is out of bounds
+     */
+    public PendientesDTO resumen(int limite) {
+        if (limite < 0 || limite > MAX_LIMITE) {
+            throw new ParametroInvalidoException("limite debe estar entre 0 y " + MAX_LIMITE);
+        }
+        ColaPendientes actual = cola;
+        PendientesDTO resumen = new PendientesDTO();
+        synchronized (actual) {
+            resumen.setCantidad(actual.getCantidad());
+            resumen.setTotal(BigDecimal.valueOf(actual.getCentavos(), 2));
+            resumen.setPrimeras(actual.primeras(limite).stream()
+                    .map(p -> new PendientesDTO.PendienteDTO(p.id(), p.fecha(), BigDecimal.valueOf(p.centavos(), 2)))
+                    .toList());
+        }
+        return resumen;
+    }
+
+    /**
+     * Writes the snapshot if the queue changed since the last one.
+     */
+    synchronized void escribir() throws IOException {
+        long vistos = cambios.get();
+        if (vistos == cambiosEscritos) {
+            return;
+        }
+        // La marca se toma antes de copiar la cola: todo cambio hasta ella ya está aplicado
+        long marca = secuenciaCambios.limiteVisible();
+        ColaPendientes actual = cola;
+        ByteBuffer imagen;
+        synchronized (actual) {
+            imagen = ByteBuffer.allocate(CABECERA + actual.getCantidad() * REGISTRO)
+                    .putInt(MAGICO)
+                    .putInt(VERSION)
+                    .putLong(marca)
+                    .putInt(actual.getCantidad())
+                    .putLong(actual.getCentavos());
+            actual.recorrer(p -> imagen.putLong(p.id())
+                    .putInt((int) p.fecha().toEpochDay())
+                    .putLong(p.centavos())
+                    .putLong(p.version()));
+        }
+        ArchivoInstantanea.escribir(archivo, imagen.flip());
+        cambiosEscritos = vistos;
+    }
+
+    /**
+     * Stops the periodic snapshot and writes one last time.
+     */
+    @PreDestroy
+    void detener() throws IOException {
+        escritor.shutdownNow();
+        escribir();
+    }
+
+    private void escribirSinFallar() {
+        try {
+            escribir();
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo escribir la instantánea de pendientes en {}", archivo, e);
+        }
+    }
+
+    /**
+     * Loads a snapshot image into an empty queue.
+     *
+     * @return Change high-water mark of the image
+     * @throws IOException if the image is not a snapshot, its totals do not add up, or it is newer than the database
+     */
+    private long restaurar(ByteBuffer imagen, ColaPendientes destino) throws IOException {
+        if (imagen.remaining() < CABECERA || imagen.getInt() != MAGICO || imagen.getInt() != VERSION) {
+            throw new IOException("Formato de instantánea desconocido");
+        }
+        long marca = imagen.getLong();
+        int cantidad = imagen.getInt();
+        long centavos = imagen.getLong();
+        if (cantidad < 0 || imagen.remaining() != (long) cantidad * REGISTRO) {
+            throw new IOException("Instantánea truncada");
+        }
+        if (marca > secuenciaCambios.limiteVisible()) {
+            throw new IOException("La instantánea es posterior a la base de datos (marca " + marca + ")");
+        }
+        for (int i = 0; i < cantidad; i++) {
+            destino.actualizar(imagen.getLong(), LocalDate.ofEpochDay(imagen.getInt()), imagen.getLong(),
+                    EstadoTransaccion.PENDIENTE, imagen.getLong());
+        }
+        if (destino.getCantidad() != cantidad || destino.getCentavos() != centavos) {
+            throw new IOException("Los totales de la instantánea no coinciden con sus registros");
+        }
+        return marca;
+    }
+
+    /**
+     * Applies the rows and tombstones written after a mark.
+     *
+     * @return Number of changes applied
+     */
+    private long ponerAlDia(ColaPendientes destino, long marca) {
+        long[] aplicados = new long[1];
+        jdbcTemplate.query("SELECT id, fecha, valor, estado, cambio_seq FROM transacciones WHERE cambio_seq > ?", rs -> {
+            destino.actualizar(rs.getLong(1), rs.getObject(2, LocalDate.class), centavos(rs.getBigDecimal(3)),
+                    EstadoTransaccion.valueOf(rs.getString(4)), rs.getLong(5));
+            aplicados[0]++;
+        }, marca);
+        jdbcTemplate.query("SELECT id FROM transacciones_eliminadas WHERE cambio_seq > ?", rs -> {
+            destino.retirar(rs.getLong(1));
+            aplicados[0]++;
+        }, marca);
+        return aplicados[0];
+    }
+
+    private void cargarCompleta(long inicio) {
+        ColaPendientes completa = new ColaPendientes();
+        jdbcTemplate.query("SELECT id, fecha, valor, cambio_seq FROM transacciones WHERE estado = ?", rs -> {
+            completa.actualizar(rs.getLong(1), rs.getObject(2, LocalDate.class), centavos(rs.getBigDecimal(3)),
+                    EstadoTransaccion.PENDIENTE, rs.getLong(4));
+        }, EstadoTransaccion.PENDIENTE.name());
+        cola = completa;
+        cambios.incrementAndGet();
+        log.info("Cola de pendientes cargada de la base de datos: {} pendientes en {} ms",
+                completa.getCantidad(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
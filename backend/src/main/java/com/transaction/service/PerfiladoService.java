@@ -0,0 +1,124 @@
+package com.transaction.service;
+
+import com.transaction.exception.ParametroInvalidoException;
+import com.transaction.jfr.CacheEvent;
+import com.transaction.jfr.PagoEvent;
+import com.transaction.jfr.RepositorioEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service for on-demand JDK Flight Recorder recordings.
+ * <p>
+ * A recording runs for a fixed number of seconds with the configured JFR settings ({@code profile} by
+ * default, which adds method sampling to the low-overhead {@code default} settings) plus the application
+ * events of {@code com.transaction.jfr}. Only one recording runs at a time, and none runs unless requested,
+ * so the application events cost nothing otherwise. Enabled with {@code transacciones.perfilado.enabled=true}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "transacciones.perfilado.enabled", havingValue = "true")
+public class PerfiladoService {
+    private final int maxSegundos;
+    private final String configuracion;
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private final ScheduledExecutorService planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "perfilado-jfr");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public PerfiladoService(@Value("${transacciones.perfilado.max-segundos:300}") int maxSegundos,
+                            @Value("${transacciones.perfilado.configuracion:profile}") String configuracion) {
+        this.maxSegundos = maxSegundos;
+        this.configuracion = configuracion;
+    }
+
+    /**
+     * Starts a time-boxed recording.
+     *
+     * @param segundos Duration of the recording
+     * @return Contents of the .jfr file, available when the recording ends
+     * @throws ParametroInvalidoException if the duration is not between 1 and the configured maximum
+     * @throws IllegalStateException      if a recording is already running
+     */
+    public CompletableFuture<byte[]> grabar(int segundos) {
+        if (segundos < 1 || segundos > maxSegundos) {
+            throw new ParametroInvalidoException("La duración debe estar entre 1 y " + maxSegundos + " segundos");
+        }
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay una grabación de perfilado en curso");
+        }
+        Recording grabacion;
+        try {
+            grabacion = new Recording(Configuration.getConfiguration(configuracion));
+        } catch (IOException | ParseException e) {
+            enCurso.set(false);
+            throw new IllegalStateException("Configuración JFR no disponible: " + configuracion, e);
+        }
+        grabacion.setName("transacciones-perfilado");
+        grabacion.enable(PagoEvent.class);
+        grabacion.enable(RepositorioEvent.class);
+        grabacion.enable(CacheEvent.class);
+        grabacion.start();
+        log.info("Grabación JFR iniciada por {} s (configuración {})", segundos, configuracion);
+
+        CompletableFuture<byte[]> resultado = new CompletableFuture<>();
+        planificador.schedule(() -> {
+            Path archivo = null;
+            try {
+                grabacion.stop();
+                archivo = Files.createTempFile("transacciones-", ".jfr");
+                grabacion.dump(archivo);
+                resultado.complete(Files.readAllBytes(archivo));
+            } catch (IOException | RuntimeException e) {
+                resultado.completeExceptionally(e);
+            } finally {
+                grabacion.close();
+                borrar(archivo);
+                enCurso.set(false);
+            }
+        }, segundos, TimeUnit.SECONDS);
+        return resultado;
+    }
+
+    /**
+     * Gets the longest recording that can be requested.
+     *
+     * @return Maximum duration in seconds
+     */
+    public int getMaxSegundos() {
+        return maxSegundos;
+    }
+
+    private static void borrar(Path archivo) {
+        if (archivo == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo temporal {}", archivo, e);
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        planificador.shutdownNow();
+    }
+}
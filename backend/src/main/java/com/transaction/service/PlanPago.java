@@ -0,0 +1,55 @@
+package com.transaction.service;
+
+import com.transaction.entity.Transaccion;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of planning a payment over the current pending transactions.
+ * <p>
+ * Either contains the chronological prefix of pending transactions that the amount covers exactly,
+ * or a {@link PaymentResult} explaining why the payment is rejected.
+ *
+ * @author Transaction Management System
+ */
+@Getter
+@AllArgsConstructor
+public class PlanPago {
+
+    /**
+     * Pending transactions to pay, oldest first. Empty when the payment is rejected.
+     */
+    private final List<Transaccion> transacciones;
+
+    /**
+     * Value of the first pending transaction left unpaid by the plan, or null if none remains.
+     */
+    private final BigDecimal montoRequerido;
+
+    /**
+     * Result to return without paying anything, or null if the plan can be executed.
+     */
+    private final PaymentResult rechazo;
+
+    /**
+     * Indicates whether the plan was rejected and nothing should be paid.
+     *
+     * @return true if the payment must not be executed
+     */
+    public boolean isRechazado() {
+        return rechazo != null;
+    }
+
+    /**
+     * Gets the IDs of the transactions to pay, in payment order.
+     *
+     * @return List of transaction IDs
+     */
+    public List<Long> getIds() {
+        return transacciones.stream().map(Transaccion::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,154 @@
+package com.transaction.service;
+
+import com.transaction.config.RutaDataSource;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.jfr.CacheEvent;
+import com.transaction.repository.SecuenciaCambios;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Computes ETags for transaction responses from the write epoch, a token derived from committed data in a
+ * single lookup.
+ * <p>
+ * Writers update no shared counter. Every committed change stamps a change sequence number higher than any
+ * the row had (deletions leave a tombstone), so the highest committed number moves when a change commits in
+ * order. A change that commits after a higher number does not move it, but its instance republishes its mark
+ * in {@code secuencia_instancias} within one interval of {@link SecuenciaCambios}, so the epoch also carries
+ * the latest publication time of the marks and moves by then. Both are the same for every instance sharing
+ * the database. The epoch is prefixed with an origin drawn when the database
+ * is created ({@code etag_epoca}, written once), so a recreated database never repeats an old epoch.
+ * Lists are tagged with the epoch, the filter tuple and the negotiated format. Single transactions are tagged
+ * with their row version and format; the version is remembered from previous reads together with the epoch
+ * of the read, and only trusted while the epoch has not moved. With a read replica, the epoch is read from the
+ * database the tagged query is routed to, and the replica has its own origin (see
+ * {@link #crearEpoca(JdbcTemplate)}).
+ */
+@Service
+public class RegistroEtags {
+    private static final String TABLA = "etag_epoca";
+
+    /**
+     * Version of a transaction and the write epoch it was read at.
+     */
+    private record Version(long version, String epoca) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Version> versiones = new HashMap<>();
+    private final int maxVersiones;
+
+    public RegistroEtags(JdbcTemplate jdbcTemplate,
+                         @Value("${transacciones.etag.max-versiones:100000}") int maxVersiones) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxVersiones = maxVersiones;
+    }
+
+    /**
+     * Creates the origin row in the primary if no instance did yet.
+     */
+    @PostConstruct
+    void crear() {
+        crearEpoca(jdbcTemplate);
+    }
+
+    /**
+     * Creates the origin table and row in a database if they do not exist, with a new origin.
+     *
+     * @param destino JDBC access to the database
+     */
+    public static void crearEpoca(JdbcTemplate destino) {
+        destino.execute("CREATE TABLE IF NOT EXISTS " + TABLA
+                + " (id INT PRIMARY KEY, origen VARCHAR(36) NOT NULL)");
+        if (destino.queryForObject("SELECT COUNT(*) FROM " + TABLA, Long.class) == 0) {
+            try {
+                destino.update("INSERT INTO " + TABLA + " (id, origen) VALUES (1, ?)", UUID.randomUUID().toString());
+            } catch (DuplicateKeyException e) {
+                // Otra instancia la creó al mismo tiempo
+            }
+        }
+    }
+
+    /**
+     * Gets the current write epoch. Must be read before running the query whose result will be tagged.
+     * Read with plain JDBC, so the connection returns to the pool at once even with open-in-view, and
+     * routed like a read-only transaction, so it comes from the same database as the tagged query.
+     *
+     * @return Current write epoch, as an opaque token
+     */
+    public String epoca() {
+        return RutaDataSource.comoLectura(() -> jdbcTemplate.queryForObject("SELECT origen, "
+                        + "(SELECT MAX(cambio_seq) FROM transacciones), (SELECT MAX(cambio_seq) FROM transacciones_eliminadas), "
+                        + "(SELECT MAX(actualizado) FROM secuencia_instancias) FROM " + TABLA + " WHERE id = 1",
+                (rs, fila) -> {
+                    Timestamp marcas = rs.getTimestamp(4);
+                    return rs.getString(1).substring(0, 8) + "." + Math.max(rs.getLong(2), rs.getLong(3))
+                            + "." + (marcas == null ? 0 : marcas.getTime());
+                }));
+    }
+
+    /**
+     * Builds the ETag of a filtered list for a given write epoch and response format.
+     *
+     * @param epoca   Write epoch read before querying
+     * @param formato Negotiated response format
+     * @param filtros Filter values that identify the list
+     * @return Weak ETag
+     */
+    public String etagLista(String epoca, String formato, Object... filtros) {
+        String tupla = Arrays.toString(filtros);
+        String huella = DigestUtils.md5DigestAsHex(tupla.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+        return "W/\"" + epoca + "-" + formato + "-" + huella + "\"";
+    }
+
+    /**
+     * Gets the ETag of a transaction if its version was read at the current write epoch.
+     *
+     * @param id      Transaction ID
+     * @param epoca   Current write epoch
+     * @param formato Negotiated response format
+     * @return ETag if the version is known and current, empty otherwise
+     */
+    public synchronized Optional<String> etagDetalle(Long id, String epoca, String formato) {
+        Version conocida = versiones.get(id);
+        boolean vigente = conocida != null && conocida.epoca().equals(epoca);
+        CacheEvent.registrar("etag-versiones", vigente);
+        return vigente ? Optional.of(etagDetalle(id, conocida.version(), formato)) : Optional.empty();
+    }
+
+    /**
+     * Remembers the version of a transaction that was read. If a change commits after
+     * {@code epocaLectura} was read, the epoch moves on and the version is no longer trusted.
+     *
+     * @param epocaLectura Write epoch read before querying
+     * @param dto          Transaction read
+     * @param formato      Negotiated response format
+     * @return ETag of the transaction read; epoch-based if the transaction has no version
+     */
+    public synchronized String registrarVersion(String epocaLectura, TransaccionDTO dto, String formato) {
+        if (dto.getVersion() == null) {
+            return etagLista(epocaLectura, formato, dto.getId());
+        }
+        if (versiones.size() >= maxVersiones) {
+            versiones.clear();
+        }
+        versiones.put(dto.getId(), new Version(dto.getVersion(), epocaLectura));
+        return etagDetalle(dto.getId(), dto.getVersion(), formato);
+    }
+
+    private String etagDetalle(Long id, long version, String formato) {
+        return "W/\"" + id + "-" + version + "-" + formato + "\"";
+    }
+}
@@ -0,0 +1,384 @@
+package com.transaction.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable append-only log of ingested transactions, split in segment files.
+ * <p>
+ * Each record is {@code [int length][long id][int crc32c(id, payload)][payload]}. Appends are made durable
+ * with group commit: {@link #sincronizar(long)} forces the file once for every record appended so far,
+ * so concurrent writers share a single fsync. On open, a torn record at the end of the last segment
+ * (a crash during an append that was never acknowledged) is truncated. Segments whose records are all
+ * persisted are deleted by {@link #liberarHasta(long)}.
+ * <p>
+ * The log has an identity, a UUID kept in the {@code registro.id} file of its directory and created with
+ * the log. Record IDs are only meaningful within one log, so whatever tracks them elsewhere (the
+ * database checkpoint) must be keyed by this identity. A directory can be open by a single log at a
+ * time: it is locked with {@code registro.lock}, so two instances configured with the same directory
+ * fail to start instead of sharing an identity.
+ */
+@Slf4j
+class RegistroIngesta implements Closeable {
+    static final int CABECERA = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final String PREFIJO = "ingesta-";
+    private static final String SUFIJO = ".log";
+    private static final String IDENTIDAD = "registro.id";
+    private static final String BLOQUEO = "registro.lock";
+
+    /**
+     * A record of the log.
+     *
+     * @param id      Ingestion ID, increasing
+     * @param payload Serialized transaction
+     */
+    record Entrada(long id, byte[] payload) {
+    }
+
+    private final Path directorio;
+    private final long tamanoSegmento;
+    private final String identidad;
+    private final boolean anteriorAIdentidad;
+    private final FileChannel canalBloqueo;
+    private final FileLock bloqueo;
+    /** Primer id de cada segmento, ordenado. */
+    private final TreeMap<Long, Path> segmentos = new TreeMap<>();
+    /** Un ReentrantLock en lugar de un monitor, para no fijar el hilo portador de un hilo virtual durante el fsync. */
+    private final ReentrantLock bloqueoSincronizacion = new ReentrantLock();
+    private FileChannel actual;
+    private long siguienteId;
+    private volatile long ultimoAgregado;
+    private volatile long ultimoDurable;
+
+    /**
+     * Opens (or creates) the log in the given directory and recovers its state.
+     *
+     * @param directorio     Directory of the segment files
+     * @param tamanoSegmento Size in bytes after which a new segment is started
+     * @throws IOException if the directory cannot be read, is open by another log or a sealed segment is corrupt
+     */
+    RegistroIngesta(Path directorio, long tamanoSegmento) throws IOException {
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        Files.createDirectories(directorio);
+        canalBloqueo = FileChannel.open(directorio.resolve(BLOQUEO), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock adquirido;
+        try {
+            adquirido = canalBloqueo.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Ya lo tiene otro registro de este mismo proceso
+            adquirido = null;
+        }
+        bloqueo = adquirido;
+        if (bloqueo == null) {
+            canalBloqueo.close();
+            throw new IOException("El registro de ingesta " + directorio + " ya está abierto por otro proceso o contexto");
+        }
+        try {
+            abrir();
+            Path archivoIdentidad = directorio.resolve(IDENTIDAD);
+            anteriorAIdentidad = !Files.exists(archivoIdentidad) && !segmentos.isEmpty();
+            identidad = leerOCrearIdentidad(archivoIdentidad);
+        } catch (IOException | RuntimeException e) {
+            if (actual != null) {
+                actual.close();
+            }
+            canalBloqueo.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lists the segments and recovers the position of the next record.
+     */
+    private void abrir() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(p -> p.getFileName().toString().startsWith(PREFIJO) && p.getFileName().toString().endsWith(SUFIJO))
+                    .forEach(p -> segmentos.put(primerId(p), p));
+        }
+
+        long ultimo = 0;
+        for (Path segmento : segmentos.values()) {
+            List<Entrada> entradas = leer(segmento, segmento.equals(segmentos.lastEntry().getValue()));
+            if (!entradas.isEmpty()) {
+                ultimo = entradas.get(entradas.size() - 1).id();
+            }
+        }
+        siguienteId = Math.max(ultimo + 1, segmentos.isEmpty() ? 1 : segmentos.lastKey());
+        ultimoAgregado = siguienteId - 1;
+        ultimoDurable = ultimoAgregado;
+        if (!segmentos.isEmpty()) {
+            actual = FileChannel.open(segmentos.lastEntry().getValue(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Appends records to the log. They are not durable until {@link #sincronizar(long)} returns.
+     *
+     * @param payloads Serialized transactions
+     * @return ID of the last appended record; the records got consecutive IDs ending in it
+     */
+    synchronized long agregar(List<byte[]> payloads) {
+        try {
+            if (actual == null || !actual.isOpen() || actual.size() >= tamanoSegmento) {
+                abrirSegmento();
+            }
+            int total = payloads.stream().mapToInt(p -> CABECERA + p.length).sum();
+            ByteBuffer buffer = ByteBuffer.allocate(total);
+            for (byte[] payload : payloads) {
+                long id = siguienteId++;
+                buffer.putInt(payload.length).putLong(id).putInt(crc(id, payload)).put(payload);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                actual.write(buffer);
+            }
+            ultimoAgregado = siguienteId - 1;
+            return ultimoAgregado;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el registro de ingesta", e);
+        }
+    }
+
+    /**
+     * Blocks until the record with the given ID is on stable storage.
+     * <p>
+     * Callers arriving while an fsync is in progress wait for it and then, if still needed, one of them
+     * forces again on behalf of all the records appended meanwhile (group commit).
+     *
+     * @param id ID returned by {@link #agregar(List)}
+     */
+    void sincronizar(long id) {
+        if (ultimoDurable >= id) {
+            return;
+        }
+        bloqueoSincronizacion.lock();
+        try {
+            if (ultimoDurable >= id) {
+                return;
+            }
+            FileChannel canal;
+            long hasta;
+            synchronized (this) {
+                canal = actual;
+                hasta = ultimoAgregado;
+            }
+            try {
+                // Los segmentos anteriores se forzaron al rotar, basta con el actual
+                canal.force(false);
+            } catch (ClosedChannelException e) {
+                // Se rotó de segmento mientras tanto, y la rotación ya lo forzó
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo sincronizar el registro de ingesta", e);
+            }
+            ultimoDurable = hasta;
+        } finally {
+            bloqueoSincronizacion.unlock();
+        }
+    }
+
+    /**
+     * Reads the records with an ID greater than the given one, in order.
+     *
+     * @param desde Exclusive lower bound (the last ID already persisted)
+     * @return Records still to be persisted
+     * @throws IOException if a segment cannot be read
+     */
+    synchronized List<Entrada> pendientes(long desde) throws IOException {
+        List<Entrada> pendientes = new ArrayList<>();
+        Long inicio = segmentos.floorKey(desde + 1);
+        for (Path segmento : (inicio == null ? segmentos : segmentos.tailMap(inicio, true)).values()) {
+            for (Entrada entrada : leer(segmento, false)) {
+                if (entrada.id() > desde) {
+                    pendientes.add(entrada);
+                }
+            }
+        }
+        return pendientes;
+    }
+
+    /**
+     * Deletes the segments whose records are all persisted, keeping the one being written.
+     *
+     * @param id Last persisted ID
+     */
+    synchronized void liberarHasta(long id) {
+        while (segmentos.size() > 1) {
+            Long segundo = segmentos.higherKey(segmentos.firstKey());
+            if (segundo - 1 > id) {
+                return;
+            }
+            Path liberado = segmentos.pollFirstEntry().getValue();
+            try {
+                Files.deleteIfExists(liberado);
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el segmento de ingesta {}", liberado, e);
+            }
+        }
+    }
+
+    /**
+     * Makes the next records get IDs above the given one.
+     * Used when the database checkpoint is ahead of the log (e.g., the log directory was replaced).
+     *
+     * @param id ID the log must continue after
+     */
+    synchronized void continuarDespuesDe(long id) throws IOException {
+        if (siguienteId > id) {
+            return;
+        }
+        siguienteId = id + 1;
+        ultimoAgregado = id;
+        ultimoDurable = id;
+        // El próximo registro abre un segmento cuyo nombre refleja la nueva numeración
+        if (actual != null) {
+            actual.force(false);
+            actual.close();
+            actual = null;
+        }
+    }
+
+    long getUltimoAgregado() {
+        return ultimoAgregado;
+    }
+
+    /**
+     * Gets the identity of the log, stable across restarts of the same directory.
+     *
+     * @return UUID of the log
+     */
+    String getIdentidad() {
+        return identidad;
+    }
+
+    /**
+     * Tells whether the log already had segments when its identity was created, i.e. it was written by
+     * a version that did not identify logs.
+     *
+     * @return True if the log predates its identity file
+     */
+    boolean isAnteriorAIdentidad() {
+        return anteriorAIdentidad;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!canalBloqueo.isOpen()) {
+            return;
+        }
+        if (actual != null) {
+            actual.force(false);
+            actual.close();
+            actual = null;
+        }
+        bloqueo.release();
+        canalBloqueo.close();
+    }
+
+    private void abrirSegmento() throws IOException {
+        if (actual != null && actual.isOpen()) {
+            actual.force(false);
+            actual.close();
+        }
+        Path segmento = directorio.resolve(String.format("%s%020d%s", PREFIJO, siguienteId, SUFIJO));
+        actual = FileChannel.open(segmento, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentos.put(siguienteId, segmento);
+    }
+
+    /**
+     * Reads all valid records of a segment.
+     *
+     * @param segmento       Segment file
+     * @param truncarCola    True for the last segment: a torn or corrupt tail is cut off;
+     *                       otherwise it makes the segment invalid
+     * @return Records of the segment
+     */
+    private static List<Entrada> leer(Path segmento, boolean truncarCola) throws IOException {
+        List<Entrada> entradas = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer contenido = ByteBuffer.allocate((int) canal.size());
+            while (contenido.hasRemaining() && canal.read(contenido) >= 0) {
+                // lectura completa del segmento
+            }
+            contenido.flip();
+            while (contenido.remaining() > 0) {
+                int inicio = contenido.position();
+                Entrada entrada = siguiente(contenido);
+                if (entrada == null) {
+                    if (!truncarCola) {
+                        throw new IOException("Registro de ingesta corrupto en " + segmento + " (posición " + inicio + ")");
+                    }
+                    log.warn("Registro incompleto al final de {} (posición {}); se descarta", segmento, inicio);
+                    canal.truncate(inicio);
+                    canal.force(true);
+                    break;
+                }
+                entradas.add(entrada);
+            }
+        }
+        return entradas;
+    }
+
+    private static Entrada siguiente(ByteBuffer contenido) {
+        if (contenido.remaining() < CABECERA) {
+            return null;
+        }
+        int longitud = contenido.getInt();
+        long id = contenido.getLong();
+        int crc = contenido.getInt();
+        if (longitud < 0 || longitud > contenido.remaining()) {
+            return null;
+        }
+        byte[] payload = new byte[longitud];
+        contenido.get(payload);
+        return crc(id, payload) == crc ? new Entrada(id, payload) : null;
+    }
+
+    private static int crc(long id, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, id));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static String leerOCrearIdentidad(Path archivo) throws IOException {
+        if (Files.exists(archivo)) {
+            return UUID.fromString(Files.readString(archivo, StandardCharsets.US_ASCII).trim()).toString();
+        }
+        String identidad = UUID.randomUUID().toString();
+        // Se escribe aparte y se renombra, para que un fallo no deje un archivo de identidad a medias
+        Path temporal = archivo.resolveSibling(IDENTIDAD + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            canal.write(ByteBuffer.wrap(identidad.getBytes(StandardCharsets.US_ASCII)));
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+        return identidad;
+    }
+
+    private static long primerId(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length()));
+    }
+}
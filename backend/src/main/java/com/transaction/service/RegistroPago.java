@@ -0,0 +1,177 @@
+package com.transaction.service;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * A record of the payment journal, with its binary layout.
+ * <p>
+ * Records are made of fixed 64-byte slots, all big-endian: one header slot followed by one ID slot per
+ * seven paid IDs, so every field sits at a fixed offset of its slot. The header slot is
+ * <pre>
+ *  0  byte  type ({@link TipoRegistroPago} code, never 0)
+ *  1  byte  reserved (0)
+ *  2  short scale of the two amounts
+ *  4  int   number of IDs
+ *  8  long  sequence number, starting at 1
+ * 16  long  epoch millis
+ * 24  long  unscaled amount
+ * 32  long  unscaled remaining amount
+ * 40  long  sequence number of the annulled record (ANULACION only, 0 otherwise)
+ * 48        reserved (0)
+ * 60  int   crc32c(previous slot's crc, bytes 0..59)
+ * </pre>
+ * and each ID slot is
+ * <pre>
+ *  0  byte   0x7F
+ *  1  byte   number of IDs in the slot (1 to 7)
+ *  2  short  reserved (0)
+ *  4  long[] up to 7 paid transaction IDs, unused ones 0
+ * 60  int    crc32c(previous slot's crc, bytes 0..59)
+ * </pre>
+ * Chaining each checksum to the previous one makes a removed, reordered or edited slot break the
+ * verification of every record after it. A zero first byte marks the unwritten end of a segment.
+ *
+ * @param secuencia  Sequence number
+ * @param instante   Epoch millis when the record was written
+ * @param tipo       Record type
+ * @param monto      Amount of the payment (total value paid for PAGO_LOTE)
+ * @param restante   Amount left unused by the payment
+ * @param referencia Sequence number of the annulled record, or 0
+ * @param ids        IDs of the paid transactions, in payment order
+ */
+public record RegistroPago(long secuencia, long instante, TipoRegistroPago tipo, BigDecimal monto,
+                           BigDecimal restante, long referencia, List<Long> ids) {
+
+    static final int RANURA = 64;
+    static final int IDS_POR_RANURA = 7;
+    private static final byte CODIGO_IDS = 0x7F;
+    private static final int CRC = RANURA - Integer.BYTES;
+
+    /**
+     * Computes the size of a record.
+     *
+     * @param cantidadIds Number of paid IDs
+     * @return Record size in bytes
+     */
+    static int tamano(int cantidadIds) {
+        return RANURA * (1 + ranurasIds(cantidadIds));
+    }
+
+    int tamano() {
+        return tamano(ids.size());
+    }
+
+    /**
+     * Writes the record at the current position of the buffer.
+     *
+     * @param destino     Buffer with at least {@link #tamano()} bytes remaining
+     * @param crcAnterior Checksum of the previous slot (0 for the first one)
+     * @return Checksum of the last slot of this record
+     * @throws ArithmeticException if an amount does not fit the fixed layout
+     */
+    int escribir(ByteBuffer destino, int crcAnterior) {
+        int escala = Math.max(monto.scale(), restante.scale());
+        long montoSinEscala = monto.setScale(escala).unscaledValue().longValueExact();
+        long restanteSinEscala = restante.setScale(escala).unscaledValue().longValueExact();
+
+        int inicio = destino.position();
+        destino.put(tipo.codigo()).put((byte) 0).putShort((short) escala).putInt(ids.size())
+                .putLong(secuencia).putLong(instante)
+                .putLong(montoSinEscala).putLong(restanteSinEscala).putLong(referencia);
+        int crc = cerrarRanura(destino, inicio, crcAnterior);
+        for (int desde = 0; desde < ids.size(); desde += IDS_POR_RANURA) {
+            int hasta = Math.min(desde + IDS_POR_RANURA, ids.size());
+            int ranura = destino.position();
+            destino.put(CODIGO_IDS).put((byte) (hasta - desde)).putShort((short) 0);
+            for (int i = desde; i < hasta; i++) {
+                destino.putLong(ids.get(i));
+            }
+            crc = cerrarRanura(destino, ranura, crc);
+        }
+        return crc;
+    }
+
+    /**
+     * Reads the record at the current position of the buffer and advances past it.
+     *
+     * @param origen      Buffer positioned at a record
+     * @param crcAnterior Checksum of the previous slot (0 for the first one)
+     * @return The record, or null (with the position unchanged) at the end of the written data,
+     *         on a torn record or on a checksum mismatch
+     */
+    static RegistroPago leer(ByteBuffer origen, int crcAnterior) {
+        int inicio = origen.position();
+        if (origen.remaining() < RANURA || !crcValido(origen, inicio, crcAnterior)) {
+            return null;
+        }
+        TipoRegistroPago tipo = TipoRegistroPago.deCodigo(origen.get(inicio));
+        int cantidad = origen.getInt(inicio + 4);
+        if (tipo == null || cantidad < 0 || cantidad > (origen.remaining() / RANURA) * IDS_POR_RANURA) {
+            return null;
+        }
+        Long[] ids = new Long[cantidad];
+        int crc = origen.getInt(inicio + CRC);
+        int ranura = inicio + RANURA;
+        for (int desde = 0; desde < cantidad; desde += IDS_POR_RANURA, ranura += RANURA) {
+            int enRanura = Math.min(IDS_POR_RANURA, cantidad - desde);
+            if (origen.get(ranura) != CODIGO_IDS || origen.get(ranura + 1) != enRanura || !crcValido(origen, ranura, crc)) {
+                return null;
+            }
+            for (int i = 0; i < enRanura; i++) {
+                ids[desde + i] = origen.getLong(ranura + 4 + i * Long.BYTES);
+            }
+            crc = origen.getInt(ranura + CRC);
+        }
+        int escala = origen.getShort(inicio + 2);
+        origen.position(ranura);
+        return new RegistroPago(origen.getLong(inicio + 8), origen.getLong(inicio + 16), tipo,
+                BigDecimal.valueOf(origen.getLong(inicio + 24), escala),
+                BigDecimal.valueOf(origen.getLong(inicio + 32), escala),
+                origen.getLong(inicio + 40), List.of(ids));
+    }
+
+    /**
+     * Gets the checksum stored in the last slot of a record that {@link #leer} just returned.
+     *
+     * @param origen Buffer positioned right after the record
+     * @return Stored checksum
+     */
+    static int crcAlmacenado(ByteBuffer origen) {
+        return origen.getInt(origen.position() - Integer.BYTES);
+    }
+
+    private static int ranurasIds(int cantidadIds) {
+        return (cantidadIds + IDS_POR_RANURA - 1) / IDS_POR_RANURA;
+    }
+
+    /**
+     * Zero-fills the rest of a slot being written and stores its chained checksum.
+     *
+     * @param destino     Buffer positioned after the fields written to the slot
+     * @param inicio      Position of the slot
+     * @param crcAnterior Checksum of the previous slot
+     * @return Checksum of the slot
+     */
+    private static int cerrarRanura(ByteBuffer destino, int inicio, int crcAnterior) {
+        while (destino.position() < inicio + CRC) {
+            destino.put((byte) 0);
+        }
+        int crc = crc(destino, inicio, crcAnterior);
+        destino.putInt(crc);
+        return crc;
+    }
+
+    private static boolean crcValido(ByteBuffer origen, int inicio, int crcAnterior) {
+        return crc(origen, inicio, crcAnterior) == origen.getInt(inicio + CRC);
+    }
+
+    private static int crc(ByteBuffer buffer, int inicio, int crcAnterior) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, crcAnterior));
+        crc.update(buffer.slice(inicio, CRC));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,142 @@
+package com.transaction.service;
+
+import com.transaction.dto.ReporteDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.event.TipoCambio;
+import com.transaction.event.TransaccionCambioEvent;
+import com.transaction.exception.ParametroInvalidoException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for analytical reports over an in-memory columnar snapshot of the transactions.
+ * <p>
+ * Enabled with {@code transacciones.columnar.enabled=true}. The {@link TablaColumnar} is loaded once at
+ * startup and then kept current from the committed change events of {@link TransaccionService}, so
+ * reports never query the database and do not compete with the transactional traffic. Like the ETag
+ * registry, it only observes writes made through this instance.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "transacciones.columnar.enabled", havingValue = "true")
+public class ReporteService {
+    static final int MAX_TOP = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TablaColumnar tabla;
+
+    /**
+     * Creates the service. Depends on the EntityManagerFactory so the schema already exists when loading.
+     */
+    public ReporteService(JdbcTemplate jdbcTemplate,
+                          EntityManagerFactory entityManagerFactory,
+                          MeterRegistry meterRegistry,
+                          @Value("${transacciones.columnar.capacidad-inicial:65536}") int capacidadInicial) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tabla = new TablaColumnar(capacidadInicial);
+        Gauge.builder("transacciones.columnar.filas", tabla, TablaColumnar::getFilas)
+                .description("Transacciones en la copia columnar").register(meterRegistry);
+        Gauge.builder("transacciones.columnar.nombres", tabla, TablaColumnar::getTamanoDiccionario)
+                .description("Nombres distintos en el diccionario de la copia columnar").register(meterRegistry);
+    }
+
+    /**
+     * Loads every transaction into the columnar snapshot.
+     * Changes committed meanwhile are applied afterwards and win by version.
+     */
+    @PostConstruct
+    void cargar() {
+        long inicio = System.nanoTime();
+        jdbcTemplate.query("SELECT id, nombre, fecha, valor, estado, cambio_seq FROM transacciones", rs -> {
+            tabla.actualizar(rs.getLong(1), rs.getString(2), rs.getObject(3, LocalDate.class), rs.getBigDecimal(4),
+                    EstadoTransaccion.valueOf(rs.getString(5)), rs.getLong(6));
+        });
+        log.info("Copia columnar cargada: {} transacciones en {} ms", tabla.getFilas(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Applies a committed change to the columnar snapshot.
+     *
+     * @param event Change published by TransaccionService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambio(TransaccionCambioEvent event) {
+        for (TransaccionDTO t : event.getTransacciones()) {
+            if (event.getTipo() == TipoCambio.ELIMINADA) {
+                tabla.eliminar(t.getId());
+            } else {
+                tabla.actualizar(t.getId(), t.getNombre(), t.getFecha(), t.getValor(), t.getEstado(),
+                        t.getVersion() != null ? t.getVersion() : 0);
+            }
+        }
+    }
+
+    /**
+     * Builds the report of the transactions dated in a range.
+     *
+     * @param desde First date included, or null
+     * @param hasta Last date included, or null
+     * @param top   Number of names to include (1 to 1000)
+     * @return The report
+     * @throws ParametroInvalidoException if the range is inverted or {@code top} is out of bounds
+     */
+    public ReporteDTO generar(LocalDate desde, LocalDate hasta, int top) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new ParametroInvalidoException("desde no puede ser posterior a hasta");
+        }
+        if (top < 1 || top > MAX_TOP) {
+            throw new ParametroInvalidoException("top debe estar entre 1 y " + MAX_TOP);
+        }
+        ReporteDTO reporte = new ReporteDTO();
+
+        Map<EstadoTransaccion, TablaColumnar.Total> porEstado = tabla.totalesPorEstado(desde, hasta);
+        List<ReporteDTO.EstadoDTO> estados = new ArrayList<>();
+        long cantidad = 0;
+        long centavos = 0;
+        for (Map.Entry<EstadoTransaccion, TablaColumnar.Total> entrada : porEstado.entrySet()) {
+            TablaColumnar.Total total = entrada.getValue();
+            estados.add(new ReporteDTO.EstadoDTO(entrada.getKey(), total.cantidad(), monto(total.centavos())));
+            cantidad += total.cantidad();
+            centavos += total.centavos();
+        }
+        TablaColumnar.Total pagadas = porEstado.get(EstadoTransaccion.PAGADO);
+        reporte.setCantidad(cantidad);
+        reporte.setTotal(monto(centavos));
+        reporte.setEstados(estados);
+        reporte.setProporcionPagadas(proporcion(pagadas.cantidad(), cantidad));
+        reporte.setProporcionMontoPagado(proporcion(pagadas.centavos(), centavos));
+
+        reporte.setMeses(tabla.totalesPorMes(desde, hasta).stream()
+                .map(m -> new ReporteDTO.MesDTO(String.format("%04d-%02d", m.anio(), m.mes()), m.cantidad(),
+                        monto(m.centavosPagado()), monto(m.centavosPendiente())))
+                .toList());
+        reporte.setNombres(tabla.topNombres(desde, hasta, top).stream()
+                .map(n -> new ReporteDTO.NombreDTO(n.nombre(), n.cantidad(), monto(n.centavos())))
+                .toList());
+        return reporte;
+    }
+
+    private static BigDecimal monto(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    private static BigDecimal proporcion(long parte, long total) {
+        return total == 0 ? null : BigDecimal.valueOf(parte).divide(BigDecimal.valueOf(total), 4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,58 @@
+package com.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.dto.MensajeOutboxDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Outbox sink that appends each event as a JSON line to a local file.
+ * <p>
+ * A batch is written with one write and forced to disk before it is acknowledged.
+ */
+public class SumideroArchivoOutbox implements SumideroOutbox, Closeable {
+    private final ObjectMapper objectMapper;
+    private final FileChannel canal;
+
+    /**
+     * Opens (or creates) the file to append to.
+     *
+     * @param archivo      Destination file
+     * @param objectMapper Mapper used to serialize the events
+     * @throws IOException if the file cannot be opened
+     */
+    public SumideroArchivoOutbox(Path archivo, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void entregar(List<MensajeOutboxDTO> mensajes) throws IOException {
+        ByteArrayOutputStream lineas = new ByteArrayOutputStream(mensajes.size() * 256);
+        for (MensajeOutboxDTO mensaje : mensajes) {
+            objectMapper.writeValue(lineas, mensaje);
+            lineas.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lineas.toByteArray());
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        canal.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        canal.close();
+    }
+}
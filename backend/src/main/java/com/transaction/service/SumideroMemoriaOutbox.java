@@ -0,0 +1,32 @@
+package com.transaction.service;
+
+import com.transaction.dto.MensajeOutboxDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Outbox sink that keeps the events in an in-memory queue.
+ * Stands in for a message broker in tests and local development.
+ */
+public class SumideroMemoriaOutbox implements SumideroOutbox {
+    private final BlockingQueue<MensajeOutboxDTO> cola = new LinkedBlockingQueue<>();
+
+    @Override
+    public void entregar(List<MensajeOutboxDTO> mensajes) {
+        cola.addAll(mensajes);
+    }
+
+    /**
+     * Removes and returns the events delivered so far.
+     *
+     * @return Delivered events, in delivery order
+     */
+    public List<MensajeOutboxDTO> drenar() {
+        List<MensajeOutboxDTO> mensajes = new ArrayList<>();
+        cola.drainTo(mensajes);
+        return mensajes;
+    }
+}
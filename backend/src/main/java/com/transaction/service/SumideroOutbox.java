@@ -0,0 +1,23 @@
+package com.transaction.service;
+
+import com.transaction.dto.MensajeOutboxDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the events dispatched from the transactional outbox.
+ * <p>
+ * Implementations must either accept the whole batch durably or throw; a batch that throws is
+ * delivered again, so a batch may be seen more than once (at-least-once delivery).
+ */
+public interface SumideroOutbox {
+
+    /**
+     * Delivers a batch of events, in outbox order.
+     *
+     * @param mensajes Events to deliver
+     * @throws IOException if the batch could not be delivered
+     */
+    void entregar(List<MensajeOutboxDTO> mensajes) throws IOException;
+}
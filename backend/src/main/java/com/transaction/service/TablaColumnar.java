@@ -0,0 +1,347 @@
+package com.transaction.service;
+
+import com.transaction.entity.EstadoTransaccion;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar copy of the transactions table for analytical scans.
+ * <p>
+ * Each attribute is a primitive array: id, epoch day, month, amount in cents, state ordinal, change
+ * version and the dictionary code of the name. Aggregations scan the arrays under a read lock, in
+ * parallel on the common fork-join pool once the table is large enough; writes take the write lock.
+ * <p>
+ * Updates carry the row version, so an older change applied late is ignored, and deleted IDs are
+ * remembered so a late update cannot bring a row back. Deleted rows are swapped with the last one,
+ * so the arrays stay dense. Names are never removed from the dictionary.
+ */
+public final class TablaColumnar {
+    /** Por debajo de este número de filas el recorrido secuencial es más rápido que repartirlo. */
+    static final int UMBRAL_PARALELO = 50_000;
+
+    private static final EstadoTransaccion[] ESTADOS = EstadoTransaccion.values();
+
+    /**
+     * Totals of a calendar month.
+     *
+     * @param anio              Year
+     * @param mes               Month (1-12)
+     * @param cantidad          Number of transactions
+     * @param centavosPagado    Sum of the paid amounts, in cents
+     * @param centavosPendiente Sum of the pending amounts, in cents
+     */
+    public record TotalMes(int anio, int mes, long cantidad, long centavosPagado, long centavosPendiente) {
+    }
+
+    /**
+     * Totals of a transaction name.
+     *
+     * @param nombre   Name
+     * @param cantidad Number of transactions
+     * @param centavos Sum of the amounts, in cents
+     */
+    public record TotalNombre(String nombre, long cantidad, long centavos) {
+    }
+
+    /**
+     * Totals of a state.
+     *
+     * @param cantidad Number of transactions
+     * @param centavos Sum of the amounts, in cents
+     */
+    public record Total(long cantidad, long centavos) {
+    }
+
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> posiciones = new HashMap<>();
+    private final Set<Long> eliminadas = new HashSet<>();
+    private final List<String> diccionario = new ArrayList<>();
+    private final Map<String, Integer> codigos = new HashMap<>();
+
+    private long[] ids;
+    private int[] dias;
+    private int[] meses;
+    private long[] centavos;
+    private byte[] estados;
+    private long[] versiones;
+    private int[] nombres;
+    private int filas;
+    private int mesMinimo = Integer.MAX_VALUE;
+    private int mesMaximo = Integer.MIN_VALUE;
+
+    /**
+     * @param capacidadInicial Initial size of the column arrays; they grow by half when full
+     */
+    public TablaColumnar(int capacidadInicial) {
+        int capacidad = Math.max(capacidadInicial, 16);
+        ids = new long[capacidad];
+        dias = new int[capacidad];
+        meses = new int[capacidad];
+        centavos = new long[capacidad];
+        estados = new byte[capacidad];
+        versiones = new long[capacidad];
+        nombres = new int[capacidad];
+    }
+
+    /**
+     * Inserts or replaces a transaction, unless the stored row has a newer version or the ID was deleted.
+     *
+     * @param id      Transaction ID
+     * @param nombre  Name
+     * @param fecha   Date
+     * @param valor   Amount; rounded to cents like the database column
+     * @param estado  State
+     * @param version Change sequence number of the write
+     */
+    public void actualizar(long id, String nombre, LocalDate fecha, BigDecimal valor, EstadoTransaccion estado, long version) {
+        long enCentavos = valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        int mes = fecha.getYear() * 12 + fecha.getMonthValue() - 1;
+        bloqueo.writeLock().lock();
+        try {
+            if (eliminadas.contains(id)) {
+                return;
+            }
+            Integer posicion = posiciones.get(id);
+            int fila;
+            if (posicion == null) {
+                if (filas == ids.length) {
+                    crecer();
+                }
+                fila = filas++;
+                posiciones.put(id, fila);
+            } else if (versiones[posicion] > version) {
+                return;
+            } else {
+                fila = posicion;
+            }
+            ids[fila] = id;
+            dias[fila] = (int) fecha.toEpochDay();
+            meses[fila] = mes;
+            centavos[fila] = enCentavos;
+            estados[fila] = (byte) estado.ordinal();
+            versiones[fila] = version;
+            nombres[fila] = codigos.computeIfAbsent(nombre, n -> {
+                diccionario.add(n);
+                return diccionario.size() - 1;
+            });
+            mesMinimo = Math.min(mesMinimo, mes);
+            mesMaximo = Math.max(mesMaximo, mes);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a transaction. Later updates of the same ID are ignored.
+     *
+     * @param id Transaction ID
+     */
+    public void eliminar(long id) {
+        bloqueo.writeLock().lock();
+        try {
+            eliminadas.add(id);
+            Integer posicion = posiciones.remove(id);
+            if (posicion == null) {
+                return;
+            }
+            int ultima = --filas;
+            if (posicion != ultima) {
+                // La última fila ocupa el hueco para que las columnas sigan densas
+                ids[posicion] = ids[ultima];
+                dias[posicion] = dias[ultima];
+                meses[posicion] = meses[ultima];
+                centavos[posicion] = centavos[ultima];
+                estados[posicion] = estados[ultima];
+                versiones[posicion] = versiones[ultima];
+                nombres[posicion] = nombres[ultima];
+                posiciones.put(ids[posicion], posicion);
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    public int getFilas() {
+        bloqueo.readLock().lock();
+        try {
+            return filas;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    public int getTamanoDiccionario() {
+        bloqueo.readLock().lock();
+        try {
+            return diccionario.size();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sums paid and pending amounts by calendar month.
+     *
+     * @param desde First date included, or null
+     * @param hasta Last date included, or null
+     * @return Months with at least one transaction, in chronological order
+     */
+    public List<TotalMes> totalesPorMes(LocalDate desde, LocalDate hasta) {
+        int diaDesde = diaDesde(desde);
+        int diaHasta = diaHasta(hasta);
+        int pagado = EstadoTransaccion.PAGADO.ordinal();
+        bloqueo.readLock().lock();
+        try {
+            if (filas == 0) {
+                return List.of();
+            }
+            int base = mesMinimo;
+            int tamano = mesMaximo - mesMinimo + 1;
+            // Columnas en variables locales: el recorrido no vuelve a leer los campos en cada fila
+            int[] d = dias, ms = meses;
+            long[] c = centavos;
+            byte[] e = estados;
+            long[][] acumulado = recorrido(filas).collect(() -> new long[3][tamano], (a, i) -> {
+                if (d[i] >= diaDesde && d[i] <= diaHasta) {
+                    int m = ms[i] - base;
+                    a[0][m]++;
+                    a[e[i] == pagado ? 1 : 2][m] += c[i];
+                }
+            }, TablaColumnar::sumar);
+            List<TotalMes> resultado = new ArrayList<>();
+            for (int m = 0; m < tamano; m++) {
+                if (acumulado[0][m] > 0) {
+                    int mes = base + m;
+                    resultado.add(new TotalMes(mes / 12, mes % 12 + 1, acumulado[0][m], acumulado[1][m], acumulado[2][m]));
+                }
+            }
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the names with the largest total amount.
+     *
+     * @param desde First date included, or null
+     * @param hasta Last date included, or null
+     * @param top   Maximum number of names
+     * @return Names by descending total amount (ties by name)
+     */
+    public List<TotalNombre> topNombres(LocalDate desde, LocalDate hasta, int top) {
+        int diaDesde = diaDesde(desde);
+        int diaHasta = diaHasta(hasta);
+        bloqueo.readLock().lock();
+        try {
+            int tamano = diccionario.size();
+            int[] d = dias, n = nombres;
+            long[] c = centavos;
+            long[][] acumulado = recorrido(filas).collect(() -> new long[2][tamano], (a, i) -> {
+                if (d[i] >= diaDesde && d[i] <= diaHasta) {
+                    a[0][n[i]]++;
+                    a[1][n[i]] += c[i];
+                }
+            }, TablaColumnar::sumar);
+            Comparator<Integer> orden = Comparator.<Integer>comparingLong(codigo -> acumulado[1][codigo])
+                    .thenComparing(codigo -> diccionario.get(codigo), Comparator.reverseOrder());
+            // Montículo de los "top" mejores: la raíz es el peor de ellos
+            PriorityQueue<Integer> mejores = new PriorityQueue<>(orden);
+            for (int codigo = 0; codigo < tamano; codigo++) {
+                if (acumulado[0][codigo] > 0) {
+                    mejores.add(codigo);
+                    if (mejores.size() > top) {
+                        mejores.poll();
+                    }
+                }
+            }
+            List<TotalNombre> resultado = new ArrayList<>(mejores.size());
+            while (!mejores.isEmpty()) {
+                int codigo = mejores.poll();
+                resultado.add(new TotalNombre(diccionario.get(codigo), acumulado[0][codigo], acumulado[1][codigo]));
+            }
+            Collections.reverse(resultado);
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts and sums transactions by state.
+     *
+     * @param desde First date included, or null
+     * @param hasta Last date included, or null
+     * @return Totals for every state, including empty ones
+     */
+    public Map<EstadoTransaccion, Total> totalesPorEstado(LocalDate desde, LocalDate hasta) {
+        int diaDesde = diaDesde(desde);
+        int diaHasta = diaHasta(hasta);
+        bloqueo.readLock().lock();
+        try {
+            int[] d = dias;
+            long[] c = centavos;
+            byte[] e = estados;
+            long[][] acumulado = recorrido(filas).collect(() -> new long[2][ESTADOS.length], (a, i) -> {
+                if (d[i] >= diaDesde && d[i] <= diaHasta) {
+                    a[0][e[i]]++;
+                    a[1][e[i]] += c[i];
+                }
+            }, TablaColumnar::sumar);
+            Map<EstadoTransaccion, Total> resultado = new EnumMap<>(EstadoTransaccion.class);
+            for (EstadoTransaccion estado : ESTADOS) {
+                resultado.put(estado, new Total(acumulado[0][estado.ordinal()], acumulado[1][estado.ordinal()]));
+            }
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    private static IntStream recorrido(int filas) {
+        IntStream rango = IntStream.range(0, filas);
+        return filas >= UMBRAL_PARALELO ? rango.parallel() : rango;
+    }
+
+    private static void sumar(long[][] destino, long[][] origen) {
+        for (int c = 0; c < destino.length; c++) {
+            for (int i = 0; i < destino[c].length; i++) {
+                destino[c][i] += origen[c][i];
+            }
+        }
+    }
+
+    private static int diaDesde(LocalDate desde) {
+        return desde == null ? Integer.MIN_VALUE : (int) desde.toEpochDay();
+    }
+
+    private static int diaHasta(LocalDate hasta) {
+        return hasta == null ? Integer.MAX_VALUE : (int) hasta.toEpochDay();
+    }
+
+    private void crecer() {
+        int capacidad = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacidad);
+        dias = Arrays.copyOf(dias, capacidad);
+        meses = Arrays.copyOf(meses, capacidad);
+        centavos = Arrays.copyOf(centavos, capacidad);
+        estados = Arrays.copyOf(estados, capacidad);
+        versiones = Arrays.copyOf(versiones, capacidad);
+        nombres = Arrays.copyOf(nombres, capacidad);
+    }
+}
@@ -0,0 +1,18 @@
+package com.transaction.service;
+
+/**
+ * Enum representing the kind of an operation in a batch.
+ * <ul>
+ *   <li>CREAR: Creates a transaction, same as {@code POST /api/transacciones}.</li>
+ *   <li>EDITAR: Updates a transaction, same as {@code PUT /api/transacciones/{id}}.</li>
+ *   <li>ELIMINAR: Deletes a transaction, same as {@code DELETE /api/transacciones/{id}}.</li>
+ * </ul>
+ */
+public enum TipoOperacionLote {
+    /** Creates a transaction. */
+    CREAR,
+    /** Updates a transaction. */
+    EDITAR,
+    /** Deletes a transaction. */
+    ELIMINAR
+}
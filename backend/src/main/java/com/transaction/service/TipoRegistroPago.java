@@ -0,0 +1,35 @@
+package com.transaction.service;
+
+/**
+ * Kind of a record in the payment journal ({@link DiarioPagos}).
+ */
+public enum TipoRegistroPago {
+    /** A {@code pagar} call that paid at least one transaction. */
+    PAGO,
+    /** A {@code pagar} call that paid nothing (no pending transactions, or the amount was rejected). */
+    RECHAZO,
+    /** A chunk of an asynchronous payment settled by {@code pagarLote}. */
+    PAGO_LOTE,
+    /** The database transaction of an earlier record was rolled back, or its payment was reverted later; it refers to that record. */
+    ANULACION;
+
+    /**
+     * Gets the code stored in the journal.
+     *
+     * @return Non-zero record type code
+     */
+    byte codigo() {
+        return (byte) (ordinal() + 1);
+    }
+
+    /**
+     * Gets the type for a code read from the journal.
+     *
+     * @param codigo Stored code
+     * @return The record type, or null if the code is unknown
+     */
+    static TipoRegistroPago deCodigo(byte codigo) {
+        TipoRegistroPago[] tipos = values();
+        return codigo >= 1 && codigo <= tipos.length ? tipos[codigo - 1] : null;
+    }
+}
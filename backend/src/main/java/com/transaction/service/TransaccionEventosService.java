@@ -0,0 +1,268 @@
+package com.transaction.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.dto.EventoCambioDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.event.TipoCambio;
+import com.transaction.event.TransaccionCambioEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Service that pushes committed transaction changes to Server-Sent Events subscribers.
+ * <p>
+ * Each change is serialized once and offered to every subscriber's bounded queue; a subscriber
+ * whose queue is full is disconnected instead of slowing down the rest.
+ * <ul>
+ *   <li>Event IDs have the form {@code <arranque>:<secuencia>} and are only meaningful for this instance.</li>
+ *   <li>A client reconnecting with {@code Last-Event-ID} receives the events it missed while they
+ *       are still in the recent history and fit in its queue; otherwise it receives a {@code reset}
+ *       event and must reload.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class TransaccionEventosService {
+    private static final EventoEmitido LATIDO = new EventoEmitido(0, null, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int capacidadSuscriptor;
+    private final int tamanoHistorial;
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final Deque<EventoEmitido> historial = new ArrayDeque<>();
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final ExecutorService envios;
+    private final ScheduledExecutorService latidos = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "sse-latidos");
+        t.setDaemon(true);
+        return t;
+    });
+    private long secuencia;
+
+    public TransaccionEventosService(ObjectMapper objectMapper,
+                                     @Value("${transacciones.sse.timeout-ms:1800000}") long timeoutMs,
+                                     @Value("${transacciones.sse.buffer-suscriptor:256}") int capacidadSuscriptor,
+                                     @Value("${transacciones.sse.historial:1000}") int tamanoHistorial,
+                                     @Value("${transacciones.sse.hilos-envio:4}") int hilosEnvio,
+                                     @Value("${transacciones.sse.latido-segundos:15}") long latidoSegundos) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.capacidadSuscriptor = capacidadSuscriptor;
+        this.tamanoHistorial = tamanoHistorial;
+        this.envios = Executors.newFixedThreadPool(hilosEnvio, r -> {
+            Thread t = new Thread(r, "sse-envios");
+            t.setDaemon(true);
+            return t;
+        });
+        latidos.scheduleAtFixedRate(() -> suscriptores.forEach(s -> s.encolar(LATIDO)),
+                latidoSegundos, latidoSegundos, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registers a new subscriber, replaying missed events if the client is resuming.
+     *
+     * @param ultimoEventoId Value of the Last-Event-ID header, or null for a fresh subscription
+     * @return The emitter bound to the HTTP response
+     */
+    public SseEmitter suscribir(String ultimoEventoId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(emitter);
+        emitter.onCompletion(suscriptor::cerrar);
+        emitter.onTimeout(suscriptor::cerrar);
+        emitter.onError(e -> suscriptor.cerrar());
+
+        synchronized (this) {
+            if (ultimoEventoId != null) {
+                Optional<List<EventoEmitido>> perdidos = eventosDesde(ultimoEventoId);
+                if (perdidos.isPresent()) {
+                    perdidos.get().forEach(suscriptor::encolar);
+                } else {
+                    suscriptor.encolar(new EventoEmitido(secuencia, arranque + ":" + secuencia, "reset", "{}"));
+                }
+            }
+            suscriptores.add(suscriptor);
+        }
+        return emitter;
+    }
+
+    /**
+     * Broadcasts a transaction change once its database transaction has committed.
+     *
+     * @param event Change published by TransaccionService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambio(TransaccionCambioEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(toDTO(event));
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar el evento {}", event.getTipo(), e);
+            return;
+        }
+
+        synchronized (this) {
+            secuencia++;
+            EventoEmitido emitido = new EventoEmitido(secuencia, arranque + ":" + secuencia, event.getTipo().name(), json);
+            historial.addLast(emitido);
+            if (historial.size() > tamanoHistorial) {
+                historial.removeFirst();
+            }
+            suscriptores.forEach(s -> s.encolar(emitido));
+        }
+    }
+
+    /**
+     * Finds the events emitted after the given event ID.
+     *
+     * @param ultimoEventoId Last event ID received by the client
+     * @return The missed events, or empty if they are no longer available, or too many to fit in a subscriber
+     *         queue, and the client must reload
+     */
+    synchronized Optional<List<EventoEmitido>> eventosDesde(String ultimoEventoId) {
+        int separador = ultimoEventoId.indexOf(':');
+        if (separador < 0 || !arranque.equals(ultimoEventoId.substring(0, separador))) {
+            return Optional.empty();
+        }
+        long desde;
+        try {
+            desde = Long.parseLong(ultimoEventoId.substring(separador + 1));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        long masAntiguo = historial.isEmpty() ? secuencia + 1 : historial.peekFirst().secuencia();
+        if (desde > secuencia || desde < masAntiguo - 1) {
+            return Optional.empty();
+        }
+        if (secuencia - desde >= capacidadSuscriptor) {
+            // No cabrían en la cola: el suscriptor se desconectaría como lento y volvería con el mismo Last-Event-ID
+            return Optional.empty();
+        }
+        List<EventoEmitido> perdidos = new ArrayList<>();
+        for (EventoEmitido emitido : historial) {
+            if (emitido.secuencia() > desde) {
+                perdidos.add(emitido);
+            }
+        }
+        return Optional.of(perdidos);
+    }
+
+    /**
+     * Gets the ID of the most recently emitted event.
+     *
+     * @return Last event ID
+     */
+    synchronized String ultimoEventoId() {
+        return arranque + ":" + secuencia;
+    }
+
+    /**
+     * Converts a change event into its compact wire representation.
+     *
+     * @param event Change event
+     * @return EventoCambioDTO
+     */
+    private EventoCambioDTO toDTO(TransaccionCambioEvent event) {
+        EventoCambioDTO dto = new EventoCambioDTO();
+        dto.setTipo(event.getTipo());
+        if (event.getTipo() == TipoCambio.ELIMINADA || event.getTipo() == TipoCambio.PAGADA) {
+            dto.setIds(event.getTransacciones().stream().map(TransaccionDTO::getId).collect(Collectors.toList()));
+        } else {
+            dto.setTransacciones(event.getTransacciones());
+        }
+        return dto;
+    }
+
+    @PreDestroy
+    void detener() {
+        latidos.shutdownNow();
+        envios.shutdownNow();
+        suscriptores.forEach(s -> s.emitter.complete());
+    }
+
+    /**
+     * An event already serialized and numbered, shared by all subscribers.
+     */
+    record EventoEmitido(long secuencia, String id, String nombre, String json) {
+    }
+
+    /**
+     * A connected client with its own bounded queue of pending events.
+     */
+    private final class Suscriptor {
+        private final SseEmitter emitter;
+        private final BlockingQueue<EventoEmitido> cola = new ArrayBlockingQueue<>(capacidadSuscriptor);
+        private final AtomicBoolean programado = new AtomicBoolean();
+        private volatile boolean cerrado;
+
+        private Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void encolar(EventoEmitido emitido) {
+            if (cerrado) {
+                return;
+            }
+            if (!cola.offer(emitido)) {
+                log.info("Desconectando suscriptor SSE lento: {} eventos pendientes", cola.size());
+                cerrar();
+                emitter.complete();
+                return;
+            }
+            programar();
+        }
+
+        private void programar() {
+            if (programado.compareAndSet(false, true)) {
+                envios.execute(this::drenar);
+            }
+        }
+
+        private void drenar() {
+            try {
+                EventoEmitido emitido;
+                while (!cerrado && (emitido = cola.poll()) != null) {
+                    emitter.send(emitido == LATIDO
+                            ? SseEmitter.event().comment("latido")
+                            : SseEmitter.event().id(emitido.id()).name(emitido.nombre()).data(emitido.json(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                cerrar();
+            } finally {
+                programado.set(false);
+                if (!cerrado && !cola.isEmpty()) {
+                    programar();
+                }
+            }
+        }
+
+        void cerrar() {
+            cerrado = true;
+            suscriptores.remove(this);
+            cola.clear();
+        }
+    }
+}
@@ -1,19 +1,46 @@
 package com.transaction.service;
 
 
+import com.transaction.dto.CambioDTO;
+import com.transaction.dto.CambiosDTO;
+import com.transaction.dto.LoteDTO;
+import com.transaction.dto.OperacionLoteDTO;
+import com.transaction.dto.ResultadoLoteDTO;
+import com.transaction.dto.ResultadoOperacionDTO;
 import com.transaction.dto.TransaccionCreateDTO;
 import com.transaction.dto.TransaccionDTO;
+import com.transaction.dto.TransaccionFiltroDTO;
 import com.transaction.entity.EstadoTransaccion;
 import com.transaction.entity.Transaccion;
+import com.transaction.entity.TransaccionEliminada;
+import com.transaction.event.TipoCambio;
+import com.transaction.event.TransaccionCambioEvent;
+import com.transaction.exception.ParametroInvalidoException;
+import com.transaction.jfr.PagoEvent;
+import com.transaction.jfr.RepositorioEvent;
+import com.transaction.repository.SecuenciaCambios;
+import com.transaction.repository.TransaccionEliminadaRepository;
 import com.transaction.repository.TransaccionRepository;
+import com.transaction.repository.TransaccionSpecs;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -24,41 +51,109 @@ import java.util.stream.Collectors;
  *   <li>Only transactions in PENDIENTE state can be edited or deleted.</li>
  *   <li>Payments are applied in chronological order and only if the amount covers the full transaction.</li>
  * </ul>
+ * Every write publishes a {@link TransaccionCambioEvent} describing the change, and every payment is
+ * recorded in the {@link DiarioPagos} before it commits. With several instances, payments must run inside
+ * {@link ArrendamientoPagos#ejecutar}, and check its fencing token before writing. Payments and repository calls emit JDK Flight
+ * Recorder events ({@link PagoEvent}, {@link RepositorioEvent}) that are only built while a recording wants them.
+ * <p>
+ * Plain reads run in read-only transactions, which are routed to the read replica when one is configured.
+ * Reads that must not observe replication lag use read-write transactions so they stay on the primary.
  */
 @Service
 @RequiredArgsConstructor
 public class TransaccionService {
+    private static final int MAX_CAMBIOS_POR_PAGINA = 1000;
+
     private final TransaccionRepository transaccionRepository;
+    private final TransaccionEliminadaRepository transaccionEliminadaRepository;
+    private final SecuenciaCambios secuenciaCambios;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final DiarioPagos diarioPagos;
+    private final ArrendamientoPagos arrendamientoPagos;
 
     /**
-     * Retrieves a list of transactions filtered by name, date, and state.
+     * Retrieves a list of transactions matching the given filters, in the requested order.
      *
-     * @param nombre Optional name filter (partial match, case-insensitive)
-     * @param fecha  Optional exact date filter
-     * @param estado Optional state filter
+     * @param filtro Optional filters (name, exact date, date and value ranges, state) and sort order
      * @return List of matching transactions as DTOs
+     * @throws com.transaction.exception.ParametroInvalidoException if a range or the sort order is invalid
      */
-    public List<TransaccionDTO> listar(String nombre, LocalDate fecha, EstadoTransaccion estado) {
-        return transaccionRepository.findByFilters(nombre, fecha, estado)
+    @Transactional(readOnly = true)
+    public List<TransaccionDTO> listar(TransaccionFiltroDTO filtro) {
+        return RepositorioEvent.medir("findAll",
+                        () -> transaccionRepository.findAll(TransaccionSpecs.de(filtro), TransaccionSpecs.orden(filtro.getSort())), List::size)
                 .stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves the matching transactions with only some of their fields (sparse fieldset).
+     * <p>
+     * The query selects only the requested columns, so a long {@code nombre} is neither read
+     * nor serialized unless asked for.
+     *
+     * @param filtro Optional filters and sort order, as in {@link #listar(TransaccionFiltroDTO)}
+     * @param campos Requested fields among id, nombre, fecha, valor and estado
+     * @return One map per transaction with the requested fields, in the requested order
+     * @throws ParametroInvalidoException if a field is unknown, or a range or the sort order is invalid
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listarCampos(TransaccionFiltroDTO filtro, List<String> campos) {
+        List<String> seleccion = ReglasTransaccion.campos(campos);
+        return RepositorioEvent.medir("findCampos",
+                        () -> transaccionRepository.findCampos(TransaccionSpecs.de(filtro), TransaccionSpecs.orden(filtro.getSort()), seleccion),
+                        List::size)
+                .stream()
+                .map(tupla -> {
+                    Map<String, Object> fila = new LinkedHashMap<>(seleccion.size() * 2);
+                    seleccion.forEach(campo -> fila.put(campo, tupla.get(campo)));
+                    return fila;
+                })
+                .collect(Collectors.toList());
+    }
+
     /**
      * Creates a new transaction with state PENDIENTE.
      *
      * @param dto Data for the new transaction
      * @return The created transaction as DTO
      */
+    @Transactional
     public TransaccionDTO crear(TransaccionCreateDTO dto) {
-        Transaccion t = Transaccion.builder()
-                .nombre(dto.getNombre())
-                .fecha(dto.getFecha())
-                .valor(dto.getValor())
-                .estado(EstadoTransaccion.PENDIENTE)
-                .build();
-        return toDTO(transaccionRepository.save(t));
+        TransaccionDTO creada = toDTO(RepositorioEvent.medir("save", () -> transaccionRepository.save(nueva(dto)), t -> 1));
+        publicar(TipoCambio.CREADA, List.of(creada));
+        return creada;
+    }
+
+    /**
+     * Gets change sequence numbers ready for a bulk write before its database transaction starts, so
+     * it does not run out of them halfway. Call it outside any transaction.
+     *
+     * @param filas Rows the coming write inserts, updates or deletes
+     */
+    public void prepararEscritura(int filas) {
+        secuenciaCambios.preparar(filas);
+    }
+
+    /**
+     * Creates several transactions with state PENDIENTE in one database transaction.
+     * <p>
+     * The inserts are sent as JDBC batches and a single CREADA event is published for all of them.
+     * Used by the write-behind ingestion, which validates the data beforehand.
+     *
+     * @param dtos Data for the new transactions
+     * @return The created transactions as DTOs, in the same order
+     */
+    @Transactional
+    public List<TransaccionDTO> crearTodas(List<TransaccionCreateDTO> dtos) {
+        List<Transaccion> nuevas = dtos.stream().map(TransaccionService::nueva).collect(Collectors.toList());
+        List<TransaccionDTO> creadas = RepositorioEvent.medir("saveAll", () -> transaccionRepository.saveAll(nuevas), List::size).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        publicar(TipoCambio.CREADA, creadas);
+        return creadas;
     }
 
     /**
@@ -70,16 +165,16 @@ public class TransaccionService {
      * @throws IllegalArgumentException if transaction not found
      * @throws IllegalStateException    if transaction is already paid
      */
+    @Transactional
     public TransaccionDTO editar(Long id, TransaccionCreateDTO dto) {
-        Transaccion t = transaccionRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Transacción no encontrada"));
-        if (t.getEstado() == EstadoTransaccion.PAGADO) {
-            throw new IllegalStateException("No se puede editar una transacción pagada");
-        }
-        t.setNombre(dto.getNombre());
-        t.setFecha(dto.getFecha());
-        t.setValor(dto.getValor());
-        return toDTO(transaccionRepository.save(t));
+        Transaccion t = noPagada(buscar(id), "editar");
+        TransaccionDTO anterior = toDTO(t);
+        aplicarDatos(t, dto);
+        Transaccion guardada = RepositorioEvent.medir("save", () -> transaccionRepository.save(t), r -> 1);
+        enviarEscrituras(1);
+        TransaccionDTO actualizada = toDTO(guardada);
+        publicar(TipoCambio.ACTUALIZADA, List.of(actualizada), List.of(anterior));
+        return actualizada;
     }
 
     /**
@@ -89,13 +184,120 @@ public class TransaccionService {
      * @throws IllegalArgumentException if transaction not found
      * @throws IllegalStateException    if transaction is already paid
      */
+    @Transactional
     public void eliminar(Long id) {
-        Transaccion t = transaccionRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Transacción no encontrada"));
-        if (t.getEstado() == EstadoTransaccion.PAGADO) {
-            throw new IllegalStateException("No se puede eliminar una transacción pagada");
+        Transaccion t = noPagada(buscar(id), "eliminar");
+        RepositorioEvent.medir("deleteById", () -> transaccionRepository.deleteById(id), 1);
+        RepositorioEvent.medir("TransaccionEliminada.save",
+                () -> transaccionEliminadaRepository.save(new TransaccionEliminada(id, null, LocalDateTime.now())), r -> 1);
+        TransaccionDTO eliminada = toDTO(t);
+        publicar(TipoCambio.ELIMINADA, List.of(eliminada), List.of(eliminada));
+    }
+
+    /**
+     * Executes an ordered batch of create, edit and delete operations in a single database transaction.
+     * <p>
+     * Each operation follows the same validation and PAGADO-immutability rules as {@link #crear},
+     * {@link #editar} and {@link #eliminar}. The rows referenced by the batch are loaded with one query and
+     * the writes are flushed together, so Hibernate sends them as JDBC batches. In TODO_O_NADA mode the
+     * first failing operation marks the transaction for rollback and the remaining ones are skipped; in
+     * MEJOR_ESFUERZO mode failing operations are skipped and the rest are committed. A database error
+     * rolls back the whole batch in both modes. One change event per kind is published for the batch.
+     *
+     * @param lote Mode and operations of the batch
+     * @return Outcome of each operation and whether the batch was committed
+     */
+    @Transactional
+    public ResultadoLoteDTO ejecutarLote(LoteDTO lote) {
+        List<OperacionLoteDTO> operaciones = lote.getOperaciones();
+        Set<Long> ids = operaciones.stream()
+                .filter(op -> op.getTipo() != TipoOperacionLote.CREAR && op.getId() != null)
+                .map(OperacionLoteDTO::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Transaccion> existentes = new HashMap<>();
+        Map<Long, TransaccionDTO> originales = new HashMap<>();
+        RepositorioEvent.medir("findAllById", () -> transaccionRepository.findAllById(ids), List::size)
+                .forEach(t -> {
+                    existentes.put(t.getId(), t);
+                    originales.put(t.getId(), toDTO(t));
+                });
+
+        List<ResultadoOperacionDTO> resultados = new ArrayList<>(operaciones.size());
+        Transaccion[] escritas = new Transaccion[operaciones.size()];
+        List<Transaccion> creadas = new ArrayList<>();
+        Map<Long, Transaccion> editadas = new LinkedHashMap<>();
+        List<Transaccion> eliminadas = new ArrayList<>();
+        Integer fallida = null;
+
+        for (int i = 0; i < operaciones.size(); i++) {
+            OperacionLoteDTO op = operaciones.get(i);
+            ResultadoOperacionDTO resultado = new ResultadoOperacionDTO();
+            resultado.setIndice(i);
+            resultado.setTipo(op.getTipo());
+            resultado.setId(op.getId());
+            resultados.add(resultado);
+            if (fallida != null && lote.getModo() == ModoLote.TODO_O_NADA) {
+                resultado.setStatus(HttpStatus.FAILED_DEPENDENCY.value());
+                resultado.setError("No ejecutada: la operación " + fallida + " falló");
+                continue;
+            }
+            try {
+                Transaccion t = aplicarOperacion(op, existentes, resultado);
+                switch (op.getTipo()) {
+                    case CREAR -> creadas.add(t);
+                    case EDITAR -> editadas.put(t.getId(), t);
+                    case ELIMINAR -> {
+                        editadas.remove(t.getId());
+                        eliminadas.add(t);
+                    }
+                }
+                if (op.getTipo() != TipoOperacionLote.ELIMINAR) {
+                    escritas[i] = t;
+                }
+            } catch (IllegalArgumentException e) {
+                fallar(resultado, HttpStatus.NOT_FOUND, e.getMessage());
+            } catch (IllegalStateException e) {
+                fallar(resultado, HttpStatus.CONFLICT, e.getMessage());
+            } catch (ParametroInvalidoException e) {
+                fallar(resultado, HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            if (resultado.getError() != null && fallida == null) {
+                fallida = i;
+            }
         }
-        transaccionRepository.deleteById(id);
+
+        ResultadoLoteDTO resultadoLote = new ResultadoLoteDTO();
+        resultadoLote.setModo(lote.getModo());
+        resultadoLote.setResultados(resultados);
+        resultadoLote.setFallidas((int) resultados.stream().filter(r -> r.getError() != null).count());
+        resultadoLote.setExitosas(resultados.size() - resultadoLote.getFallidas());
+        if (fallida != null && lote.getModo() == ModoLote.TODO_O_NADA) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return resultadoLote;
+        }
+
+        enviarEscrituras(creadas.size() + editadas.size() + eliminadas.size());
+        for (ResultadoOperacionDTO resultado : resultados) {
+            Transaccion t = escritas[resultado.getIndice()];
+            if (t != null) {
+                resultado.setId(t.getId());
+                resultado.setTransaccion(toDTO(t));
+            }
+        }
+        if (!creadas.isEmpty()) {
+            publicar(TipoCambio.CREADA, creadas.stream().map(this::toDTO).collect(Collectors.toList()));
+        }
+        if (!editadas.isEmpty()) {
+            publicar(TipoCambio.ACTUALIZADA, editadas.values().stream().map(this::toDTO).collect(Collectors.toList()),
+                    editadas.keySet().stream().map(originales::get).collect(Collectors.toList()));
+        }
+        if (!eliminadas.isEmpty()) {
+            // Una transacción editada y luego eliminada en el mismo lote se informa con su estado confirmado anterior
+            publicar(TipoCambio.ELIMINADA, eliminadas.stream().map(this::toDTO).collect(Collectors.toList()),
+                    eliminadas.stream().map(t -> originales.get(t.getId())).collect(Collectors.toList()));
+        }
+        resultadoLote.setConfirmado(true);
+        return resultadoLote;
     }
 
     /**
@@ -110,61 +312,191 @@ public class TransaccionService {
      *
      * @param monto Amount to pay
      * @return PaymentResult containing information about the payment process
+     * @throws IllegalStateException if another instance took the payment lease
      */
     @Transactional
     public PaymentResult pagar(BigDecimal monto) {
-        List<Transaccion> pendientes = transaccionRepository.findByEstadoOrderByFechaAsc(EstadoTransaccion.PENDIENTE);
-        
-        if (pendientes.isEmpty()) {
-            return new PaymentResult(0, monto, monto, null);
-        }
-        
-        BigDecimal montoInicial = monto;
-        int transaccionesPagadas = 0;
-        BigDecimal montoRequerido = null;
-        
-        // Calcular el monto total requerido para las transacciones que se pueden pagar completamente
-        BigDecimal montoTotalRequerido = BigDecimal.ZERO;
-        int transaccionesQueSePuedenPagar = 0;
-        
-        for (Transaccion transaccion : pendientes) {
-            BigDecimal montoNecesario = montoTotalRequerido.add(transaccion.getValor());
-            if (montoNecesario.compareTo(monto) <= 0) {
-                montoTotalRequerido = montoNecesario;
-                transaccionesQueSePuedenPagar++;
-            } else {
-                break;
-            }
+        arrendamientoPagos.verificar();
+        PagoEvent evento = new PagoEvent();
+        evento.begin();
+        long inicio = System.nanoTime();
+        List<Transaccion> pendientes = leerPendientes();
+        long leido = System.nanoTime();
+        PlanPago plan = calcularPlan(pendientes, monto);
+        long calculado = System.nanoTime();
+        if (plan.isRechazado()) {
+            diarioPagos.registrarPago(TipoRegistroPago.RECHAZO, monto, monto, List.of());
+            registrarPago(evento, "PAGO", monto, pendientes.size(), plan, leido - inicio, calculado - leido, 0, System.nanoTime() - calculado);
+            return plan.getRechazo();
         }
-        
-        // Si no hay transacciones que se puedan pagar completamente, el monto es insuficiente
-        if (transaccionesQueSePuedenPagar == 0) {
-            montoRequerido = pendientes.get(0).getValor();
-            return new PaymentResult(0, monto, montoInicial, montoRequerido);
-        }
-        
-        // Si hay transacciones que se pueden pagar pero el monto excede el total requerido, rechazar el pago
-        if (monto.compareTo(montoTotalRequerido) > 0) {
-            montoRequerido = montoTotalRequerido;
-            return new PaymentResult(0, monto, montoInicial, montoRequerido);
-        }
-        
-        // Si el monto es exacto o insuficiente, proceder con el pago
-        for (Transaccion transaccion : pendientes) {
-            if (monto.compareTo(transaccion.getValor()) >= 0) {
-                // Pago exitoso
-                transaccion.setEstado(EstadoTransaccion.PAGADO);
-                transaccionRepository.save(transaccion);
-                transaccionesPagadas++;
-                monto = monto.subtract(transaccion.getValor());
-            } else {
-                // Monto insuficiente, capturar el monto requerido
-                montoRequerido = transaccion.getValor();
-                break;
-            }
+
+        BigDecimal montoRestante = monto;
+        for (Transaccion transaccion : plan.getTransacciones()) {
+            transaccion.setEstado(EstadoTransaccion.PAGADO);
+            RepositorioEvent.medir("save", () -> transaccionRepository.save(transaccion), t -> 1);
+            montoRestante = montoRestante.subtract(transaccion.getValor());
         }
-        
-        return new PaymentResult(transaccionesPagadas, monto, montoInicial, montoRequerido);
+        publicarPagadas(plan.getTransacciones());
+        long guardado = System.nanoTime();
+        diarioPagos.registrarPago(TipoRegistroPago.PAGO, monto, montoRestante, plan.getIds());
+        registrarPago(evento, "PAGO", monto, pendientes.size(), plan, leido - inicio, calculado - leido, guardado - calculado, System.nanoTime() - guardado);
+
+        return new PaymentResult(plan.getTransacciones().size(), montoRestante, monto, plan.getMontoRequerido());
+    }
+
+    /**
+     * Plans a payment without modifying any transaction.
+     * <p>
+     * Applies the same rules as {@link #pagar(BigDecimal)} and is used by the asynchronous payment jobs,
+     * which then settle the planned transactions in chunks through {@link #pagarLote(List)}.
+     * Runs on the primary: a plan built from a lagging replica would miss recent pending transactions.
+     *
+     * @param monto Amount to pay
+     * @return The payment plan, possibly rejected
+     */
+    @Transactional
+    public PlanPago planificarPago(BigDecimal monto) {
+        PagoEvent evento = new PagoEvent();
+        evento.begin();
+        long inicio = System.nanoTime();
+        List<Transaccion> pendientes = leerPendientes();
+        long leido = System.nanoTime();
+        PlanPago plan = calcularPlan(pendientes, monto);
+        registrarPago(evento, "PLAN", monto, pendientes.size(), plan, leido - inicio, System.nanoTime() - leido, 0, 0);
+        return plan;
+    }
+
+    /**
+     * Marks a chunk of planned transactions as paid in its own database transaction.
+     *
+     * @param ids IDs of the transactions to pay
+     * @return Total value of the paid transactions and the journal record of the chunk
+     * @throws IllegalStateException if any transaction no longer exists or is not pending anymore,
+     *                               or if another instance took the payment lease
+     */
+    @Transactional
+    public LotePagado pagarLote(List<Long> ids) {
+        arrendamientoPagos.verificar();
+        PagoEvent evento = new PagoEvent();
+        evento.begin();
+        long inicio = System.nanoTime();
+        List<Transaccion> lote = RepositorioEvent.medir("findAllById", () -> transaccionRepository.findAllById(ids), List::size);
+        long leido = System.nanoTime();
+        if (lote.size() != ids.size() || lote.stream().anyMatch(t -> t.getEstado() != EstadoTransaccion.PENDIENTE)) {
+            throw new IllegalStateException("Las transacciones a pagar fueron modificadas durante el pago");
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (Transaccion transaccion : lote) {
+            transaccion.setEstado(EstadoTransaccion.PAGADO);
+            total = total.add(transaccion.getValor());
+        }
+        RepositorioEvent.medir("saveAll", () -> transaccionRepository.saveAll(lote), List::size);
+        publicarPagadas(lote);
+        long guardado = System.nanoTime();
+        long registro = diarioPagos.registrarPago(TipoRegistroPago.PAGO_LOTE, total, BigDecimal.ZERO, ids);
+        if (evento.shouldCommit()) {
+            evento.tipo = "PAGO_LOTE";
+            evento.monto = total.toPlainString();
+            evento.pendientesLeidas = lote.size();
+            evento.pagadas = lote.size();
+            evento.lectura = leido - inicio;
+            evento.guardado = guardado - leido;
+            evento.diario = System.nanoTime() - guardado;
+            evento.commit();
+        }
+        return new LotePagado(total, registro);
+    }
+
+    /**
+     * Reverts chunks of an asynchronous payment that already committed, returning their transactions to
+     * PENDIENTE in a single database transaction and annulling the chunks' journal records.
+     * <p>
+     * Used when a later chunk fails, so a job either pays its whole plan or leaves nothing paid.
+     *
+     * @param ids       IDs of the transactions paid by the chunks
+     * @param registros Journal records of the chunks
+     * @throws IllegalStateException if any transaction no longer exists or is not paid anymore,
+     *                               or if another instance took the payment lease
+     */
+    @Transactional
+    public void revertirLotes(List<Long> ids, List<Long> registros) {
+        arrendamientoPagos.verificar();
+        List<Transaccion> pagadas = RepositorioEvent.medir("findAllById", () -> transaccionRepository.findAllById(ids), List::size);
+        if (pagadas.size() != ids.size() || pagadas.stream().anyMatch(t -> t.getEstado() != EstadoTransaccion.PAGADO)) {
+            throw new IllegalStateException("Las transacciones a revertir fueron modificadas durante el pago");
+        }
+        List<TransaccionDTO> anteriores = new ArrayList<>(pagadas.size());
+        for (Transaccion transaccion : pagadas) {
+            anteriores.add(toDTO(transaccion));
+            transaccion.setEstado(EstadoTransaccion.PENDIENTE);
+        }
+        RepositorioEvent.medir("saveAll", () -> transaccionRepository.saveAll(pagadas), List::size);
+        enviarEscrituras(pagadas.size());
+        publicar(TipoCambio.ACTUALIZADA, pagadas.stream().map(this::toDTO).collect(Collectors.toList()), anteriores);
+        diarioPagos.registrarAnulaciones(registros);
+    }
+
+    /**
+     * Reads the pending transactions, oldest first.
+     *
+     * @return Pending transactions ordered by date ascending
+     */
+    private List<Transaccion> leerPendientes() {
+        return RepositorioEvent.medir("findByEstadoOrderByFechaAsc",
+                () -> transaccionRepository.findByEstadoOrderByFechaAsc(EstadoTransaccion.PENDIENTE), List::size);
+    }
+
+    /**
+     * Reads a transaction by its ID.
+     *
+     * @param id Transaction ID
+     * @return The transaction, if found
+     */
+    private Optional<Transaccion> buscar(Long id) {
+        return RepositorioEvent.medir("findById", () -> transaccionRepository.findById(id), t -> t.isPresent() ? 1 : 0);
+    }
+
+    /**
+     * Commits the Flight Recorder event of a payment if a recording wants it; otherwise does nothing.
+     *
+     * @param evento           Event begun when the payment started
+     * @param tipo             PAGO or PLAN
+     * @param monto            Amount of the payment
+     * @param pendientesLeidas Pending transactions read
+     * @param plan             Computed plan
+     * @param lectura          Nanoseconds spent reading the pending transactions
+     * @param calculo          Nanoseconds spent computing the plan
+     * @param guardado         Nanoseconds spent saving the paid transactions
+     * @param diario           Nanoseconds spent journaling the payment
+     */
+    private static void registrarPago(PagoEvent evento, String tipo, BigDecimal monto, int pendientesLeidas, PlanPago plan,
+                                      long lectura, long calculo, long guardado, long diario) {
+        if (!evento.shouldCommit()) {
+            return;
+        }
+        evento.tipo = tipo;
+        evento.monto = monto.toPlainString();
+        evento.pendientesLeidas = pendientesLeidas;
+        evento.pagadas = plan.getTransacciones().size();
+        evento.rechazado = plan.isRechazado();
+        evento.lectura = lectura;
+        evento.calculo = calculo;
+        evento.guardado = guardado;
+        evento.diario = diario;
+        evento.commit();
+    }
+
+    /**
+     * Computes which pending transactions an amount pays, following {@link ReglasTransaccion#cubrir}.
+     *
+     * @param pendientes Pending transactions ordered by date ascending
+     * @param monto      Amount to pay
+     * @return The payment plan
+     */
+    private PlanPago calcularPlan(List<Transaccion> pendientes, BigDecimal monto) {
+        ReglasTransaccion.Cobertura cobertura = ReglasTransaccion.cubrir(
+                pendientes.stream().map(Transaccion::getValor).collect(Collectors.toList()), monto);
+        return new PlanPago(pendientes.subList(0, cobertura.cantidad()), cobertura.montoRequerido(), cobertura.rechazo());
     }
 
     /**
@@ -173,8 +505,206 @@ public class TransaccionService {
      * @param id Transaction ID
      * @return Optional containing the transaction as DTO if found, empty otherwise
      */
+    @Transactional(readOnly = true)
     public Optional<TransaccionDTO> obtenerPorId(Long id) {
-        return transaccionRepository.findById(id).map(this::toDTO);
+        return buscar(id).map(this::toDTO);
+    }
+
+    /**
+     * Retrieves the changes written after a given change sequence number, for delta synchronization.
+     * <p>
+     * Merges updated transactions and deletion tombstones in sequence order and never returns changes
+     * past {@link SecuenciaCambios#limiteVisible()}, so a later sync cannot miss a slow commit.
+     * Runs on the primary, since that limit is only valid against the primary's data.
+     *
+     * @param desde  Last change sequence number the client has seen (0 for a full sync)
+     * @param limite Maximum number of changes to return (capped at 1000)
+     * @return Page of changes with the new high-water mark
+     */
+    @Transactional
+    public CambiosDTO cambiosDesde(long desde, int limite) {
+        int tamano = Math.max(1, Math.min(limite, MAX_CAMBIOS_POR_PAGINA));
+        long hasta = secuenciaCambios.limiteVisible();
+        PageRequest pagina = PageRequest.of(0, tamano + 1);
+        List<Transaccion> modificadas = RepositorioEvent.medir("findCambios",
+                () -> transaccionRepository.findCambios(desde, hasta, pagina), List::size);
+        List<TransaccionEliminada> eliminadas = RepositorioEvent.medir("TransaccionEliminada.findCambios",
+                () -> transaccionEliminadaRepository.findCambios(desde, hasta, pagina), List::size);
+
+        List<CambioDTO> cambios = new ArrayList<>(tamano);
+        int i = 0;
+        int j = 0;
+        while (cambios.size() < tamano && (i < modificadas.size() || j < eliminadas.size())) {
+            boolean tomarModificada = j >= eliminadas.size()
+                    || (i < modificadas.size() && modificadas.get(i).getCambioSeq() < eliminadas.get(j).getCambioSeq());
+            CambioDTO cambio = new CambioDTO();
+            if (tomarModificada) {
+                Transaccion t = modificadas.get(i++);
+                cambio.setCambioSeq(t.getCambioSeq());
+                cambio.setId(t.getId());
+                cambio.setTransaccion(toDTO(t));
+            } else {
+                TransaccionEliminada e = eliminadas.get(j++);
+                cambio.setCambioSeq(e.getCambioSeq());
+                cambio.setId(e.getId());
+                cambio.setEliminada(true);
+            }
+            cambios.add(cambio);
+        }
+
+        CambiosDTO resultado = new CambiosDTO();
+        resultado.setCambios(cambios);
+        resultado.setHayMas(i < modificadas.size() || j < eliminadas.size());
+        resultado.setHasta(resultado.isHayMas() ? cambios.get(cambios.size() - 1).getCambioSeq() : Math.max(desde, hasta));
+        return resultado;
+    }
+
+    /**
+     * Applies one batch operation to the persistence context.
+     *
+     * @param op         Operation to apply
+     * @param existentes Rows referenced by the batch, by ID; deleted rows are removed from it
+     * @param resultado  Result of the operation, completed with its success status
+     * @return The created, edited or deleted transaction
+     * @throws ParametroInvalidoException if the operation lacks its ID or data, or the data is invalid
+     * @throws IllegalArgumentException   if the transaction is not found
+     * @throws IllegalStateException      if the transaction is already paid
+     */
+    private Transaccion aplicarOperacion(OperacionLoteDTO op, Map<Long, Transaccion> existentes, ResultadoOperacionDTO resultado) {
+        if (op.getTipo() != TipoOperacionLote.CREAR && op.getId() == null) {
+            throw new ParametroInvalidoException("La operación " + op.getTipo() + " requiere el id de la transacción");
+        }
+        if (op.getTipo() != TipoOperacionLote.ELIMINAR) {
+            validarDatos(op.getDatos(), resultado);
+        }
+        switch (op.getTipo()) {
+            case CREAR -> {
+                resultado.setStatus(HttpStatus.OK.value());
+                return RepositorioEvent.medir("save", () -> transaccionRepository.save(nueva(op.getDatos())), t -> 1);
+            }
+            case EDITAR -> {
+                Transaccion t = noPagada(Optional.ofNullable(existentes.get(op.getId())), "editar");
+                aplicarDatos(t, op.getDatos());
+                resultado.setStatus(HttpStatus.OK.value());
+                return t;
+            }
+            default -> {
+                Transaccion t = noPagada(Optional.ofNullable(existentes.remove(op.getId())), "eliminar");
+                RepositorioEvent.medir("delete", () -> transaccionRepository.delete(t), 1);
+                RepositorioEvent.medir("TransaccionEliminada.save",
+                        () -> transaccionEliminadaRepository.save(new TransaccionEliminada(t.getId(), null, LocalDateTime.now())), r -> 1);
+                resultado.setStatus(HttpStatus.NO_CONTENT.value());
+                return t;
+            }
+        }
+    }
+
+    /**
+     * Validates the data of a batch operation with the same constraints as the single-operation endpoints.
+     *
+     * @param datos     Transaction data of the operation
+     * @param resultado Result where the field errors are reported
+     * @throws ParametroInvalidoException if the data is missing or invalid
+     */
+    private void validarDatos(TransaccionCreateDTO datos, ResultadoOperacionDTO resultado) {
+        if (datos == null) {
+            throw new ParametroInvalidoException("Faltan los datos de la transacción");
+        }
+        Set<ConstraintViolation<TransaccionCreateDTO>> violaciones = validator.validate(datos);
+        if (!violaciones.isEmpty()) {
+            Map<String, String> detalles = new HashMap<>();
+            violaciones.forEach(v -> detalles.put(v.getPropertyPath().toString(), v.getMessage()));
+            resultado.setDetalles(detalles);
+            throw new ParametroInvalidoException("Los datos proporcionados no son válidos");
+        }
+    }
+
+    private static void fallar(ResultadoOperacionDTO resultado, HttpStatus status, String error) {
+        resultado.setStatus(status.value());
+        resultado.setError(error);
+    }
+
+    /**
+     * Builds a new PENDIENTE transaction from the given data.
+     *
+     * @param dto Transaction data
+     * @return New, not yet persisted transaction
+     */
+    private static Transaccion nueva(TransaccionCreateDTO dto) {
+        return Transaccion.builder()
+                .nombre(dto.getNombre())
+                .fecha(dto.getFecha())
+                .valor(dto.getValor())
+                .estado(EstadoTransaccion.PENDIENTE)
+                .build();
+    }
+
+    /**
+     * Copies the editable fields onto a transaction.
+     *
+     * @param t   Transaction to update
+     * @param dto New data
+     */
+    private static void aplicarDatos(Transaccion t, TransaccionCreateDTO dto) {
+        t.setNombre(dto.getNombre());
+        t.setFecha(dto.getFecha());
+        t.setValor(dto.getValor());
+    }
+
+    /**
+     * Checks that a transaction exists and is not paid, so it can be edited or deleted.
+     *
+     * @param transaccion Transaction lookup result
+     * @param operacion   Verb of the attempted operation, for the error message
+     * @return The transaction
+     * @throws IllegalArgumentException if transaction not found
+     * @throws IllegalStateException    if transaction is already paid
+     */
+    private static Transaccion noPagada(Optional<Transaccion> transaccion, String operacion) {
+        Transaccion t = transaccion.orElseThrow(() -> new IllegalArgumentException("Transacción no encontrada"));
+        ReglasTransaccion.verificarNoPagada(t.getEstado(), operacion);
+        return t;
+    }
+
+    /**
+     * Publishes a change event for the given transactions.
+     *
+     * @param tipo          Kind of change
+     * @param transacciones Affected transactions as DTOs
+     */
+    private void publicar(TipoCambio tipo, List<TransaccionDTO> transacciones) {
+        eventPublisher.publishEvent(new TransaccionCambioEvent(tipo, transacciones));
+    }
+
+    /**
+     * Publishes a change event that also carries the previous state of the transactions.
+     *
+     * @param tipo          Kind of change (ACTUALIZADA or ELIMINADA)
+     * @param transacciones Affected transactions as DTOs
+     * @param anteriores    The same transactions before this database transaction changed them
+     */
+    private void publicar(TipoCambio tipo, List<TransaccionDTO> transacciones, List<TransaccionDTO> anteriores) {
+        eventPublisher.publishEvent(new TransaccionCambioEvent(tipo, transacciones, anteriores));
+    }
+
+    /**
+     * Publishes a PAGADA event for the transactions paid in the current transaction.
+     *
+     * @param pagadas Paid transactions
+     */
+    private void publicarPagadas(List<Transaccion> pagadas) {
+        enviarEscrituras(pagadas.size());
+        publicar(TipoCambio.PAGADA, pagadas.stream().map(this::toDTO).collect(Collectors.toList()));
+    }
+
+    /**
+     * Sends the pending writes of the current transaction to the database, so DTOs built afterwards carry the
+     * change sequence number stamped on flush as their version.
+     *
+     * @param filas Number of rows written, recorded with the repository event
+     */
+    private void enviarEscrituras(int filas) {
+        RepositorioEvent.medir("flush", transaccionRepository::flush, filas);
     }
 
     /**
@@ -190,6 +720,7 @@ public class TransaccionService {
         dto.setFecha(t.getFecha());
         dto.setValor(t.getValor());
         dto.setEstado(t.getEstado());
+        dto.setVersion(t.getCambioSeq());
         return dto;
     }
 }
@@ -0,0 +1,86 @@
+package com.transaction.service;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into one (single flight).
+ * <p>
+ * The first caller runs the call; callers arriving with the same key while it is in flight wait for it
+ * and receive the same result or exception. The key is removed before the result is published, so
+ * a call starting after completion always runs again: nothing is cached. Results are shared between
+ * callers and must not be modified. Thread-safe.
+ *
+ * @param <K> Key type, with value-based equals and hashCode
+ * @param <V> Result type
+ */
+public final class VueloUnico<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> enVuelo = new ConcurrentHashMap<>();
+    private final Counter ejecutadas;
+    private final Counter coalescidas;
+
+    /**
+     * @param ejecutadas  Counter of calls actually run
+     * @param coalescidas Counter of calls served by a call already in flight
+     */
+    public VueloUnico(Counter ejecutadas, Counter coalescidas) {
+        this.ejecutadas = ejecutadas;
+        this.coalescidas = coalescidas;
+    }
+
+    /**
+     * Runs the call, or joins the one in flight with the same key.
+     *
+     * @param clave   Key identifying equivalent calls
+     * @param llamada Call to run if none is in flight
+     * @return The result of the call
+     */
+    public V ejecutar(K clave, Supplier<V> llamada) {
+        CompletableFuture<V> propio = new CompletableFuture<>();
+        CompletableFuture<V> existente = enVuelo.putIfAbsent(clave, propio);
+        if (existente != null) {
+            coalescidas.increment();
+            return esperar(existente);
+        }
+        ejecutadas.increment();
+        try {
+            V resultado = llamada.get();
+            enVuelo.remove(clave, propio);
+            propio.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            enVuelo.remove(clave, propio);
+            propio.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of calls in flight.
+     *
+     * @return Distinct keys being run
+     */
+    public int getEnVuelo() {
+        return enVuelo.size();
+    }
+
+    private static <V> V esperar(CompletableFuture<V> vuelo) {
+        try {
+            return vuelo.join();
+        } catch (CompletionException e) {
+            // Se relanza la excepción original para que el llamador la vea igual que quien ejecutó
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
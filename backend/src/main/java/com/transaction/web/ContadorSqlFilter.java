@@ -0,0 +1,142 @@
+package com.transaction.web;
+
+import com.transaction.config.MedicionSql;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter that measures the SQL issued by each API request.
+ * <p>
+ * Every request under /api/ records the number of statements, rows and database time in the
+ * {@code transacciones.sql.*} metrics, tagged with the HTTP method and the route pattern. With
+ * {@code transacciones.sql.cabeceras=true} (development) the same figures are returned in the
+ * {@value #CABECERA_SENTENCIAS}, {@value #CABECERA_FILAS}, {@value #CABECERA_TIEMPO} and
+ * {@value #CABECERA_DETALLE} response headers. Only statements run on the request thread are counted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "transacciones.sql.contador.enabled", havingValue = "true", matchIfMissing = true)
+public class ContadorSqlFilter extends OncePerRequestFilter {
+    public static final String CABECERA_SENTENCIAS = "X-Sql-Sentencias";
+    public static final String CABECERA_FILAS = "X-Sql-Filas";
+    public static final String CABECERA_TIEMPO = "X-Sql-Tiempo-Ms";
+    public static final String CABECERA_DETALLE = "X-Sql-Detalle";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean cabeceras;
+
+    public ContadorSqlFilter(MeterRegistry meterRegistry,
+                             @Value("${transacciones.sql.cabeceras:false}") boolean cabeceras) {
+        this.meterRegistry = meterRegistry;
+        this.cabeceras = cabeceras;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MedicionSql medicion = MedicionSql.iniciar();
+        RespuestaConCabeceras conCabeceras = cabeceras ? new RespuestaConCabeceras(response, medicion) : null;
+        try {
+            filterChain.doFilter(request, conCabeceras != null ? conCabeceras : response);
+        } finally {
+            MedicionSql.finalizar();
+            if (conCabeceras != null) {
+                // Respuestas sin cuerpo: la respuesta aún no se envió
+                conCabeceras.escribirCabeceras();
+            }
+            registrar(request, medicion);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    private void registrar(HttpServletRequest request, MedicionSql medicion) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("metodo", request.getMethod(), "ruta", patron != null ? patron.toString() : "desconocida");
+        DistributionSummary.builder("transacciones.sql.sentencias").tags(tags)
+                .description("Sentencias SQL por petición").register(meterRegistry)
+                .record(medicion.getSentencias());
+        DistributionSummary.builder("transacciones.sql.filas").tags(tags)
+                .description("Filas leídas o modificadas por petición").register(meterRegistry)
+                .record(medicion.getFilas());
+        Timer.builder("transacciones.sql.tiempo").tags(tags)
+                .description("Tiempo en la base de datos por petición").register(meterRegistry)
+                .record(medicion.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Response that adds the SQL headers right before the body starts, while they can still be set.
+     */
+    private static class RespuestaConCabeceras extends HttpServletResponseWrapper {
+        private final MedicionSql medicion;
+        private boolean escritas;
+
+        RespuestaConCabeceras(HttpServletResponse response, MedicionSql medicion) {
+            super(response);
+            this.medicion = medicion;
+        }
+
+        void escribirCabeceras() {
+            if (escritas || isCommitted()) {
+                return;
+            }
+            escritas = true;
+            setHeader(CABECERA_SENTENCIAS, Integer.toString(medicion.getSentencias()));
+            setHeader(CABECERA_FILAS, Long.toString(medicion.getFilas()));
+            setHeader(CABECERA_TIEMPO, Long.toString(TimeUnit.NANOSECONDS.toMillis(medicion.getNanos())));
+            setHeader(CABECERA_DETALLE, medicion.getDetalle());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            escribirCabeceras();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            escribirCabeceras();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            escribirCabeceras();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            escribirCabeceras();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            escribirCabeceras();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.transaction.web;
+
+import com.transaction.config.RutaDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Filter that gives clients read-your-writes consistency while reads are served by a replica.
+ * <p>
+ * Every write request sets a short-lived cookie. While the cookie is alive, the client's requests read
+ * from the primary, so they see their own writes even if the replica has not caught up yet. The window
+ * should exceed the usual replication lag ({@code transacciones.replica.lectura-propia-segundos}).
+ * Clients that do not keep cookies can send the {@value #CABECERA_PRIMARIA} header instead.
+ */
+@Component
+@ConditionalOnProperty(name = "transacciones.replica.enabled", havingValue = "true")
+public class LecturaPropiaFilter extends OncePerRequestFilter {
+    public static final String COOKIE = "lectura-primaria";
+    public static final String CABECERA_PRIMARIA = "X-Lectura-Primaria";
+
+    private static final Set<String> METODOS_ESCRITURA = Set.of(
+            HttpMethod.POST.name(), HttpMethod.PUT.name(), HttpMethod.PATCH.name(), HttpMethod.DELETE.name());
+
+    private final Duration ventana;
+
+    public LecturaPropiaFilter(@Value("${transacciones.replica.lectura-propia-segundos:5}") long ventanaSegundos) {
+        this.ventana = Duration.ofSeconds(ventanaSegundos);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (METODOS_ESCRITURA.contains(request.getMethod())) {
+            // La cookie se agrega antes de procesar la petición porque después la respuesta ya puede estar enviada
+            response.addHeader("Set-Cookie", ResponseCookie.from(COOKIE, "1")
+                    .path("/api")
+                    .maxAge(ventana)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+        RutaDataSource.forzarPrimaria(leePrimaria(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RutaDataSource.forzarPrimaria(false);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    private static boolean leePrimaria(HttpServletRequest request) {
+        if (Boolean.parseBoolean(request.getHeader(CABECERA_PRIMARIA))) {
+            return true;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE.equals(cookie.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
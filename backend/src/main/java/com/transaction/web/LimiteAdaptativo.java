@@ -0,0 +1,77 @@
+package com.transaction.web;
+
+/**
+ * Concurrency limit that adapts to observed latency with AIMD (additive increase, multiplicative decrease).
+ * <p>
+ * A request may start only while fewer than {@link #getLimite()} requests are in flight. When a request
+ * completes within the target latency and the limit is actually being used (at least half of it in
+ * flight), the limit grows by one; when it is slower than the target or failed from overload, the limit
+ * is multiplied by the reduction factor. Reductions are applied at most once per target latency, so a
+ * burst of slow completions caused by the same congestion shrinks the limit only once.
+ */
+class LimiteAdaptativo {
+    private final int minimo;
+    private final int maximo;
+    private final long objetivoNanos;
+    private final double factorReduccion;
+    private double limite;
+    private int enVuelo;
+    private long ultimaReduccion;
+
+    /**
+     * @param inicial         Initial limit
+     * @param minimo          Lowest limit, kept even under sustained overload
+     * @param maximo          Highest limit
+     * @param objetivoNanos   Target latency; slower completions reduce the limit
+     * @param factorReduccion Multiplier applied on reduction, between 0 and 1
+     */
+    LimiteAdaptativo(int inicial, int minimo, int maximo, long objetivoNanos, double factorReduccion) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.objetivoNanos = objetivoNanos;
+        this.factorReduccion = factorReduccion;
+        this.limite = Math.max(minimo, Math.min(maximo, inicial));
+        this.ultimaReduccion = System.nanoTime() - objetivoNanos;
+    }
+
+    /**
+     * Tries to start a request.
+     *
+     * @return true if the request may proceed; it must then call {@link #liberar}
+     */
+    synchronized boolean adquirir() {
+        if (enVuelo >= (int) limite) {
+            return false;
+        }
+        enVuelo++;
+        return true;
+    }
+
+    /**
+     * Records the completion of a request started with {@link #adquirir()} and adapts the limit.
+     *
+     * @param duracionNanos How long the request took
+     * @param sobrecarga    True if it failed in a way that signals overload (e.g., a 5xx response)
+     */
+    synchronized void liberar(long duracionNanos, boolean sobrecarga) {
+        int simultaneas = enVuelo;
+        enVuelo--;
+        long ahora = System.nanoTime();
+        if (sobrecarga || duracionNanos > objetivoNanos) {
+            if (ahora - ultimaReduccion >= objetivoNanos) {
+                limite = Math.max(minimo, limite * factorReduccion);
+                ultimaReduccion = ahora;
+            }
+        } else if (simultaneas * 2 >= (int) limite) {
+            limite = Math.min(maximo, limite + 1);
+        }
+    }
+
+    synchronized int getLimite() {
+        return (int) limite;
+    }
+
+    synchronized int getEnVuelo() {
+        return enVuelo;
+    }
+}
@@ -0,0 +1,133 @@
+package com.transaction.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter that sheds write requests when they stop completing within the target latency.
+ * <p>
+ * Writes go through a {@link LimiteAdaptativo}: when the database slows down, the limit shrinks and the excess
+ * is answered at once with 503 and {@code Retry-After} instead of queuing on Tomcat threads and database
+ * connections, which keeps reads responsive. Payments and CSV imports take far longer than the target
+ * latency by design, so they would shrink that limit on every completion; they go through a second
+ * {@link LimiteAdaptativo} with a latency target of their own ({@code largas.*}). Reads are never limited. Disabled with
+ * {@code transacciones.limite.concurrencia.enabled=false}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "transacciones.limite.concurrencia.enabled", havingValue = "true", matchIfMissing = true)
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+    private static final Set<String> METODOS_ESCRITURA = Set.of(
+            HttpMethod.POST.name(), HttpMethod.PUT.name(), HttpMethod.PATCH.name(), HttpMethod.DELETE.name());
+    private static final String PAGAR = "/api/transacciones/pagar";
+    private static final String IMPORTACIONES = "/api/transacciones/importaciones";
+
+    private final LimiteAdaptativo limite;
+    private final LimiteAdaptativo largas;
+    private final ObjectMapper objectMapper;
+    private final Counter rechazos;
+    private final Counter rechazosLargas;
+
+    public LimiteConcurrenciaFilter(ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${transacciones.limite.concurrencia.inicial:20}") int inicial,
+                                    @Value("${transacciones.limite.concurrencia.minimo:2}") int minimo,
+                                    @Value("${transacciones.limite.concurrencia.maximo:200}") int maximo,
+                                    @Value("${transacciones.limite.concurrencia.latencia-objetivo-ms:200}") long latenciaObjetivoMs,
+                                    @Value("${transacciones.limite.concurrencia.factor-reduccion:0.9}") double factorReduccion,
+                                    @Value("${transacciones.limite.concurrencia.largas.inicial:4}") int largasInicial,
+                                    @Value("${transacciones.limite.concurrencia.largas.minimo:1}") int largasMinimo,
+                                    @Value("${transacciones.limite.concurrencia.largas.maximo:16}") int largasMaximo,
+                                    @Value("${transacciones.limite.concurrencia.largas.latencia-objetivo-ms:1000}") long largasLatenciaObjetivoMs) {
+        this.objectMapper = objectMapper;
+        this.limite = new LimiteAdaptativo(inicial, minimo, maximo, TimeUnit.MILLISECONDS.toNanos(latenciaObjetivoMs), factorReduccion);
+        this.largas = new LimiteAdaptativo(largasInicial, largasMinimo, largasMaximo,
+                TimeUnit.MILLISECONDS.toNanos(largasLatenciaObjetivoMs), factorReduccion);
+        this.rechazos = Counter.builder("transacciones.limite.rechazos").tag("motivo", "concurrencia")
+                .description("Peticiones rechazadas por los limitadores").register(meterRegistry);
+        this.rechazosLargas = Counter.builder("transacciones.limite.rechazos").tag("motivo", "largas")
+                .description("Peticiones rechazadas por los limitadores").register(meterRegistry);
+        Gauge.builder("transacciones.limite.concurrencia", limite, LimiteAdaptativo::getLimite)
+                .description("Límite actual de escrituras simultáneas").register(meterRegistry);
+        Gauge.builder("transacciones.limite.en-vuelo", limite, LimiteAdaptativo::getEnVuelo)
+                .description("Escrituras en curso").register(meterRegistry);
+        Gauge.builder("transacciones.limite.concurrencia.largas", largas, LimiteAdaptativo::getLimite)
+                .description("Límite actual de pagos e importaciones simultáneos").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (esLarga(request)) {
+            filtrar(largas, rechazosLargas, request, response, filterChain);
+        } else {
+            filtrar(limite, rechazos, request, response, filterChain);
+        }
+    }
+
+    private void filtrar(LimiteAdaptativo limitador, Counter contador, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!limitador.adquirir()) {
+            rechazar(response, contador);
+            return;
+        }
+        long inicio = System.nanoTime();
+        boolean sobrecarga = true;
+        try {
+            filterChain.doFilter(request, response);
+            sobrecarga = response.getStatus() >= 500;
+        } finally {
+            limitador.liberar(System.nanoTime() - inicio, sobrecarga);
+        }
+    }
+
+    private void rechazar(HttpServletResponse response, Counter contador) throws IOException {
+        contador.increment();
+        RespuestasLimite.rechazar(response, objectMapper, HttpStatus.SERVICE_UNAVAILABLE,
+                "El servidor está sobrecargado, intente nuevamente en unos segundos", 1);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !esEscritura(request);
+    }
+
+    /**
+     * Indicates whether a request is a write to the transactions API.
+     *
+     * @param request HTTP request
+     * @return true for POST, PUT, PATCH and DELETE under /api/transacciones
+     */
+    static boolean esEscritura(HttpServletRequest request) {
+        return METODOS_ESCRITURA.contains(request.getMethod()) && request.getRequestURI().startsWith("/api/transacciones");
+    }
+
+    /**
+     * Indicates whether a write is expected to outlast the target latency: payments and CSV imports.
+     *
+     * @param request HTTP write request
+     * @return true for the payment endpoint and imports
+     */
+    static boolean esLarga(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.equals(PAGAR) || uri.startsWith(IMPORTACIONES);
+    }
+}
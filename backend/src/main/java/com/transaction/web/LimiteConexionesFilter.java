@@ -0,0 +1,119 @@
+package com.transaction.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter that bounds the API requests executing at once to the connections the pool can give them.
+ * <p>
+ * With virtual threads ({@code spring.threads.virtual.enabled=true}, Java 21) Tomcat no longer caps the
+ * number of concurrent requests, so thousands of them would queue inside Hikari and fail together when
+ * its connection timeout expires. Here they wait on a fair semaphore instead, for at most
+ * {@code transacciones.virtual.espera-ms}, and are answered with 503 and {@code Retry-After} beyond that.
+ * Waiting costs nothing on a virtual thread, so the wait can be much longer than a platform thread
+ * could afford. Asynchronous requests (SSE) release their permit when the handler returns.
+ * <p>
+ * Unless {@code transacciones.virtual.permisos} is set, the permits are the pool size minus the connections
+ * that background threads may hold at the same time, one each: the change sequence publisher, the outbox
+ * dispatcher, the ingestion writer, the pending queue snapshot writer, the asynchronous payment threads and,
+ * when enabled, the local replica copier. The statistics sketch writer only writes files.
+ * {@code GET /api/transacciones/cambios} holds two connections at once (its transaction and the visible
+ * limit, read in a transaction of its own), so it takes two permits; every other request path uses its
+ * connections one after another.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class LimiteConexionesFilter extends OncePerRequestFilter {
+    private static final String CAMBIOS = "/api/transacciones/cambios";
+    private static final int HILOS_SEGUNDO_PLANO = 4;
+
+    private final ObjectMapper objectMapper;
+    private final Semaphore permisos;
+    private final long esperaNanos;
+    private final Counter rechazos;
+
+    @Autowired
+    public LimiteConexionesFilter(ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanoPool,
+                                  @Value("${transacciones.pagos.async.pool-size:1}") int hilosPagos,
+                                  @Value("${transacciones.replica.copia.enabled:false}") boolean copiaReplica,
+                                  @Value("${transacciones.virtual.permisos:0}") int permisos,
+                                  @Value("${transacciones.virtual.espera-ms:5000}") long esperaMs) {
+        this(objectMapper, meterRegistry, permisos > 0 ? permisos : permisosPorDefecto(tamanoPool, hilosPagos, copiaReplica), esperaMs);
+        log.info("Peticiones simultáneas a /api/**: {} de un pool de {} conexiones", this.permisos.availablePermits(), tamanoPool);
+    }
+
+    LimiteConexionesFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry, int permisos, long esperaMs) {
+        this.objectMapper = objectMapper;
+        this.permisos = new Semaphore(permisos, true);
+        this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMs);
+        this.rechazos = Counter.builder("transacciones.limite.rechazos").tag("motivo", "conexiones")
+                .description("Peticiones rechazadas por los limitadores").register(meterRegistry);
+        Gauge.builder("transacciones.virtual.esperando", this.permisos, Semaphore::getQueueLength)
+                .description("Peticiones esperando un permiso de conexión").register(meterRegistry);
+    }
+
+    /**
+     * Connections of the pool left for requests once every background thread holds one.
+     *
+     * @param tamanoPool   Maximum size of the connection pool
+     * @param hilosPagos   Threads of the asynchronous payments
+     * @param copiaReplica Whether the local replica copier runs
+     * @return Permits for requests, at least the two that {@code /cambios} needs
+     */
+    static int permisosPorDefecto(int tamanoPool, int hilosPagos, boolean copiaReplica) {
+        int segundoPlano = HILOS_SEGUNDO_PLANO + hilosPagos + (copiaReplica ? 1 : 0);
+        return Math.max(2, tamanoPool - segundoPlano);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int necesarios = request.getRequestURI().equals(CAMBIOS) ? 2 : 1;
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(necesarios, esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            adquirido = false;
+        }
+        if (!adquirido) {
+            rechazos.increment();
+            RespuestasLimite.rechazar(response, objectMapper, HttpStatus.SERVICE_UNAVAILABLE,
+                    "El servidor está sobrecargado, intente nuevamente en unos segundos", 1);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permisos.release(necesarios);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+}
@@ -0,0 +1,207 @@
+package com.transaction.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter that limits the rate of write requests per client with a token bucket.
+ * <p>
+ * Each client (identified by its remote address) may send {@code tasa-por-segundo} writes per second on average, with bursts of up to
+ * {@code rafaga}. Excess requests get 429 with a {@code Retry-After} for the next token. Runs before
+ * {@link LimiteConcurrenciaFilter}, so a single client cannot use up the shared concurrency limit.
+ * <p>
+ * Behind proxies, {@code cabecera-cliente} (e.g. {@code X-Forwarded-For}) names the header with the chain of
+ * addresses, but it is only honored when the request comes from one of {@code proxies-confiables} (addresses
+ * or CIDR ranges): the chain is read from the right, skipping trusted proxies, and the first other address
+ * is the client. Anything a client writes to the left of that cannot change its key.
+ * Enabled with {@code transacciones.limite.tasa.enabled=true}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "transacciones.limite.tasa.enabled", havingValue = "true")
+public class LimiteTasaFilter extends OncePerRequestFilter {
+    private final ObjectMapper objectMapper;
+    private final double tokensPorNano;
+    private final double rafaga;
+    private final String cabeceraCliente;
+    private final List<Red> proxiesConfiables;
+    private final int maxClientes;
+    private final Map<String, CuboTokens> cubos = new ConcurrentHashMap<>();
+    private final Counter rechazos;
+
+    public LimiteTasaFilter(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${transacciones.limite.tasa.tasa-por-segundo:20}") double tasaPorSegundo,
+                            @Value("${transacciones.limite.tasa.rafaga:40}") double rafaga,
+                            @Value("${transacciones.limite.tasa.cabecera-cliente:}") String cabeceraCliente,
+                            @Value("${transacciones.limite.tasa.proxies-confiables:}") List<String> proxiesConfiables,
+                            @Value("${transacciones.limite.tasa.max-clientes:10000}") int maxClientes) {
+        this.objectMapper = objectMapper;
+        this.tokensPorNano = tasaPorSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.rafaga = rafaga;
+        this.cabeceraCliente = cabeceraCliente;
+        this.proxiesConfiables = proxiesConfiables.stream().filter(p -> !p.isBlank()).map(Red::de).toList();
+        this.maxClientes = maxClientes;
+        this.rechazos = Counter.builder("transacciones.limite.rechazos").tag("motivo", "tasa")
+                .description("Peticiones rechazadas por los limitadores").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long ahora = System.nanoTime();
+        if (cubos.size() >= maxClientes) {
+            // Los cubos llenos equivalen a uno nuevo, se pueden descartar sin cambiar el comportamiento
+            cubos.values().removeIf(cubo -> cubo.lleno(ahora));
+        }
+        CuboTokens cubo = cubos.computeIfAbsent(cliente(request), c -> new CuboTokens(rafaga, ahora));
+        long esperaNanos = cubo.consumir(ahora);
+        if (esperaNanos > 0) {
+            rechazos.increment();
+            RespuestasLimite.rechazar(response, objectMapper, HttpStatus.TOO_MANY_REQUESTS,
+                    "Demasiadas peticiones, intente nuevamente más tarde",
+                    Math.max(1, (long) Math.ceil(esperaNanos / 1e9)));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !LimiteConcurrenciaFilter.esEscritura(request);
+    }
+
+    private String cliente(HttpServletRequest request) {
+        String cliente = request.getRemoteAddr();
+        if (cabeceraCliente.isEmpty() || !confiable(cliente)) {
+            return cliente;
+        }
+        // De derecha a izquierda: cada proxy confiable añadió la dirección de quien le envió la petición
+        List<String> cadena = new ArrayList<>();
+        for (Enumeration<String> valores = request.getHeaders(cabeceraCliente); valores.hasMoreElements(); ) {
+            for (String direccion : valores.nextElement().split(",")) {
+                if (!direccion.isBlank()) {
+                    cadena.add(direccion.trim());
+                }
+            }
+        }
+        for (int i = cadena.size() - 1; i >= 0 && confiable(cliente); i--) {
+            cliente = cadena.get(i);
+        }
+        return cliente;
+    }
+
+    private boolean confiable(String direccion) {
+        return proxiesConfiables.stream().anyMatch(red -> red.contiene(direccion));
+    }
+
+    /**
+     * Address range of trusted proxies, from an address or a CIDR block.
+     *
+     * @param direccion Network address
+     * @param prefijo   Leading bits that must match
+     */
+    private record Red(byte[] direccion, int prefijo) {
+
+        static Red de(String texto) {
+            String[] partes = texto.trim().split("/");
+            byte[] direccion = bytes(partes[0]);
+            if (direccion == null) {
+                throw new IllegalArgumentException("Proxy confiable no válido: " + texto);
+            }
+            return new Red(direccion, partes.length > 1 ? Integer.parseInt(partes[1]) : direccion.length * 8);
+        }
+
+        boolean contiene(String texto) {
+            byte[] otra = bytes(texto);
+            if (otra == null || otra.length != direccion.length) {
+                return false;
+            }
+            for (int bit = 0; bit < prefijo; bit++) {
+                int mascara = 0x80 >>> (bit % 8);
+                if ((direccion[bit / 8] & mascara) != (otra[bit / 8] & mascara)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Parses a literal IPv4 or IPv6 address without resolving names.
+         *
+         * @return Address bytes, or null if it is not a literal address
+         */
+        private static byte[] bytes(String texto) {
+            String literal = texto.trim();
+            if (literal.isEmpty() || !(literal.contains(":") || literal.chars().allMatch(c -> c == '.' || Character.isDigit(c)))) {
+                return null;
+            }
+            try {
+                return InetAddress.getByName(literal).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Token bucket of one client, refilled lazily on each request.
+     */
+    private final class CuboTokens {
+        private double tokens;
+        private long actualizado;
+
+        CuboTokens(double tokens, long ahora) {
+            this.tokens = tokens;
+            this.actualizado = ahora;
+        }
+
+        /**
+         * Takes a token if available.
+         *
+         * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+         */
+        synchronized long consumir(long ahora) {
+            recargar(ahora);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPorNano);
+        }
+
+        synchronized boolean lleno(long ahora) {
+            recargar(ahora);
+            return tokens >= rafaga;
+        }
+
+        private void recargar(long ahora) {
+            if (ahora > actualizado) {
+                tokens = Math.min(rafaga, tokens + (ahora - actualizado) * tokensPorNano);
+                actualizado = ahora;
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.transaction.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filter that reports the time to first successful request.
+ * <p>
+ * Logs, once, the JVM uptime when the first request completes with a non-error status. This is the
+ * cold-start latency that matters when scaling out, as it includes everything initialized lazily.
+ */
+@Slf4j
+@Component
+public class PrimeraPeticionFilter extends OncePerRequestFilter {
+    private final AtomicBoolean reportada = new AtomicBoolean();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        if (response.getStatus() < 400 && reportada.compareAndSet(false, true)) {
+            log.info("Primera petición exitosa ({} {}) a los {} ms del inicio de la JVM",
+                    request.getMethod(), request.getRequestURI(), ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return reportada.get();
+    }
+}
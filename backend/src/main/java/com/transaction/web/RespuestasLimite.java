@@ -0,0 +1,39 @@
+package com.transaction.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.exception.ErrorResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes the error responses of the load-shedding filters, with the same {@link ErrorResponse} body as GlobalExceptionHandler.
+ */
+final class RespuestasLimite {
+
+    private RespuestasLimite() {
+    }
+
+    /**
+     * Rejects a request before it reaches the controllers.
+     *
+     * @param response          Response to write
+     * @param objectMapper      Mapper for the error body
+     * @param estado            503 or 429
+     * @param mensaje           Message for the client
+     * @param reintentarSegundos Value of the Retry-After header
+     */
+    static void rechazar(HttpServletResponse response, ObjectMapper objectMapper, HttpStatus estado,
+                         String mensaje, long reintentarSegundos) throws IOException {
+        response.setStatus(estado.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(reintentarSegundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                LocalDateTime.now(), estado.value(), estado.getReasonPhrase(), mensaje, null));
+    }
+}
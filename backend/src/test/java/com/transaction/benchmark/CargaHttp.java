@@ -0,0 +1,233 @@
+package com.transaction.benchmark;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load generator for the transactions API.
+ * <p>
+ * Each thread sends requests back to back for the given duration, picking the operation from a weighted
+ * mix, and the run ends with throughput, latency percentiles and status codes per operation. Run against
+ * a running backend with:
+ * {@code mvn -pl backend -am -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.transaction.benchmark.CargaHttp
+ * -Dbenchmark="--url http://localhost:8080 --hilos 16 --duracion 30 --mezcla listar=80,obtener=10,crear=10"}
+ * <p>
+ * Options: {@code --url} (several, comma-separated, to spread the threads over instances), {@code --hilos}, {@code --duracion} (seconds), {@code --mezcla} (operation=weight
+ * among listar, obtener, crear, pagar), {@code --cookies}, which gives every thread its own cookie jar
+ * so that it behaves as an independent client, and {@code --respetar-retry-after}, which makes a thread wait
+ * the {@code Retry-After} of a 429 or 503 before its next request, as a well-behaved client would.
+ */
+public class CargaHttp {
+    private static final List<String> OPERACIONES = List.of("listar", "obtener", "crear", "pagar");
+
+    private final List<String> urls;
+    private final int hilos;
+    private final Duration duracion;
+    private final Map<String, Integer> mezcla;
+    private final boolean cookies;
+    private final boolean respetarRetryAfter;
+
+    public CargaHttp(String url, int hilos, Duration duracion, Map<String, Integer> mezcla, boolean cookies) {
+        this(url, hilos, duracion, mezcla, cookies, false);
+    }
+
+    public CargaHttp(String url, int hilos, Duration duracion, Map<String, Integer> mezcla, boolean cookies,
+                     boolean respetarRetryAfter) {
+        this.urls = List.of(url.split(","));
+        this.hilos = hilos;
+        this.duracion = duracion;
+        this.mezcla = mezcla;
+        this.cookies = cookies;
+        this.respetarRetryAfter = respetarRetryAfter;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> opciones = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--cookies") || args[i].equals("--respetar-retry-after")) {
+                opciones.put(args[i].substring(2), "true");
+            } else if (args[i].startsWith("--") && i + 1 < args.length) {
+                opciones.put(args[i].substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Opción no reconocida: " + args[i]);
+            }
+        }
+        Map<String, Integer> mezcla = new LinkedHashMap<>();
+        for (String parte : opciones.getOrDefault("mezcla", "listar=90,crear=10").split(",")) {
+            String[] clavePeso = parte.split("=");
+            if (!OPERACIONES.contains(clavePeso[0])) {
+                throw new IllegalArgumentException("Operación desconocida: " + clavePeso[0]);
+            }
+            mezcla.put(clavePeso[0], Integer.parseInt(clavePeso[1]));
+        }
+        CargaHttp carga = new CargaHttp(
+                opciones.getOrDefault("url", "http://localhost:8080"),
+                Integer.parseInt(opciones.getOrDefault("hilos", "16")),
+                Duration.ofSeconds(Long.parseLong(opciones.getOrDefault("duracion", "30"))),
+                mezcla,
+                opciones.containsKey("cookies"),
+                opciones.containsKey("respetar-retry-after"));
+        carga.ejecutar().forEach((operacion, estadisticas) -> System.out.println(estadisticas.resumen(operacion, carga.duracion)));
+    }
+
+    /**
+     * Runs the load and returns the merged statistics per operation.
+     *
+     * @return Statistics per operation, in mix order
+     */
+    public Map<String, Estadisticas> ejecutar() throws InterruptedException {
+        HttpClient compartido = HttpClient.newHttpClient();
+        long fin = System.nanoTime() + duracion.toNanos();
+        List<Map<String, Estadisticas>> porHilo = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            Map<String, Estadisticas> propias = new HashMap<>();
+            porHilo.add(propias);
+            HttpClient cliente = cookies ? HttpClient.newBuilder().cookieHandler(new CookieManager()).build() : compartido;
+            String destino = urls.get(h % urls.size());
+            Thread thread = new Thread(() -> cargar(cliente, destino, fin, propias), "carga-" + h);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<String, Estadisticas> total = new LinkedHashMap<>();
+        for (String operacion : mezcla.keySet()) {
+            Estadisticas combinadas = new Estadisticas();
+            porHilo.forEach(m -> combinadas.agregar(m.get(operacion)));
+            total.put(operacion, combinadas);
+        }
+        return total;
+    }
+
+    private void cargar(HttpClient cliente, String url, long fin, Map<String, Estadisticas> estadisticas) {
+        int pesoTotal = mezcla.values().stream().mapToInt(Integer::intValue).sum();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < fin) {
+            int sorteo = random.nextInt(pesoTotal);
+            String operacion = null;
+            for (Map.Entry<String, Integer> e : mezcla.entrySet()) {
+                sorteo -= e.getValue();
+                if (sorteo < 0) {
+                    operacion = e.getKey();
+                    break;
+                }
+            }
+            HttpRequest request = peticion(url, operacion, random);
+            long inicio = System.nanoTime();
+            int status;
+            long esperaSegundos = 0;
+            try {
+                HttpResponse<Void> response = cliente.send(request, HttpResponse.BodyHandlers.discarding());
+                status = response.statusCode();
+                if (respetarRetryAfter && (status == 429 || status == 503)) {
+                    esperaSegundos = response.headers().firstValueAsLong("Retry-After").orElse(0);
+                }
+            } catch (Exception e) {
+                status = -1;
+            }
+            estadisticas.computeIfAbsent(operacion, k -> new Estadisticas()).registrar(status, System.nanoTime() - inicio);
+            if (esperaSegundos > 0) {
+                try {
+                    Thread.sleep(Math.min(esperaSegundos * 1000, Math.max(0, (fin - System.nanoTime()) / 1_000_000)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static HttpRequest peticion(String url, String operacion, ThreadLocalRandom random) {
+        String base = url + "/api/transacciones";
+        return switch (operacion) {
+            case "obtener" -> HttpRequest.newBuilder(URI.create(base + "/" + random.nextInt(1, 1000))).GET().build();
+            case "crear" -> HttpRequest.newBuilder(URI.create(base))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format(Locale.ROOT,
+                            "{\"nombre\":\"carga-%d\",\"fecha\":\"%s\",\"valor\":%d.00}",
+                            random.nextInt(1_000_000), LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)),
+                            random.nextInt(1, 1000))))
+                    .build();
+            case "pagar" -> HttpRequest.newBuilder(URI.create(base + "/pagar?monto=" + random.nextInt(1, 1000)))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            default -> HttpRequest.newBuilder(URI.create(base)).GET().build();
+        };
+    }
+
+    /**
+     * Request count, latencies and status codes of one operation.
+     */
+    public static class Estadisticas {
+        private long[] latencias = new long[1024];
+        private int total;
+        private final Map<Integer, Integer> estados = new TreeMap<>();
+
+        void registrar(int status, long latenciaNanos) {
+            agregarLatencia(latenciaNanos);
+            estados.merge(status, 1, Integer::sum);
+        }
+
+        void agregar(Estadisticas otras) {
+            if (otras == null) {
+                return;
+            }
+            for (int i = 0; i < otras.total; i++) {
+                agregarLatencia(otras.latencias[i]);
+            }
+            otras.estados.forEach((status, n) -> estados.merge(status, n, Integer::sum));
+        }
+
+        private void agregarLatencia(long latenciaNanos) {
+            if (total == latencias.length) {
+                latencias = Arrays.copyOf(latencias, total * 2);
+            }
+            latencias[total++] = latenciaNanos;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<Integer, Integer> getEstados() {
+            return estados;
+        }
+
+        /**
+         * Latency percentile in milliseconds.
+         *
+         * @param p Percentile between 0 and 100
+         * @return The latency, or 0 without samples
+         */
+        public double percentil(double p) {
+            if (total == 0) {
+                return 0;
+            }
+            long[] ordenadas = Arrays.copyOf(latencias, total);
+            Arrays.sort(ordenadas);
+            int indice = (int) Math.ceil(p / 100 * total) - 1;
+            return ordenadas[Math.max(0, Math.min(indice, total - 1))] / 1_000_000.0;
+        }
+
+        String resumen(String operacion, Duration duracion) {
+            return String.format(Locale.ROOT, "%-8s %8d peticiones %9.1f req/s  p50 %7.2f ms  p95 %7.2f ms  p99 %7.2f ms  estados %s",
+                    operacion, total, total / (double) duracion.toSeconds(), percentil(50), percentil(95), percentil(99), estados);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.transaction.benchmark;
+
+import com.transaction.service.DiarioPagos;
+import com.transaction.service.TipoRegistroPago;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the cost of journaling a payment in {@link DiarioPagos}.
+ * <p>
+ * {@code agregar} measures the append alone (the copy into the mapped segment). {@code registrarPago}
+ * also forces the record to disk, as every payment does before committing; with several threads,
+ * concurrent payments share forces (group commit). Run with:
+ * {@code mvn -pl backend -am -Pbenchmark test-compile exec:exec -Dbenchmark="DiarioPagosBenchmark -f 1"}
+ * <p>
+ * Every iteration starts a new journal in {@code java.io.tmpdir}; point it at the production disk with
+ * {@code -Djava.io.tmpdir=...} to measure real fsync latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiarioPagosBenchmark {
+
+    @Param({"1", "50"})
+    private int transaccionesPorPago;
+
+    private Path directorio;
+    private DiarioPagos diario;
+    private List<Long> ids;
+    private final BigDecimal monto = new BigDecimal("1250.00");
+
+    @Setup(Level.Iteration)
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("diario-benchmark");
+        diario = new DiarioPagos(directorio.toString(), 64 * 1024 * 1024);
+        ids = new ArrayList<>(transaccionesPorPago);
+        for (long i = 1; i <= transaccionesPorPago; i++) {
+            ids.add(i);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrar() throws IOException {
+        diario.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(archivo);
+            }
+        }
+    }
+
+    @Benchmark
+    public long agregar() {
+        return diario.agregar(TipoRegistroPago.PAGO, monto, BigDecimal.ZERO, 0, ids);
+    }
+
+    @Benchmark
+    public long registrarPago() {
+        return diario.registrarPago(TipoRegistroPago.PAGO, monto, BigDecimal.ZERO, ids);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long registrarPagoConcurrente() {
+        return diario.registrarPago(TipoRegistroPago.PAGO, monto, BigDecimal.ZERO, ids);
+    }
+}
@@ -0,0 +1,48 @@
+package com.transaction.benchmark;
+
+import com.transaction.jfr.CacheEvent;
+import com.transaction.jfr.RepositorioEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the cost the JFR events add to the service when no recording is running.
+ * <p>
+ * {@code directo} is the baseline call; {@code medido} wraps it in {@link RepositorioEvent#medir} and
+ * {@code cache} emits a {@link CacheEvent}. Without a recording the events are disabled and the
+ * difference should be a few nanoseconds. Run with:
+ * {@code mvn -pl backend -am -Pbenchmark test-compile exec:exec -Dbenchmark="EventosJfrBenchmark -f 1"}
+ * <p>
+ * Adding {@code -jvmArgs -XX:StartFlightRecording} to the JMH arguments measures the cost while recording.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventosJfrBenchmark {
+
+    private final List<Long> filas = List.of(1L, 2L, 3L);
+
+    @Benchmark
+    public List<Long> directo() {
+        return consultar();
+    }
+
+    @Benchmark
+    public List<Long> medido() {
+        return RepositorioEvent.medir("findPendientes", this::consultar, List::size);
+    }
+
+    @Benchmark
+    public void cache() {
+        CacheEvent.registrar("etag-versiones", true);
+    }
+
+    private List<Long> consultar() {
+        return filas;
+    }
+}
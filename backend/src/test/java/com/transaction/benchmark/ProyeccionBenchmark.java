@@ -0,0 +1,146 @@
+package com.transaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EstadoTransaccion;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the list endpoint with and without a sparse fieldset ({@code fields=id,valor,estado}).
+ * <p>
+ * Each invocation reads the whole table from H2 (every column into {@link TransaccionDTO}s, or only the
+ * selected ones into maps, as the service does) and serializes the result to JSON. Names are long, as
+ * in free-text descriptions. The bytes of the response are printed once per trial. Run with:
+ * {@code mvn -pl backend -am -Pbenchmark test-compile exec:exec -Dbenchmark="ProyeccionBenchmark -f 1"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ProyeccionBenchmark {
+    private static final String RELLENO = " - pago de servicios profesionales según contrato marco, factura y orden de compra adjuntas";
+
+    @Param({"100000", "500000"})
+    private int filas;
+
+    @Param({"todos", "id,valor,estado"})
+    private String campos;
+
+    private Connection conexion;
+    private ObjectMapper mapper;
+    private List<String> seleccion;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException, IOException {
+        mapper = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        seleccion = campos.equals("todos") ? null : List.of(campos.split(","));
+        conexion = DriverManager.getConnection("jdbc:h2:mem:proyeccion-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement ddl = conexion.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS transacciones");
+            ddl.execute("CREATE TABLE transacciones (id BIGINT PRIMARY KEY, nombre VARCHAR(255) NOT NULL, fecha DATE NOT NULL,"
+                    + " valor NUMERIC(38, 2) NOT NULL, estado VARCHAR(16) NOT NULL)");
+        }
+        conexion.setAutoCommit(false);
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        try (PreparedStatement insert = conexion.prepareStatement("INSERT INTO transacciones VALUES (?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= filas; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Proveedor " + (id % 5000) + RELLENO);
+                insert.setObject(3, inicio.plusDays(id % 730));
+                insert.setBigDecimal(4, BigDecimal.valueOf(1000 + (id * 37) % 900000, 2));
+                insert.setString(5, id % 3 == 0 ? "PAGADO" : "PENDIENTE");
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        conexion.commit();
+
+        ContadorBytes salida = new ContadorBytes();
+        mapper.writeValue(salida, leer());
+        System.out.printf("%n[%s, %d filas] bytes=%d%n", campos, filas, salida.total);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        try (Statement drop = conexion.createStatement()) {
+            drop.execute("DROP TABLE transacciones");
+        }
+        conexion.close();
+    }
+
+    @Benchmark
+    public long listar() throws SQLException, IOException {
+        ContadorBytes salida = new ContadorBytes();
+        mapper.writeValue(salida, leer());
+        return salida.total;
+    }
+
+    private List<?> leer() throws SQLException {
+        String columnas = seleccion == null ? "id, nombre, fecha, valor, estado" : String.join(", ", seleccion);
+        try (Statement consulta = conexion.createStatement();
+             ResultSet rs = consulta.executeQuery("SELECT " + columnas + " FROM transacciones ORDER BY id")) {
+            if (seleccion == null) {
+                List<TransaccionDTO> resultado = new ArrayList<>(filas);
+                while (rs.next()) {
+                    TransaccionDTO dto = new TransaccionDTO();
+                    dto.setId(rs.getLong(1));
+                    dto.setNombre(rs.getString(2));
+                    dto.setFecha(rs.getObject(3, LocalDate.class));
+                    dto.setValor(rs.getBigDecimal(4));
+                    dto.setEstado(EstadoTransaccion.valueOf(rs.getString(5)));
+                    resultado.add(dto);
+                }
+                return resultado;
+            }
+            List<Map<String, Object>> resultado = new ArrayList<>(filas);
+            while (rs.next()) {
+                Map<String, Object> fila = new LinkedHashMap<>(seleccion.size() * 2);
+                for (int i = 0; i < seleccion.size(); i++) {
+                    fila.put(seleccion.get(i), rs.getObject(i + 1));
+                }
+                resultado.add(fila);
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Output stream that only counts bytes, so the benchmark measures serialization and not buffer growth.
+     */
+    private static final class ContadorBytes extends OutputStream {
+        private long total;
+
+        @Override
+        public void write(int b) {
+            total++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            total += len;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.transaction.benchmark;
+
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.service.TablaColumnar;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the report aggregations over {@link TablaColumnar} against the equivalent SQL on H2.
+ * <p>
+ * Both sides hold the same rows: a {@code transacciones} table with the application's indexes and a
+ * columnar snapshot. Each pair of benchmarks computes the same result (totals by month, top 10 names
+ * by amount, totals by state) over a one-year date range. Run with:
+ * {@code mvn -pl backend -am -Pbenchmark test-compile exec:exec -Dbenchmark="ReporteColumnarBenchmark -f 1"}
+ * <p>
+ * H2 runs in-process, so the SQL side has no network round trip; against a server database the gap is larger.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReporteColumnarBenchmark {
+    private static final LocalDate DESDE = LocalDate.of(2023, 1, 1);
+    private static final LocalDate[] HASTA = {LocalDate.of(2023, 12, 31), LocalDate.of(2023, 12, 30)};
+
+    @Param({"100000", "1000000"})
+    private int filas;
+
+    private Connection conexion;
+    private TablaColumnar tabla;
+    private int llamadas;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        conexion = DriverManager.getConnection("jdbc:h2:mem:reporte-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement ddl = conexion.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS transacciones");
+            ddl.execute("CREATE TABLE transacciones (id BIGINT PRIMARY KEY, nombre VARCHAR(255) NOT NULL, fecha DATE NOT NULL,"
+                    + " valor NUMERIC(38, 2) NOT NULL, estado VARCHAR(16) NOT NULL, cambio_seq BIGINT)");
+            ddl.execute("CREATE INDEX idx_transacciones_fecha ON transacciones (fecha, id)");
+            ddl.execute("CREATE INDEX idx_transacciones_estado_fecha ON transacciones (estado, fecha, id)");
+        }
+        tabla = new TablaColumnar(filas);
+        Random random = new Random(42);
+        LocalDate inicio = LocalDate.of(2021, 1, 1);
+        conexion.setAutoCommit(false);
+        try (PreparedStatement insert = conexion.prepareStatement("INSERT INTO transacciones VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= filas; id++) {
+                String nombre = "Proveedor " + random.nextInt(5_000);
+                LocalDate fecha = inicio.plusDays(random.nextInt(4 * 365));
+                BigDecimal valor = BigDecimal.valueOf(random.nextInt(1_000_000) + 1, 2);
+                EstadoTransaccion estado = random.nextInt(3) == 0 ? EstadoTransaccion.PENDIENTE : EstadoTransaccion.PAGADO;
+                insert.setLong(1, id);
+                insert.setString(2, nombre);
+                insert.setObject(3, fecha);
+                insert.setBigDecimal(4, valor);
+                insert.setString(5, estado.name());
+                insert.setLong(6, id);
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+                tabla.actualizar(id, nombre, fecha, valor, estado, id);
+            }
+            insert.executeBatch();
+        }
+        conexion.commit();
+        try (Statement analyze = conexion.createStatement()) {
+            analyze.execute("ANALYZE");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        try (Statement drop = conexion.createStatement()) {
+            drop.execute("DROP TABLE transacciones");
+        }
+        conexion.close();
+    }
+
+    @Benchmark
+    public Object columnarMeses() {
+        return tabla.totalesPorMes(DESDE, hasta());
+    }
+
+    @Benchmark
+    public void sqlMeses(Blackhole blackhole) throws SQLException {
+        consultar(blackhole, "SELECT YEAR(fecha), MONTH(fecha), COUNT(*),"
+                + " SUM(CASE WHEN estado = 'PAGADO' THEN valor ELSE 0 END),"
+                + " SUM(CASE WHEN estado = 'PENDIENTE' THEN valor ELSE 0 END)"
+                + " FROM transacciones WHERE fecha BETWEEN ? AND ? GROUP BY YEAR(fecha), MONTH(fecha) ORDER BY 1, 2");
+    }
+
+    @Benchmark
+    public Object columnarTopNombres() {
+        return tabla.topNombres(DESDE, hasta(), 10);
+    }
+
+    @Benchmark
+    public void sqlTopNombres(Blackhole blackhole) throws SQLException {
+        consultar(blackhole, "SELECT nombre, COUNT(*), SUM(valor) AS total FROM transacciones"
+                + " WHERE fecha BETWEEN ? AND ? GROUP BY nombre ORDER BY total DESC, nombre LIMIT 10");
+    }
+
+    @Benchmark
+    public Object columnarEstados() {
+        return tabla.totalesPorEstado(DESDE, hasta());
+    }
+
+    @Benchmark
+    public void sqlEstados(Blackhole blackhole) throws SQLException {
+        consultar(blackhole, "SELECT estado, COUNT(*), SUM(valor) FROM transacciones WHERE fecha BETWEEN ? AND ? GROUP BY estado");
+    }
+
+    /**
+     * Alternates the end of the range: H2 reuses the result of a query repeated with the same
+     * parameters while the table does not change, which would skip the scan.
+     */
+    private LocalDate hasta() {
+        return HASTA[llamadas++ & 1];
+    }
+
+    private void consultar(Blackhole blackhole, String sql) throws SQLException {
+        try (PreparedStatement consulta = conexion.prepareStatement(sql)) {
+            consulta.setObject(1, DESDE);
+            consulta.setObject(2, hasta());
+            try (ResultSet rs = consulta.executeQuery()) {
+                int columnas = rs.getMetaData().getColumnCount();
+                while (rs.next()) {
+                    for (int i = 1; i <= columnas; i++) {
+                        blackhole.consume(rs.getObject(i));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.transaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EstadoTransaccion;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark of list response serialization in each supported format.
+ * <p>
+ * Measures the time to serialize {@code List<TransaccionDTO>} and prints, once per trial, the bytes on
+ * the wire with and without gzip. Run with:
+ * {@code mvn -pl backend -am -Pbenchmark test-compile exec:exec -Dbenchmark="SerializacionBenchmark -f 1"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class SerializacionBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int filas;
+
+    @Param({"json", "cbor", "smile"})
+    private String formato;
+
+    private ObjectMapper mapper;
+    private List<TransaccionDTO> transacciones;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        mapper = switch (formato) {
+            case "cbor" -> new ObjectMapper(new CBORFactory());
+            case "smile" -> new ObjectMapper(new SmileFactory());
+            default -> new ObjectMapper();
+        };
+        mapper.registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        transacciones = new ArrayList<>(filas);
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < filas; i++) {
+            TransaccionDTO dto = new TransaccionDTO();
+            dto.setId((long) i + 1);
+            dto.setNombre("Pago proveedor " + (i % 5000));
+            dto.setFecha(inicio.plusDays(i % 730));
+            dto.setValor(BigDecimal.valueOf(1000 + (i * 37L) % 900000, 2));
+            dto.setEstado(i % 3 == 0 ? EstadoTransaccion.PAGADO : EstadoTransaccion.PENDIENTE);
+            transacciones.add(dto);
+        }
+
+        byte[] crudo = mapper.writeValueAsBytes(transacciones);
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write(crudo);
+        }
+        System.out.printf("%n[%s, %d filas] bytes=%d gzip=%d%n", formato, filas, crudo.length, comprimido.size());
+    }
+
+    @Benchmark
+    public void serializar(Blackhole blackhole) throws IOException {
+        ContadorBytes salida = new ContadorBytes();
+        mapper.writeValue(salida, transacciones);
+        blackhole.consume(salida.total);
+    }
+
+    /**
+     * Output stream that only counts bytes, so the benchmark measures serialization and not buffer growth.
+     */
+    private static final class ContadorBytes extends OutputStream {
+        private long total;
+
+        @Override
+        public void write(int b) {
+            total++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            total += len;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.transaction.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the startup profile's lazy initialization: the in-memory views fed by change
+ * events must be built at startup, so the first write after boot is applied exactly once.
+ * Uses its own in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.main.lazy-initialization=true",
+        "spring.datasource.url=jdbc:h2:mem:arranque",
+        "transacciones.columnar.enabled=true",
+        "transacciones.estadisticas.enabled=true",
+        "transacciones.estadisticas.archivo=target/arranque-test/${random.uuid}/bosquejos.bin"
+})
+class ArranqueConfigIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testPrimeraEscrituraTrasArranque_SeCuentaUnaVez() throws Exception {
+        // When: la primera escritura, antes de que nada haya consultado los reportes
+        mockMvc.perform(post("/api/transacciones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Primera\", \"fecha\": \"2024-01-05\", \"valor\": 100.00}"))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(get("/api/transacciones/reportes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cantidad").value(1))
+                .andExpect(jsonPath("$.total").value(100.00));
+        mockMvc.perform(get("/api/transacciones/estadisticas").param("agrupar", "estado"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].cantidad").value(1))
+                .andExpect(jsonPath("$[0].total").value(100.00));
+    }
+}
@@ -0,0 +1,46 @@
+package com.transaction.config;
+
+import com.transaction.dto.EventoCambioDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.CambioSecuenciaListener;
+import com.transaction.entity.Transaccion;
+import com.transaction.exception.ErrorResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for NativeHints.
+ * Verifies the reflection hints required by the native image are registered.
+ */
+class NativeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testRegistraAccesoresDeDTOs() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(TransaccionDTO.class.getMethod("getNombre")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(EventoCambioDTO.class.getMethod("getIds")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ErrorResponse.class.getMethod("getMessage")).test(hints));
+    }
+
+    @Test
+    void testRegistraEntidadYListener() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Transaccion.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(CambioSecuenciaListener.class.getConstructor(ObjectProvider.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(CambioSecuenciaListener.class.getMethod("estampar", Object.class)).test(hints));
+    }
+}
@@ -0,0 +1,124 @@
+package com.transaction.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.web.LecturaPropiaFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for reads served by a separate replica database, filled by the local replica copy.
+ * The copy is run by the test instead of on a schedule. Uses its own in-memory databases.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicacion_primaria",
+        "transacciones.replica.enabled=true",
+        "transacciones.replica.datasource.url=jdbc:h2:mem:replicacion_replica;DB_CLOSE_DELAY=-1",
+        "transacciones.replica.copia.enabled=true",
+        "transacciones.replica.copia.intervalo-ms=3600000"
+})
+class ReplicacionLocalIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private LecturaPropiaFilter lecturaPropiaFilter;
+
+    @Autowired
+    private ReplicacionLocal replicacionLocal;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).addFilters(lecturaPropiaFilter).build();
+    }
+
+    @Test
+    void testListar_ReplicaSinCopiar_EtagDeLaReplica() throws Exception {
+        // Given: escrita en la primaria y aún no copiada
+        long id = crear("Replicada");
+        MvcResult antes = mockMvc.perform(get("/api/transacciones"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", not(hasItem((int) id))))
+                .andReturn();
+        String etag = antes.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When
+        assertTrue(replicacionLocal.copiar() >= 1);
+
+        // Then: la copia avanza la época de la réplica y la etiqueta anterior deja de valer
+        MvcResult despues = mockMvc.perform(get("/api/transacciones").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem((int) id)))
+                .andReturn();
+        assertNotEquals(etag, despues.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testObtener_EtagDeLaReplicaSigueSusDatos() throws Exception {
+        // Given
+        long id = crear("Detalle");
+        replicacionLocal.copiar();
+        String etag = mockMvc.perform(get("/api/transacciones/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When: otra escritura aún no copiada no cambia lo que sirve la réplica
+        crear("Otra");
+
+        // Then
+        mockMvc.perform(get("/api/transacciones/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testListar_LecturaPrimaria_VeLaEscrituraAlMomento() throws Exception {
+        // Given
+        long id = crear("Propia");
+
+        // When & Then
+        mockMvc.perform(get("/api/transacciones").header(LecturaPropiaFilter.CABECERA_PRIMARIA, "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem((int) id)));
+    }
+
+    private long crear(String nombre) throws Exception {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(LocalDate.of(2024, 3, 1));
+        dto.setValor(new BigDecimal("25.00"));
+        String respuesta = mockMvc.perform(post("/api/transacciones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(respuesta).get("id").asLong();
+    }
+}
@@ -0,0 +1,92 @@
+package com.transaction.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing tests against two separate in-memory H2 databases.
+ */
+class RutaDataSourceTest {
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate lectura;
+    private TransactionTemplate escritura;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RutaDataSource ruta = new RutaDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:ruta_primaria;DB_CLOSE_DELAY=-1", "sa", ""),
+                new DriverManagerDataSource("jdbc:h2:mem:ruta_replica;DB_CLOSE_DELAY=-1", "sa", ""),
+                meterRegistry);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(ruta);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        escritura = new TransactionTemplate(transactionManager);
+        // El proxy lee la configuración por defecto de las conexiones (en la primaria) la primera vez que se usa
+        baseActual();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RutaDataSource.forzarPrimaria(false);
+    }
+
+    @Test
+    void testTransaccionSoloLecturaVaALaReplica() {
+        double primariaAntes = conexiones("primaria");
+        assertEquals("RUTA_REPLICA", lectura.execute(s -> baseActual()));
+        assertEquals(primariaAntes, conexiones("primaria"));
+        assertEquals(1.0, conexiones("replica"));
+    }
+
+    @Test
+    void testTransaccionDeEscrituraVaALaPrimaria() {
+        double primariaAntes = conexiones("primaria");
+        assertEquals("RUTA_PRIMARIA", escritura.execute(s -> baseActual()));
+        assertEquals(primariaAntes + 1, conexiones("primaria"));
+        assertEquals(0.0, conexiones("replica"));
+    }
+
+    @Test
+    void testSinTransaccionVaALaPrimaria() {
+        assertEquals("RUTA_PRIMARIA", baseActual());
+    }
+
+    @Test
+    void testLecturaSinTransaccionVaALaReplica() {
+        assertEquals("RUTA_REPLICA", RutaDataSource.comoLectura(this::baseActual));
+        assertEquals("RUTA_PRIMARIA", baseActual());
+
+        RutaDataSource.forzarPrimaria(true);
+        assertEquals("RUTA_PRIMARIA", RutaDataSource.comoLectura(this::baseActual));
+    }
+
+    @Test
+    void testLecturaForzadaVaALaPrimaria() {
+        RutaDataSource.forzarPrimaria(true);
+        assertEquals("RUTA_PRIMARIA", lectura.execute(s -> baseActual()));
+
+        RutaDataSource.forzarPrimaria(false);
+        assertEquals("RUTA_REPLICA", lectura.execute(s -> baseActual()));
+    }
+
+    private String baseActual() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private double conexiones(String destino) {
+        return meterRegistry.get(RutaDataSource.METRICA_CONEXIONES).tag("destino", destino).counter().count();
+    }
+}
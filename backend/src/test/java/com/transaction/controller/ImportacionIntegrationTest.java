@@ -0,0 +1,137 @@
+package com.transaction.controller;
+
+import com.transaction.dto.ImportacionDTO;
+import com.transaction.service.ImportacionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the CSV import: blocks committed with their valid rows, and the rejected rows
+ * file with the line and reason of each row rejected by validation or by the database. Uses its own
+ * in-memory database and a small block size so the input spans several blocks.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importaciones",
+        "transacciones.importacion.tamano-lote=3"
+})
+class ImportacionIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testImportar_ValidasCreadasYRechazadasConMotivo() throws Exception {
+        // Given: columnas en otro orden, una columna extra y filas inválidas repartidas entre bloques
+        String csv = "valor,nombre,notas,fecha\n"
+                + "10.00,Luz,,2024-01-05\n"
+                + "20.00,\"Agua, enero\",x,2024-01-20\n"
+                + "-5,Gas,,2024-02-01\n"
+                + "30.00,,,2024-02-02\n"
+                + "40.00,Teléfono,,2024-13-01\n"
+                + "50.00," + "N".repeat(300) + ",,2024-03-01\n"
+                + "abc,Renta\n"
+                + "1" + "0".repeat(40) + ",Hipoteca,,2024-03-02\n"
+                + "60.00,Internet,,2024-03-05\n";
+        Integer antes = contar();
+
+        // When
+        String respuesta = mockMvc.perform(post("/api/transacciones/importaciones")
+                        .contentType("text/csv")
+                        .content(csv.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.leidas").value(9))
+                .andExpect(jsonPath("$.importadas").value(3))
+                .andExpect(jsonPath("$.rechazadas").value(6))
+                .andExpect(jsonPath("$.error").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+
+        // Then: el valor que no cabe en la columna solo anula su bloque al primer intento
+        assertEquals(antes + 3, contar());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transacciones WHERE nombre = 'Agua, enero' AND valor = 20.00", Integer.class));
+        String enlace = respuesta.replaceAll(".*\"rechazos\":\"([^\"]+)\".*", "$1");
+        String rechazos = mockMvc.perform(get(enlace))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.startsWith("attachment")))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<String> lineas = rechazos.lines().toList();
+        assertEquals("linea,motivo,valor,nombre,notas,fecha", lineas.get(0));
+        assertEquals(7, lineas.size());
+        assertTrue(lineas.get(1).startsWith("4,valor: El valor debe ser positivo,-5,Gas"), lineas.get(1));
+        assertTrue(lineas.get(2).startsWith("5,nombre: "), lineas.get(2));
+        assertTrue(lineas.get(3).startsWith("6,fecha: no es una fecha yyyy-MM-dd,"), lineas.get(3));
+        assertTrue(lineas.get(4).startsWith("7,nombre: "), lineas.get(4));
+        assertTrue(lineas.get(5).startsWith("8,Se esperaban al menos 4 columnas y hay 2"), lineas.get(5));
+        assertTrue(lineas.get(6).matches("9,\"?rechazada por la base de datos: .*"), lineas.get(6));
+    }
+
+    @Test
+    void testImportar_DesdeArchivoYErrores() throws Exception {
+        // Given: un archivo, como lo lee la línea de comandos, que se corta en unas comillas sin cerrar
+        Path archivo = Files.createTempFile("importacion", ".csv");
+        Files.writeString(archivo, "nombre,fecha,valor\nLuz,2024-01-05,10.00\nAgua,2024-01-06,11.00\n\"Gas,2024-01-07,12.00\n");
+        Integer antes = contar();
+
+        // When
+        ImportacionDTO resumen;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            resumen = importacionService.importar(canal);
+        } finally {
+            Files.delete(archivo);
+        }
+
+        // Then: las filas anteriores al error quedan importadas
+        assertEquals(2, resumen.getImportadas());
+        assertEquals(0, resumen.getRechazadas());
+        assertNull(resumen.getRechazos());
+        assertTrue(resumen.getError().contains("línea 4"), resumen.getError());
+        assertEquals(antes + 2, contar());
+
+        mockMvc.perform(post("/api/transacciones/importaciones").contentType("text/csv").content("nombre,valor\nLuz,1.00\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transacciones/importaciones/{id}/rechazos", resumen.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/transacciones/importaciones/{id}/rechazos", "no-es-un-id"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Integer contar() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transacciones", Integer.class);
+    }
+}
@@ -0,0 +1,168 @@
+package com.transaction.controller;
+
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.repository.TransaccionRepository;
+import com.transaction.service.TransaccionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Concurrency tests for request coalescing: identical concurrent reads run one query, and a read
+ * arriving after a committed write never joins a query started before it. The repository is held on
+ * a latch so the requests overlap. Uses its own in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:coalescencia")
+class LecturasCoalescidasIntegrationTest {
+    private static final int PETICIONES = 20;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private TransaccionRepository transaccionRepository;
+
+    private final ExecutorService clientes = Executors.newFixedThreadPool(PETICIONES);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        clientes.shutdownNow();
+        reset(transaccionRepository);
+    }
+
+    @Test
+    void testListar_PeticionesIdenticasConcurrentes_UnaSolaConsulta() throws Exception {
+        // Given
+        crear("Coalescida", "10.00");
+        double coalescidasAntes = contador("transacciones.lecturas.coalescidas", "listar");
+        doAnswer(invocacion -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return delegar(invocacion);
+        }).when(transaccionRepository).findAll(any(Specification.class), any(Sort.class));
+
+        // When: todas las peticiones llegan mientras la primera consulta sigue en curso
+        List<Future<MvcResult>> respuestas = new ArrayList<>();
+        for (int i = 0; i < PETICIONES; i++) {
+            respuestas.add(clientes.submit(() -> mockMvc.perform(get("/api/transacciones").param("nombre", "Coalescida")).andReturn()));
+        }
+        esperar(() -> contador("transacciones.lecturas.coalescidas", "listar") - coalescidasAntes == PETICIONES - 1);
+        liberar.countDown();
+
+        // Then
+        for (Future<MvcResult> respuesta : respuestas) {
+            MvcResult resultado = respuesta.get(10, TimeUnit.SECONDS);
+            assertEquals(200, resultado.getResponse().getStatus());
+            assertTrue(resultado.getResponse().getContentAsString().contains("Coalescida"));
+        }
+        verify(transaccionRepository, times(1)).findAll(any(Specification.class), any(Sort.class));
+
+        // When: una petición posterior no reutiliza el resultado anterior
+        mockMvc.perform(get("/api/transacciones").param("nombre", "Coalescida"));
+
+        // Then
+        verify(transaccionRepository, times(2)).findAll(any(Specification.class), any(Sort.class));
+    }
+
+    @Test
+    void testObtener_DespuesDeUnaEscritura_NoSeUneALaConsultaAnterior() throws Exception {
+        // Given: una lectura retenida antes de editar la transacción
+        TransaccionDTO transaccion = crear("Antes", "10.00");
+        AtomicBoolean primera = new AtomicBoolean(true);
+        doAnswer(invocacion -> {
+            if (primera.compareAndSet(true, false)) {
+                liberar.await(10, TimeUnit.SECONDS);
+            }
+            return delegar(invocacion);
+        }).when(transaccionRepository).findById(anyLong());
+        Future<MvcResult> retenida = clientes.submit(() -> mockMvc.perform(get("/api/transacciones/" + transaccion.getId())).andReturn());
+        esperar(() -> !primera.get());
+
+        // When
+        TransaccionCreateDTO edicion = new TransaccionCreateDTO();
+        edicion.setNombre("Despues");
+        edicion.setFecha(transaccion.getFecha());
+        edicion.setValor(transaccion.getValor());
+        transaccionService.editar(transaccion.getId(), edicion);
+        MvcResult posterior = mockMvc.perform(get("/api/transacciones/" + transaccion.getId())).andReturn();
+        liberar.countDown();
+
+        // Then
+        assertTrue(posterior.getResponse().getContentAsString().contains("Despues"));
+        assertEquals(200, retenida.get(10, TimeUnit.SECONDS).getResponse().getStatus());
+    }
+
+    /**
+     * Calls the real repository: the spy wraps a JDK proxy, so callRealMethod is not available.
+     */
+    private Object delegar(InvocationOnMock invocacion) throws Throwable {
+        return mockingDetails(transaccionRepository).getMockCreationSettings().getDefaultAnswer().answer(invocacion);
+    }
+
+    private double contador(String nombre, String operacion) {
+        return meterRegistry.get(nombre).tag("operacion", operacion).counter().count();
+    }
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Tiempo de espera agotado");
+            Thread.sleep(5);
+        }
+    }
+
+    private TransaccionDTO crear(String nombre, String valor) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(LocalDate.of(2024, 1, 1));
+        dto.setValor(new BigDecimal(valor));
+        return transaccionService.crear(dto);
+    }
+}
@@ -0,0 +1,102 @@
+package com.transaction.controller;
+
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.service.TransaccionService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the on-demand JFR profiling endpoint, reading back the returned recording.
+ * Uses its own in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:perfilado",
+        "transacciones.perfilado.enabled=true",
+        "transacciones.perfilado.max-segundos=5",
+        "transacciones.perfilado.configuracion=default"
+})
+class PerfiladoIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @TempDir
+    Path directorio;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testGrabar_DevuelveLosEventosDelPago() throws Exception {
+        // Given
+        MvcResult grabacion = mockMvc.perform(post("/api/admin/perfilado").param("segundos", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When: un pago durante la grabación, y una segunda grabación simultánea
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre("Perfilada");
+        dto.setFecha(LocalDate.of(2020, 1, 1));
+        dto.setValor(new BigDecimal("7.00"));
+        transaccionService.crear(dto);
+        transaccionService.pagar(new BigDecimal("7.00"));
+        mockMvc.perform(post("/api/admin/perfilado").param("segundos", "1"))
+                .andExpect(status().isConflict());
+
+        // Then
+        grabacion.getAsyncResult(10_000);
+        byte[] contenido = mockMvc.perform(asyncDispatch(grabacion))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString(".jfr")))
+                .andReturn().getResponse().getContentAsByteArray();
+        Path archivo = Files.write(directorio.resolve("perfil.jfr"), contenido);
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(archivo);
+
+        RecordedEvent pago = eventos.stream()
+                .filter(e -> e.getEventType().getName().equals("com.transaction.Pago"))
+                .findFirst().orElseThrow();
+        assertEquals("PAGO", pago.getString("tipo"));
+        assertEquals(1, pago.getInt("pagadas"));
+        assertFalse(pago.getBoolean("rechazado"));
+        assertTrue(eventos.stream().anyMatch(e -> e.getEventType().getName().equals("com.transaction.Repositorio")
+                && e.getString("operacion").equals("findByEstadoOrderByFechaAsc") && e.getInt("filas") >= 1));
+    }
+
+    @Test
+    void testGrabar_DuracionInvalida() throws Exception {
+        mockMvc.perform(post("/api/admin/perfilado").param("segundos", "6"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,56 @@
+package com.transaction.controller;
+
+import com.transaction.web.ContadorSqlFilter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Query budgets for MockMvc tests, read from the {@code X-Sql-*} headers of {@link ContadorSqlFilter}.
+ * <p>
+ * The MockMvc instance must include the filter, and the test must not run inside a test-managed
+ * transaction: writes are flushed when the service's transaction commits, which a surrounding
+ * test transaction would postpone until after the request.
+ */
+final class PresupuestoSql {
+
+    private PresupuestoSql() {
+    }
+
+    /**
+     * Expects the request to have issued exactly the given SQL statements.
+     *
+     * @param detalle Counts by statement type, as in {@code X-Sql-Detalle} (e.g. {@code "select=1 update=3 ejecuciones=2"})
+     * @return The matcher
+     */
+    static ResultMatcher sentencias(String detalle) {
+        return resultado -> assertEquals(detalle, cabecera(resultado, ContadorSqlFilter.CABECERA_DETALLE),
+                () -> "Cambió el presupuesto SQL de " + peticion(resultado));
+    }
+
+    /**
+     * Expects the request to have issued exactly the given number of SQL statements.
+     *
+     * @param total Total statements, counting each entry of a JDBC batch
+     * @return The matcher
+     */
+    static ResultMatcher sentencias(int total) {
+        return resultado -> assertEquals(Integer.toString(total), cabecera(resultado, ContadorSqlFilter.CABECERA_SENTENCIAS),
+                () -> "Cambió el presupuesto SQL de " + peticion(resultado) + " ("
+                        + resultado.getResponse().getHeader(ContadorSqlFilter.CABECERA_DETALLE) + ")");
+    }
+
+    private static String cabecera(MvcResult resultado, String nombre) {
+        MockHttpServletResponse response = resultado.getResponse();
+        String valor = response.getHeader(nombre);
+        assertNotNull(valor, () -> "Falta la cabecera " + nombre + "; ¿MockMvc incluye ContadorSqlFilter?");
+        return valor;
+    }
+
+    private static String peticion(MvcResult resultado) {
+        return resultado.getRequest().getMethod() + " " + resultado.getRequest().getRequestURI();
+    }
+}
@@ -0,0 +1,106 @@
+package com.transaction.controller;
+
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.service.TransaccionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the report endpoint, checking that the columnar snapshot follows
+ * creations, edits, payments and deletions. Uses its own in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reportes",
+        "transacciones.columnar.enabled=true"
+})
+class ReporteIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testReporte_SigueLosCambios() throws Exception {
+        // Given
+        crear("Luz", LocalDate.of(2024, 1, 5), "100.00");
+        crear("Agua", LocalDate.of(2024, 1, 20), "50.00");
+        TransaccionDTO luzFebrero = crear("Luz", LocalDate.of(2024, 2, 3), "100.00");
+        TransaccionDTO gas = crear("Gas", LocalDate.of(2024, 3, 1), "30.00");
+
+        // When
+        transaccionService.pagar(new BigDecimal("150.00"));
+        transaccionService.eliminar(gas.getId());
+        TransaccionCreateDTO edicion = new TransaccionCreateDTO();
+        edicion.setNombre("Luz");
+        edicion.setFecha(luzFebrero.getFecha());
+        edicion.setValor(new BigDecimal("120.00"));
+        transaccionService.editar(luzFebrero.getId(), edicion);
+
+        // Then
+        mockMvc.perform(get("/api/transacciones/reportes").param("top", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cantidad").value(3))
+                .andExpect(jsonPath("$.total").value(270.00))
+                .andExpect(jsonPath("$.estados[?(@.estado == 'PAGADO')].cantidad").value(2))
+                .andExpect(jsonPath("$.estados[?(@.estado == 'PENDIENTE')].total").value(120.00))
+                .andExpect(jsonPath("$.proporcionPagadas").value(0.6667))
+                .andExpect(jsonPath("$.proporcionMontoPagado").value(0.5556))
+                .andExpect(jsonPath("$.meses.length()").value(2))
+                .andExpect(jsonPath("$.meses[0].mes").value("2024-01"))
+                .andExpect(jsonPath("$.meses[0].pagado").value(150.00))
+                .andExpect(jsonPath("$.meses[1].mes").value("2024-02"))
+                .andExpect(jsonPath("$.meses[1].pendiente").value(120.00))
+                .andExpect(jsonPath("$.nombres[0].nombre").value("Luz"))
+                .andExpect(jsonPath("$.nombres[0].cantidad").value(2))
+                .andExpect(jsonPath("$.nombres[0].total").value(220.00))
+                .andExpect(jsonPath("$.nombres[1].nombre").value("Agua"));
+
+        mockMvc.perform(get("/api/transacciones/reportes").param("desde", "2024-02-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cantidad").value(1))
+                .andExpect(jsonPath("$.proporcionPagadas").value(0.0));
+    }
+
+    @Test
+    void testReporte_ParametrosInvalidos() throws Exception {
+        mockMvc.perform(get("/api/transacciones/reportes")
+                        .param("desde", "2024-02-01")
+                        .param("hasta", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transacciones/reportes").param("top", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private TransaccionDTO crear(String nombre, LocalDate fecha, String valor) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(fecha);
+        dto.setValor(new BigDecimal(valor));
+        return transaccionService.crear(dto);
+    }
+}
@@ -1,10 +1,14 @@
 package com.transaction.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.transaction.dto.TransaccionCreateDTO;
 import com.transaction.entity.EstadoTransaccion;
 import com.transaction.entity.Transaccion;
 import com.transaction.repository.TransaccionRepository;
+import com.transaction.web.ContadorSqlFilter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +17,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,11 +49,20 @@ class TransaccionControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ContadorSqlFilter contadorSqlFilter;
+
     private MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).addFilters(contadorSqlFilter).build();
+        transaccionRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Los presupuestos SQL se ejecutan sin la transacción de la prueba y confirman sus datos
         transaccionRepository.deleteAll();
     }
 
@@ -126,6 +144,104 @@ class TransaccionControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].estado").value("PENDIENTE"));
     }
 
+    @Test
+    void testListarTransaccionesConRangosYOrden() throws Exception {
+        // Given
+        for (int dia = 1; dia <= 5; dia++) {
+            transaccionRepository.save(Transaccion.builder()
+                    .nombre("Transaction " + dia)
+                    .fecha(LocalDate.of(2024, 1, dia))
+                    .valor(new BigDecimal(dia * 100))
+                    .estado(EstadoTransaccion.PENDIENTE)
+                    .build());
+        }
+
+        // When & Then
+        mockMvc.perform(get("/api/transacciones")
+                        .param("fechaDesde", "2024-01-02")
+                        .param("fechaHasta", "2024-01-04")
+                        .param("valorMin", "250")
+                        .param("sort", "valor,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].fecha").value("2024-01-04"))
+                .andExpect(jsonPath("$[1].fecha").value("2024-01-03"));
+    }
+
+    @Test
+    void testListarTransacciones_ParametrosInvalidos() throws Exception {
+        mockMvc.perform(get("/api/transacciones").param("sort", "nombre"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transacciones").param("sort", "fecha,arriba"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transacciones")
+                        .param("fechaDesde", "2024-02-01")
+                        .param("fechaHasta", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("fechaDesde no puede ser posterior a fechaHasta"));
+    }
+
+    @Test
+    void testListarTransacciones_CamposSeleccionados() throws Exception {
+        // Given
+        for (int dia = 1; dia <= 3; dia++) {
+            transaccionRepository.save(Transaccion.builder()
+                    .nombre("Transaction " + dia)
+                    .fecha(LocalDate.of(2024, 1, dia))
+                    .valor(new BigDecimal(dia * 100))
+                    .estado(EstadoTransaccion.PENDIENTE)
+                    .build());
+        }
+
+        // When
+        String cuerpo = mockMvc.perform(get("/api/transacciones")
+                        .param("fields", "valor,id,estado,valor")
+                        .param("valorMin", "200")
+                        .param("sort", "fecha,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].valor").value(300))
+                .andExpect(jsonPath("$[0].estado").value("PENDIENTE"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Then: solo los campos pedidos, en el orden pedido
+        List<String> campos = new ArrayList<>();
+        objectMapper.readTree(cuerpo).get(0).fieldNames().forEachRemaining(campos::add);
+        assertEquals(List.of("valor", "id", "estado"), campos);
+    }
+
+    @Test
+    void testListarTransacciones_CampoDesconocido() throws Exception {
+        mockMvc.perform(get("/api/transacciones").param("fields", "id,version"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Campo no soportado: version (campos: id, nombre, fecha, valor, estado)"));
+    }
+
+    @Test
+    void testListarTransacciones_Cbor() throws Exception {
+        // Given
+        Transaccion transaccion = Transaccion.builder()
+                .nombre("Test Transaction")
+                .fecha(LocalDate.of(2024, 1, 1))
+                .valor(new BigDecimal("100.00"))
+                .estado(EstadoTransaccion.PENDIENTE)
+                .build();
+        transaccionRepository.save(transaccion);
+
+        // When
+        byte[] cuerpo = mockMvc.perform(get("/api/transacciones")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        JsonNode lista = new CBORMapper().readTree(cuerpo);
+        assertEquals("Test Transaction", lista.get(0).get("nombre").asText());
+        assertEquals("2024-01-01", lista.get(0).get("fecha").asText());
+        assertEquals("PENDIENTE", lista.get(0).get("estado").asText());
+    }
+
     @Test
     void testObtenerTransaccionPorId() throws Exception {
         // Given
@@ -295,4 +411,108 @@ class TransaccionControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Pago exitoso")));
     }
-} 
\ No newline at end of file
+
+    // Presupuestos de consultas: fallan si un cambio multiplica las sentencias SQL de un endpoint.
+    // Sin la transacción de la prueba, para que las escrituras se envíen al confirmar cada petición.
+    // Los números de la secuencia de cambios salen de un bloque ya reservado y no suman sentencias:
+    // cada prueba escribe antes de la petición, y el bloque siguiente se reserva en segundo plano.
+    // Las lecturas leen además la época de las ETags, que sale de los datos confirmados sin que las escrituras la actualicen.
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPresupuestoSql_Crear() throws Exception {
+        crearPendientes(1);
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre("Presupuesto");
+        dto.setFecha(LocalDate.of(2024, 1, 1));
+        dto.setValor(new BigDecimal("100.00"));
+
+        mockMvc.perform(post("/api/transacciones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(PresupuestoSql.sentencias("insert=1 ejecuciones=1"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPresupuestoSql_Listar() throws Exception {
+        crearPendientes(5);
+
+        mockMvc.perform(get("/api/transacciones"))
+                .andExpect(status().isOk())
+                .andExpect(PresupuestoSql.sentencias(2));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPresupuestoSql_ListarCampos() throws Exception {
+        crearPendientes(5);
+
+        mockMvc.perform(get("/api/transacciones").param("fields", "id,valor"))
+                .andExpect(status().isOk())
+                .andExpect(PresupuestoSql.sentencias("select=2 ejecuciones=2"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPresupuestoSql_Obtener() throws Exception {
+        Long id = crearPendientes(1).get(0);
+
+        mockMvc.perform(get("/api/transacciones/" + id))
+                .andExpect(status().isOk())
+                .andExpect(PresupuestoSql.sentencias("select=2 ejecuciones=2"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPresupuestoSql_Editar() throws Exception {
+        Long id = crearPendientes(1).get(0);
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre("Editada");
+        dto.setFecha(LocalDate.of(2024, 1, 2));
+        dto.setValor(new BigDecimal("150.00"));
+
+        mockMvc.perform(put("/api/transacciones/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(PresupuestoSql.sentencias("select=1 update=1 ejecuciones=2"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPresupuestoSql_Eliminar() throws Exception {
+        Long id = crearPendientes(1).get(0);
+
+        // El borrado deja una lápida con su número de secuencia para la sincronización; se inserta sin buscarla antes
+        mockMvc.perform(delete("/api/transacciones/" + id))
+                .andExpect(status().isNoContent())
+                .andExpect(PresupuestoSql.sentencias("select=1 insert=1 delete=1 ejecuciones=3"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPresupuestoSql_Pagar() throws Exception {
+        crearPendientes(3);
+
+        // Una lectura de pendientes y, por cada transacción pagada, un UPDATE (enviados en un solo lote JDBC)
+        mockMvc.perform(post("/api/transacciones/pagar")
+                        .param("monto", "300.00"))
+                .andExpect(status().isOk())
+                .andExpect(PresupuestoSql.sentencias("select=1 update=3 ejecuciones=2"));
+    }
+
+    private List<Long> crearPendientes(int cantidad) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= cantidad; i++) {
+            ids.add(transaccionRepository.save(Transaccion.builder()
+                    .nombre("Transaction " + i)
+                    .fecha(LocalDate.of(2024, 1, i))
+                    .valor(new BigDecimal("100.00"))
+                    .estado(EstadoTransaccion.PENDIENTE)
+                    .build()).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,243 @@
+package com.transaction.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.repository.TransaccionRepository;
+import com.transaction.service.RegistroEtags;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for conditional GET (ETag / If-None-Match) on the list and detail endpoints.
+ * Not transactional: tags are invalidated when writes commit. Writes of another instance are played with
+ * SQL that changes a row and stamps a higher change sequence number, as that instance's commit would.
+ * After a write the instance publishes and then retires its change sequence mark, which moves the epoch
+ * too, so tests that expect a tag to hold wait for the epoch to settle first.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransaccionEtagIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @SpyBean
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RegistroEtags registroEtags;
+
+    @Value("${transacciones.secuencia.intervalo-ms}")
+    private long intervaloMs;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        transaccionRepository.deleteAll();
+    }
+
+    @Test
+    void testListar_EtagSinCambios_NoConsulta() throws Exception {
+        // Given
+        crear("Transaction 1");
+        esperarEpocaEstable();
+        String etag = etag(get("/api/transacciones").param("estado", "PENDIENTE"));
+        clearInvocations(transaccionRepository);
+
+        // When & Then
+        mockMvc.perform(get("/api/transacciones").param("estado", "PENDIENTE")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verifyNoInteractions(transaccionRepository);
+    }
+
+    @Test
+    void testListar_EscrituraInvalidaEtag() throws Exception {
+        // Given
+        crear("Transaction 1");
+        String etag = etag(get("/api/transacciones"));
+
+        // When
+        crear("Transaction 2");
+
+        // Then
+        mockMvc.perform(get("/api/transacciones").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string(HttpHeaders.ETAG, org.hamcrest.Matchers.not(etag)));
+    }
+
+    @Test
+    void testListar_FiltrosDistintos_EtagDistinta() throws Exception {
+        // Given
+        crear("Transaction 1");
+
+        // When & Then
+        assertNotEquals(etag(get("/api/transacciones")), etag(get("/api/transacciones").param("nombre", "Transaction")));
+    }
+
+    @Test
+    void testObtenerPorId_EtagSinCambios_NoConsulta() throws Exception {
+        // Given
+        long id = crear("Transaction 1");
+        esperarEpocaEstable();
+        String etag = etag(get("/api/transacciones/" + id));
+        clearInvocations(transaccionRepository);
+
+        // When & Then
+        mockMvc.perform(get("/api/transacciones/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(transaccionRepository, never()).findById(any());
+    }
+
+    @Test
+    void testObtenerPorId_EdicionInvalidaEtag() throws Exception {
+        // Given
+        long id = crear("Transaction 1");
+        String etag = etag(get("/api/transacciones/" + id));
+
+        // When
+        mockMvc.perform(put("/api/transacciones/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto("Transaction 1 editada"))))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(get("/api/transacciones/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Transaction 1 editada"))
+                .andExpect(header().string(HttpHeaders.ETAG, org.hamcrest.Matchers.not(etag)));
+    }
+
+    @Test
+    void testEtag_DistintaPorFormato() throws Exception {
+        // Given
+        long id = crear("Transaction 1");
+
+        // When
+        String json = etag(get("/api/transacciones"));
+        String cbor = etag(get("/api/transacciones").accept("application/cbor"));
+        String smile = etag(get("/api/transacciones").accept("application/x-jackson-smile"));
+
+        // Then
+        assertNotEquals(json, cbor);
+        assertNotEquals(json, smile);
+        assertNotEquals(cbor, smile);
+        mockMvc.perform(get("/api/transacciones").accept("application/cbor").header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+        assertNotEquals(etag(get("/api/transacciones/" + id)), etag(get("/api/transacciones/" + id).accept("application/cbor")));
+    }
+
+    @Test
+    void testEtag_EscrituraDeOtraInstanciaInvalida() throws Exception {
+        // Given
+        long id = crear("Transaction 1");
+        String etagLista = etag(get("/api/transacciones"));
+        String etagDetalle = etag(get("/api/transacciones/" + id));
+
+        // When: otra instancia edita la transacción sin pasar por esta
+        jdbcTemplate.update("UPDATE transacciones SET nombre = 'Editada en otra', cambio_seq = cambio_seq + 1 WHERE id = ?", id);
+
+        // Then
+        mockMvc.perform(get("/api/transacciones").header(HttpHeaders.IF_NONE_MATCH, etagLista))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("Editada en otra"));
+        mockMvc.perform(get("/api/transacciones/" + id).header(HttpHeaders.IF_NONE_MATCH, etagDetalle))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Editada en otra"));
+    }
+
+    @Test
+    void testEtag_EscrituraFueraDeOrdenInvalidaAlPublicarSuMarca() throws Exception {
+        // Given
+        long id = crear("Transaction 1");
+        crear("Transaction 2");
+        String etagLista = etag(get("/api/transacciones"));
+
+        // When: otra instancia confirma un número menor que el último confirmado y publica su marca
+        jdbcTemplate.update("UPDATE transacciones SET nombre = 'Confirmada tarde' WHERE id = ?", id);
+        jdbcTemplate.update("INSERT INTO secuencia_instancias (id, instancia, minimo, actualizado) "
+                + "VALUES (-1, 'otra', NULL, CURRENT_TIMESTAMP)");
+
+        // Then
+        try {
+            mockMvc.perform(get("/api/transacciones").header(HttpHeaders.IF_NONE_MATCH, etagLista))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[?(@.id == " + id + ")].nombre").value("Confirmada tarde"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM secuencia_instancias WHERE id = -1");
+        }
+    }
+
+    /**
+     * Waits until the write epoch has not moved for longer than two publication intervals.
+     */
+    private void esperarEpocaEstable() throws InterruptedException {
+        String epoca = registroEtags.epoca();
+        long estableDesde = System.nanoTime();
+        while (System.nanoTime() - estableDesde < TimeUnit.MILLISECONDS.toNanos(2 * intervaloMs + 500)) {
+            Thread.sleep(100);
+            String actual = registroEtags.epoca();
+            if (!actual.equals(epoca)) {
+                epoca = actual;
+                estableDesde = System.nanoTime();
+            }
+        }
+    }
+
+    private String etag(RequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private long crear(String nombre) throws Exception {
+        String respuesta = mockMvc.perform(post("/api/transacciones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto(nombre))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(respuesta).get("id").asLong();
+    }
+
+    private TransaccionCreateDTO dto(String nombre) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(LocalDate.of(2024, 1, 1));
+        dto.setValor(new BigDecimal("100.00"));
+        return dto;
+    }
+}
@@ -0,0 +1,148 @@
+package com.transaction.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.entity.Transaccion;
+import com.transaction.repository.TransaccionEliminadaRepository;
+import com.transaction.repository.TransaccionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the batch endpoint.
+ * Not transactional: the all-or-nothing rollback must be observable after the request.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransaccionLoteIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private TransaccionEliminadaRepository transaccionEliminadaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    private Transaccion pendiente;
+    private Transaccion pagada;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        transaccionRepository.deleteAll();
+        transaccionEliminadaRepository.deleteAll();
+        pendiente = guardar("Pendiente", EstadoTransaccion.PENDIENTE);
+        pagada = guardar("Pagada", EstadoTransaccion.PAGADO);
+    }
+
+    @Test
+    void testLoteTodoONada_Exitoso() throws Exception {
+        // When
+        JsonNode resultado = lote("TODO_O_NADA", """
+                {"tipo": "CREAR", "datos": {"nombre": "Nueva", "fecha": "2024-02-01", "valor": 50.00}},
+                {"tipo": "EDITAR", "id": %d, "datos": {"nombre": "Editada", "fecha": "2024-01-01", "valor": 75.00}}
+                """.formatted(pendiente.getId()), status().isOk());
+
+        // Then
+        assertTrue(resultado.get("confirmado").asBoolean());
+        assertEquals(2, resultado.get("exitosas").asInt());
+        JsonNode creada = resultado.get("resultados").get(0);
+        assertEquals(200, creada.get("status").asInt());
+        assertTrue(transaccionRepository.existsById(creada.get("id").asLong()));
+        assertEquals("Editada", transaccionRepository.findById(pendiente.getId()).orElseThrow().getNombre());
+    }
+
+    @Test
+    void testLoteTodoONada_FalloRevierteTodo() throws Exception {
+        // When - la segunda operación intenta eliminar una transacción pagada
+        JsonNode resultado = lote("TODO_O_NADA", """
+                {"tipo": "CREAR", "datos": {"nombre": "Nueva", "fecha": "2024-02-01", "valor": 50.00}},
+                {"tipo": "ELIMINAR", "id": %d},
+                {"tipo": "ELIMINAR", "id": %d}
+                """.formatted(pagada.getId(), pendiente.getId()), status().isConflict());
+
+        // Then
+        assertFalse(resultado.get("confirmado").asBoolean());
+        assertEquals(409, resultado.get("resultados").get(1).get("status").asInt());
+        assertEquals("No se puede eliminar una transacción pagada", resultado.get("resultados").get(1).get("error").asText());
+        assertEquals(424, resultado.get("resultados").get(2).get("status").asInt());
+        assertEquals(2, transaccionRepository.count());
+        assertEquals(0, transaccionEliminadaRepository.count());
+    }
+
+    @Test
+    void testLoteMejorEsfuerzo_AplicaLasValidas() throws Exception {
+        // When
+        JsonNode resultado = lote("MEJOR_ESFUERZO", """
+                {"tipo": "CREAR", "datos": {"nombre": "", "fecha": "2024-02-01", "valor": -1}},
+                {"tipo": "EDITAR", "id": %d, "datos": {"nombre": "Editada", "fecha": "2024-01-01", "valor": 75.00}},
+                {"tipo": "ELIMINAR", "id": 999999},
+                {"tipo": "ELIMINAR", "id": %d},
+                {"tipo": "EDITAR", "datos": {"nombre": "Sin id", "fecha": "2024-01-01", "valor": 1.00}}
+                """.formatted(pagada.getId(), pendiente.getId()), status().isOk());
+
+        // Then
+        assertTrue(resultado.get("confirmado").asBoolean());
+        assertEquals(1, resultado.get("exitosas").asInt());
+        assertEquals(4, resultado.get("fallidas").asInt());
+        JsonNode resultados = resultado.get("resultados");
+        assertEquals(400, resultados.get(0).get("status").asInt());
+        assertTrue(resultados.get(0).get("detalles").has("valor"));
+        assertEquals(409, resultados.get(1).get("status").asInt());
+        assertEquals(404, resultados.get(2).get("status").asInt());
+        assertEquals(204, resultados.get(3).get("status").asInt());
+        assertEquals(400, resultados.get(4).get("status").asInt());
+        assertFalse(transaccionRepository.existsById(pendiente.getId()));
+        assertTrue(transaccionEliminadaRepository.existsById(pendiente.getId()));
+        assertEquals("Pagada", transaccionRepository.findById(pagada.getId()).orElseThrow().getNombre());
+    }
+
+    @Test
+    void testLote_SinOperaciones() throws Exception {
+        mockMvc.perform(post("/api/transacciones/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"modo\": \"TODO_O_NADA\", \"operaciones\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode lote(String modo, String operaciones, ResultMatcher estadoEsperado) throws Exception {
+        String body = mockMvc.perform(post("/api/transacciones/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"modo\": \"" + modo + "\", \"operaciones\": [" + operaciones + "]}"))
+                .andExpect(estadoEsperado)
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body);
+    }
+
+    private Transaccion guardar(String nombre, EstadoTransaccion estado) {
+        return transaccionRepository.save(Transaccion.builder()
+                .nombre(nombre)
+                .fecha(LocalDate.of(2024, 1, 1))
+                .valor(new BigDecimal("100.00"))
+                .estado(estado)
+                .build());
+    }
+}
@@ -0,0 +1,127 @@
+package com.transaction.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.repository.TransaccionEliminadaRepository;
+import com.transaction.repository.TransaccionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for behavior that depends on committed data (delta synchronization).
+ * Not transactional: each request commits, as it does in production. Uses its own in-memory database:
+ * an instance sharing it would hold the visible limit back until it releases its block of change numbers.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:sincronizacion")
+class TransaccionSincronizacionIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private TransaccionEliminadaRepository transaccionEliminadaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        transaccionRepository.deleteAll();
+        transaccionEliminadaRepository.deleteAll();
+    }
+
+    @Test
+    void testCambios_SoloDevuelveLoModificadoDesdeElUltimoSync() throws Exception {
+        // Given
+        long primera = crear("Transaction 1", "100.00");
+        long segunda = crear("Transaction 2", "200.00");
+        JsonNode inicial = cambios(0);
+        long marca = inicial.get("hasta").asLong();
+
+        // When - se edita la primera y se elimina la segunda
+        mockMvc.perform(put("/api/transacciones/" + primera)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto("Transaction 1 editada", "150.00"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/transacciones/" + segunda))
+                .andExpect(status().isNoContent());
+        JsonNode delta = cambios(marca);
+
+        // Then
+        assertEquals(2, delta.get("cambios").size());
+        assertEquals(primera, delta.get("cambios").get(0).get("id").asLong());
+        assertEquals("Transaction 1 editada", delta.get("cambios").get(0).get("transaccion").get("nombre").asText());
+        assertEquals(segunda, delta.get("cambios").get(1).get("id").asLong());
+        assertTrue(delta.get("cambios").get(1).get("eliminada").asBoolean());
+        assertTrue(delta.get("hasta").asLong() > marca);
+        assertEquals(0, cambios(delta.get("hasta").asLong()).get("cambios").size());
+    }
+
+    @Test
+    void testCambios_PaginaConLimite() throws Exception {
+        // Given
+        crear("Transaction 1", "100.00");
+        crear("Transaction 2", "200.00");
+        crear("Transaction 3", "300.00");
+
+        // When
+        JsonNode pagina = objectMapper.readTree(mockMvc.perform(get("/api/transacciones/cambios")
+                        .param("desde", "0")
+                        .param("limite", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        // Then
+        assertEquals(2, pagina.get("cambios").size());
+        assertTrue(pagina.get("hayMas").asBoolean());
+        assertEquals(1, cambios(pagina.get("hasta").asLong()).get("cambios").size());
+    }
+
+    private JsonNode cambios(long desde) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/transacciones/cambios")
+                        .param("desde", String.valueOf(desde)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private long crear(String nombre, String valor) throws Exception {
+        String respuesta = mockMvc.perform(post("/api/transacciones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto(nombre, valor))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(respuesta).get("id").asLong();
+    }
+
+    private TransaccionCreateDTO dto(String nombre, String valor) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(LocalDate.of(2024, 1, 1));
+        dto.setValor(new BigDecimal(valor));
+        return dto;
+    }
+}
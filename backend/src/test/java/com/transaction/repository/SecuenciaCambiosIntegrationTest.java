@@ -0,0 +1,198 @@
+package com.transaction.repository;
+
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.entity.Transaccion;
+import com.transaction.exception.ServicioNoDisponibleException;
+import com.transaction.service.TransaccionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the change sequence shared by several instances. The application context is one
+ * instance; a second SecuenciaCambios over the same database plays another one. Both publish their marks
+ * only when the test asks; blocks are reserved by the publisher when numbers are prepared or run low.
+ * Uses its own in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:secuencia",
+        "transacciones.secuencia.intervalo-ms=" + SecuenciaCambiosIntegrationTest.SIN_PUBLICAR_MS,
+        "transacciones.secuencia.caducidad-ms=" + 2 * SecuenciaCambiosIntegrationTest.SIN_PUBLICAR_MS
+})
+class SecuenciaCambiosIntegrationTest {
+    static final long SIN_PUBLICAR_MS = 3_600_000;
+
+    @Autowired
+    private SecuenciaCambios secuenciaCambios;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SecuenciaCambios otraInstancia;
+
+    @AfterEach
+    void tearDown() {
+        if (otraInstancia != null) {
+            otraInstancia.detener();
+        }
+    }
+
+    @Test
+    void testSiguiente_UnaReservaPorBloque() {
+        // Given
+        otraInstancia = otra(30_000);
+        long valorInicial = valorSiguiente();
+
+        // When
+        otraInstancia.preparar(1);
+        long primero = otraInstancia.siguiente();
+        for (int i = 1; i < SecuenciaCambios.BLOQUE; i++) {
+            assertEquals(primero + i, otraInstancia.siguiente());
+        }
+
+        // Then: un NEXT VALUE para todo el bloque y, como mucho, otro que reserva el siguiente en segundo plano
+        assertTrue(valorSiguiente() <= valorInicial + 2 * SecuenciaCambios.BLOQUE);
+    }
+
+    @Test
+    void testLimiteVisible_NoPasaDelNumeroEnCursoDeOtraInstancia() throws Exception {
+        // Given
+        otraInstancia = otra(30_000);
+        long[] enCurso = new long[1];
+        long[] posterior = new long[1];
+        // Esta instancia suelta los bloques de otros tests para reservar después de la otra
+        secuenciaCambios.publicar();
+        secuenciaCambios.publicar();
+        otraInstancia.preparar(1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // When: la otra instancia tiene un número sin confirmar y esta confirma uno mayor
+            enCurso[0] = otraInstancia.siguiente();
+            posterior[0] = CompletableFuture.supplyAsync(() -> crear().getCambioSeq()).join();
+            assertTrue(posterior[0] > enCurso[0]);
+
+            // Then
+            assertEquals(enCurso[0] - 1, secuenciaCambios.limiteVisible());
+        });
+
+        // Then: confirmada, su marca pasa al siguiente número de su bloque
+        otraInstancia.publicar();
+        assertEquals(enCurso[0], secuenciaCambios.limiteVisible());
+
+        // Then: un intervalo sin escribir suelta el bloque y deja de frenar a esta instancia
+        otraInstancia.publicar();
+        assertTrue(secuenciaCambios.limiteVisible() >= posterior[0]);
+    }
+
+    @Test
+    void testSiguiente_MarcaSinPublicar_RechazaLaEscritura() throws Exception {
+        // Given
+        otraInstancia = otra(200);
+        otraInstancia.preparar(1);
+        otraInstancia.siguiente();
+
+        // When
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        // Then
+        ServicioNoDisponibleException error = assertThrows(ServicioNoDisponibleException.class, otraInstancia::siguiente);
+        assertTrue(error.getMessage().contains("no se publica"), error.getMessage());
+        assertTrue(error.getReintentarSegundos() >= 1);
+    }
+
+    @Test
+    void testSiguiente_SinPreparar_NoConsultaYRechaza() {
+        // Given
+        otraInstancia = otra(30_000);
+        long valorInicial = valorSiguiente();
+
+        // When
+        ServicioNoDisponibleException error = assertThrows(ServicioNoDisponibleException.class, otraInstancia::siguiente);
+
+        // Then: el listener no reserva por su cuenta; la reserva llega después, desde el publicador
+        assertEquals(1, error.getReintentarSegundos());
+        otraInstancia.preparar(1);
+        assertTrue(otraInstancia.siguiente() >= valorInicial);
+    }
+
+    @Test
+    void testPreparar_TransaccionLargaAmpliaLaReserva() {
+        // Given
+        otraInstancia = otra(30_000);
+        int filas = 3 * SecuenciaCambios.BLOQUE;
+
+        // When
+        otraInstancia.preparar(filas);
+
+        // Then: toda la transacción sale de memoria
+        long anterior = otraInstancia.siguiente();
+        for (int i = 1; i < filas; i++) {
+            long numero = otraInstancia.siguiente();
+            assertTrue(numero > anterior);
+            anterior = numero;
+        }
+    }
+
+    @Test
+    void testTransaccionDeEscritura_PreparaAntesDeEmpezar() {
+        // When: la primera escritura de la instancia, sin bloque reservado todavía
+        Transaccion creada = crear();
+
+        // Then
+        assertTrue(creada.getCambioSeq() > 0);
+        assertTrue(secuenciaCambios.limiteVisible() >= creada.getCambioSeq());
+    }
+
+    private SecuenciaCambios otra(long caducidadMs) {
+        SecuenciaCambios secuencia = new SecuenciaCambios(dataSource, transactionManager, entityManagerFactory,
+                SIN_PUBLICAR_MS, caducidadMs, 2_000, 5_000);
+        secuencia.crear();
+        return secuencia;
+    }
+
+    private long valorSiguiente() {
+        return jdbcTemplate.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                + "WHERE SEQUENCE_NAME = 'TRANSACCIONES_CAMBIO_SEQ'", Long.class);
+    }
+
+    private Transaccion crear() {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre("Secuencia");
+        dto.setFecha(LocalDate.of(2024, 1, 5));
+        dto.setValor(new BigDecimal("10.00"));
+        long id = transaccionService.crear(dto).getId();
+        return transaccionRepository.findById(id).orElseThrow();
+    }
+}
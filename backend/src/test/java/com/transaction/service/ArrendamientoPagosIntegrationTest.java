@@ -0,0 +1,189 @@
+package com.transaction.service;
+
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.entity.Transaccion;
+import com.transaction.exception.ServicioNoDisponibleException;
+import com.transaction.repository.ArrendamientoRepository;
+import com.transaction.repository.TransaccionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Integration tests for the payment lease. The application context is one instance; a second
+ * ArrendamientoPagos over the same database plays another instance. Uses its own in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:arrendamiento",
+        "transacciones.arrendamiento.enabled=true",
+        "transacciones.arrendamiento.titular=nodo-a"
+})
+class ArrendamientoPagosIntegrationTest {
+    private static final long ESPERA_OTRA_MS = 200;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ArrendamientoPagos arrendamientoPagos;
+
+    @Autowired
+    private ArrendamientoRepository arrendamientoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ArrendamientoPagos otraInstancia;
+    private ExecutorService hilos;
+
+    @BeforeEach
+    void setUp() {
+        otraInstancia = new ArrendamientoPagos(arrendamientoRepository, transactionManager, new SimpleMeterRegistry(),
+                true, "nodo-b", 30_000, ESPERA_OTRA_MS);
+        hilos = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void testEjecutar_OtraInstanciaEsperaHastaElLimite() throws Exception {
+        // Given: esta instancia tiene el arrendamiento
+        long[] espera = new long[1];
+        long tokenPropio = arrendamientoPagos.ejecutar(() -> {
+            long inicio = System.nanoTime();
+
+            // When: la otra instancia intenta pagar mientras tanto
+            Future<?> otra = hilos.submit(() -> otraInstancia.ejecutar(() -> "no debería ejecutarse"));
+
+            // Then: se rinde al vencer su espera acotada
+            Exception error = assertThrows(Exception.class, () -> otra.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ServicioNoDisponibleException.class, error.getCause());
+            espera[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            return arrendamientoRepository.token(ArrendamientoPagos.PAGOS);
+        });
+        assertTrue(espera[0] >= ESPERA_OTRA_MS, "esperó " + espera[0] + " ms");
+
+        // Then: liberado, la otra instancia lo toma con un token mayor
+        assertEquals(tokenPropio + 1, otraInstancia.ejecutar(() -> arrendamientoRepository.token(ArrendamientoPagos.PAGOS)));
+    }
+
+    @Test
+    void testPagar_ArrendamientoTomadoPorOtra_NoEscribe() throws Exception {
+        // Given
+        TransaccionDTO pendiente = crear(LocalDate.of(1800, 1, 1), "7.00");
+
+        // When: el arrendamiento vence durante el pago y la otra instancia lo toma antes de que se escriba
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> arrendamientoPagos.ejecutar(() -> {
+            jdbcTemplate.update("UPDATE arrendamientos SET expira_ms = 0");
+            assertDoesNotThrow(() -> hilos.submit(() -> otraInstancia.ejecutar(() -> null)).get(5, TimeUnit.SECONDS));
+            return transaccionService.pagar(new BigDecimal("7.00"));
+        }));
+
+        // Then: el token delata al titular anterior y el pago no se aplicó
+        assertTrue(error.getMessage().contains("Otra instancia"), error.getMessage());
+        assertEquals(EstadoTransaccion.PENDIENTE, transaccionRepository.findById(pendiente.getId()).orElseThrow().getEstado());
+        assertThrows(IllegalStateException.class, () -> transaccionService.pagar(new BigDecimal("7.00")));
+    }
+
+    @Test
+    void testPagar_Concurrentes_CadaPendienteSePagaUnaVez() throws Exception {
+        // Given: ocho pendientes de 1.00, las más antiguas de la base
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        List<Long> ids = new ArrayList<>();
+        for (int dia = 1; dia <= 8; dia++) {
+            ids.add(crear(LocalDate.of(1700, 1, dia), "1.00").getId());
+        }
+        long tokenInicial = arrendamientoRepository.token(ArrendamientoPagos.PAGOS);
+
+        // When: ocho pagos simultáneos de 1.00
+        List<Future<String>> pagos = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            pagos.add(hilos.submit(() -> mockMvc.perform(post("/api/transacciones/pagar").param("monto", "1.00"))
+                    .andReturn().getResponse().getContentAsString()));
+        }
+
+        // Then: cada pago liquidó una pendiente distinta
+        for (Future<String> pago : pagos) {
+            assertTrue(pago.get(30, TimeUnit.SECONDS).startsWith("✅ Pago exitoso"));
+        }
+        assertTrue(transaccionRepository.findAllById(ids).stream().allMatch(t -> t.getEstado() == EstadoTransaccion.PAGADO));
+        assertEquals(tokenInicial + 8, arrendamientoRepository.token(ArrendamientoPagos.PAGOS));
+    }
+
+    @Test
+    void testRevertirLotes_DevuelveLasPagadasAPendiente() {
+        // Given: un lote de un pago asíncrono ya confirmado
+        List<Long> ids = List.of(crear(LocalDate.of(1600, 1, 1), "3.00").getId(), crear(LocalDate.of(1600, 1, 2), "4.00").getId());
+        LotePagado lote = arrendamientoPagos.ejecutar(() -> transaccionService.pagarLote(ids));
+        assertEquals(0, new BigDecimal("7.00").compareTo(lote.total()));
+
+        // When: un lote posterior falla y el job revierte este
+        arrendamientoPagos.ejecutar(() -> {
+            transaccionService.revertirLotes(ids, List.of(lote.registro()));
+            return null;
+        });
+
+        // Then: vuelven a estar pendientes y se pueden pagar de nuevo
+        assertTrue(transaccionRepository.findAllById(ids).stream().allMatch(t -> t.getEstado() == EstadoTransaccion.PENDIENTE));
+        assertDoesNotThrow(() -> arrendamientoPagos.ejecutar(() -> transaccionService.pagarLote(ids)));
+    }
+
+    @Test
+    void testVersion_EscrituraSobreCopiaObsoleta_Falla() {
+        // Given: una copia leída antes de que otro escritor pagara la transacción
+        TransaccionDTO pendiente = crear(LocalDate.of(1500, 1, 1), "2.00");
+        Transaccion copia = transaccionRepository.findById(pendiente.getId()).orElseThrow();
+        arrendamientoPagos.ejecutar(() -> transaccionService.pagarLote(List.of(pendiente.getId())));
+
+        // When & Then: guardar la copia no pisa el pago
+        copia.setEstado(EstadoTransaccion.PAGADO);
+        assertThrows(OptimisticLockingFailureException.class, () -> transaccionRepository.saveAndFlush(copia));
+    }
+
+    private TransaccionDTO crear(LocalDate fecha, String valor) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre("Arrendamiento " + fecha);
+        dto.setFecha(fecha);
+        dto.setValor(new BigDecimal(valor));
+        return transaccionService.crear(dto);
+    }
+}
@@ -0,0 +1,104 @@
+package com.transaction.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BosquejoCuantiles: relative accuracy against exact quantiles, removal, merging
+ * and serialization.
+ */
+class BosquejoCuantilesTest {
+    private static final double PRECISION = 0.01;
+    private static final double[] CUANTILES = {0, 0.1, 0.5, 0.9, 0.95, 0.99, 1};
+
+    @Test
+    void testCuantiles_DentroDeLaPrecisionRelativa() {
+        // Given: valores con cola larga, de céntimos a millones
+        Random random = new Random(42);
+        BosquejoCuantiles bosquejo = new BosquejoCuantiles(PRECISION);
+        double[] valores = new double[100_000];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = Math.round(Math.exp(random.nextGaussian() * 3 + 5) * 100) / 100.0 + 0.01;
+            bosquejo.agregar(valores[i]);
+        }
+
+        // Then
+        assertEquals(valores.length, bosquejo.getCantidad());
+        assertDentroDePrecision(valores, bosquejo);
+    }
+
+    @Test
+    void testQuitar_EquivaleANoHaberloAgregado() {
+        // Given
+        Random random = new Random(7);
+        BosquejoCuantiles bosquejo = new BosquejoCuantiles(PRECISION);
+        List<Double> conservados = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            double valor = 1 + random.nextInt(100_000) / 100.0;
+            bosquejo.agregar(valor);
+            if (i % 3 == 0) {
+                assertTrue(bosquejo.quitar(valor));
+            } else {
+                conservados.add(valor);
+            }
+        }
+
+        // When: quitar un valor que nunca estuvo no altera el bosquejo
+        assertFalse(bosquejo.quitar(5_000_000));
+        assertFalse(new BosquejoCuantiles(PRECISION).quitar(0));
+
+        // Then
+        assertEquals(conservados.size(), bosquejo.getCantidad());
+        assertDentroDePrecision(conservados.stream().mapToDouble(Double::doubleValue).toArray(), bosquejo);
+    }
+
+    @Test
+    void testCombinarYSerializar_ConservanLosCuantiles() throws IOException {
+        // Given: dos bosquejos con rangos distintos, uno con ceros
+        BosquejoCuantiles bajos = new BosquejoCuantiles(PRECISION);
+        BosquejoCuantiles altos = new BosquejoCuantiles(PRECISION);
+        double[] valores = new double[2_000];
+        for (int i = 0; i < 1_000; i++) {
+            valores[i] = i % 10 == 0 ? 0 : i / 10.0;
+            bajos.agregar(valores[i]);
+            valores[1_000 + i] = 10_000 + i * 7.5;
+            altos.agregar(valores[1_000 + i]);
+        }
+
+        // When
+        bajos.combinar(altos);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bajos.escribir(new DataOutputStream(bytes));
+        BosquejoCuantiles leido = BosquejoCuantiles.leer(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // Then
+        assertEquals(2_000, leido.getCantidad());
+        assertDentroDePrecision(valores, bajos);
+        for (double q : CUANTILES) {
+            assertEquals(bajos.cuantil(q), leido.cuantil(q));
+        }
+        assertThrows(IllegalArgumentException.class, () -> bajos.combinar(new BosquejoCuantiles(0.05)));
+        assertTrue(Double.isNaN(new BosquejoCuantiles(PRECISION).cuantil(0.5)));
+    }
+
+    private static void assertDentroDePrecision(double[] valores, BosquejoCuantiles bosquejo) {
+        double[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        for (double q : CUANTILES) {
+            double exacto = ordenados[(int) Math.floor(q * (ordenados.length - 1))];
+            double estimado = bosquejo.cuantil(q);
+            assertEquals(exacto, estimado, exacto * PRECISION + 1e-9, "cuantil " + q);
+        }
+    }
+}
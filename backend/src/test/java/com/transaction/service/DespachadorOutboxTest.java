@@ -0,0 +1,157 @@
+package com.transaction.service;
+
+import com.transaction.dto.MensajeOutboxDTO;
+import com.transaction.entity.EventoOutbox;
+import com.transaction.event.TipoCambio;
+import com.transaction.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DespachadorOutbox.
+ * The scheduler is not started; batches are dispatched by calling the dispatcher directly.
+ */
+@ExtendWith(MockitoExtension.class)
+class DespachadorOutboxTest {
+
+    @Mock
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Mock
+    private SumideroOutbox sumidero;
+
+    private DespachadorOutbox despachador;
+
+    @BeforeEach
+    void setUp() {
+        despachador = new DespachadorOutbox(eventoOutboxRepository, sumidero, new SinTransacciones(),
+                new SimpleMeterRegistry(), 2, 1000, 30000, 24);
+    }
+
+    @Test
+    void testDespacharPendientes_MarcaCadaLoteConUnUpdate() throws IOException {
+        // Given - tres pendientes y lotes de 2
+        when(eventoOutboxRepository.findPendientes(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(evento(1L), evento(2L)))
+                .thenReturn(List.of(evento(3L)));
+
+        // When
+        despachador.despacharPendientes();
+
+        // Then
+        verify(sumidero, times(2)).entregar(anyList());
+        verify(eventoOutboxRepository).reclamar(eq(List.of(1L, 2L)), anyString(), anyLong());
+        verify(eventoOutboxRepository).marcarDespachados(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(eventoOutboxRepository).marcarDespachados(eq(List.of(3L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testDespacharPendientes_FalloDelSumideroDejaElLotePendiente() throws IOException {
+        // Given
+        when(eventoOutboxRepository.findPendientes(anyLong(), any(Pageable.class))).thenReturn(List.of(evento(1L)));
+        doThrow(new IOException("sumidero caído")).doNothing().when(sumidero).entregar(anyList());
+
+        // When
+        despachador.despacharPendientes();
+
+        // Then - se libera sin marcarlo, y el siguiente ciclo lo entrega de nuevo
+        verify(eventoOutboxRepository, never()).marcarDespachados(anyList(), any());
+        verify(eventoOutboxRepository).liberar(eq(List.of(1L)), anyString());
+        despachador.despacharPendientes();
+        verify(sumidero, times(2)).entregar(argThat((List<MensajeOutboxDTO> m) -> m.get(0).getId() == 1L));
+        verify(eventoOutboxRepository).marcarDespachados(eq(List.of(1L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testDespacharLote_EntregaFueraDeLaTransaccionDelReclamo() throws IOException {
+        // Given
+        when(eventoOutboxRepository.findPendientes(anyLong(), any(Pageable.class))).thenReturn(List.of(evento(1L)));
+        doAnswer(invocation -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            return null;
+        }).when(sumidero).entregar(anyList());
+
+        // When
+        int despachados = despachador.despacharLote();
+
+        // Then - el reclamo y la marca ocurren cada uno en su transacción, antes y después de entregar
+        assertEquals(1, despachados);
+        InOrder orden = inOrder(eventoOutboxRepository, sumidero);
+        orden.verify(eventoOutboxRepository).reclamar(eq(List.of(1L)), anyString(), anyLong());
+        orden.verify(sumidero).entregar(anyList());
+        orden.verify(eventoOutboxRepository).marcarDespachados(eq(List.of(1L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testDespacharLote_ReclamaHastaElVencimiento() throws IOException {
+        // Given
+        when(eventoOutboxRepository.findPendientes(anyLong(), any(Pageable.class))).thenReturn(List.of(evento(1L)));
+        long antes = System.currentTimeMillis();
+
+        // When
+        despachador.despacharLote();
+
+        // Then
+        ArgumentCaptor<Long> ahora = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> expira = ArgumentCaptor.forClass(Long.class);
+        verify(eventoOutboxRepository).findPendientes(ahora.capture(), any(Pageable.class));
+        verify(eventoOutboxRepository).reclamar(eq(List.of(1L)), anyString(), expira.capture());
+        assertTrue(ahora.getValue() >= antes);
+        assertEquals(ahora.getValue() + 30000, expira.getValue());
+    }
+
+    private static EventoOutbox evento(Long id) {
+        return EventoOutbox.builder()
+                .id(id)
+                .tipo(TipoCambio.CREADA)
+                .transaccionId(id)
+                .payload("{\"id\":" + id + "}")
+                .creadoEn(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Transaction manager that runs the callbacks without a real transaction.
+     */
+    private static class SinTransacciones extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.transaction.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DiarioPagos and LectorDiarioPagos, reopening the journal as after a restart.
+ */
+class DiarioPagosTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testRegistrarPago_SobreviveAlReinicioYSeReproduce() throws IOException {
+        // Given - segmentos pequeños para forzar la rotación
+        try (DiarioPagos diario = abrir(128)) {
+            diario.registrarPago(TipoRegistroPago.PAGO, new BigDecimal("300.00"), new BigDecimal("0.00"), List.of(1L, 2L, 3L));
+            diario.registrarPago(TipoRegistroPago.RECHAZO, new BigDecimal("5.00"), new BigDecimal("5.00"), List.of());
+        }
+
+        // When
+        try (DiarioPagos diario = abrir(128)) {
+            assertEquals(2, diario.getUltimaSecuencia());
+            diario.registrarPago(TipoRegistroPago.PAGO_LOTE, new BigDecimal("40.5"), BigDecimal.ZERO, List.of(4L));
+        }
+
+        // Then
+        assertTrue(LectorDiarioPagos.segmentos(directorio).size() > 1);
+        LectorDiarioPagos.Verificacion verificacion = LectorDiarioPagos.verificar(directorio);
+        assertTrue(verificacion.isValido(), verificacion.error());
+        assertEquals(3, verificacion.ultimaSecuencia());
+        LectorDiarioPagos.EstadoPagos estado = LectorDiarioPagos.reproducir(directorio);
+        assertEquals(Map.of(1L, 1L, 2L, 1L, 3L, 1L, 4L, 3L), estado.pagadas());
+        assertEquals(1, estado.rechazos());
+        assertEquals(0, new BigDecimal("340.50").compareTo(estado.totalPagado()));
+    }
+
+    @Test
+    void testRegistrarPago_RollbackAnulaElPago() throws IOException {
+        try (DiarioPagos diario = abrir(4096)) {
+            // Given
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                diario.registrarPago(TipoRegistroPago.PAGO, new BigDecimal("100.00"), new BigDecimal("0.00"), List.of(7L));
+
+                // When
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+
+        // Then
+        LectorDiarioPagos.EstadoPagos estado = LectorDiarioPagos.reproducir(directorio);
+        assertTrue(estado.pagadas().isEmpty());
+        assertEquals(0, estado.pagos());
+        assertEquals(1, estado.anulaciones());
+    }
+
+    @Test
+    void testVerificar_DetectaRegistroAlterado() throws IOException {
+        // Given
+        try (DiarioPagos diario = abrir(4096)) {
+            diario.registrarPago(TipoRegistroPago.PAGO, new BigDecimal("100.00"), new BigDecimal("0.00"), List.of(1L));
+            diario.registrarPago(TipoRegistroPago.PAGO, new BigDecimal("200.00"), new BigDecimal("0.00"), List.of(2L));
+        }
+
+        // When - se cambia el id pagado del primer registro
+        modificar(LectorDiarioPagos.CABECERA_SEGMENTO + RegistroPago.RANURA + Integer.BYTES + Long.BYTES - 1, (byte) 9);
+
+        // Then
+        LectorDiarioPagos.Verificacion verificacion = LectorDiarioPagos.verificar(directorio);
+        assertFalse(verificacion.isValido());
+        assertEquals(0, verificacion.registros());
+        assertThrows(IOException.class, () -> LectorDiarioPagos.reproducir(directorio));
+    }
+
+    @Test
+    void testAbrir_DescartaRegistroIncompletoAlFinal() throws IOException {
+        // Given - el último registro quedó a medio escribir
+        try (DiarioPagos diario = abrir(4096)) {
+            diario.registrarPago(TipoRegistroPago.PAGO, new BigDecimal("100.00"), new BigDecimal("0.00"), List.of(1L));
+            diario.registrarPago(TipoRegistroPago.PAGO, new BigDecimal("200.00"), new BigDecimal("0.00"), List.of(2L));
+        }
+        int segundo = LectorDiarioPagos.CABECERA_SEGMENTO + RegistroPago.tamano(1);
+        modificar(segundo + RegistroPago.tamano(1) - 1, (byte) 0x7F);
+
+        // When
+        try (DiarioPagos diario = abrir(4096)) {
+            // Then
+            assertEquals(1, diario.getUltimaSecuencia());
+            diario.registrarPago(TipoRegistroPago.PAGO, new BigDecimal("300.00"), new BigDecimal("0.00"), List.of(3L));
+        }
+        assertTrue(LectorDiarioPagos.verificar(directorio).isValido());
+        assertEquals(Map.of(1L, 1L, 3L, 2L), LectorDiarioPagos.reproducir(directorio).pagadas());
+    }
+
+    @Test
+    void testRegistrarPago_MuchosIdsOcupanRanurasFijas() throws IOException {
+        // Given - quince ids ocupan tres ranuras de ids además de la cabecera
+        List<Long> ids = LongStream.rangeClosed(1, 15).boxed().toList();
+        try (DiarioPagos diario = abrir(4096)) {
+            // When
+            diario.registrarPago(TipoRegistroPago.PAGO_LOTE, new BigDecimal("15.00"), BigDecimal.ZERO, ids);
+            diario.registrarPago(TipoRegistroPago.RECHAZO, new BigDecimal("1.00"), new BigDecimal("1.00"), List.of());
+        }
+
+        // Then
+        assertEquals(4 * RegistroPago.RANURA, RegistroPago.tamano(15));
+        List<RegistroPago> registros = new ArrayList<>();
+        LectorDiarioPagos.recorrer(directorio, registros::add);
+        assertEquals(ids, registros.get(0).ids());
+        assertEquals(TipoRegistroPago.RECHAZO, registros.get(1).tipo());
+    }
+
+    @Test
+    void testDesactivado_NoEscribeNada() throws IOException {
+        // Given
+        Path sinUsar = directorio.resolve("desactivado");
+        try (DiarioPagos diario = new DiarioPagos(false, sinUsar.toString(), 4096)) {
+            // When
+            long secuencia = diario.registrarPago(TipoRegistroPago.PAGO, new BigDecimal("1.00"), BigDecimal.ZERO, List.of(1L));
+            diario.registrarAnulaciones(List.of(secuencia));
+
+            // Then
+            assertEquals(0, secuencia);
+        }
+        assertFalse(Files.exists(sinUsar));
+    }
+
+    @Test
+    void testAbrir_DirectorioEnUso() throws IOException {
+        try (DiarioPagos diario = abrir(4096)) {
+            assertThrows(IOException.class, () -> new DiarioPagos(directorio.toString(), 4096));
+        }
+    }
+
+    private DiarioPagos abrir(int tamanoSegmento) throws IOException {
+        return new DiarioPagos(directorio.toString(), tamanoSegmento);
+    }
+
+    private void modificar(int posicion, byte valor) throws IOException {
+        Path segmento = LectorDiarioPagos.segmentos(directorio).firstEntry().getValue();
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer contenido = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+            contenido.put(posicion, valor);
+            contenido.force();
+        }
+    }
+}
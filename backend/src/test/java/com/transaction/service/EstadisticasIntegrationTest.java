@@ -0,0 +1,162 @@
+package com.transaction.service;
+
+import com.transaction.dto.EstadisticaDTO;
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EstadoTransaccion;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the value statistics: the sketches follow creations, payments, edits and
+ * deletions, and saved sketches are reused only while they match the database. Uses its own
+ * in-memory database and sketch file.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:estadisticas",
+        "transacciones.estadisticas.enabled=true",
+        "transacciones.estadisticas.archivo=target/estadisticas-test/bosquejos.bin"
+})
+class EstadisticasIntegrationTest {
+    private static final List<Double> CUANTILES = List.of(0.5, 0.95, 0.99);
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${transacciones.estadisticas.archivo}")
+    private String archivo;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testEstadisticas_SiguenLosCambios() throws Exception {
+        // Given
+        crear("Luz", LocalDate.of(2024, 1, 5), "100.00");
+        crear("Agua", LocalDate.of(2024, 1, 20), "50.00");
+        TransaccionDTO luzFebrero = crear("Luz", LocalDate.of(2024, 2, 3), "100.00");
+        TransaccionDTO gas = crear("Gas", LocalDate.of(2024, 3, 1), "30.00");
+
+        // When: se pagan las de enero, se elimina la de marzo y se edita la de febrero
+        transaccionService.pagar(new BigDecimal("150.00"));
+        transaccionService.eliminar(gas.getId());
+        TransaccionCreateDTO edicion = new TransaccionCreateDTO();
+        edicion.setNombre("Luz");
+        edicion.setFecha(luzFebrero.getFecha());
+        edicion.setValor(new BigDecimal("120.00"));
+        transaccionService.editar(luzFebrero.getId(), edicion);
+
+        // Then
+        mockMvc.perform(get("/api/transacciones/estadisticas").param("hasta", "2024-12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].mes").value("2024-01"))
+                .andExpect(jsonPath("$[0].estado").value("PAGADO"))
+                .andExpect(jsonPath("$[0].cantidad").value(2))
+                .andExpect(jsonPath("$[0].total").value(150.00))
+                .andExpect(jsonPath("$[0].promedio").value(75.00))
+                .andExpect(jsonPath("$[0].cuantiles.p99").value(closeTo(50.0, 0.5)))
+                .andExpect(jsonPath("$[1].mes").value("2024-02"))
+                .andExpect(jsonPath("$[1].estado").value("PENDIENTE"))
+                .andExpect(jsonPath("$[1].cuantiles.p50").value(closeTo(120.0, 1.2)));
+
+        mockMvc.perform(get("/api/transacciones/estadisticas")
+                        .param("agrupar", "mes")
+                        .param("desde", "2024-02")
+                        .param("hasta", "2024-12")
+                        .param("cuantiles", "0.5,0.999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].estado").doesNotExist())
+                .andExpect(jsonPath("$[0].cuantiles['p99.9']").exists());
+    }
+
+    @Test
+    void testEstadisticas_ParametrosInvalidos() throws Exception {
+        mockMvc.perform(get("/api/transacciones/estadisticas").param("agrupar", "nombre"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transacciones/estadisticas").param("cuantiles", "1.5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transacciones/estadisticas")
+                        .param("desde", "2024-03")
+                        .param("hasta", "2024-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPersistencia_RestauraSoloSiCoincideConLaBaseDeDatos() throws Exception {
+        // Given: datos de 2025, aparte de los de la otra prueba
+        for (int i = 1; i <= 20; i++) {
+            crear("Proveedor " + i, LocalDate.of(2025, 1 + i % 3, i), i + "0.00");
+        }
+        transaccionService.pagar(new BigDecimal("300.00"));
+        estadisticasService.guardar();
+
+        // When
+        EstadisticasService restaurado = nuevaInstancia();
+
+        // Then
+        assertTrue(restaurado.restaurar(restaurado.huellaActual()));
+        assertEquals(consultar(estadisticasService), consultar(restaurado));
+
+        // When: un cambio posterior al guardado deja el archivo desactualizado
+        crear("Tardía", LocalDate.of(2025, 1, 31), "5.00");
+
+        // Then
+        assertFalse(nuevaInstancia().restaurar(restaurado.huellaActual()));
+    }
+
+    private EstadisticasService nuevaInstancia() {
+        return new EstadisticasService(jdbcTemplate, entityManagerFactory, archivo, estadisticasService.getPrecision(), 300);
+    }
+
+    private static List<EstadisticaDTO> consultar(EstadisticasService servicio) {
+        return servicio.consultar("estado-mes", null, null, CUANTILES);
+    }
+
+    private TransaccionDTO crear(String nombre, LocalDate fecha, String valor) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(fecha);
+        dto.setValor(new BigDecimal(valor));
+        return transaccionService.crear(dto);
+    }
+}
@@ -0,0 +1,259 @@
+package com.transaction.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.entity.Transaccion;
+import com.transaction.repository.IngestaCheckpointRepository;
+import com.transaction.repository.TransaccionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the write-behind ingestion.
+ * The log directory is seeded before the context starts, as if a previous run had crashed before
+ * persisting it. Uses its own in-memory database so the other test contexts are not affected.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IngestaServiceIntegrationTest {
+
+    private static final Path DIRECTORIO = sembrarRegistro();
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:ingesta");
+        registry.add("transacciones.ingesta.enabled", () -> "true");
+        registry.add("transacciones.ingesta.directorio", DIRECTORIO::toString);
+        registry.add("transacciones.ingesta.capacidad", () -> "5");
+        registry.add("transacciones.ingesta.intervalo-ms", () -> "50");
+    }
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private IngestaCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testArranque_RecuperaRegistroNoPersistido() {
+        List<String> nombres = transaccionRepository.findAll().stream().map(Transaccion::getNombre).toList();
+        assertTrue(nombres.containsAll(List.of("Recuperada 1", "Recuperada 2")));
+    }
+
+    @Test
+    void testArranque_OtraInstanciaConSuRegistro_CheckpointPropio() throws Exception {
+        // Given: otra instancia sobre la misma base, con su propio registro y sus propios ids (desde 1)
+        Path otroDirectorio = Files.createTempDirectory("ingesta-test-otra");
+        try (RegistroIngesta registro = new RegistroIngesta(otroDirectorio, 1024 * 1024)) {
+            registro.sincronizar(registro.agregar(List.of(objectMapper.writeValueAsBytes(crear("Otra instancia 1")))));
+        }
+        IngestaService otra = new IngestaService(transaccionService, checkpointRepository, transactionManager,
+                objectMapper, new SimpleMeterRegistry(), otroDirectorio.toString(), 5, 1000, 50, 1024 * 1024);
+
+        // When
+        try {
+            otra.recuperar();
+        } finally {
+            otra.detener();
+        }
+
+        // Then: el checkpoint de esta instancia (ya en 2) no hizo saltar el registro 1 de la otra
+        List<String> nombres = transaccionRepository.findAll().stream().map(Transaccion::getNombre).toList();
+        assertTrue(nombres.contains("Otra instancia 1"));
+        assertEquals(1, checkpointRepository.findById("registro-" + identidad(otroDirectorio)).orElseThrow().getUltimoPersistido());
+        assertTrue(checkpointRepository.findById("registro-" + identidad(DIRECTORIO)).orElseThrow().getUltimoPersistido() >= 2);
+        assertFalse(checkpointRepository.existsById(IngestaService.CHECKPOINT_ANTERIOR));
+    }
+
+    @Test
+    void testArranque_RegistroConFilasInvalidas_LasDescartaYArranca() throws Exception {
+        // Given: un registro con una fila que la base de datos rechaza (nombre mayor que la columna) y otra ilegible
+        Path otroDirectorio = Files.createTempDirectory("ingesta-test-rechazos");
+        try (RegistroIngesta registro = new RegistroIngesta(otroDirectorio, 1024 * 1024)) {
+            registro.sincronizar(registro.agregar(List.of(
+                    objectMapper.writeValueAsBytes(crear("Antes del rechazo")),
+                    objectMapper.writeValueAsBytes(crear("x".repeat(300))),
+                    "{no es json".getBytes(StandardCharsets.UTF_8),
+                    objectMapper.writeValueAsBytes(crear("Después del rechazo")))));
+        }
+        IngestaService otra = new IngestaService(transaccionService, checkpointRepository, transactionManager,
+                objectMapper, new SimpleMeterRegistry(), otroDirectorio.toString(), 5, 1000, 50, 1024 * 1024);
+
+        // When
+        try {
+            otra.recuperar();
+            assertEquals(2, otra.obtenerEstado().getRechazadas());
+        } finally {
+            otra.detener();
+        }
+
+        // Then: las filas válidas se escriben, las inválidas quedan en el archivo de rechazos y el checkpoint las salta
+        List<String> nombres = transaccionRepository.findAll().stream().map(Transaccion::getNombre).toList();
+        assertTrue(nombres.containsAll(List.of("Antes del rechazo", "Después del rechazo")));
+        assertEquals(4, checkpointRepository.findById("registro-" + identidad(otroDirectorio)).orElseThrow().getUltimoPersistido());
+        List<String> rechazos = Files.readAllLines(otroDirectorio.resolve(IngestaService.RECHAZADAS));
+        assertEquals(2, rechazos.size());
+        assertEquals(2, objectMapper.readTree(rechazos.get(0)).get("id").asLong());
+        assertEquals(3, objectMapper.readTree(rechazos.get(1)).get("id").asLong());
+    }
+
+    @Test
+    void testEscritor_FilaRechazada_NoBloqueaLasSiguientes() throws Exception {
+        // Given: el servicio acepta directamente una fila que la validación HTTP habría rechazado
+        Path otroDirectorio = Files.createTempDirectory("ingesta-test-escritor");
+        IngestaService otra = new IngestaService(transaccionService, checkpointRepository, transactionManager,
+                objectMapper, new SimpleMeterRegistry(), otroDirectorio.toString(), 5, 1000, 50, 1024 * 1024);
+        try {
+            otra.recuperar();
+
+            // When
+            long hasta = otra.encolar(List.of(crear("Lote con rechazo 1"), crear("y".repeat(300)), crear("Lote con rechazo 2"))).getHasta();
+
+            // Then: el lote se escribe fila a fila y la capacidad vuelve al búfer
+            long limite = System.currentTimeMillis() + 5000;
+            while (otra.obtenerEstado().getUltimoPersistido() < hasta && System.currentTimeMillis() < limite) {
+                Thread.sleep(20);
+            }
+            assertEquals(hasta, otra.obtenerEstado().getUltimoPersistido());
+            assertEquals(0, otra.obtenerEstado().getPendientes());
+            assertEquals(1, otra.obtenerEstado().getRechazadas());
+        } finally {
+            otra.detener();
+        }
+        List<String> nombres = transaccionRepository.findAll().stream().map(Transaccion::getNombre).toList();
+        assertTrue(nombres.containsAll(List.of("Lote con rechazo 1", "Lote con rechazo 2")));
+    }
+
+    @Test
+    void testIngerir_NombreMayorQueLaColumna() throws Exception {
+        mockMvc.perform(post("/api/transacciones/ingesta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"transacciones\": [{\"nombre\": \"" + "z".repeat(256) + "\", \"fecha\": \"2024-03-01\", \"valor\": 1.00}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testIngerir_AceptaYPersisteEnSegundoPlano() throws Exception {
+        // When
+        String body = mockMvc.perform(post("/api/transacciones/ingesta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"transacciones": [
+                                  {"nombre": "Diferida 1", "fecha": "2024-03-01", "valor": 10.00},
+                                  {"nombre": "Diferida 2", "fecha": "2024-03-02", "valor": 20.00}
+                                ]}
+                                """))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/transacciones/ingesta"))
+                .andReturn().getResponse().getContentAsString();
+        long hasta = objectMapper.readTree(body).get("hasta").asLong();
+
+        // Then
+        long limite = System.currentTimeMillis() + 5000;
+        JsonNode estado;
+        do {
+            Thread.sleep(20);
+            estado = objectMapper.readTree(mockMvc.perform(get("/api/transacciones/ingesta"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+        } while (estado.get("ultimoPersistido").asLong() < hasta && System.currentTimeMillis() < limite);
+        assertTrue(estado.get("ultimoPersistido").asLong() >= hasta);
+        List<String> nombres = transaccionRepository.findAll().stream().map(Transaccion::getNombre).toList();
+        assertTrue(nombres.containsAll(List.of("Diferida 1", "Diferida 2")));
+    }
+
+    @Test
+    void testIngerir_BuferLlenoDevuelve503() throws Exception {
+        String transaccion = "{\"nombre\": \"Exceso\", \"fecha\": \"2024-03-01\", \"valor\": 1.00}";
+        mockMvc.perform(post("/api/transacciones/ingesta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"transacciones\": [" + String.join(",", Collections.nCopies(6, transaccion)) + "]}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void testIngerir_TransaccionInvalida() throws Exception {
+        mockMvc.perform(post("/api/transacciones/ingesta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"transacciones\": [{\"nombre\": \"\", \"fecha\": \"2024-03-01\", \"valor\": -1}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String identidad(Path directorio) throws IOException {
+        return Files.readString(directorio.resolve("registro.id")).trim();
+    }
+
+    private static Path sembrarRegistro() {
+        try {
+            Path directorio = Files.createTempDirectory("ingesta-test");
+            directorio.toFile().deleteOnExit();
+            ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+            try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024 * 1024)) {
+                long hasta = registro.agregar(List.of(
+                        mapper.writeValueAsBytes(crear("Recuperada 1")),
+                        mapper.writeValueAsBytes(crear("Recuperada 2"))));
+                registro.sincronizar(hasta);
+            }
+            return directorio;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static TransaccionCreateDTO crear(String nombre) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(LocalDate.of(2024, 1, 1));
+        dto.setValor(new BigDecimal("100.00"));
+        return dto;
+    }
+}
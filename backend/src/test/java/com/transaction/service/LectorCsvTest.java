@@ -0,0 +1,66 @@
+package com.transaction.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LectorCsv: quoting, line numbers and decoding across buffer boundaries.
+ */
+class LectorCsvTest {
+
+    @Test
+    void testSiguiente_CamposCitadosYNumerosDeLinea() throws IOException {
+        // Given: BOM, CRLF, línea en blanco, y campos con comas, comillas y saltos de línea
+        String csv = "﻿nombre,fecha,valor\r\n"
+                + "\"Café, té\",2024-01-01,10.50\r\n"
+                + "\n"
+                + "\"Dice \"\"hola\"\"\nen dos líneas\",2024-01-02,\n"
+                + "Último,,\"\"";
+
+        // When: con un búfer de 4 bytes, los caracteres de varios bytes quedan partidos entre lecturas
+        List<List<String>> registros = new ArrayList<>();
+        List<Long> lineas = new ArrayList<>();
+        try (LectorCsv lector = lector(csv.getBytes(StandardCharsets.UTF_8))) {
+            List<String> registro;
+            while ((registro = lector.siguiente()) != null) {
+                registros.add(registro);
+                lineas.add(lector.getLinea());
+            }
+        }
+
+        // Then
+        assertEquals(List.of(
+                List.of("nombre", "fecha", "valor"),
+                List.of("Café, té", "2024-01-01", "10.50"),
+                List.of("Dice \"hola\"\nen dos líneas", "2024-01-02", ""),
+                List.of("Último", "", "")), registros);
+        assertEquals(List.of(1L, 2L, 4L, 6L), lineas);
+    }
+
+    @Test
+    void testSiguiente_EntradaInvalida() throws IOException {
+        try (LectorCsv lector = lector("a,\"sin cerrar\n".getBytes(StandardCharsets.UTF_8))) {
+            IOException error = assertThrows(IOException.class, lector::siguiente);
+            assertTrue(error.getMessage().contains("línea 1"));
+        }
+        try (LectorCsv lector = lector(new byte[]{'a', ',', (byte) 0xC3, '\n'})) {
+            assertThrows(CharacterCodingException.class, lector::siguiente);
+        }
+        try (LectorCsv lector = lector(("x".repeat(LectorCsv.MAX_REGISTRO + 1)).getBytes(StandardCharsets.UTF_8))) {
+            assertThrows(IOException.class, lector::siguiente);
+        }
+    }
+
+    private static LectorCsv lector(byte[] contenido) {
+        return new LectorCsv(Channels.newChannel(new ByteArrayInputStream(contenido)), 4);
+    }
+}
@@ -0,0 +1,132 @@
+package com.transaction.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.dto.MensajeOutboxDTO;
+import com.transaction.entity.EventoOutbox;
+import com.transaction.event.TipoCambio;
+import com.transaction.repository.EventoOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the transactional outbox with the in-memory sink.
+ * Not transactional, since outbox rows are only written on commit. Uses its own in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox",
+        "transacciones.outbox.enabled=true",
+        "transacciones.outbox.sumidero=memoria",
+        "transacciones.outbox.intervalo-ms=20"
+})
+class OutboxIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SumideroMemoriaOutbox sumidero;
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        esperarDespacho();
+        sumidero.drenar();
+    }
+
+    @Test
+    void testCrearYPagar_SeEntreganAlSumidero() throws Exception {
+        // When
+        String body = mockMvc.perform(post("/api/transacciones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Outbox\", \"fecha\": \"2020-01-01\", \"valor\": 12.34}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+        mockMvc.perform(post("/api/transacciones/pagar").param("monto", "12.34"))
+                .andExpect(status().isOk());
+
+        // Then
+        esperarDespacho();
+        List<MensajeOutboxDTO> mensajes = sumidero.drenar();
+        assertEquals(List.of(TipoCambio.CREADA, TipoCambio.PAGADA), mensajes.stream().map(MensajeOutboxDTO::getTipo).toList());
+        JsonNode pagada = objectMapper.readTree(objectMapper.writeValueAsString(mensajes.get(1))).get("transaccion");
+        assertEquals(id, pagada.get("id").asLong());
+        assertEquals("PAGADO", pagada.get("estado").asText());
+    }
+
+    @Test
+    void testLoteRevertido_NoEscribeEnElOutbox() throws Exception {
+        // When - la segunda operación falla y revierte la creación
+        mockMvc.perform(post("/api/transacciones/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"modo": "TODO_O_NADA", "operaciones": [
+                                  {"tipo": "CREAR", "datos": {"nombre": "Revertida", "fecha": "2024-02-01", "valor": 50.00}},
+                                  {"tipo": "ELIMINAR", "id": 999999}
+                                ]}
+                                """))
+                .andExpect(status().isConflict());
+
+        // Then
+        esperarDespacho();
+        assertEquals(List.of(), sumidero.drenar());
+    }
+
+    @Test
+    void testReclamoDeOtraInstancia_SeEntregaAlVencer() throws Exception {
+        // Given - un evento reclamado por otra instancia que sigue vigente
+        EventoOutbox evento = eventoOutboxRepository.save(EventoOutbox.builder()
+                .tipo(TipoCambio.CREADA)
+                .transaccionId(1L)
+                .payload("{\"id\":1}")
+                .creadoEn(LocalDateTime.now())
+                .reclamadoPor("otra")
+                .reclamoExpiraMs(System.currentTimeMillis() + 60_000)
+                .build());
+
+        // When
+        Thread.sleep(200);
+
+        // Then - no se entrega mientras dure el reclamo, y sí cuando vence
+        assertEquals(List.of(), sumidero.drenar());
+        evento.setReclamoExpiraMs(System.currentTimeMillis() - 1);
+        eventoOutboxRepository.save(evento);
+        esperarDespacho();
+        assertEquals(List.of(evento.getId()), sumidero.drenar().stream().map(MensajeOutboxDTO::getId).toList());
+    }
+
+    private void esperarDespacho() throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < limite
+                && eventoOutboxRepository.findAll().stream().anyMatch(e -> e.getDespachadoEn() == null)) {
+            Thread.sleep(20);
+        }
+        assertTrue(eventoOutboxRepository.findAll().stream().allMatch(e -> e.getDespachadoEn() != null));
+    }
+}
@@ -0,0 +1,167 @@
+package com.transaction.service;
+
+import com.transaction.dto.PagoJobDTO;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.entity.Transaccion;
+import com.transaction.exception.ServicioNoDisponibleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PagoAsyncService.
+ * Jobs run on the calling thread so their final state can be asserted directly.
+ */
+@ExtendWith(MockitoExtension.class)
+class PagoAsyncServiceTest {
+
+    @Mock
+    private TransaccionService transaccionService;
+
+    @Mock
+    private ArrendamientoPagos arrendamientoPagos;
+
+    private PagoAsyncService pagoAsyncService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(arrendamientoPagos.ejecutar(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+        pagoAsyncService = new PagoAsyncService(transaccionService, arrendamientoPagos, new SyncTaskExecutor(), 2, 60, 5);
+    }
+
+    @Test
+    void testEnviar_PagaEnLotes() {
+        // Given - tres transacciones de 100.00 y lotes de 2
+        List<Transaccion> aPagar = List.of(pendiente(1L), pendiente(2L), pendiente(3L));
+        when(transaccionService.planificarPago(new BigDecimal("300.00")))
+                .thenReturn(new PlanPago(aPagar, null, null));
+        when(transaccionService.pagarLote(List.of(1L, 2L))).thenReturn(new LotePagado(new BigDecimal("200.00"), 1));
+        when(transaccionService.pagarLote(List.of(3L))).thenReturn(new LotePagado(new BigDecimal("100.00"), 2));
+
+        // When
+        PagoJobDTO job = pagoAsyncService.enviar(new BigDecimal("300.00"));
+
+        // Then
+        PagoJobDTO estado = pagoAsyncService.obtenerEstado(job.getId()).orElseThrow();
+        assertEquals(EstadoPagoJob.COMPLETADO, estado.getEstado());
+        assertEquals(3, estado.getTransaccionesPagadas());
+        assertEquals(0, estado.getMontoRestante().compareTo(BigDecimal.ZERO));
+        assertEquals(3, estado.getResultado().getTransaccionesPagadas());
+        verify(transaccionService, times(2)).pagarLote(any());
+    }
+
+    @Test
+    void testEnviar_PlanRechazado_NoPaga() {
+        // Given
+        PaymentResult rechazo = new PaymentResult(0, new BigDecimal("50.00"), new BigDecimal("50.00"), new BigDecimal("100.00"));
+        when(transaccionService.planificarPago(new BigDecimal("50.00")))
+                .thenReturn(new PlanPago(List.of(), null, rechazo));
+
+        // When
+        PagoJobDTO job = pagoAsyncService.enviar(new BigDecimal("50.00"));
+
+        // Then
+        PagoJobDTO estado = pagoAsyncService.obtenerEstado(job.getId()).orElseThrow();
+        assertEquals(EstadoPagoJob.COMPLETADO, estado.getEstado());
+        assertSame(rechazo, estado.getResultado());
+        verify(transaccionService, never()).pagarLote(any());
+    }
+
+    @Test
+    void testEnviar_LoteModificado_Falla() {
+        // Given
+        when(transaccionService.planificarPago(new BigDecimal("100.00")))
+                .thenReturn(new PlanPago(List.of(pendiente(1L)), null, null));
+        when(transaccionService.pagarLote(List.of(1L)))
+                .thenThrow(new IllegalStateException("Las transacciones a pagar fueron modificadas durante el pago"));
+
+        // When
+        PagoJobDTO job = pagoAsyncService.enviar(new BigDecimal("100.00"));
+
+        // Then
+        PagoJobDTO estado = pagoAsyncService.obtenerEstado(job.getId()).orElseThrow();
+        assertEquals(EstadoPagoJob.FALLIDO, estado.getEstado());
+        assertEquals(0, estado.getTransaccionesPagadas());
+        assertNotNull(estado.getError());
+        verify(transaccionService, never()).revertirLotes(any(), any());
+    }
+
+    @Test
+    void testEnviar_LotePosteriorFalla_RevierteLosPagados() {
+        // Given - el segundo lote cambió desde la planificación
+        List<Transaccion> aPagar = List.of(pendiente(1L), pendiente(2L), pendiente(3L));
+        when(transaccionService.planificarPago(new BigDecimal("300.00")))
+                .thenReturn(new PlanPago(aPagar, null, null));
+        when(transaccionService.pagarLote(List.of(1L, 2L))).thenReturn(new LotePagado(new BigDecimal("200.00"), 7));
+        when(transaccionService.pagarLote(List.of(3L)))
+                .thenThrow(new IllegalStateException("Las transacciones a pagar fueron modificadas durante el pago"));
+
+        // When
+        PagoJobDTO job = pagoAsyncService.enviar(new BigDecimal("300.00"));
+
+        // Then
+        PagoJobDTO estado = pagoAsyncService.obtenerEstado(job.getId()).orElseThrow();
+        assertEquals(EstadoPagoJob.FALLIDO, estado.getEstado());
+        assertEquals(0, estado.getTransaccionesPagadas());
+        assertEquals(0, estado.getMontoPagado().compareTo(BigDecimal.ZERO));
+        verify(transaccionService).revertirLotes(List.of(1L, 2L), List.of(7L));
+    }
+
+    @Test
+    void testEnviar_ReversionFalla_CuentaLasQueQuedanPagadas() {
+        // Given
+        List<Transaccion> aPagar = List.of(pendiente(1L), pendiente(2L), pendiente(3L));
+        when(transaccionService.planificarPago(new BigDecimal("300.00")))
+                .thenReturn(new PlanPago(aPagar, null, null));
+        when(transaccionService.pagarLote(List.of(1L, 2L))).thenReturn(new LotePagado(new BigDecimal("200.00"), 7));
+        when(transaccionService.pagarLote(List.of(3L)))
+                .thenThrow(new IllegalStateException("Las transacciones a pagar fueron modificadas durante el pago"));
+        doThrow(new IllegalStateException("Otra instancia tomó el arrendamiento de pagos"))
+                .when(transaccionService).revertirLotes(any(), any());
+
+        // When
+        PagoJobDTO job = pagoAsyncService.enviar(new BigDecimal("300.00"));
+
+        // Then
+        PagoJobDTO estado = pagoAsyncService.obtenerEstado(job.getId()).orElseThrow();
+        assertEquals(EstadoPagoJob.FALLIDO, estado.getEstado());
+        assertEquals(2, estado.getTransaccionesPagadas());
+    }
+
+    @Test
+    void testEnviar_ColaLlena_Rechaza() {
+        // Given
+        pagoAsyncService = new PagoAsyncService(transaccionService, arrendamientoPagos, tarea -> {
+            throw new RejectedExecutionException("cola llena");
+        }, 2, 60, 5);
+
+        // When & Then
+        ServicioNoDisponibleException error = assertThrows(ServicioNoDisponibleException.class,
+                () -> pagoAsyncService.enviar(new BigDecimal("100.00")));
+        assertEquals(5, error.getReintentarSegundos());
+        verifyNoInteractions(transaccionService);
+    }
+
+    private Transaccion pendiente(Long id) {
+        return Transaccion.builder()
+                .id(id)
+                .nombre("Transaction " + id)
+                .fecha(LocalDate.of(2024, 1, id.intValue()))
+                .valor(new BigDecimal("100.00"))
+                .estado(EstadoTransaccion.PENDIENTE)
+                .build();
+    }
+}
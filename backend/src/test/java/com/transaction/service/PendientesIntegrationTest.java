@@ -0,0 +1,146 @@
+package com.transaction.service;
+
+import com.transaction.dto.PendientesDTO;
+import com.transaction.dto.TransaccionCreateDTO;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.repository.SecuenciaCambios;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the in-memory payment queue: it follows the committed changes, and a restart
+ * from the snapshot reads only the later changes from the database. Uses its own in-memory database
+ * and snapshot file.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pendientes",
+        "transacciones.instantanea.enabled=true",
+        "transacciones.instantanea.archivo=" + PendientesIntegrationTest.ARCHIVO
+})
+class PendientesIntegrationTest {
+    static final String ARCHIVO = "target/instantanea-test/pendientes.bin";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private PendientesService pendientesService;
+
+    @Autowired
+    private SecuenciaCambios secuenciaCambios;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testPendientes_SiguenLosCambios() throws Exception {
+        // Given
+        PendientesDTO antes = pendientesService.resumen(0);
+        TransaccionDTO primera = crear("Luz", LocalDate.of(2000, 1, 5), "100.00");
+        crear("Agua", LocalDate.of(2000, 1, 20), "50.00");
+        TransaccionDTO tercera = crear("Gas", LocalDate.of(2000, 2, 1), "30.00");
+
+        // When
+        transaccionService.eliminar(tercera.getId());
+        TransaccionCreateDTO edicion = new TransaccionCreateDTO();
+        edicion.setNombre("Luz");
+        edicion.setFecha(LocalDate.of(2000, 1, 25));
+        edicion.setValor(new BigDecimal("120.00"));
+        transaccionService.editar(primera.getId(), edicion);
+
+        // Then: la edición cambia la fecha y con ella el orden de pago
+        mockMvc.perform(get("/api/transacciones/pendientes").param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cantidad").value(antes.getCantidad() + 2))
+                .andExpect(jsonPath("$.total").value(antes.getTotal().add(new BigDecimal("170.00")).doubleValue()))
+                .andExpect(jsonPath("$.primeras[0].nombre").doesNotExist())
+                .andExpect(jsonPath("$.primeras[0].valor").value(50.00))
+                .andExpect(jsonPath("$.primeras[1].id").value(primera.getId()));
+        mockMvc.perform(get("/api/transacciones/pendientes").param("limite", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testReinicio_CargaLaInstantaneaYSoloLosCambiosPosteriores() throws Exception {
+        // Given: una instantánea con pendientes, y cambios de todo tipo después de ella
+        TransaccionDTO editada = crear("Editada", LocalDate.of(2030, 1, 1), "10.00");
+        TransaccionDTO eliminada = crear("Eliminada", LocalDate.of(2030, 1, 2), "20.00");
+        crear("Pagada", LocalDate.of(1990, 1, 1), "1.00");
+        pendientesService.escribir();
+        // Fila con número de cambio ya cubierto por la marca: solo una lectura completa la vería
+        jdbcTemplate.update("INSERT INTO transacciones (id, nombre, fecha, valor, estado, cambio_seq)"
+                + " VALUES (999999, 'Oculta', DATE '2030-01-03', 5.00, 'PENDIENTE', 1)");
+
+        crear("Nueva", LocalDate.of(2030, 1, 4), "40.00");
+        TransaccionCreateDTO edicion = new TransaccionCreateDTO();
+        edicion.setNombre("Editada");
+        edicion.setFecha(editada.getFecha());
+        edicion.setValor(new BigDecimal("15.00"));
+        transaccionService.editar(editada.getId(), edicion);
+        transaccionService.eliminar(eliminada.getId());
+        transaccionService.pagar(new BigDecimal("1.00"));
+
+        // When
+        PendientesService reiniciado = nuevaInstancia();
+
+        // Then: coincide con la cola que siguió los eventos
+        assertEquals(pendientesService.resumen(1000), reiniciado.resumen(1000));
+
+        // When: la instantánea está dañada
+        byte[] contenido = Files.readAllBytes(Path.of(ARCHIVO));
+        contenido[contenido.length / 2] ^= 1;
+        Files.write(Path.of(ARCHIVO), contenido);
+        PendientesService completo = nuevaInstancia();
+
+        // Then: se leen todas las pendientes, incluida la que la puesta al día no ve
+        PendientesDTO resumen = completo.resumen(1000);
+        assertEquals(pendientesService.resumen(0).getCantidad() + 1, resumen.getCantidad());
+        assertTrue(resumen.getPrimeras().stream().anyMatch(p -> p.getId() == 999999L));
+        jdbcTemplate.update("DELETE FROM transacciones WHERE id = 999999");
+    }
+
+    private PendientesService nuevaInstancia() {
+        PendientesService servicio = new PendientesService(jdbcTemplate, secuenciaCambios, new SimpleMeterRegistry(), ARCHIVO, 3600);
+        servicio.cargar();
+        return servicio;
+    }
+
+    private TransaccionDTO crear(String nombre, LocalDate fecha, String valor) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setNombre(nombre);
+        dto.setFecha(fecha);
+        dto.setValor(new BigDecimal(valor));
+        return transaccionService.crear(dto);
+    }
+}
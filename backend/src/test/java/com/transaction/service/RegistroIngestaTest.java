@@ -0,0 +1,138 @@
+package com.transaction.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RegistroIngesta, reopening the log as after a restart.
+ */
+class RegistroIngestaTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testAgregar_SobreviveAlReinicio() throws IOException {
+        // Given
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            assertEquals(2, registro.agregar(List.of(bytes("a"), bytes("b"))));
+            registro.sincronizar(2);
+        }
+
+        // When
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            // Then
+            List<RegistroIngesta.Entrada> pendientes = registro.pendientes(1);
+            assertEquals(1, pendientes.size());
+            assertEquals(2, pendientes.get(0).id());
+            assertEquals("b", new String(pendientes.get(0).payload(), StandardCharsets.UTF_8));
+            assertEquals(3, registro.agregar(List.of(bytes("c"))));
+        }
+    }
+
+    @Test
+    void testIdentidad_EstableEntreReiniciosYDistintaPorDirectorio(@TempDir Path otro) throws IOException {
+        // Given
+        String identidad;
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            identidad = registro.getIdentidad();
+            assertFalse(registro.isAnteriorAIdentidad());
+        }
+
+        // When / Then
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024);
+             RegistroIngesta otroRegistro = new RegistroIngesta(otro, 1024)) {
+            assertEquals(identidad, registro.getIdentidad());
+            assertNotEquals(identidad, otroRegistro.getIdentidad());
+        }
+    }
+
+    @Test
+    void testIdentidad_RegistroAnteriorSinIdentidad() throws IOException {
+        // Given - un registro escrito antes de que existiera el archivo de identidad
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            registro.agregar(List.of(bytes("a")));
+        }
+        Files.delete(directorio.resolve("registro.id"));
+
+        // When
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            // Then
+            assertTrue(registro.isAnteriorAIdentidad());
+        }
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            assertFalse(registro.isAnteriorAIdentidad());
+        }
+    }
+
+    @Test
+    void testAbrir_DescartaRegistroIncompletoAlFinal() throws IOException {
+        // Given - el último registro quedó a medio escribir
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            registro.agregar(List.of(bytes("completo"), bytes("incompleto")));
+        }
+        Path segmento = segmentos().get(0);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 3);
+        }
+
+        // When
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            // Then
+            assertEquals(1, registro.pendientes(0).size());
+            assertEquals(RegistroIngesta.CABECERA + "completo".length(), Files.size(segmento));
+            assertEquals(2, registro.agregar(List.of(bytes("siguiente"))));
+        }
+    }
+
+    @Test
+    void testLiberarHasta_EliminaSegmentosPersistidos() throws IOException {
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1)) {
+            // Given - segmentos de un registro cada uno
+            registro.agregar(List.of(bytes("a")));
+            registro.agregar(List.of(bytes("b")));
+            registro.agregar(List.of(bytes("c")));
+            assertEquals(3, segmentos().size());
+
+            // When
+            registro.liberarHasta(2);
+
+            // Then - el segmento actual se conserva aunque esté persistido
+            assertEquals(1, segmentos().size());
+            assertEquals(List.of(3L), registro.pendientes(2).stream().map(RegistroIngesta.Entrada::id).toList());
+        }
+    }
+
+    @Test
+    void testContinuarDespuesDe_CheckpointPorDelanteDelRegistro() throws IOException {
+        try (RegistroIngesta registro = new RegistroIngesta(directorio, 1024)) {
+            // When
+            registro.continuarDespuesDe(41);
+
+            // Then
+            assertEquals(42, registro.agregar(List.of(bytes("a"))));
+            assertEquals(1, registro.pendientes(41).size());
+        }
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
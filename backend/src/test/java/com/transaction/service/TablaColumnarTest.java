@@ -0,0 +1,108 @@
+package com.transaction.service;
+
+import com.transaction.entity.EstadoTransaccion;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TablaColumnar: aggregations against a straightforward computation, and the
+ * ordering rules of incremental updates.
+ */
+class TablaColumnarTest {
+
+    @Test
+    void testAgregaciones_CoincidenConElCalculoDirecto() {
+        // Given: suficientes filas para el recorrido en paralelo, con borrados intercalados
+        TablaColumnar tabla = new TablaColumnar(16);
+        Random random = new Random(42);
+        int filas = TablaColumnar.UMBRAL_PARALELO + 10_000;
+        LocalDate inicio = LocalDate.of(2023, 1, 1);
+        Map<Long, Object[]> esperadas = new HashMap<>();
+        for (long id = 1; id <= filas; id++) {
+            String nombre = "Nombre " + random.nextInt(200);
+            LocalDate fecha = inicio.plusDays(random.nextInt(730));
+            BigDecimal valor = BigDecimal.valueOf(random.nextInt(100_000) + 1, 2);
+            EstadoTransaccion estado = random.nextBoolean() ? EstadoTransaccion.PAGADO : EstadoTransaccion.PENDIENTE;
+            tabla.actualizar(id, nombre, fecha, valor, estado, id);
+            esperadas.put(id, new Object[]{nombre, fecha, valor, estado});
+            if (id % 7 == 0) {
+                long eliminada = 1 + random.nextInt((int) id);
+                tabla.eliminar(eliminada);
+                esperadas.remove(eliminada);
+            }
+        }
+        LocalDate desde = LocalDate.of(2023, 3, 15);
+        LocalDate hasta = LocalDate.of(2024, 6, 30);
+
+        // When
+        Map<EstadoTransaccion, TablaColumnar.Total> porEstado = tabla.totalesPorEstado(desde, hasta);
+        List<TablaColumnar.TotalMes> porMes = tabla.totalesPorMes(desde, hasta);
+        List<TablaColumnar.TotalNombre> top = tabla.topNombres(desde, hasta, 5);
+
+        // Then
+        assertEquals(esperadas.size(), tabla.getFilas());
+        long[] cantidadPorEstado = new long[2];
+        long[] centavosPorEstado = new long[2];
+        Map<String, Long> centavosPorMes = new HashMap<>();
+        Map<String, Long> centavosPorNombre = new HashMap<>();
+        for (Object[] fila : esperadas.values()) {
+            LocalDate fecha = (LocalDate) fila[1];
+            if (fecha.isBefore(desde) || fecha.isAfter(hasta)) {
+                continue;
+            }
+            long centavos = ((BigDecimal) fila[2]).unscaledValue().longValue();
+            int estado = ((EstadoTransaccion) fila[3]).ordinal();
+            cantidadPorEstado[estado]++;
+            centavosPorEstado[estado] += centavos;
+            centavosPorMes.merge(fecha.getYear() + "-" + fecha.getMonthValue(), centavos, Long::sum);
+            centavosPorNombre.merge((String) fila[0], centavos, Long::sum);
+        }
+        for (EstadoTransaccion estado : EstadoTransaccion.values()) {
+            assertEquals(cantidadPorEstado[estado.ordinal()], porEstado.get(estado).cantidad());
+            assertEquals(centavosPorEstado[estado.ordinal()], porEstado.get(estado).centavos());
+        }
+        assertEquals(centavosPorMes.size(), porMes.size());
+        for (TablaColumnar.TotalMes mes : porMes) {
+            assertEquals(centavosPorMes.get(mes.anio() + "-" + mes.mes()), mes.centavosPagado() + mes.centavosPendiente());
+        }
+        long maximo = centavosPorNombre.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertEquals(5, top.size());
+        assertEquals(maximo, top.get(0).centavos());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).centavos() >= top.get(i).centavos());
+        }
+    }
+
+    @Test
+    void testActualizar_IgnoraVersionesAnterioresYFilasEliminadas() {
+        // Given
+        TablaColumnar tabla = new TablaColumnar(16);
+        LocalDate fecha = LocalDate.of(2024, 1, 1);
+        tabla.actualizar(1L, "Luz", fecha, new BigDecimal("10.00"), EstadoTransaccion.PAGADO, 5);
+
+        // When: llegan tarde una edición anterior al pago y una edición de una fila ya eliminada
+        tabla.actualizar(1L, "Luz", fecha, new BigDecimal("99.00"), EstadoTransaccion.PENDIENTE, 4);
+        tabla.actualizar(2L, "Gas", fecha, new BigDecimal("5.00"), EstadoTransaccion.PENDIENTE, 6);
+        tabla.eliminar(2L);
+        tabla.actualizar(2L, "Gas", fecha, new BigDecimal("7.00"), EstadoTransaccion.PENDIENTE, 7);
+
+        // Then
+        Map<EstadoTransaccion, TablaColumnar.Total> porEstado = tabla.totalesPorEstado(null, null);
+        assertEquals(1, tabla.getFilas());
+        assertEquals(new TablaColumnar.Total(1, 1000), porEstado.get(EstadoTransaccion.PAGADO));
+        assertEquals(new TablaColumnar.Total(0, 0), porEstado.get(EstadoTransaccion.PENDIENTE));
+    }
+
+    @Test
+    void testTotalesPorMes_TablaVacia() {
+        assertTrue(new TablaColumnar(16).totalesPorMes(null, null).isEmpty());
+    }
+}
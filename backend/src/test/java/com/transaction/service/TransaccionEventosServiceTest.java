@@ -0,0 +1,111 @@
+package com.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.transaction.dto.TransaccionDTO;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.event.TipoCambio;
+import com.transaction.event.TransaccionCambioEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TransaccionEventosService.
+ * Tests event numbering and resuming from a Last-Event-ID.
+ */
+class TransaccionEventosServiceTest {
+
+    private TransaccionEventosService eventosService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        eventosService = new TransaccionEventosService(objectMapper, 60000, 16, 2, 1, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventosService.detener();
+    }
+
+    @Test
+    void testEventosDesde_DevuelveEventosPerdidos() {
+        // Given
+        eventosService.onCambio(cambio(TipoCambio.CREADA, 1L));
+        String primerId = eventosService.ultimoEventoId();
+        eventosService.onCambio(cambio(TipoCambio.PAGADA, 1L));
+
+        // When
+        Optional<List<TransaccionEventosService.EventoEmitido>> perdidos = eventosService.eventosDesde(primerId);
+
+        // Then
+        assertTrue(perdidos.isPresent());
+        assertEquals(1, perdidos.get().size());
+        assertEquals("PAGADA", perdidos.get().get(0).nombre());
+        assertTrue(perdidos.get().get(0).json().contains("\"ids\":[1]"));
+    }
+
+    @Test
+    void testEventosDesde_FueraDelHistorial_RequiereRecarga() {
+        // Given - el historial solo conserva 2 eventos
+        eventosService.onCambio(cambio(TipoCambio.CREADA, 1L));
+        String primerId = eventosService.ultimoEventoId();
+        eventosService.onCambio(cambio(TipoCambio.CREADA, 2L));
+        eventosService.onCambio(cambio(TipoCambio.CREADA, 3L));
+        eventosService.onCambio(cambio(TipoCambio.CREADA, 4L));
+
+        // When & Then
+        assertFalse(eventosService.eventosDesde(primerId).isPresent());
+    }
+
+    @Test
+    void testEventosDesde_MasPerdidosQueLaColaDelSuscriptor_RequiereRecarga() {
+        // Given - historial amplio pero cola de suscriptor de 3 eventos
+        TransaccionEventosService conColaPequena = new TransaccionEventosService(
+                new ObjectMapper().registerModule(new JavaTimeModule()), 60000, 3, 100, 1, 60);
+        try {
+            conColaPequena.onCambio(cambio(TipoCambio.CREADA, 1L));
+            String primerId = conColaPequena.ultimoEventoId();
+            conColaPequena.onCambio(cambio(TipoCambio.CREADA, 2L));
+            conColaPequena.onCambio(cambio(TipoCambio.CREADA, 3L));
+            assertEquals(2, conColaPequena.eventosDesde(primerId).orElseThrow().size());
+
+            // When - el hueco llega a la capacidad de la cola
+            conColaPequena.onCambio(cambio(TipoCambio.CREADA, 4L));
+
+            // Then - aunque sigue en el historial, se envía reset en lugar de desconectarlo como lento
+            assertFalse(conColaPequena.eventosDesde(primerId).isPresent());
+        } finally {
+            conColaPequena.detener();
+        }
+    }
+
+    @Test
+    void testEventosDesde_ClienteAlDia_OIdDesconocido() {
+        // Given
+        eventosService.onCambio(cambio(TipoCambio.CREADA, 1L));
+
+        // When & Then
+        assertTrue(eventosService.eventosDesde(eventosService.ultimoEventoId()).orElseThrow().isEmpty());
+        assertFalse(eventosService.eventosDesde("otro:1").isPresent());
+        assertFalse(eventosService.eventosDesde("invalido").isPresent());
+    }
+
+    private TransaccionCambioEvent cambio(TipoCambio tipo, Long id) {
+        TransaccionDTO dto = new TransaccionDTO();
+        dto.setId(id);
+        dto.setNombre("Transaction " + id);
+        dto.setFecha(LocalDate.of(2024, 1, 1));
+        dto.setValor(new BigDecimal("100.00"));
+        dto.setEstado(tipo == TipoCambio.PAGADA ? EstadoTransaccion.PAGADO : EstadoTransaccion.PENDIENTE);
+        return new TransaccionCambioEvent(tipo, List.of(dto));
+    }
+}
@@ -2,15 +2,25 @@ package com.transaction.service;
 
 import com.transaction.dto.TransaccionCreateDTO;
 import com.transaction.dto.TransaccionDTO;
+import com.transaction.dto.TransaccionFiltroDTO;
 import com.transaction.entity.EstadoTransaccion;
 import com.transaction.entity.Transaccion;
+import com.transaction.event.TipoCambio;
+import com.transaction.event.TransaccionCambioEvent;
+import com.transaction.exception.ParametroInvalidoException;
+import com.transaction.repository.SecuenciaCambios;
+import com.transaction.repository.TransaccionEliminadaRepository;
 import com.transaction.repository.TransaccionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -20,6 +30,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -32,6 +44,21 @@ class TransaccionServiceTest {
     @Mock
     private TransaccionRepository transaccionRepository;
 
+    @Mock
+    private TransaccionEliminadaRepository transaccionEliminadaRepository;
+
+    @Mock
+    private SecuenciaCambios secuenciaCambios;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DiarioPagos diarioPagos;
+
+    @Mock
+    private ArrendamientoPagos arrendamientoPagos;
+
     @InjectMocks
     private TransaccionService transaccionService;
 
@@ -85,22 +112,40 @@ class TransaccionServiceTest {
         assertEquals(createDTO.getValor(), result.getValor());
         assertEquals(EstadoTransaccion.PENDIENTE, result.getEstado());
         verify(transaccionRepository).save(any(Transaccion.class));
+        verify(eventPublisher).publishEvent(argThat((TransaccionCambioEvent e) -> e.getTipo() == TipoCambio.CREADA));
     }
 
     @Test
     void testListarConFiltros() {
         // Given
         List<Transaccion> transacciones = Arrays.asList(transaccionPendiente, transaccionPagada);
-        when(transaccionRepository.findByFilters("Test", LocalDate.of(2024, 1, 1), EstadoTransaccion.PENDIENTE))
+        when(transaccionRepository.findAll(ArgumentMatchers.<Specification<Transaccion>>any(), any(Sort.class)))
                 .thenReturn(transacciones);
+        TransaccionFiltroDTO filtro = new TransaccionFiltroDTO();
+        filtro.setNombre("Test");
+        filtro.setFechaDesde(LocalDate.of(2024, 1, 1));
+        filtro.setSort("fecha,desc");
 
         // When
-        List<TransaccionDTO> result = transaccionService.listar("Test", LocalDate.of(2024, 1, 1), EstadoTransaccion.PENDIENTE);
+        List<TransaccionDTO> result = transaccionService.listar(filtro);
 
         // Then
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(transaccionRepository).findByFilters("Test", LocalDate.of(2024, 1, 1), EstadoTransaccion.PENDIENTE);
+        verify(transaccionRepository).findAll(ArgumentMatchers.<Specification<Transaccion>>any(),
+                eq(Sort.by(Sort.Direction.DESC, "fecha").and(Sort.by(Sort.Direction.DESC, "id"))));
+    }
+
+    @Test
+    void testListarConRangoInvalido() {
+        // Given
+        TransaccionFiltroDTO filtro = new TransaccionFiltroDTO();
+        filtro.setValorMin(new BigDecimal("500"));
+        filtro.setValorMax(new BigDecimal("100"));
+
+        // When & Then
+        assertThrows(ParametroInvalidoException.class, () -> transaccionService.listar(filtro));
+        verifyNoInteractions(transaccionRepository);
     }
 
     @Test
@@ -142,6 +187,7 @@ class TransaccionServiceTest {
         // Then
         verify(transaccionRepository).findById(1L);
         verify(transaccionRepository).deleteById(1L);
+        verify(transaccionEliminadaRepository).save(argThat(e -> e.getId().equals(1L)));
     }
 
     @Test
@@ -172,6 +218,7 @@ class TransaccionServiceTest {
         assertEquals(0, resultado.getTransaccionesPagadas());
         verify(transaccionRepository).findByEstadoOrderByFechaAsc(EstadoTransaccion.PENDIENTE);
         verify(transaccionRepository, never()).save(any(Transaccion.class));
+        verify(diarioPagos).registrarPago(TipoRegistroPago.RECHAZO, new BigDecimal("150.00"), new BigDecimal("150.00"), List.of());
     }
 
     @Test
@@ -207,6 +254,9 @@ class TransaccionServiceTest {
         assertEquals(1, resultado.getTransaccionesPagadas());
         verify(transaccionRepository).findByEstadoOrderByFechaAsc(EstadoTransaccion.PENDIENTE);
         verify(transaccionRepository).save(any(Transaccion.class));
+        verify(eventPublisher).publishEvent(argThat((TransaccionCambioEvent e) -> e.getTipo() == TipoCambio.PAGADA
+                && e.getTransacciones().size() == 1));
+        verify(diarioPagos).registrarPago(TipoRegistroPago.PAGO, new BigDecimal("100.00"), new BigDecimal("0.00"), List.of(1L));
     }
 
     @Test
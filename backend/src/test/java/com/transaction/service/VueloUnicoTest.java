@@ -0,0 +1,74 @@
+package com.transaction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for VueloUnico: shared failures and no reuse after completion.
+ */
+class VueloUnicoTest {
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final Counter ejecutadas = registro.counter("ejecutadas");
+    private final Counter coalescidas = registro.counter("coalescidas");
+    private final VueloUnico<String, Integer> vuelo = new VueloUnico<>(ejecutadas, coalescidas);
+
+    @Test
+    void testEjecutar_ErrorCompartidoConQuienesEsperan() throws Exception {
+        // Given: una llamada retenida que termina fallando
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch fallar = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> primera = hilos.submit(() -> vuelo.ejecutar("clave", () -> {
+                iniciada.countDown();
+                await(fallar);
+                throw new IllegalStateException("falla");
+            }));
+            iniciada.await();
+            Future<Integer> segunda = hilos.submit(() -> vuelo.ejecutar("clave", () -> 1));
+            while (coalescidas.count() == 0) {
+                Thread.sleep(5);
+            }
+
+            // When
+            fallar.countDown();
+
+            // Then: ambas reciben la misma excepción y la segunda nunca se ejecutó
+            Exception error = assertThrows(Exception.class, () -> segunda.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+            assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, () -> primera.get(5, TimeUnit.SECONDS)).getCause());
+            assertEquals(1, ejecutadas.count());
+            assertEquals(0, vuelo.getEnVuelo());
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEjecutar_LlamadasSucesivas_NoReutilizanResultados() {
+        AtomicInteger llamadas = new AtomicInteger();
+
+        assertEquals(1, vuelo.ejecutar("clave", llamadas::incrementAndGet));
+        assertEquals(2, vuelo.ejecutar("clave", llamadas::incrementAndGet));
+        assertEquals(0, coalescidas.count());
+        assertEquals(0, vuelo.getEnVuelo());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
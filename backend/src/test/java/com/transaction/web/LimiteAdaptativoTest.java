@@ -0,0 +1,71 @@
+package com.transaction.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LimiteAdaptativo.
+ */
+class LimiteAdaptativoTest {
+    private static final long OBJETIVO = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void testAdquirir_RechazaAlAlcanzarElLimite() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(2, 1, 10, OBJETIVO, 0.5);
+
+        // When / Then
+        assertTrue(limite.adquirir());
+        assertTrue(limite.adquirir());
+        assertFalse(limite.adquirir());
+        assertEquals(2, limite.getEnVuelo());
+
+        limite.liberar(OBJETIVO / 2, false);
+        assertTrue(limite.adquirir());
+    }
+
+    @Test
+    void testLiberar_ReduceUnaVezPorCongestion() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(10, 2, 20, OBJETIVO, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limite.adquirir());
+        }
+
+        // When: varias respuestas lentas de la misma congestión
+        limite.liberar(OBJETIVO * 2, false);
+        limite.liberar(OBJETIVO * 2, false);
+        limite.liberar(0, true);
+
+        // Then
+        assertEquals(5, limite.getLimite());
+        assertEquals(1, limite.getEnVuelo());
+    }
+
+    @Test
+    void testLiberar_CreceSoloSiSeUsaElLimite() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 5, OBJETIVO, 0.5);
+
+        // When: una petición rápida con el límite casi sin usar
+        limite.adquirir();
+        limite.liberar(OBJETIVO / 2, false);
+
+        // Then
+        assertEquals(4, limite.getLimite());
+
+        // When: respuestas rápidas con la mitad del límite en vuelo
+        for (int i = 0; i < 3; i++) {
+            limite.adquirir();
+            limite.adquirir();
+            limite.liberar(OBJETIVO / 2, false);
+            limite.liberar(OBJETIVO / 2, false);
+        }
+
+        // Then: crece hasta el máximo
+        assertEquals(5, limite.getLimite());
+    }
+}
@@ -0,0 +1,266 @@
+package com.transaction.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the load-shedding filters, invoked directly with mock requests.
+ */
+class LimiteFiltrosTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void testConcurrencia_RechazaEscriturasConRetryAfter() throws Exception {
+        // Given: límite de una escritura y una en curso bloqueada
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(objectMapper, new SimpleMeterRegistry(), 1, 1, 1, 1000, 0.9, 1, 1, 1, 1000);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain bloqueada = (req, res) -> {
+            dentro.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> enCurso = executor.submit(() -> {
+                filtro.doFilter(peticion("PUT", "/api/transacciones/1"), new MockHttpServletResponse(), bloqueada);
+                return null;
+            });
+            assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+            // When
+            MockHttpServletResponse escritura = new MockHttpServletResponse();
+            filtro.doFilter(peticion("POST", "/api/transacciones"), escritura, new MockFilterChain());
+            MockHttpServletResponse lectura = new MockHttpServletResponse();
+            filtro.doFilter(peticion("GET", "/api/transacciones"), lectura, new MockFilterChain());
+
+            // Then
+            assertEquals(503, escritura.getStatus());
+            assertEquals("1", escritura.getHeader("Retry-After"));
+            assertTrue(escritura.getContentAsString().contains("\"status\":503"));
+            assertEquals(200, lectura.getStatus());
+
+            liberar.countDown();
+            enCurso.get(5, TimeUnit.SECONDS);
+            MockHttpServletResponse despues = new MockHttpServletResponse();
+            filtro.doFilter(peticion("POST", "/api/transacciones"), despues, new MockFilterChain());
+            assertEquals(200, despues.getStatus());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrencia_PagosEImportacionesTienenSuPropioLimite() throws Exception {
+        // Given: un pago en curso bloqueado, con límites de uno para las escrituras largas y para las demás
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(objectMapper, new SimpleMeterRegistry(), 1, 1, 1, 1000, 0.9, 1, 1, 1, 1000);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain bloqueada = (req, res) -> {
+            dentro.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> enCurso = executor.submit(() -> {
+                filtro.doFilter(peticion("POST", "/api/transacciones/pagar"), new MockHttpServletResponse(), bloqueada);
+                return null;
+            });
+            assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+            // When
+            MockHttpServletResponse escritura = new MockHttpServletResponse();
+            filtro.doFilter(peticion("POST", "/api/transacciones"), escritura, new MockFilterChain());
+            MockHttpServletResponse importacion = new MockHttpServletResponse();
+            filtro.doFilter(peticion("POST", "/api/transacciones/importaciones"), importacion, new MockFilterChain());
+
+            // Then: el pago no ocupa el límite de las demás escrituras, pero sí el de las largas
+            assertEquals(200, escritura.getStatus());
+            assertEquals(503, importacion.getStatus());
+            assertEquals("1", importacion.getHeader("Retry-After"));
+
+            liberar.countDown();
+            enCurso.get(5, TimeUnit.SECONDS);
+            MockHttpServletResponse despues = new MockHttpServletResponse();
+            filtro.doFilter(peticion("POST", "/api/transacciones/importaciones"), despues, new MockFilterChain());
+            assertEquals(200, despues.getStatus());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConexiones_EsperaUnPermisoYRechazaAlAgotarLaEspera() throws Exception {
+        // Given: un permiso, ocupado por una petición bloqueada
+        LimiteConexionesFilter filtro = new LimiteConexionesFilter(objectMapper, new SimpleMeterRegistry(), 1, 50);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain bloqueada = (req, res) -> {
+            dentro.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> enCurso = executor.submit(() -> {
+                filtro.doFilter(peticion("GET", "/api/transacciones"), new MockHttpServletResponse(), bloqueada);
+                return null;
+            });
+            assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+            // When
+            long inicio = System.nanoTime();
+            MockHttpServletResponse rechazada = new MockHttpServletResponse();
+            filtro.doFilter(peticion("GET", "/api/transacciones/1"), rechazada, new MockFilterChain());
+            long esperaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            MockHttpServletResponse actuator = new MockHttpServletResponse();
+            filtro.doFilter(peticion("GET", "/actuator/health"), actuator, new MockFilterChain());
+
+            // Then
+            assertEquals(503, rechazada.getStatus());
+            assertEquals("1", rechazada.getHeader("Retry-After"));
+            assertTrue(esperaMs >= 40, "Esperó " + esperaMs + " ms");
+            assertEquals(200, actuator.getStatus());
+
+            liberar.countDown();
+            enCurso.get(5, TimeUnit.SECONDS);
+            MockHttpServletResponse despues = new MockHttpServletResponse();
+            filtro.doFilter(peticion("GET", "/api/transacciones/1"), despues, new MockFilterChain());
+            assertEquals(200, despues.getStatus());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testTasa_LimitaCadaClienteConSuCubo() throws Exception {
+        // Given: ráfaga de 2 y un token por minuto, detrás de dos proxies confiables
+        LimiteTasaFilter filtro = new LimiteTasaFilter(objectMapper, new SimpleMeterRegistry(), 1.0 / 60, 2, "X-Forwarded-For",
+                List.of("127.0.0.1", "192.168.0.0/16"), 100);
+
+        // When / Then
+        assertEquals(200, escribir(filtro, "10.0.0.1").getStatus());
+        assertEquals(200, escribir(filtro, "10.0.0.1").getStatus());
+        MockHttpServletResponse rechazada = escribir(filtro, "10.0.0.1");
+        assertEquals(429, rechazada.getStatus());
+        long reintentar = Long.parseLong(rechazada.getHeader("Retry-After"));
+        assertTrue(reintentar > 0 && reintentar <= 60, "Retry-After " + reintentar);
+
+        // Otro cliente tiene su propio cubo
+        assertEquals(200, escribir(filtro, "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void testTasa_CabeceraSoloDesdeProxiesConfiables() throws Exception {
+        // Given: ráfaga de 1; solo 10.1.0.0/16 es un proxy confiable
+        LimiteTasaFilter filtro = new LimiteTasaFilter(objectMapper, new SimpleMeterRegistry(), 1.0 / 60, 1, "X-Forwarded-For",
+                List.of("10.1.0.0/16"), 100);
+
+        // When / Then: un cliente directo no cambia de cubo inventándose la cabecera
+        assertEquals(200, escribir(filtro, "203.0.113.7", "1.1.1.1").getStatus());
+        assertEquals(429, escribir(filtro, "203.0.113.7", "2.2.2.2").getStatus());
+
+        // Tras el proxy, cuenta la dirección que añadió él; lo que el cliente puso a su izquierda no
+        assertEquals(200, escribir(filtro, "10.1.2.3", "1.1.1.1, 198.51.100.9").getStatus());
+        assertEquals(429, escribir(filtro, "10.1.2.3", "2.2.2.2, 198.51.100.9").getStatus());
+    }
+
+    @Test
+    void testConexiones_PermisosSinLosHilosEnSegundoPlano() {
+        // When / Then: secuencia, outbox, ingesta e instantánea, más los pagos asíncronos y la copia a la réplica
+        assertEquals(5, LimiteConexionesFilter.permisosPorDefecto(10, 1, false));
+        assertEquals(3, LimiteConexionesFilter.permisosPorDefecto(10, 2, true));
+        assertEquals(2, LimiteConexionesFilter.permisosPorDefecto(4, 1, false));
+    }
+
+    @Test
+    void testConexiones_CambiosTomaDosPermisos() throws Exception {
+        // Given: dos permisos, uno ocupado por una petición bloqueada
+        LimiteConexionesFilter filtro = new LimiteConexionesFilter(objectMapper, new SimpleMeterRegistry(), 2, 50);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain bloqueada = (req, res) -> {
+            dentro.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> enCurso = executor.submit(() -> {
+                filtro.doFilter(peticion("GET", "/api/transacciones/1"), new MockHttpServletResponse(), bloqueada);
+                return null;
+            });
+            assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+            // When
+            MockHttpServletResponse cambios = new MockHttpServletResponse();
+            filtro.doFilter(peticion("GET", "/api/transacciones/cambios"), cambios, new MockFilterChain());
+            MockHttpServletResponse lectura = new MockHttpServletResponse();
+            filtro.doFilter(peticion("GET", "/api/transacciones"), lectura, new MockFilterChain());
+
+            // Then: no entra con una sola conexión libre, y devuelve las dos al terminar
+            assertEquals(503, cambios.getStatus());
+            assertEquals(200, lectura.getStatus());
+            liberar.countDown();
+            enCurso.get(5, TimeUnit.SECONDS);
+            MockHttpServletResponse despues = new MockHttpServletResponse();
+            filtro.doFilter(peticion("GET", "/api/transacciones/cambios"), despues, new MockFilterChain());
+            assertEquals(200, despues.getStatus());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static MockHttpServletResponse escribir(LimiteTasaFilter filtro, String remoto, String reenviadoPor) throws Exception {
+        MockHttpServletRequest request = peticion("PUT", "/api/transacciones/1");
+        request.setRemoteAddr(remoto);
+        request.addHeader("X-Forwarded-For", reenviadoPor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletResponse escribir(LimiteTasaFilter filtro, String cliente) throws Exception {
+        MockHttpServletRequest request = peticion("PUT", "/api/transacciones/1");
+        request.addHeader("X-Forwarded-For", cliente + ", 192.168.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest peticion(String metodo, String uri) {
+        return new MockHttpServletRequest(metodo, uri);
+    }
+}
@@ -3,6 +3,7 @@ package com.transaction.dto;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -15,8 +16,9 @@ import java.time.LocalDate;
  */
 @Data
 public class TransaccionCreateDTO {
-    /** Name or description of the transaction. Required. */
+    /** Name or description of the transaction. Required, at most 255 characters (the column length). */
     @NotBlank
+    @Size(max = 255)
     private String nombre;
 
     /** Date of the transaction (yyyy-MM-dd). Required. */
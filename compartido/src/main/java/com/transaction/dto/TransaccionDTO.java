@@ -1,4 +1,5 @@
 package com.transaction.dto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.transaction.entity.EstadoTransaccion;
 import lombok.Data;
 
@@ -22,4 +23,7 @@ public class TransaccionDTO {
     private BigDecimal valor;
     /** Current state of the transaction (PENDIENTE or PAGADO). */
     private EstadoTransaccion estado;
+    /** Row version (change sequence number of the latest write). Used for ETags, not serialized. */
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,36 @@
+package com.transaction.dto;
+
+import com.transaction.entity.EstadoTransaccion;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) with the query parameters of the transaction list.
+ * <p>
+ * Every filter is optional; only the ones present are applied. Ranges are inclusive.
+ */
+@Data
+public class TransaccionFiltroDTO {
+    /** Name filter (partial match, case-insensitive). */
+    private String nombre;
+    /** Exact date filter (yyyy-MM-dd). */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fecha;
+    /** Lower bound of the date (yyyy-MM-dd). */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaDesde;
+    /** Upper bound of the date (yyyy-MM-dd). */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaHasta;
+    /** Lower bound of the value. */
+    private BigDecimal valorMin;
+    /** Upper bound of the value. */
+    private BigDecimal valorMax;
+    /** State filter (PENDIENTE or PAGADO). */
+    private EstadoTransaccion estado;
+    /** Sort order as {@code campo[,asc|desc]}, where campo is fecha, valor or id. Defaults to id ascending. */
+    private String sort;
+}
@@ -0,0 +1,41 @@
+package com.transaction.exception;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Error response model for consistent error formatting.
+ * <p>
+ * Shared by the servlet and reactive exception handlers so both APIs return the same error body.
+ */
+public class ErrorResponse {
+    private LocalDateTime timestamp;
+    private int status;
+    private String error;
+    private String message;
+    private Map<String, String> details;
+
+    public ErrorResponse(LocalDateTime timestamp, int status, String error, String message, Map<String, String> details) {
+        this.timestamp = timestamp;
+        this.status = status;
+        this.error = error;
+        this.message = message;
+        this.details = details;
+    }
+
+    // Getters and setters
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+    
+    public Map<String, String> getDetails() { return details; }
+    public void setDetails(Map<String, String> details) { this.details = details; }
+}
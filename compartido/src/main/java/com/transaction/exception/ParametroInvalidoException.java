@@ -0,0 +1,12 @@
+package com.transaction.exception;
+
+/**
+ * Exception thrown when a request parameter has a valid type but an invalid value
+ * (e.g., an unknown sort field or an inverted range). Answered with 400 Bad Request.
+ */
+public class ParametroInvalidoException extends RuntimeException {
+
+    public ParametroInvalidoException(String message) {
+        super(message);
+    }
+}
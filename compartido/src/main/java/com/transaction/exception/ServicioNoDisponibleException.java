@@ -0,0 +1,24 @@
+package com.transaction.exception;
+
+/**
+ * Exception thrown when a request cannot be served because of a temporary infrastructure fault
+ * (e.g., the change sequence mark could not be published). Answered with 503 Service Unavailable and
+ * a Retry-After header, so clients retry instead of treating it as a business conflict.
+ */
+public class ServicioNoDisponibleException extends RuntimeException {
+    private final long reintentarSegundos;
+
+    public ServicioNoDisponibleException(String message, long reintentarSegundos) {
+        super(message);
+        this.reintentarSegundos = reintentarSegundos;
+    }
+
+    /**
+     * Gets the seconds after which the request may be retried.
+     *
+     * @return Value for the Retry-After header
+     */
+    public long getReintentarSegundos() {
+        return reintentarSegundos;
+    }
+}
@@ -0,0 +1,161 @@
+package com.transaction.service;
+
+import com.transaction.dto.TransaccionFiltroDTO;
+import com.transaction.entity.EstadoTransaccion;
+import com.transaction.exception.ParametroInvalidoException;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Business rules of the transaction API that do not depend on how transactions are stored.
+ * <p>
+ * Lives in the {@code compartido} module, on which both the servlet/JPA stack and the reactive module
+ * depend, so both enforce identical payment, immutability and list parameter rules.
+ * It must only depend on the DTOs, {@link EstadoTransaccion}, {@link PaymentResult} and Spring Data's {@link Sort}.
+ */
+public final class ReglasTransaccion {
+    private static final Set<String> CAMPOS_ORDENABLES = Set.of("fecha", "valor", "id");
+    private static final List<String> CAMPOS_LISTA = List.of("id", "nombre", "fecha", "valor", "estado");
+
+    /**
+     * How much of the pending transactions an amount pays.
+     *
+     * @param cantidad       Number of pending transactions, oldest first, that the amount pays
+     * @param montoRequerido Value of the first pending transaction left unpaid, or null if none remains
+     * @param rechazo        Result to return without paying anything, or null if the payment can be executed
+     */
+    public record Cobertura(int cantidad, BigDecimal montoRequerido, PaymentResult rechazo) {
+    }
+
+    private ReglasTransaccion() {
+    }
+
+    /**
+     * Applies the payment rules to the values of the pending transactions.
+     * <p>
+     * Transactions are paid oldest first and only while the amount covers each one fully. The amount must
+     * match the covered prefix exactly: an amount that pays nothing, or that exceeds what it pays, is rejected.
+     *
+     * @param valores Values of the pending transactions ordered by date ascending
+     * @param monto   Amount to pay
+     * @return The coverage of the amount
+     */
+    public static Cobertura cubrir(List<BigDecimal> valores, BigDecimal monto) {
+        if (valores.isEmpty()) {
+            return new Cobertura(0, null, new PaymentResult(0, monto, monto, null));
+        }
+
+        // Calcular el monto total requerido para las transacciones que se pueden pagar completamente
+        BigDecimal montoTotalRequerido = BigDecimal.ZERO;
+        int transaccionesQueSePuedenPagar = 0;
+
+        for (BigDecimal valor : valores) {
+            BigDecimal montoNecesario = montoTotalRequerido.add(valor);
+            if (montoNecesario.compareTo(monto) <= 0) {
+                montoTotalRequerido = montoNecesario;
+                transaccionesQueSePuedenPagar++;
+            } else {
+                break;
+            }
+        }
+
+        // Si no hay transacciones que se puedan pagar completamente, el monto es insuficiente
+        if (transaccionesQueSePuedenPagar == 0) {
+            return new Cobertura(0, null, new PaymentResult(0, monto, monto, valores.get(0)));
+        }
+
+        // Si hay transacciones que se pueden pagar pero el monto excede el total requerido, rechazar el pago
+        if (monto.compareTo(montoTotalRequerido) > 0) {
+            return new Cobertura(0, null, new PaymentResult(0, monto, monto, montoTotalRequerido));
+        }
+
+        // El monto es exacto: se pagan las primeras transacciones y se informa lo que requiere la siguiente
+        BigDecimal montoRequerido = transaccionesQueSePuedenPagar < valores.size()
+                ? valores.get(transaccionesQueSePuedenPagar)
+                : null;
+        return new Cobertura(transaccionesQueSePuedenPagar, montoRequerido, null);
+    }
+
+    /**
+     * Checks that a transaction may still be edited or deleted.
+     *
+     * @param estado    Current state of the transaction
+     * @param operacion Verb of the attempted operation, for the error message
+     * @throws IllegalStateException if the transaction is already paid
+     */
+    public static void verificarNoPagada(EstadoTransaccion estado, String operacion) {
+        if (estado == EstadoTransaccion.PAGADO) {
+            throw new IllegalStateException("No se puede " + operacion + " una transacción pagada");
+        }
+    }
+
+    /**
+     * Checks the ranges of the list filters.
+     *
+     * @param filtro List filters
+     * @throws ParametroInvalidoException if a range has its lower bound above its upper bound
+     */
+    public static void validarRangos(TransaccionFiltroDTO filtro) {
+        if (filtro.getFechaDesde() != null && filtro.getFechaHasta() != null
+                && filtro.getFechaDesde().isAfter(filtro.getFechaHasta())) {
+            throw new ParametroInvalidoException("fechaDesde no puede ser posterior a fechaHasta");
+        }
+        if (filtro.getValorMin() != null && filtro.getValorMax() != null
+                && filtro.getValorMin().compareTo(filtro.getValorMax()) > 0) {
+            throw new ParametroInvalidoException("valorMin no puede ser mayor que valorMax");
+        }
+    }
+
+    /**
+     * Parses a sort parameter of the form {@code campo[,asc|desc]}.
+     * <p>
+     * Sorts on fecha or valor are broken by id, so pages and ETags are stable.
+     *
+     * @param sort Sort parameter (nullable, defaults to id ascending)
+     * @return The sort order
+     * @throws ParametroInvalidoException if the field or direction is not supported
+     */
+    public static Sort orden(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] partes = sort.split(",");
+        String campo = partes[0].trim();
+        if (!CAMPOS_ORDENABLES.contains(campo) || partes.length > 2) {
+            throw new ParametroInvalidoException("Orden no soportado: " + sort + " (campos: fecha, valor, id)");
+        }
+        Sort.Direction direccion = Sort.Direction.ASC;
+        if (partes.length == 2) {
+            direccion = Sort.Direction.fromOptionalString(partes[1].trim())
+                    .orElseThrow(() -> new ParametroInvalidoException("Dirección de orden no soportada: " + partes[1]));
+        }
+        Sort orden = Sort.by(direccion, campo);
+        return campo.equals("id") ? orden : orden.and(Sort.by(direccion, "id"));
+    }
+
+    /**
+     * Parses a sparse fieldset ({@code fields} parameter) of the transaction list.
+     *
+     * @param campos Requested fields, in response order; repeated fields are kept once
+     * @return The fields to select
+     * @throws ParametroInvalidoException if the list is empty or a field is not supported
+     */
+    public static List<String> campos(List<String> campos) {
+        Set<String> resultado = new LinkedHashSet<>();
+        for (String campo : campos) {
+            String nombre = campo.trim();
+            if (!CAMPOS_LISTA.contains(nombre)) {
+                throw new ParametroInvalidoException("Campo no soportado: " + campo + " (campos: " + String.join(", ", CAMPOS_LISTA) + ")");
+            }
+            resultado.add(nombre);
+        }
+        if (resultado.isEmpty()) {
+            throw new ParametroInvalidoException("fields debe incluir al menos un campo");
+        }
+        return List.copyOf(resultado);
+    }
+}
@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+# Prueba de humo de la imagen nativa: arranca el binario, crea, lista y paga transacciones,
+# y compara tiempo de arranque y memoria residente (RSS) contra el jar en la JVM.
+#
+# Uso (desde la raíz del proyecto, con GraalVM 22.3+ como JAVA_HOME):
+#   mvn -pl backend -am -Pnative -DskipTests native:compile   # genera backend/target/transaction-management-system
+#   mvn -DskipTests package                                     # genera el jar para la comparación
+#   scripts/native-smoke-test.sh [puerto]
+set -euo pipefail
+
+PUERTO=${1:-18081}
+TARGET="$(cd "$(dirname "$0")/.." && pwd)/backend/target"
+BINARIO="$TARGET/transaction-management-system"
+JAR=$(ls "$TARGET"/transaction-management-system-*.jar | grep -v -- '-startup' | head -1)
+API="http://localhost:$PUERTO/api/transacciones"
+
+[[ -x "$BINARIO" ]] || { echo "No se encontró $BINARIO; ejecute: mvn -pl backend -am -Pnative -DskipTests native:compile" >&2; exit 1; }
+
+PID=""
+detener() { [[ -n "$PID" ]] && kill "$PID" 2> /dev/null && wait "$PID" 2> /dev/null || true; PID=""; }
+trap detener EXIT
+
+# Arranca la aplicación y deja en ARRANQUE_MS los ms hasta la primera respuesta exitosa
+arrancar() {
+    local inicio
+    inicio=$(date +%s%N)
+    "$@" --server.port="$PUERTO" --spring.jpa.show-sql=false > /dev/null 2>&1 &
+    PID=$!
+    until curl -sf "$API" > /dev/null 2>&1; do
+        kill -0 "$PID" 2> /dev/null || { echo "La aplicación terminó antes de responder" >&2; exit 1; }
+        sleep 0.01
+    done
+    ARRANQUE_MS=$(( ($(date +%s%N) - inicio) / 1000000 ))
+}
+
+rss_mb() {
+    awk '/VmRSS/ { printf "%.1f", $2 / 1024 }' "/proc/$PID/status"
+}
+
+# Flujo de humo: crear, listar y pagar
+ejercitar() {
+    local cuerpo
+    for i in 1 2; do
+        curl -sf -X POST "$API" -H 'Content-Type: application/json' \
+            -d "{\"nombre\":\"Humo $i\",\"fecha\":\"2024-01-0$i\",\"valor\":100.00}" > /dev/null
+    done
+    cuerpo=$(curl -sf "$API?estado=PENDIENTE")
+    [[ $(grep -o '"id"' <<< "$cuerpo" | wc -l) -eq 2 ]] || { echo "Listado inesperado: $cuerpo" >&2; exit 1; }
+    cuerpo=$(curl -sf -X POST "$API/pagar?monto=200.00")
+    grep -q "Pago exitoso" <<< "$cuerpo" || { echo "Pago inesperado: $cuerpo" >&2; exit 1; }
+    cuerpo=$(curl -sf "$API?estado=PAGADO")
+    [[ $(grep -o '"id"' <<< "$cuerpo" | wc -l) -eq 2 ]] || { echo "Pagadas inesperadas: $cuerpo" >&2; exit 1; }
+}
+
+arrancar "$BINARIO"
+ejercitar
+NATIVO_MS=$ARRANQUE_MS
+NATIVO_RSS=$(rss_mb)
+detener
+echo "Imagen nativa: prueba de humo OK"
+
+arrancar java -jar "$JAR"
+ejercitar
+JVM_MS=$ARRANQUE_MS
+JVM_RSS=$(rss_mb)
+detener
+
+printf '%-12s %18s %12s\n' "" "primera petición" "RSS"
+printf '%-12s %15s ms %9s MB\n' "nativo" "$NATIVO_MS" "$NATIVO_RSS"
+printf '%-12s %15s ms %9s MB\n' "JVM" "$JVM_MS" "$JVM_RSS"
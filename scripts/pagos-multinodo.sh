@@ -0,0 +1,93 @@
+#!/usr/bin/env bash
+# Prueba de pagos con dos instancias sobre la misma base de datos: arranca H2 en modo servidor y dos
+# backends que la comparten, reparte la carga entre ambos y muestra el rendimiento y las métricas del
+# arrendamiento de pagos (espera, pagos rechazados por espera agotada y pagos abortados por token vencido).
+# Se ejecuta dos veces: con el arrendamiento (pagos serializados entre nodos) y sin él, como referencia.
+#
+# Uso (desde la raíz del proyecto):
+#   mvn -DskipTests package
+#   scripts/pagos-multinodo.sh [segundos] [hilos] [mezcla]
+set -euo pipefail
+
+DURACION=${1:-20}
+HILOS=${2:-16}
+MEZCLA=${3:-crear=50,pagar=50}
+PUERTO_H2=19092
+PUERTOS=(18081 18082)
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+JAR=$(ls "$RAIZ"/backend/target/transaction-management-system-*.jar | grep -v -- '-startup' | head -1)
+H2_JAR=${H2_JAR:-$(find "$HOME/.m2/repository/com/h2database/h2" -name 'h2-*.jar' | sort | tail -1)}
+TRABAJO="$RAIZ/backend/target/pagos-multinodo"
+PIDS=()
+
+detener() {
+    for pid in "${PIDS[@]}"; do
+        kill "$pid" 2> /dev/null || true
+    done
+    for pid in "${PIDS[@]}"; do
+        wait "$pid" 2> /dev/null || true
+    done
+    PIDS=()
+}
+trap detener EXIT
+
+esperar() {
+    local url=$1 pid=$2
+    until curl -sf "$url/actuator/health" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "La instancia de $url terminó antes de responder" >&2
+            return 1
+        fi
+        sleep 0.2
+    done
+}
+
+# Valor de una estadística (COUNT, TOTAL_TIME, MAX) de una métrica de un nodo
+metrica() {
+    curl -sf "$1/actuator/metrics/$2" \
+        | grep -o "\"statistic\":\"$3\",\"value\":[0-9.E-]*" | sed 's/.*://' | awk '{ printf "%g", $1 }'
+}
+
+ejecutar() {
+    local etiqueta=$1 arrendamiento=$2 urls="" n=0
+    rm -rf "$TRABAJO"
+    mkdir -p "$TRABAJO"
+    java -cp "$H2_JAR" org.h2.tools.Server -tcp -tcpPort "$PUERTO_H2" -ifNotExists -baseDir "$TRABAJO" > /dev/null 2>&1 &
+    PIDS+=($!)
+    sleep 1
+    # La segunda instancia arranca cuando la primera ya creó el esquema
+    for puerto in "${PUERTOS[@]}"; do
+        n=$((n + 1))
+        java -jar "$JAR" --server.port="$puerto" \
+            --spring.datasource.url="jdbc:h2:tcp://localhost:$PUERTO_H2/mem:pagos;DB_CLOSE_DELAY=-1" \
+            --spring.jpa.hibernate.ddl-auto=update --spring.jpa.show-sql=false --transacciones.limite.concurrencia.enabled=false \
+            --transacciones.diario.directorio="$TRABAJO/nodo-$n/diario" \
+            --transacciones.arrendamiento.enabled="$arrendamiento" \
+            --transacciones.arrendamiento.titular="nodo-$n" > "$TRABAJO/nodo-$n.log" 2>&1 &
+        PIDS+=($!)
+        esperar "http://localhost:$puerto" "$!"
+        urls="$urls${urls:+,}http://localhost:$puerto"
+    done
+
+    echo "== $etiqueta"
+    (cd "$RAIZ" && mvn -q -pl backend -am -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.transaction.benchmark.CargaHttp \
+        -Dbenchmark="--url $urls --hilos $HILOS --duracion $DURACION --mezcla $MEZCLA")
+    if [ "$arrendamiento" = true ]; then
+        n=0
+        for puerto in "${PUERTOS[@]}"; do
+            n=$((n + 1))
+            local url="http://localhost:$puerto" pagos total
+            pagos=$(metrica "$url" transacciones.arrendamiento.espera COUNT)
+            total=$(metrica "$url" transacciones.arrendamiento.espera TOTAL_TIME)
+            echo "nodo-$n: $pagos pagos con arrendamiento, espera media $(awk -v t="$total" -v c="$pagos" \
+                'BEGIN { printf "%.1f", (c > 0 ? 1000 * t / c : 0) }') ms, máxima $(awk -v m="$(metrica "$url" \
+                transacciones.arrendamiento.espera MAX)" 'BEGIN { printf "%.1f", 1000 * m }') ms," \
+                "agotadas $(metrica "$url" transacciones.arrendamiento.agotadas COUNT)," \
+                "perdidas $(metrica "$url" transacciones.arrendamiento.perdidas COUNT)"
+        done
+    fi
+    detener
+}
+
+ejecutar "Con arrendamiento de pagos" true
+ejecutar "Sin arrendamiento (sin coordinación entre nodos)" false
@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Compara la pila servlet (Tomcat + JPA) con la reactiva (WebFlux + R2DBC, módulo backend-reactive)
+# bajo la misma mezcla de listar, obtener, crear y pagar. Cada pila se arranca sola, se precarga con
+# transacciones y recibe la misma carga; se muestran rendimiento y percentiles por operación.
+#
+# Uso (desde la raíz del proyecto):
+#   mvn -DskipTests package && mvn -q -pl backend -am -Pbenchmark test-compile
+#   scripts/reactive-load-test.sh [segundos] [hilos] [mezcla] [precarga] [puerto]
+set -euo pipefail
+
+DURACION=${1:-20}
+HILOS=${2:-64}
+MEZCLA=${3:-listar=20,obtener=40,crear=30,pagar=10}
+PRECARGA=${4:-500}
+PUERTO=${5:-18080}
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+JAR_SERVLET=$(ls "$RAIZ"/backend/target/transaction-management-system-*.jar | grep -v -- '-startup' | head -1)
+JAR_REACTIVO=$(ls "$RAIZ"/backend-reactive/target/transaction-management-system-reactive-*.jar | head -1)
+URL="http://localhost:$PUERTO"
+
+carga() {
+    java -cp "$RAIZ/backend/target/test-classes" com.transaction.benchmark.CargaHttp --url "$URL" "$@"
+}
+
+ejecutar() {
+    local etiqueta=$1 pid
+    shift
+    java "$@" --server.port="$PUERTO" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf "$URL/actuator/health" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "La aplicación terminó antes de responder" >&2
+            return 1
+        fi
+        sleep 0.2
+    done
+
+    # Precarga: la lista y obtener trabajan sobre datos, y el calentamiento del JIT no cuenta en la medición
+    carga --hilos 4 --duracion 5 --mezcla crear=1 > /dev/null
+    while [ "$(curl -s "$URL/api/transacciones" | grep -o '"id"' | wc -l)" -lt "$PRECARGA" ]; do
+        carga --hilos 4 --duracion 2 --mezcla crear=1 > /dev/null
+    done
+
+    echo "== $etiqueta"
+    carga --hilos "$HILOS" --duracion "$DURACION" --mezcla "$MEZCLA"
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+ejecutar "Servlet (Tomcat + JPA)" -jar "$JAR_SERVLET" --spring.jpa.show-sql=false --transacciones.limite.concurrencia.enabled=false
+ejecutar "Reactiva (WebFlux + R2DBC)" -jar "$JAR_REACTIVO"
@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Prueba de carga del enrutamiento lectura/escritura: arranca el backend con el perfil "replica",
+# ejecuta una mezcla de lecturas y escrituras y muestra cuántas conexiones fueron a cada pool.
+# Se ejecuta dos veces: sin cookies (todas las lecturas a la réplica) y con cookies, donde cada hilo
+# lee sus propias escrituras desde la primaria durante la ventana de transacciones.replica.lectura-propia-segundos.
+#
+# Uso (desde la raíz del proyecto):
+#   mvn -DskipTests package
+#   scripts/replica-load-test.sh [segundos] [hilos] [mezcla] [puerto]
+set -euo pipefail
+
+DURACION=${1:-20}
+HILOS=${2:-16}
+MEZCLA=${3:-listar=45,obtener=45,crear=10}
+PUERTO=${4:-18080}
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+JAR=$(ls "$RAIZ"/backend/target/transaction-management-system-*.jar | grep -v -- '-startup' | head -1)
+URL="http://localhost:$PUERTO"
+
+# Valor actual del contador de conexiones para un destino (primaria o replica)
+conexiones() {
+    curl -sf "$URL/actuator/metrics/transacciones.datasource.conexiones?tag=destino:$1" \
+        | sed -E 's/.*"value":([0-9.E]+).*/\1/' | awk '{ printf "%d", $1 }'
+}
+
+ejecutar() {
+    local etiqueta=$1 opciones=$2 pid primaria replica
+    java -jar "$JAR" --server.port="$PUERTO" --spring.profiles.active=replica --spring.jpa.show-sql=false > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf "$URL/actuator/health" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "La aplicación terminó antes de responder" >&2
+            return 1
+        fi
+        sleep 0.2
+    done
+
+    (cd "$RAIZ" && mvn -q -pl backend -am -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.transaction.benchmark.CargaHttp \
+        -Dbenchmark="--url $URL --hilos $HILOS --duracion $DURACION --mezcla $MEZCLA $opciones")
+    primaria=$(conexiones primaria)
+    replica=$(conexiones replica)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+
+    echo "$etiqueta: conexiones primaria $primaria, réplica $replica" \
+        "($(( 100 * primaria / (primaria + replica) ))% en la primaria; sin réplica sería 100%)"
+}
+
+ejecutar "Sin lectura propia" ""
+ejecutar "Con lectura propia (cookies)" "--cookies"
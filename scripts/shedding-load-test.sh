@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Prueba de carga de la limitación de escrituras: arranca el backend con un pool de conexiones pequeño y
+# ejecuta a la vez un grupo de lectores y otro mucho mayor de escritores (crear y pagar).
+# Se ejecuta dos veces, sin y con el limitador de concurrencia adaptativo, y muestra las latencias de los
+# lectores y cuántas escrituras se rechazaron con 503. Los escritores esperan el Retry-After de cada 503, como
+# un cliente que respeta la cabecera; sin esa espera, con pocos núcleos, el propio generador se come la CPU
+# reintentando y las lecturas empeoran por eso y no por el servidor.
+#
+# Uso (desde la raíz del proyecto):
+#   mvn -DskipTests package && mvn -q -pl backend -am -Pbenchmark test-compile
+#   scripts/shedding-load-test.sh [segundos] [hilos-escritores] [hilos-lectores] [puerto]
+set -euo pipefail
+
+DURACION=${1:-20}
+ESCRITORES=${2:-64}
+LECTORES=${3:-4}
+PUERTO=${4:-18080}
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+JAR=$(ls "$RAIZ"/backend/target/transaction-management-system-*.jar | grep -v -- '-startup' | head -1)
+URL="http://localhost:$PUERTO"
+SALIDA=$(mktemp -d)
+trap 'rm -rf "$SALIDA"' EXIT
+
+carga() {
+    java -cp "$RAIZ/backend/target/test-classes" com.transaction.benchmark.CargaHttp \
+        --url "$URL" --hilos "$1" --duracion "$DURACION" --mezcla "$2" "${@:3}"
+}
+
+# Valor actual del contador de rechazos de un límite de concurrencia (concurrencia o largas)
+rechazos() {
+    curl -sf "$URL/actuator/metrics/transacciones.limite.rechazos?tag=motivo:$1" \
+        | sed -E 's/.*"value":([0-9.E]+).*/\1/' | awk '{ printf "%d", $1 }' || echo 0
+}
+
+ejecutar() {
+    local etiqueta=$1 habilitado=$2 pid escritores
+    java -jar "$JAR" --server.port="$PUERTO" --spring.jpa.show-sql=false \
+        --spring.datasource.hikari.maximum-pool-size=4 \
+        --transacciones.limite.concurrencia.enabled="$habilitado" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf "$URL/actuator/health" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "La aplicación terminó antes de responder" >&2
+            return 1
+        fi
+        sleep 0.2
+    done
+
+    carga "$ESCRITORES" crear=50,pagar=50 --respetar-retry-after > "$SALIDA/escritores" &
+    escritores=$!
+    carga "$LECTORES" listar=50,obtener=50 > "$SALIDA/lectores"
+    wait "$escritores"
+    echo "== $etiqueta (rechazos: $(rechazos concurrencia) escrituras, $(rechazos largas) pagos)"
+    echo "Lectores:"
+    cat "$SALIDA/lectores"
+    echo "Escritores:"
+    cat "$SALIDA/escritores"
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+ejecutar "Sin limitador" false
+ejecutar "Con limitador adaptativo" true
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Compara el arranque del backend: jar estándar (Main) vs. perfil "startup" (AOT + AppCDS + lazy init).
+# Mide el tiempo hasta la primera petición exitosa a GET /api/transacciones.
+#
+# Uso (desde la raíz del proyecto):
+#   mvn clean -Pstartup -DskipTests package
+#   scripts/startup-benchmark.sh [iteraciones] [puerto]
+set -euo pipefail
+
+ITERACIONES=${1:-5}
+PUERTO=${2:-18080}
+TARGET="$(cd "$(dirname "$0")/.." && pwd)/backend/target"
+JAR_ESTANDAR=$(ls "$TARGET"/transaction-management-system-*.jar | grep -v -- '-startup' | head -1)
+DIR_STARTUP="$TARGET/startup"
+JAR_STARTUP=$(ls "$DIR_STARTUP"/*-startup.jar | head -1)
+
+if [[ ! -f "$DIR_STARTUP/app.jsa" ]]; then
+    echo "No se encontró $DIR_STARTUP/app.jsa; ejecute primero: mvn clean -Pstartup -DskipTests package" >&2
+    exit 1
+fi
+
+# Arranca la aplicación con el comando dado y devuelve los ms hasta la primera respuesta 200
+medir() {
+    local inicio fin pid
+    inicio=$(date +%s%N)
+    "$@" --server.port="$PUERTO" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf "http://localhost:$PUERTO/api/transacciones" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "La aplicación terminó antes de responder" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    fin=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $(( (fin - inicio) / 1000000 ))
+}
+
+# Mediana de una lista de números
+mediana() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2 ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+estandar=()
+optimizado=()
+for ((i = 1; i <= ITERACIONES; i++)); do
+    estandar+=("$(medir java -jar "$JAR_ESTANDAR")")
+    optimizado+=("$(cd "$DIR_STARTUP" && medir java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+        -Dspring.profiles.active=startup -jar "$JAR_STARTUP")")
+    echo "Iteración $i: estándar ${estandar[-1]} ms, optimizado ${optimizado[-1]} ms"
+done
+
+echo "Mediana hasta la primera petición exitosa:"
+echo "  estándar (java -jar, Main):     $(printf '%s\n' "${estandar[@]}" | mediana) ms"
+echo "  optimizado (AOT + AppCDS + lazy): $(printf '%s\n' "${optimizado[@]}" | mediana) ms"
@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Compara hilos de plataforma con hilos virtuales bajo una mezcla de listar, crear y pagar.
+# Arranca el backend dos veces con el mismo pool de conexiones: con el pool de hilos de Tomcat
+# (server.tomcat.threads.max) y con el perfil "virtual", donde LimiteConexionesFilter limita las peticiones
+# al tamaño del pool. Muestra el rendimiento y los percentiles de cada operación y los rechazos por conexiones.
+#
+# Requiere Java 21. Uso (desde la raíz del proyecto):
+#   mvn -Pjava21 -DskipTests package && mvn -q -pl backend -am -Pbenchmark test-compile
+#   scripts/virtual-threads-benchmark.sh [segundos] [clientes] [hilos-tomcat] [mezcla] [puerto]
+set -euo pipefail
+
+DURACION=${1:-30}
+CLIENTES=${2:-1000}
+HILOS_TOMCAT=${3:-200}
+MEZCLA=${4:-listar=60,crear=20,pagar=20}
+PUERTO=${5:-18080}
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+JAR=$(ls "$RAIZ"/backend/target/transaction-management-system-*.jar | grep -v -- '-startup' | head -1)
+URL="http://localhost:$PUERTO"
+
+VERSION=$(java -XshowSettings:properties -version 2>&1 | sed -nE 's/^ *java\.specification\.version = ([0-9]+).*/\1/p')
+if [ "${VERSION:-0}" -lt 21 ]; then
+    echo "Se necesita Java 21 o superior para los hilos virtuales (encontrado: Java $VERSION)" >&2
+    exit 1
+fi
+
+# Valor actual del contador de rechazos por falta de conexiones
+rechazos() {
+    curl -sf "$URL/actuator/metrics/transacciones.limite.rechazos?tag=motivo:conexiones" \
+        | sed -E 's/.*"value":([0-9.E]+).*/\1/' | awk '{ printf "%d", $1 }' || echo 0
+}
+
+ejecutar() {
+    local etiqueta=$1 pid
+    shift
+    java -jar "$JAR" --server.port="$PUERTO" --spring.jpa.show-sql=false \
+        --transacciones.limite.concurrencia.enabled=false "$@" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf "$URL/actuator/health" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "La aplicación terminó antes de responder" >&2
+            return 1
+        fi
+        sleep 0.2
+    done
+
+    echo "== $etiqueta"
+    java -cp "$RAIZ/backend/target/test-classes" com.transaction.benchmark.CargaHttp \
+        --url "$URL" --hilos "$CLIENTES" --duracion "$DURACION" --mezcla "$MEZCLA"
+    echo "Rechazos por conexiones: $(rechazos)"
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+ejecutar "Hilos de plataforma (Tomcat: $HILOS_TOMCAT hilos)" --server.tomcat.threads.max="$HILOS_TOMCAT"
+ejecutar "Hilos virtuales" --spring.profiles.active=virtual